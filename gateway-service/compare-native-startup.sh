@@ -0,0 +1,95 @@
+#!/bin/bash
+
+# Compares cold start time and resident memory of the JVM image (Dockerfile) and the GraalVM native image
+# (Dockerfile.native). Both run with the test,emulator profiles against the functional-test infrastructure
+# (WireMock, Firestore emulator, fake GCS), so neither needs GCP credentials.
+#
+# For each image, RUNS times: start a fresh container, time until /auth/status first answers 200, send a short
+# burst of API requests, then read the RSS of the gateway process. Prints a markdown table with the medians.
+#
+# Usage: ./compare-native-startup.sh            (RUNS=5, BURST=200 by default)
+#        SKIP_BUILD=true ./compare-native-startup.sh   to reuse already built images
+
+set -euo pipefail
+
+cd "$(dirname "$0")"
+
+RUNS=${RUNS:-5}
+BURST=${BURST:-200}
+PROJECT=gateway-startup-bench
+NETWORK="${PROJECT}_func-test-network"
+COMPOSE="docker compose -p ${PROJECT} -f ../docker-compose.functional-tests.yml"
+JVM_IMAGE=gateway-service:bench-jvm
+NATIVE_IMAGE=gateway-service:bench-native
+
+GATEWAY_ENV=(
+    -e SPRING_PROFILES_ACTIVE=test,emulator
+    -e FIREBASE_PROJECT_ID=colean-func-test
+    -e FIREBASE_EMULATOR_HOST=firestore-emulator
+    -e FIREBASE_EMULATOR_PORT=8080
+    -e GCS_EMULATOR_HOST=http://fake-gcs:4443
+    -e GCS_BUCKET=colearnwithfreya-assets-test
+    -e GCS_PROJECT_ID=test-project
+    -e WIREMOCK_BASE_URL=http://wiremock:8080
+)
+
+cleanup() {
+    docker rm -f gateway-bench >/dev/null 2>&1 || true
+    ${COMPOSE} --profile infra down >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+if [ "${SKIP_BUILD:-false}" != "true" ]; then
+    echo "Building images..."
+    docker build -q -t "${JVM_IMAGE}" -f Dockerfile .
+    docker build -q -t "${NATIVE_IMAGE}" -f Dockerfile.native --build-arg NATIVE_PROFILES=test,emulator .
+fi
+
+echo "Starting functional-test infrastructure..."
+${COMPOSE} --profile infra up -d --wait wiremock firestore fake-gcs
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+# Prints "<startup ms> <rss MiB>" for one cold start of the given image
+measure() {
+    local image=$1
+    docker rm -f gateway-bench >/dev/null 2>&1 || true
+
+    local start end
+    start=$(date +%s%N)
+    docker run -d --name gateway-bench --network "${NETWORK}" -p 18080:8080 "${GATEWAY_ENV[@]}" "${image}" >/dev/null
+    until curl -sf -o /dev/null -A "HealthCheck/1.0" http://localhost:18080/auth/status; do
+        sleep 0.02
+    done
+    end=$(date +%s%N)
+
+    for _ in $(seq "${BURST}"); do
+        curl -s -o /dev/null -H "Authorization: Bearer valid-bench-token" http://localhost:18080/api/stories/version
+    done
+
+    # Largest RSS in the container is the gateway process (java or the native binary), in KiB
+    local rss_kib
+    rss_kib=$(docker top gateway-bench -eo rss | tail -n +2 | sort -n | tail -1)
+
+    docker rm -f gateway-bench >/dev/null
+    echo "$(( (end - start) / 1000000 )) $(( rss_kib / 1024 ))"
+}
+
+report() {
+    local label=$1 image=$2 results
+    results=$(for _ in $(seq "${RUNS}"); do measure "${image}"; done)
+    local startup rss
+    startup=$(echo "${results}" | awk '{ print $1 }' | median)
+    rss=$(echo "${results}" | awk '{ print $2 }' | median)
+    echo "| ${label} | ${startup} | ${rss} |"
+}
+
+echo
+echo "Median of ${RUNS} cold starts, RSS after ${BURST} requests:"
+echo
+echo "| Build | Time to first 200 (ms) | RSS (MiB) |"
+echo "|-------|------------------------|-----------|"
+report "JVM (Dockerfile)" "${JVM_IMAGE}"
+report "Native (Dockerfile.native)" "${NATIVE_IMAGE}"
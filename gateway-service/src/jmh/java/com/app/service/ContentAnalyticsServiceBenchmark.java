@@ -0,0 +1,107 @@
+package com.app.service;
+
+import com.app.dto.AnalyticsEventBatchDTO;
+import com.app.dto.AnalyticsEventBatchDTO.AnalyticsEvent;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Events per second through {@link ContentAnalyticsService#processBatch} for full 500-event batches
+ * against a Prometheus registry, as in production.
+ *
+ * Batches are rebuilt with fresh String instances for every label, like a deserialised request body, so
+ * the numbers include hashing and comparing label values rather than identity hits.
+ *
+ * Run with {@code ./gradlew jmh}; compare the events/s score per thread before and after changes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ContentAnalyticsServiceBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int DISTINCT_BATCHES = 64;
+
+    private static final String[] CONTENT_EVENTS = {
+            "story_opened", "story_completed", "story_abandoned", "instrument_selected", "practise_session"
+    };
+    private static final String[] SESSION_EVENTS = {"session_started", "session_ended", "onboarding_step", "app_error"};
+    private static final String[] PLATFORMS = {"ios", "android"};
+    private static final String[] LOCALES = {"en", "es", "de", "pl", "fr"};
+
+    /** Number of distinct story ids events are spread across */
+    @Param({"50"})
+    public int stories;
+
+    private ContentAnalyticsService service;
+    private AnalyticsEventBatchDTO[] batches;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new ContentAnalyticsService(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+
+        Random random = new Random(42);
+        batches = new AnalyticsEventBatchDTO[DISTINCT_BATCHES];
+        for (int b = 0; b < DISTINCT_BATCHES; b++) {
+            batches[b] = batch(random);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int processBatch() {
+        AnalyticsEventBatchDTO batch = batches[next];
+        next = (next + 1) % DISTINCT_BATCHES;
+        return service.processBatch(batch);
+    }
+
+    private AnalyticsEventBatchDTO batch(Random random) {
+        AnalyticsEventBatchDTO batch = new AnalyticsEventBatchDTO();
+        batch.setSessionId(fresh("bench-session"));
+        batch.setPlatform(fresh(PLATFORMS[random.nextInt(PLATFORMS.length)]));
+        batch.setAppVersion(fresh("1." + random.nextInt(3) + ".0"));
+        batch.setLocale(fresh(LOCALES[random.nextInt(LOCALES.length)]));
+
+        List<AnalyticsEvent> events = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            AnalyticsEvent event = new AnalyticsEvent();
+            Map<String, String> properties = new HashMap<>();
+            if (random.nextInt(5) == 0) {
+                event.setEvent(fresh(SESSION_EVENTS[random.nextInt(SESSION_EVENTS.length)]));
+                properties.put(fresh("durationBucket"), fresh("10-30min"));
+            } else {
+                event.setEvent(fresh(CONTENT_EVENTS[random.nextInt(CONTENT_EVENTS.length)]));
+                properties.put(fresh("storyId"), fresh("story-" + random.nextInt(stories)));
+                properties.put(fresh("category"), fresh(random.nextBoolean() ? "bedtime" : "adventure"));
+                // Accepted in the payload but never promoted to a label
+                properties.put(fresh("pagesViewed"), fresh(Integer.toString(random.nextInt(40))));
+            }
+            event.setProperties(properties);
+            events.add(event);
+        }
+        batch.setEvents(events);
+        return batch;
+    }
+
+    private static String fresh(String value) {
+        return new String(value.toCharArray());
+    }
+}
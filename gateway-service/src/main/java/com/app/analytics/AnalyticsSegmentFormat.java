@@ -0,0 +1,239 @@
+package com.app.analytics;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Binary format of analytics spool segments.
+ *
+ * A segment is a 5-byte header ("CLAS" + version) followed by records. Every string (event name, label,
+ * property key or value) is written once per segment as a STRING record, which implicitly assigns it the next
+ * dictionary id; EVENT records then refer to strings by id, so a segment of a few hundred distinct values and
+ * millions of events costs a handful of bytes per event before compression. Integers are unsigned LEB128
+ * varints.
+ *
+ * <pre>
+ *   STRING := 0x01 len:varint utf8[len]
+ *   EVENT  := 0x02 epochMinute:varint event:id platform:id appVersion:id locale:id
+ *             count:varint (key:id value:id)*
+ * </pre>
+ *
+ * A segment cut short by a crash is readable up to its last complete record.
+ */
+public final class AnalyticsSegmentFormat {
+
+    static final byte[] MAGIC = {'C', 'L', 'A', 'S'};
+    static final int VERSION = 1;
+
+    private static final int TAG_STRING = 1;
+    private static final int TAG_EVENT = 2;
+    private static final int MAX_STRING_BYTES = 1024;
+
+    /** File suffix of a segment still being written. */
+    public static final String OPEN_SUFFIX = ".seg.open";
+    /** File suffix of a closed segment waiting to be compressed. */
+    public static final String CLOSED_SUFFIX = ".seg";
+    /** File suffix of a rolled, gzip-compressed segment. */
+    public static final String COMPRESSED_SUFFIX = ".seg.gz";
+
+    private AnalyticsSegmentFormat() {
+    }
+
+    /**
+     * One spooled event. Properties keep the order they were written in.
+     */
+    public record SpooledEvent(long epochMinute, String event, String platform, String appVersion, String locale,
+                               Map<String, String> properties) {}
+
+    /**
+     * Appends events to one segment. Not thread-safe.
+     */
+    public static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+
+        public Writer(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(out);
+            this.out.write(MAGIC);
+            this.out.writeByte(VERSION);
+        }
+
+        public void write(SpooledEvent event) throws IOException {
+            int eventId = id(event.event());
+            int platformId = id(event.platform());
+            int appVersionId = id(event.appVersion());
+            int localeId = id(event.locale());
+            int[] properties = new int[event.properties().size() * 2];
+            int i = 0;
+            for (Map.Entry<String, String> property : event.properties().entrySet()) {
+                properties[i++] = id(property.getKey());
+                properties[i++] = id(property.getValue());
+            }
+
+            out.writeByte(TAG_EVENT);
+            writeVarint(out, event.epochMinute());
+            writeVarint(out, eventId);
+            writeVarint(out, platformId);
+            writeVarint(out, appVersionId);
+            writeVarint(out, localeId);
+            writeVarint(out, event.properties().size());
+            for (int value : properties) {
+                writeVarint(out, value);
+            }
+        }
+
+        /** Bytes written so far, including the header. */
+        public long size() {
+            return out.size();
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private int id(String value) throws IOException {
+            Integer existing = dictionary.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_STRING_BYTES) {
+                bytes = Arrays.copyOf(bytes, MAX_STRING_BYTES);
+            }
+            int id = dictionary.size();
+            out.writeByte(TAG_STRING);
+            writeVarint(out, bytes.length);
+            out.write(bytes);
+            dictionary.put(value, id);
+            return id;
+        }
+    }
+
+    /**
+     * Streams events back out of a segment. Not thread-safe.
+     */
+    public static final class Reader implements Closeable {
+
+        private final DataInputStream in;
+        private final List<String> dictionary = new ArrayList<>();
+
+        public Reader(InputStream in) throws IOException {
+            this.in = new DataInputStream(in);
+            byte[] magic = new byte[MAGIC.length];
+            this.in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not an analytics spool segment");
+            }
+            int version = this.in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported analytics segment version: " + version);
+            }
+        }
+
+        /**
+         * Open a segment file, decompressing it if it has been rolled.
+         */
+        public static Reader open(Path file) throws IOException {
+            InputStream raw = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+            try {
+                return new Reader(file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(raw, 64 * 1024) : raw);
+            } catch (IOException e) {
+                raw.close();
+                throw e;
+            }
+        }
+
+        /**
+         * @return the next event, or null at the end of the segment (including a truncated final record)
+         */
+        public SpooledEvent next() throws IOException {
+            try {
+                while (true) {
+                    int tag = in.read();
+                    if (tag < 0) {
+                        return null;
+                    }
+                    if (tag == TAG_STRING) {
+                        int length = (int) readVarint(in);
+                        if (length > MAX_STRING_BYTES) {
+                            throw new IOException("Corrupt analytics segment: string of " + length + " bytes");
+                        }
+                        byte[] bytes = new byte[length];
+                        in.readFully(bytes);
+                        dictionary.add(new String(bytes, StandardCharsets.UTF_8));
+                    } else if (tag == TAG_EVENT) {
+                        long epochMinute = readVarint(in);
+                        String event = lookup(readVarint(in));
+                        String platform = lookup(readVarint(in));
+                        String appVersion = lookup(readVarint(in));
+                        String locale = lookup(readVarint(in));
+                        int count = (int) readVarint(in);
+                        Map<String, String> properties = new LinkedHashMap<>();
+                        for (int i = 0; i < count; i++) {
+                            properties.put(lookup(readVarint(in)), lookup(readVarint(in)));
+                        }
+                        return new SpooledEvent(epochMinute, event, platform, appVersion, locale, properties);
+                    } else {
+                        throw new IOException("Corrupt analytics segment: unknown record tag " + tag);
+                    }
+                }
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private String lookup(long id) throws IOException {
+            if (id >= dictionary.size()) {
+                throw new IOException("Corrupt analytics segment: unknown string id " + id);
+            }
+            return dictionary.get((int) id);
+        }
+    }
+
+    static void writeVarint(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt analytics segment: varint too long");
+    }
+}
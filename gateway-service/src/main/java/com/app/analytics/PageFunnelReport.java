@@ -0,0 +1,179 @@
+package com.app.analytics;
+
+import com.app.analytics.AnalyticsSegmentFormat.SpooledEvent;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Offline page-level story funnel from the analytics spool.
+ *
+ * Streams every closed segment once, keeping only a fixed-size histogram per story: opens, completions, and
+ * abandons by last page. Memory is bounded by {@code --max-stories} x {@code --max-pages}; stories past the
+ * cap are folded into {@value #OTHER_STORY} and pages past the cap into the last page bucket. Output is CSV on
+ * stdout with one row per story and page:
+ *
+ * <pre>
+ *   storyId,page,reached,abandoned_here,completed
+ * </pre>
+ *
+ * where {@code reached} is opens minus abandons on an earlier page and {@code completed} is the story total.
+ *
+ * Usage: {@code ./gradlew analyticsFunnel -Pspool=<dir> [-PfunnelArgs="--max-pages 100 --max-stories 5000"]}
+ */
+public final class PageFunnelReport {
+
+    static final String OTHER_STORY = "(other)";
+
+    private static final String STORY_OPENED = "story_opened";
+    private static final String STORY_COMPLETED = "story_completed";
+    private static final String STORY_ABANDONED = "story_abandoned";
+
+    private final int maxPages;
+    private final int maxStories;
+    private final Map<String, StoryFunnel> stories = new HashMap<>();
+
+    /** Counters for one story; abandonedAt[p] counts abandons whose last page was p. */
+    static final class StoryFunnel {
+        long opened;
+        long completed;
+        final long[] abandonedAt;
+
+        StoryFunnel(int maxPages) {
+            this.abandonedAt = new long[maxPages + 1];
+        }
+    }
+
+    PageFunnelReport(int maxPages, int maxStories) {
+        this.maxPages = Math.max(1, maxPages);
+        this.maxStories = Math.max(1, maxStories);
+    }
+
+    void add(SpooledEvent event) {
+        String storyId = event.properties().get("storyId");
+        if (storyId == null) {
+            return;
+        }
+        switch (event.event()) {
+            case STORY_OPENED -> funnel(storyId).opened++;
+            case STORY_COMPLETED -> funnel(storyId).completed++;
+            case STORY_ABANDONED -> {
+                Integer lastPage = page(event.properties().get("lastPage"));
+                if (lastPage != null) {
+                    funnel(storyId).abandonedAt[Math.min(lastPage, maxPages)]++;
+                }
+            }
+            default -> {
+                // Not part of the story funnel
+            }
+        }
+    }
+
+    /**
+     * Read every closed segment in the spool directory, oldest first.
+     *
+     * @return number of segments read
+     */
+    int addSpool(Path directory) throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.endsWith(AnalyticsSegmentFormat.COMPRESSED_SUFFIX)
+                        || name.endsWith(AnalyticsSegmentFormat.CLOSED_SUFFIX);
+            }).sorted().toList();
+        }
+        for (Path segment : segments) {
+            try (AnalyticsSegmentFormat.Reader reader = AnalyticsSegmentFormat.Reader.open(segment)) {
+                SpooledEvent event;
+                while ((event = reader.next()) != null) {
+                    add(event);
+                }
+            } catch (IOException e) {
+                System.err.println("Skipping unreadable segment " + segment.getFileName() + ": " + e.getMessage());
+            }
+        }
+        return segments.size();
+    }
+
+    void writeCsv(PrintStream out) {
+        out.println("storyId,page,reached,abandoned_here,completed");
+        for (Map.Entry<String, StoryFunnel> entry : new TreeMap<>(stories).entrySet()) {
+            StoryFunnel funnel = entry.getValue();
+            int lastPage = 0;
+            for (int page = 0; page < funnel.abandonedAt.length; page++) {
+                if (funnel.abandonedAt[page] > 0) {
+                    lastPage = page;
+                }
+            }
+            long reached = funnel.opened;
+            for (int page = 0; page <= lastPage; page++) {
+                out.println(csv(entry.getKey()) + "," + page + "," + reached + "," + funnel.abandonedAt[page]
+                        + "," + funnel.completed);
+                reached -= funnel.abandonedAt[page];
+            }
+        }
+    }
+
+    StoryFunnel story(String storyId) {
+        return stories.get(storyId);
+    }
+
+    private StoryFunnel funnel(String storyId) {
+        StoryFunnel funnel = stories.get(storyId);
+        if (funnel == null) {
+            String key = stories.size() < maxStories ? storyId : OTHER_STORY;
+            funnel = stories.computeIfAbsent(key, k -> new StoryFunnel(maxPages));
+        }
+        return funnel;
+    }
+
+    private static Integer page(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            int page = Integer.parseInt(value);
+            return page >= 0 ? page : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = null;
+        int maxPages = 100;
+        int maxStories = 5000;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--max-pages" -> maxPages = Integer.parseInt(args[++i]);
+                case "--max-stories" -> maxStories = Integer.parseInt(args[++i]);
+                default -> directory = Paths.get(args[i]);
+            }
+        }
+        if (directory == null || !Files.isDirectory(directory)) {
+            System.err.println("Usage: PageFunnelReport <spool-directory> [--max-pages N] [--max-stories N]");
+            System.exit(2);
+        }
+
+        PageFunnelReport report = new PageFunnelReport(maxPages, maxStories);
+        int segments = report.addSpool(directory);
+        System.err.println("Read " + segments + " segments from " + directory.toAbsolutePath());
+        report.writeCsv(System.out);
+    }
+}
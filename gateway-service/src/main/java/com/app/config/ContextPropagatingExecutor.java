@@ -0,0 +1,55 @@
+package com.app.config;
+
+import com.app.deadline.RequestDeadline;
+import org.slf4j.MDC;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Executor wrapper that carries the submitting thread's MDC (requestId, path), Spring Security context and
+ * {@link RequestDeadline} onto the thread that runs the task, and restores the worker's own context afterwards.
+ *
+ * Needed wherever request work hops threads: pooled workers would otherwise log without a requestId, and
+ * virtual threads start with an empty context every time.
+ */
+public final class ContextPropagatingExecutor implements Executor {
+
+    private final Executor delegate;
+
+    public ContextPropagatingExecutor(Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        RequestDeadline deadline = RequestDeadline.current().orElse(null);
+        delegate.execute(() -> {
+            Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            SecurityContext previousSecurityContext = SecurityContextHolder.getContext();
+            RequestDeadline previousDeadline = RequestDeadline.current().orElse(null);
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            } else {
+                MDC.clear();
+            }
+            SecurityContextHolder.setContext(securityContext);
+            RequestDeadline.set(deadline);
+            try {
+                task.run();
+            } finally {
+                if (previousMdc != null) {
+                    MDC.setContextMap(previousMdc);
+                } else {
+                    MDC.clear();
+                }
+                SecurityContextHolder.setContext(previousSecurityContext);
+                RequestDeadline.set(previousDeadline);
+            }
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package com.app.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback AsyncAppender that counts the events it drops.
+ *
+ * AsyncAppender discards DEBUG/INFO silently once the queue passes its discarding threshold, and with
+ * neverBlock drops anything that finds the queue full. Both are counted per appender name here and exported
+ * as app.logging.events.dropped by {@link LoggingMetricsConfig}. Logback starts before the Spring context
+ * (and any MeterRegistry) exists, hence the static registry of counters.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    private static final Map<String, LongAdder> DROPPED = new ConcurrentHashMap<>();
+
+    private LongAdder dropped = new LongAdder();
+
+    /** Dropped-event counters by appender name, for every started appender. */
+    public static Map<String, LongAdder> droppedByAppender() {
+        return Collections.unmodifiableMap(DROPPED);
+    }
+
+    @Override
+    public void start() {
+        dropped = DROPPED.computeIfAbsent(getName(), name -> new LongAdder());
+        super.start();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (isNeverBlock() && getRemainingCapacity() == 0) {
+            // AsyncAppender's offer() would fail without telling anyone
+            dropped.increment();
+            return;
+        }
+        super.append(event);
+    }
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        // Only consulted once the queue is past the discarding threshold
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            dropped.increment();
+        }
+        return discardable;
+    }
+}
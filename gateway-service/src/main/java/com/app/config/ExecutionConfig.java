@@ -0,0 +1,36 @@
+package com.app.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Threads used for blocking work that runs off the request thread.
+ *
+ * With {@code spring.threads.virtual.enabled=true} Spring Boot already runs Tomcat requests, @Scheduled jobs
+ * and the application task executor on virtual threads. This adds the same switch for repository calls:
+ * {@link #BLOCKING_IO_EXECUTOR} is a thread-per-task virtual executor, so a request waiting on Firestore holds
+ * neither a Tomcat worker nor a common-pool thread. With it off, repositories keep running on the common
+ * ForkJoinPool as before. Both modes propagate MDC and the security context.
+ */
+@Configuration
+public class ExecutionConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionConfig.class);
+
+    public static final String BLOCKING_IO_EXECUTOR = "blockingIoExecutor";
+
+    @Bean(name = BLOCKING_IO_EXECUTOR)
+    public Executor blockingIoExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        logger.info("Blocking I/O executor: {}", virtualThreads ? "virtual threads" : "common ForkJoinPool");
+        return new ContextPropagatingExecutor(virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("blocking-io-", 0).factory())
+                : ForkJoinPool.commonPool());
+    }
+}
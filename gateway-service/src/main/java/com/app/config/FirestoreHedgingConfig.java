@@ -0,0 +1,39 @@
+package com.app.config;
+
+import com.app.repository.impl.FirestoreHedgedReader;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes rolling client-side percentiles on app.firestore.operation.duration, which FirestoreHedgedReader
+ * takes its hedge delay from. Only registered when hedging is on, so the extra percentile series (and the
+ * per-timer ring buffers behind them) are not paid for otherwise.
+ */
+@Configuration
+@ConditionalOnProperty(name = "firestore.hedging.enabled", havingValue = "true")
+public class FirestoreHedgingConfig {
+
+    static final String FIRESTORE_OPERATION_DURATION = "app.firestore.operation.duration";
+
+    @Bean
+    public MeterFilter firestoreOperationPercentiles(@Value("${firestore.hedging.percentile:0.95}") double percentile) {
+        double hedgePercentile = FirestoreHedgedReader.effectivePercentile(percentile);
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!FIRESTORE_OPERATION_DURATION.equals(id.getName())) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentiles(0.5, hedgePercentile, 0.99)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
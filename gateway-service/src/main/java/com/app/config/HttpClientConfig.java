@@ -1,15 +1,20 @@
 package com.app.config;
 
+import com.app.deadline.RequestDeadline;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
 import java.time.Duration;
 
 @Configuration
@@ -22,12 +27,52 @@ public class HttpClientConfig {
     public RestTemplate defaultRestTemplate(RestTemplateBuilder builder) {
         Duration timeout = Duration.ofSeconds(Math.max(1, defaultTimeoutSeconds));
         return builder
+                .requestFactory(DeadlineBoundRequestFactory::new)
                 .setConnectTimeout(timeout)
                 .setReadTimeout(timeout)
-                .additionalInterceptors(requestIdInterceptor())
+                .additionalInterceptors(requestIdInterceptor(), deadlineInterceptor())
                 .build();
     }
 
+    /**
+     * Skips calls once the inbound request's deadline has passed, and reports a read timeout caused by the
+     * deadline as a deadline-exceeded for that host rather than a plain I/O error.
+     */
+    private ClientHttpRequestInterceptor deadlineInterceptor() {
+        return (request, body, execution) -> {
+            String downstream = request.getURI().getHost();
+            RequestDeadline.checkBudget(downstream);
+            try {
+                return execution.execute(request, body);
+            } catch (SocketTimeoutException e) {
+                RequestDeadline.checkBudget(downstream);
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Caps connect and read timeouts at the remaining request budget, so e.g. a JWKS fetch late in a request
+     * gives up when the client does instead of after the full configured timeout.
+     */
+    static class DeadlineBoundRequestFactory extends SimpleClientHttpRequestFactory {
+        @Override
+        protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+            super.prepareConnection(connection, httpMethod);
+            RequestDeadline deadline = RequestDeadline.current().orElse(null);
+            if (deadline != null) {
+                // 0 would mean "no timeout" to HttpURLConnection
+                int budgetMs = (int) Math.max(1, Math.min(Integer.MAX_VALUE, deadline.remainingMillis()));
+                connection.setConnectTimeout(capped(connection.getConnectTimeout(), budgetMs));
+                connection.setReadTimeout(capped(connection.getReadTimeout(), budgetMs));
+            }
+        }
+
+        private static int capped(int configuredMs, int budgetMs) {
+            return configuredMs > 0 ? Math.min(configuredMs, budgetMs) : budgetMs;
+        }
+    }
+
     private ClientHttpRequestInterceptor requestIdInterceptor() {
         return (request, body, execution) -> {
             String rid = currentRequestId();
@@ -346,6 +346,27 @@ public class JwtConfig {
         throw new RuntimeException("Firebase public key not found for key ID: " + keyId);
     }
 
+    /**
+     * Fetch the Google, Apple and Firebase signing keys into the key cache, so the first sign-in after a cold
+     * start does not wait on the key set round trips. Returns the number of keys cached.
+     */
+    public int preloadPublicKeys() throws IOException, java.security.GeneralSecurityException {
+        int cached = 0;
+        for (Map.Entry<String, String> jwks : Map.of("google_", GOOGLE_CERTS_URL, "apple_", APPLE_KEYS_URL).entrySet()) {
+            JsonNode keys = objectMapper.readTree(restTemplate.getForObject(jwks.getValue(), String.class)).get("keys");
+            for (JsonNode key : keys) {
+                publicKeyCache.put(jwks.getKey() + key.get("kid").asText(), buildRSAPublicKey(key));
+                cached++;
+            }
+        }
+        JsonNode firebaseKeys = objectMapper.readTree(restTemplate.getForObject(FIREBASE_KEYS_URL, String.class));
+        for (Map.Entry<String, JsonNode> cert : firebaseKeys.properties()) {
+            publicKeyCache.put("firebase_" + cert.getKey(), extractPublicKeyFromX509(cert.getValue().asText()));
+            cached++;
+        }
+        return cached;
+    }
+
     private RSAPublicKey extractPublicKeyFromX509(String certPem) throws java.security.cert.CertificateException {
         String cleanCert = certPem
                 .replace("-----BEGIN CERTIFICATE-----", "")
@@ -0,0 +1,25 @@
+package com.app.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exports app.logging.events.dropped{appender}: log events the async appenders in logback-spring.xml
+ * discarded under load (see {@link CountingAsyncAppender}).
+ */
+@Configuration
+public class LoggingMetricsConfig {
+
+    @Bean
+    public MeterBinder droppedLogEvents() {
+        return registry -> CountingAsyncAppender.droppedByAppender().forEach((appender, dropped) ->
+                FunctionCounter.builder("app.logging.events.dropped", dropped, LongAdder::sum)
+                        .description("Log events dropped by an async appender because its queue was full")
+                        .tag("appender", appender)
+                        .register(registry));
+    }
+}
@@ -0,0 +1,95 @@
+package com.app.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reachability metadata for the GraalVM native image (./gradlew nativeCompile -Pnative), for what Spring AOT
+ * cannot infer on its own. Only read while processing AOT; a no-op on the JVM.
+ *
+ * - com.app.model and com.app.dto: Firestore's class mapper and Jackson reach them reflectively (getters,
+ *   setters, fields, no-arg constructors), often through nested classes no controller signature mentions.
+ * - java-jwt: the Jackson (de)serializers behind JWT.decode and JWT.create.
+ * - Resilience4j: exception classes named in record-exceptions, which are loaded by name.
+ * Firestore, GCS, gRPC and Netty ship their own metadata or come from the GraalVM metadata repository.
+ */
+@Configuration
+@ImportRuntimeHints(NativeImageHintsConfig.GatewayRuntimeHints.class)
+@RegisterReflectionForBinding(com.google.cloud.Timestamp.class)
+public class NativeImageHintsConfig {
+
+    private static final MemberCategory[] REFLECTIVE_ACCESS = {
+            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+            MemberCategory.INVOKE_DECLARED_METHODS,
+            MemberCategory.DECLARED_FIELDS};
+
+    static final List<String> JACKSON_MODEL_PACKAGES = List.of("com/app/model", "com/app/dto");
+
+    static final List<String> JWT_TYPES = List.of(
+            "com.auth0.jwt.impl.BasicHeader",
+            "com.auth0.jwt.impl.PayloadImpl",
+            "com.auth0.jwt.impl.HeaderDeserializer",
+            "com.auth0.jwt.impl.PayloadDeserializer",
+            "com.auth0.jwt.impl.HeaderSerializer",
+            "com.auth0.jwt.impl.PayloadSerializer",
+            "com.auth0.jwt.impl.ClaimsHolder",
+            "com.auth0.jwt.impl.HeaderClaimsHolder",
+            "com.auth0.jwt.impl.PayloadClaimsHolder",
+            "com.auth0.jwt.impl.JsonNodeClaim");
+
+    static final List<Class<?>> RECORDED_EXCEPTION_TYPES = List.of(
+            java.util.concurrent.TimeoutException.class,
+            java.util.concurrent.CompletionException.class,
+            java.net.SocketTimeoutException.class,
+            java.net.ConnectException.class,
+            java.io.IOException.class,
+            com.app.exception.DownstreamServiceException.class);
+
+    static class GatewayRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, @Nullable ClassLoader classLoader) {
+            for (String type : modelTypes(classLoader)) {
+                hints.reflection().registerType(TypeReference.of(type), REFLECTIVE_ACCESS);
+            }
+            for (String type : JWT_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type), REFLECTIVE_ACCESS);
+            }
+            for (Class<?> type : RECORDED_EXCEPTION_TYPES) {
+                hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+        }
+    }
+
+    /** Every class (nested ones included) in the Jackson / Firestore model packages. */
+    static List<String> modelTypes(@Nullable ClassLoader classLoader) {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+        MetadataReaderFactory readers = new CachingMetadataReaderFactory(resolver);
+        try {
+            List<String> types = new ArrayList<>();
+            for (String pkg : JACKSON_MODEL_PACKAGES) {
+                for (Resource resource : resolver.getResources("classpath*:" + pkg + "/**/*.class")) {
+                    types.add(readers.getMetadataReader(resource).getClassMetadata().getClassName());
+                }
+            }
+            return types;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to scan model packages for native hints", e);
+        }
+    }
+}
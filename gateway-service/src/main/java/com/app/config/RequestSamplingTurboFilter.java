@@ -0,0 +1,82 @@
+package com.app.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import com.app.filter.RequestIdFilter;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Logback turbo filter that samples request-scoped DEBUG/INFO logs on hot endpoints.
+ *
+ * The keep/drop decision is a hash of the MDC requestId, so a sampled request keeps all of its lines
+ * (received ... COMPLETE) and an unsampled one drops all of them; you never get half a request.
+ * WARN and ERROR are never sampled. Turbo filters run before the logging event is created, so a
+ * dropped line costs no message formatting and never reaches the appender.
+ *
+ * Configured from logback-spring.xml (logging.sampling.rate / logging.sampling.paths). A rate of 1.0
+ * keeps everything and makes the filter a no-op.
+ */
+public class RequestSamplingTurboFilter extends TurboFilter {
+
+    private static final int BUCKETS = 10_000;
+
+    private volatile int keepBuckets = BUCKETS;
+    private volatile Set<String> paths = Set.of();
+    private String loggerPrefix = "com.app";
+
+    public void setRate(double rate) {
+        double clamped = Math.max(0.0, Math.min(1.0, rate));
+        this.keepBuckets = (int) Math.round(clamped * BUCKETS);
+    }
+
+    public void setPaths(String commaSeparatedPaths) {
+        if (commaSeparatedPaths == null || commaSeparatedPaths.isBlank()) {
+            this.paths = Set.of();
+            return;
+        }
+        this.paths = Arrays.stream(commaSeparatedPaths.split(","))
+                .map(String::trim)
+                .filter(p -> !p.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (keepBuckets >= BUCKETS || !isStarted()) {
+            return FilterReply.NEUTRAL;
+        }
+        if (level == null || level.isGreaterOrEqual(Level.WARN) || t != null) {
+            return FilterReply.NEUTRAL;
+        }
+        if (logger == null || !logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        String path = MDC.get(RequestIdFilter.MDC_REQUEST_PATH);
+        if (path == null || !paths.contains(path)) {
+            return FilterReply.NEUTRAL;
+        }
+        String requestId = MDC.get(RequestIdFilter.ATTR_REQUEST_ID);
+        if (requestId == null) {
+            return FilterReply.NEUTRAL;
+        }
+        return isSampled(requestId, keepBuckets) ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    static boolean isSampled(String requestId, int keepBuckets) {
+        // Spread String.hashCode (weak in the low bits for similar ids) before bucketing
+        int h = requestId.hashCode() * 0x9E3779B1;
+        h ^= (h >>> 16);
+        return Math.floorMod(h, BUCKETS) < keepBuckets;
+    }
+}
@@ -1,8 +1,11 @@
 package com.app.config;
 
 import com.app.service.ApplicationMetricsService;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
 import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
@@ -10,18 +13,36 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Configuration;
 import io.micrometer.core.instrument.MeterRegistry;
 
+import java.util.List;
+
 @Configuration
 public class ResilienceConfig {
     private static final Logger logger = LoggerFactory.getLogger(ResilienceConfig.class);
 
+    /**
+     * Semaphore bulkheads per endpoint class (resilience4j.bulkhead.instances.*), applied by BulkheadFilter,
+     * so a flood on one class cannot take the request threads the others need.
+     */
+    public static final String BULKHEAD_AUTH = "auth";
+    public static final String BULKHEAD_SYNC = "sync";
+    public static final String BULKHEAD_CATALOG = "catalog";
+    public static final String BULKHEAD_ASSETS = "assets";
+    public static final String BULKHEAD_ANALYTICS = "analytics";
+    public static final String BULKHEAD_PROFILE = "profile";
+    public static final List<String> ENDPOINT_BULKHEADS = List.of(
+            BULKHEAD_AUTH, BULKHEAD_SYNC, BULKHEAD_CATALOG, BULKHEAD_ASSETS, BULKHEAD_ANALYTICS, BULKHEAD_PROFILE);
+
     private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
     private final MeterRegistry meterRegistry;
     private final ApplicationMetricsService metricsService;
 
     public ResilienceConfig(CircuitBreakerRegistry circuitBreakerRegistry,
+                            BulkheadRegistry bulkheadRegistry,
                             MeterRegistry meterRegistry,
                             ApplicationMetricsService metricsService) {
         this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
         this.meterRegistry = meterRegistry;
         this.metricsService = metricsService;
     }
@@ -39,6 +60,20 @@ public class ResilienceConfig {
 
         registerListeners(defaultCb);
         registerListeners(accountDeletionCb);
+
+        // Created up front so every class has metrics before its first request
+        ENDPOINT_BULKHEADS.forEach(name -> registerListeners(bulkheadRegistry.bulkhead(name)));
+        try {
+            TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+        } catch (Exception e) {
+            logger.warn("Failed to bind Resilience4j bulkhead metrics: {}", e.getMessage());
+        }
+    }
+
+    private void registerListeners(Bulkhead bulkhead) {
+        bulkhead.getEventPublisher()
+            .onCallRejected(event -> metricsService.recordBulkheadCall(bulkhead.getName(), "rejected"))
+            .onCallFinished(event -> metricsService.recordBulkheadCall(bulkhead.getName(), "finished"));
     }
 
     private void registerListeners(CircuitBreaker cb) {
@@ -3,29 +3,73 @@ package com.app.config;
 import com.app.service.ApplicationMetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
 import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.NonNull;
 
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+/**
+ * Records total startup time and, when the application runs with a {@link BufferingApplicationStartup}
+ * (see GatewayServiceApplication), the slowest bean instantiations as app.startup.bean.time{bean}. The full
+ * step timeline stays available at /actuator/startup.
+ */
 @Configuration
 public class StartupMetricsConfig implements ApplicationListener<ApplicationReadyEvent> {
 
     private static final Logger logger = LoggerFactory.getLogger(StartupMetricsConfig.class);
+    private static final String BEAN_INSTANTIATE_STEP = "spring.beans.instantiate";
 
     private final ApplicationMetricsService metricsService;
+    private final int slowestBeansReported;
     private final long applicationStartTime;
 
-    public StartupMetricsConfig(ApplicationMetricsService metricsService) {
+    public StartupMetricsConfig(ApplicationMetricsService metricsService,
+                                @Value("${startup.bean-timings.top:20}") int slowestBeansReported) {
         this.metricsService = metricsService;
+        this.slowestBeansReported = Math.max(0, slowestBeansReported);
         this.applicationStartTime = System.currentTimeMillis();
     }
 
+    record BeanTiming(String beanName, long durationMs) {}
+
     @Override
     public void onApplicationEvent(@NonNull ApplicationReadyEvent event) {
         long startupTimeMs = System.currentTimeMillis() - applicationStartTime;
         metricsService.recordStartupTime(startupTimeMs);
         logger.info("Application startup completed in {}ms", startupTimeMs);
+
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        if (context != null && context.getApplicationStartup() instanceof BufferingApplicationStartup startup) {
+            List<BeanTiming> slowest = slowestBeans(startup.getBufferedTimeline(), slowestBeansReported);
+            slowest.forEach(timing -> metricsService.recordBeanStartupTime(timing.beanName(), timing.durationMs()));
+            logger.info("Slowest bean instantiations (ms, including dependencies): {}", slowest);
+        }
     }
-}
 
+    /** The {@code limit} slowest bean instantiation steps in the timeline, slowest first. */
+    static List<BeanTiming> slowestBeans(StartupTimeline timeline, int limit) {
+        return timeline.getEvents().stream()
+                .filter(event -> BEAN_INSTANTIATE_STEP.equals(event.getStartupStep().getName()))
+                .map(event -> new BeanTiming(beanName(event.getStartupStep()), event.getDuration().toMillis()))
+                .sorted(Comparator.comparingLong(BeanTiming::durationMs).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private static String beanName(StartupStep step) {
+        return StreamSupport.stream(step.getTags().spliterator(), false)
+                .filter(tag -> "beanName".equals(tag.getKey()))
+                .map(StartupStep.Tag::getValue)
+                .findFirst()
+                .orElse("unknown");
+    }
+}
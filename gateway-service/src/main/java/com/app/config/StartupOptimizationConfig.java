@@ -0,0 +1,50 @@
+package com.app.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Keeps our side-effecting beans eager when spring.main.lazy-initialization is on.
+ *
+ * Lazy init defers every bean nobody needs to start the web server (Firebase, GCS, RestTemplates, most
+ * services and controllers) to its first use. That would silently disable beans whose only job is done by
+ * the container: @Scheduled jobs, @PostConstruct registrations (circuit breaker and bulkhead listeners) and
+ * event listeners such as StartupMetricsConfig and StartupWarmup. Those are excluded here, as are
+ * SmartLifecycle beans such as VirtualThreadPinningMonitor. Beans that start a worker in their constructor
+ * (write-behind buffer, analytics and audit queues, route latency rotator) only serve work their callers hand
+ * them, so creating them on first use is fine; new background work should start from a lifecycle callback.
+ */
+@Configuration
+public class StartupOptimizationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter sideEffectingBeansStayEager() {
+        return (beanName, beanDefinition, beanType) -> hasContainerDrivenWork(beanType);
+    }
+
+    static boolean hasContainerDrivenWork(Class<?> beanType) {
+        if (beanType == null || !beanType.getName().startsWith("com.app.")) {
+            return false;
+        }
+        if (ApplicationListener.class.isAssignableFrom(beanType) || SmartLifecycle.class.isAssignableFrom(beanType)) {
+            return true;
+        }
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(beanType)) {
+            if (method.isAnnotationPresent(Scheduled.class)
+                    || method.isAnnotationPresent(PostConstruct.class)
+                    || method.isAnnotationPresent(EventListener.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
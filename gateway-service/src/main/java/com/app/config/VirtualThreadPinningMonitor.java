@@ -0,0 +1,120 @@
+package com.app.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reports virtual threads pinned to their carrier, which only matters when virtual threads are enabled.
+ *
+ * On Java 21 a virtual thread that blocks inside a {@code synchronized} block or method (or a native frame)
+ * cannot unmount, so it holds a carrier thread for the whole wait; a few of these in a hot path quietly cap
+ * concurrency at the carrier count. Streams the JFR {@code jdk.VirtualThreadPinned} event in-process and
+ * records it as {@code app.threads.virtual.pinned}, tagged with the first application frame on the stack.
+ * Each new site is logged once with its stack so it can be moved to a {@code ReentrantLock}.
+ *
+ * The stream is started as a SmartLifecycle rather than in the constructor, which also keeps the bean eager
+ * under lazy initialization (see StartupOptimizationConfig).
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.app.";
+    private static final int MAX_SITES = 100;
+
+    private final MeterRegistry meterRegistry;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private final long thresholdMs;
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${threads.virtual.pinning-threshold-ms:20}") long thresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.thresholdMs = thresholdMs;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+        stream = recording;
+        logger.info("Virtual thread pinning monitor started (threshold {}ms)", thresholdMs);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        String site = site(event.getStackTrace());
+        // Sites are code locations so the tag is naturally bounded; cap it anyway
+        String tag = reportedSites.size() < MAX_SITES || reportedSites.contains(site) ? site : "other";
+        Timer.builder("app.threads.virtual.pinned")
+                .tag("site", tag)
+                .description("Time virtual threads spent pinned to a carrier thread")
+                .register(meterRegistry)
+                .record(event.getDuration());
+
+        if (reportedSites.size() < MAX_SITES && reportedSites.add(site)) {
+            logger.warn("Virtual thread pinned for {}ms at {}:\n{}", event.getDuration().toMillis(), site,
+                    stackTrace(event.getStackTrace()));
+        }
+    }
+
+    private static String site(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(APP_PACKAGE)) {
+                return type.substring(type.lastIndexOf('.') + 1) + "." + frame.getMethod().getName();
+            }
+        }
+        return "library";
+    }
+
+    private static String stackTrace(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "  (no stack trace)";
+        }
+        StringBuilder out = new StringBuilder();
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            out.append("  at ").append(frame.getMethod().getType().getName()).append('.')
+                    .append(frame.getMethod().getName()).append(':').append(frame.getLineNumber()).append('\n');
+        }
+        return out.toString();
+    }
+}
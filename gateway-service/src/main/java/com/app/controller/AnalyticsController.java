@@ -1,10 +1,12 @@
 package com.app.controller;
 
 import com.app.dto.AnalyticsEventBatchDTO;
-import com.app.service.ContentAnalyticsService;
+import com.app.service.AnalyticsIngestionQueue;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -23,10 +25,17 @@ import java.util.Map;
  *   stored, or associated with the analytics data by this controller or ContentAnalyticsService.
  * - The app does NOT send X-Device-ID or any persistent identifier with analytics requests.
  * - All event data is converted to anonymous Prometheus counter increments and discarded.
+ *   The exception is the opt-in local spool (analytics.spool.enabled, off by default), which keeps
+ *   allowlisted event fields for offline funnel reports: no sessionId, time truncated to the minute,
+ *   page fields as small integers only. See AnalyticsEventSpool.
  * - No IP addresses, user agents, or other request metadata are recorded by this endpoint.
  * - Legal basis for transient JWT processing: GDPR Art. 6(1)(f) legitimate interest (security).
  *
  * Rate limiting is handled by the existing RateLimitingFilter on /api/** paths.
+ *
+ * Batches are validated here and handed to AnalyticsIngestionQueue; the response (202 Accepted) does not
+ * wait for them to be counted. When the queue is full the batch is shed with 429 so analytics spikes
+ * never hold request threads or count against the 5xx error budget.
  */
 @RestController
 @RequestMapping("/api/analytics")
@@ -34,22 +43,31 @@ public class AnalyticsController {
 
     private static final Logger logger = LoggerFactory.getLogger(AnalyticsController.class);
 
-    private final ContentAnalyticsService contentAnalyticsService;
+    private final AnalyticsIngestionQueue ingestionQueue;
 
-    public AnalyticsController(ContentAnalyticsService contentAnalyticsService) {
-        this.contentAnalyticsService = contentAnalyticsService;
+    public AnalyticsController(AnalyticsIngestionQueue ingestionQueue) {
+        this.ingestionQueue = ingestionQueue;
     }
 
     @PostMapping("/events")
     public ResponseEntity<Map<String, Object>> ingestEvents(
             @Valid @RequestBody AnalyticsEventBatchDTO batch) {
 
-        int processed = contentAnalyticsService.processBatch(batch);
+        int total = batch.getEvents() != null ? batch.getEvents().size() : 0;
+
+        if (!ingestionQueue.offer(batch)) {
+            logger.debug("Analytics queue full, dropped batch of {} events", total);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of(
+                    "status", "dropped",
+                    "total", total
+                ));
+        }
 
-        return ResponseEntity.ok(Map.of(
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
             "status", "accepted",
-            "processed", processed,
-            "total", batch.getEvents() != null ? batch.getEvents().size() : 0
+            "total", total
         ));
     }
 }
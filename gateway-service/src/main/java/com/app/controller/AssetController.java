@@ -5,21 +5,26 @@ import com.app.dto.BatchUrlsResponse;
 import com.app.exception.AssetUrlGenerationException;
 import com.app.exception.ErrorCode;
 import com.app.exception.ErrorResponse;
+import com.app.exception.GatewayException;
 import com.app.exception.InvalidAssetPathException;
 import com.app.model.AssetVersion;
 import com.app.service.AssetService;
 import com.app.service.ApplicationMetricsService;
+import com.app.service.ResponseValidatorCache;
+import com.app.service.ResponseValidatorCache.Validator;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
@@ -33,24 +38,46 @@ public class AssetController {
 
     private final AssetService assetService;
     private final ApplicationMetricsService metricsService;
+    private final ResponseValidatorCache validatorCache;
 
     @Autowired
-    public AssetController(AssetService assetService, ApplicationMetricsService metricsService) {
+    public AssetController(AssetService assetService, ApplicationMetricsService metricsService,
+                           ResponseValidatorCache validatorCache) {
         this.assetService = assetService;
         this.metricsService = metricsService;
+        this.validatorCache = validatorCache;
     }
 
     @GetMapping("/version")
-    public ResponseEntity<AssetVersion> getAssetVersion() {
+    public ResponseEntity<AssetVersion> getAssetVersion(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         String reqId = MDC.get("requestId");
         if (reqId == null) reqId = UUID.randomUUID().toString();
 
         logger.debug("[AssetVersion] [reqId={}] GET /api/assets/version", reqId);
+        Optional<Validator> cached = validatorCache.matching(ResponseValidatorCache.ASSET_VERSION, ifNoneMatch);
+        if (cached.isPresent()) {
+            metricsService.recordConditionalGet("/api/assets/version", "not_modified_cached");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(cached.get().headers()).build();
+        }
         try {
+            long readGeneration = validatorCache.generation();
             AssetVersion version = assetService.getCurrentAssetVersion().join();
             logger.debug("[AssetVersion] [reqId={}] Current version: {}", reqId, version.getVersion());
-            return ResponseEntity.ok(version);
+            Validator validator = validatorCache.remember(ResponseValidatorCache.ASSET_VERSION,
+                    Validator.strong("a" + version.getVersion(), version.getLastUpdated()), readGeneration);
+            if (ifNoneMatch != null) {
+                boolean matches = validator.matches(ifNoneMatch);
+                metricsService.recordConditionalGet("/api/assets/version", matches ? "not_modified" : "modified");
+                if (matches) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(validator.headers()).build();
+                }
+            }
+            return ResponseEntity.ok().headers(validator.headers()).body(version);
         } catch (CompletionException e) {
+            if (e.getCause() instanceof GatewayException gateway) {
+                throw gateway;
+            }
             logger.error("[AssetVersion] [reqId={}] Error getting asset version", reqId, e.getCause());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -10,6 +10,7 @@ import com.app.model.UserSession;
 import com.app.repository.UserProfileRepository;
 import com.app.service.SecurityMonitoringService;
 import com.app.service.ApplicationMetricsService;
+import com.app.service.ClientFingerprintResolver;
 import com.app.service.UserService;
 import com.app.service.SessionService;
 import com.app.testing.TestSimulationFlags;
@@ -42,11 +43,13 @@ public class AuthController {
     private final UserService userService;
     private final SessionService sessionService;
     private final UserProfileRepository userProfileRepository;
+    private final ClientFingerprintResolver clientFingerprintResolver;
     private final TestSimulationFlags flags;
 
     public AuthController(JwtConfig jwtConfig, SecurityMonitoringService securityMonitoringService,
                          ApplicationMetricsService applicationMetricsService, UserService userService,
                          SessionService sessionService, UserProfileRepository userProfileRepository,
+                         ClientFingerprintResolver clientFingerprintResolver,
                          ObjectProvider<TestSimulationFlags> flagsProvider) {
         this.jwtConfig = jwtConfig;
         this.securityMonitoringService = securityMonitoringService;
@@ -54,6 +57,7 @@ public class AuthController {
         this.userService = userService;
         this.sessionService = sessionService;
         this.userProfileRepository = userProfileRepository;
+        this.clientFingerprintResolver = clientFingerprintResolver;
         this.flags = flagsProvider != null ? flagsProvider.getIfAvailable() : null;
     }
 
@@ -126,9 +130,10 @@ public class AuthController {
             }
 
             String deviceId = httpRequest.getHeader("X-Device-ID");
-            String deviceType = extractDeviceType(httpRequest);
-            String platform = extractPlatform(httpRequest);
-            String appVersion = httpRequest.getHeader("X-App-Version");
+            ClientFingerprintResolver.ClientFingerprint client = clientFingerprintResolver.resolve(httpRequest);
+            String deviceType = client.deviceType();
+            String platform = client.platform();
+            String appVersion = client.appVersion();
 
             UserSession session = sessionService.createSession(
                 user.getId(), refreshToken, deviceId, deviceType, platform, appVersion
@@ -153,9 +158,10 @@ public class AuthController {
             securityMonitoringService.logFailedAuthentication("google");
 
             long processingTime = System.currentTimeMillis() - startTime;
-            String deviceType = extractDeviceType(httpRequest);
-            String platform = extractPlatform(httpRequest);
-            String appVersion = httpRequest.getHeader("X-App-Version");
+            ClientFingerprintResolver.ClientFingerprint client = clientFingerprintResolver.resolve(httpRequest);
+            String deviceType = client.deviceType();
+            String platform = client.platform();
+            String appVersion = client.appVersion();
             applicationMetricsService.recordAuthentication("google", deviceType, platform, appVersion, false, processingTime);
 
             String msg = e.getMessage() != null ? e.getMessage() : "Invalid token";
@@ -208,9 +214,10 @@ public class AuthController {
             }
 
             String deviceId = httpRequest.getHeader("X-Device-ID");
-            String deviceType = extractDeviceType(httpRequest);
-            String platform = extractPlatform(httpRequest);
-            String appVersion = httpRequest.getHeader("X-App-Version");
+            ClientFingerprintResolver.ClientFingerprint client = clientFingerprintResolver.resolve(httpRequest);
+            String deviceType = client.deviceType();
+            String platform = client.platform();
+            String appVersion = client.appVersion();
 
             UserSession session = sessionService.createSession(
                 user.getId(), refreshToken, deviceId, deviceType, platform, appVersion
@@ -235,9 +242,10 @@ public class AuthController {
             securityMonitoringService.logFailedAuthentication("apple");
 
             long processingTime = System.currentTimeMillis() - startTime;
-            String deviceType = extractDeviceType(httpRequest);
-            String platform = extractPlatform(httpRequest);
-            String appVersion = httpRequest.getHeader("X-App-Version");
+            ClientFingerprintResolver.ClientFingerprint client = clientFingerprintResolver.resolve(httpRequest);
+            String deviceType = client.deviceType();
+            String platform = client.platform();
+            String appVersion = client.appVersion();
             applicationMetricsService.recordAuthentication("apple", deviceType, platform, appVersion, false, processingTime);
 
             String msg = e.getMessage() != null ? e.getMessage() : "Invalid token";
@@ -262,8 +270,9 @@ public class AuthController {
         String platform = "unknown";
 
         try {
-            deviceType = extractDeviceType(httpRequest);
-            platform = extractPlatform(httpRequest);
+            ClientFingerprintResolver.ClientFingerprint client = clientFingerprintResolver.resolve(httpRequest);
+            deviceType = client.deviceType();
+            platform = client.platform();
 
             if (request == null) {
                 throw com.app.exception.ValidationException.missingRequiredField("body");
@@ -342,8 +351,9 @@ public class AuthController {
 
     @PostMapping(value = "/revoke", consumes = "application/json", produces = "application/json")
     public ResponseEntity<?> revokeTokens(@RequestBody TokenRevokeRequest request, HttpServletRequest httpRequest) {
-        String deviceType = extractDeviceType(httpRequest);
-        String platform = extractPlatform(httpRequest);
+        ClientFingerprintResolver.ClientFingerprint client = clientFingerprintResolver.resolve(httpRequest);
+        String deviceType = client.deviceType();
+        String platform = client.platform();
 
         try {
             if (request == null) {
@@ -576,60 +586,4 @@ public class AuthController {
         }
         return request.getRemoteAddr();
     }
-
-    private String extractDeviceType(HttpServletRequest request) {
-        String deviceType = request.getHeader("X-Device-Type");
-        if (deviceType != null && !deviceType.trim().isEmpty()) {
-            return deviceType.toLowerCase();
-        }
-
-        String userAgent = request.getHeader("User-Agent");
-        if (userAgent == null) {
-            return "unknown";
-        }
-
-        userAgent = userAgent.toLowerCase();
-        if (userAgent.contains("bot") || userAgent.contains("crawler") || userAgent.contains("spider")) {
-            return "bot";
-        } else if (userAgent.contains("mobile") || userAgent.contains("android") ||
-                   userAgent.contains("iphone") || userAgent.contains("ipod")) {
-            return "mobile";
-        } else if (userAgent.contains("tablet") || userAgent.contains("ipad")) {
-            return "tablet";
-        } else if (userAgent.contains("windows") || userAgent.contains("macintosh") ||
-                   userAgent.contains("linux")) {
-            return "desktop";
-        }
-        return "unknown";
-    }
-
-    private String extractPlatform(HttpServletRequest request) {
-        String platform = request.getHeader("X-Client-Platform");
-        if (platform != null && !platform.trim().isEmpty()) {
-            return platform.toLowerCase();
-        }
-        platform = request.getHeader("X-Platform");
-        if (platform != null && !platform.trim().isEmpty()) {
-            return platform.toLowerCase();
-        }
-
-        String userAgent = request.getHeader("User-Agent");
-        if (userAgent == null) {
-            return "unknown";
-        }
-
-        userAgent = userAgent.toLowerCase();
-        if (userAgent.contains("android")) {
-            return "android";
-        } else if (userAgent.contains("ios") || userAgent.contains("iphone") || userAgent.contains("ipad")) {
-            return "ios";
-        } else if (userAgent.contains("windows")) {
-            return "windows";
-        } else if (userAgent.contains("mac")) {
-            return "macos";
-        } else if (userAgent.contains("linux")) {
-            return "linux";
-        }
-        return userAgent;
-    }
 }
@@ -1,6 +1,7 @@
 package com.app.controller;
 
 import com.app.service.ApplicationMetricsService;
+import com.app.service.RouteLatencyRecorder;
 import com.app.service.SecurityMonitoringService;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Meter;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -22,13 +24,16 @@ public class MetricsController {
     final ApplicationMetricsService applicationMetricsService;
     final SecurityMonitoringService securityMonitoringService;
     final MeterRegistry meterRegistry;
+    final RouteLatencyRecorder routeLatencyRecorder;
 
     public MetricsController(ApplicationMetricsService applicationMetricsService,
                            SecurityMonitoringService securityMonitoringService,
-                           MeterRegistry meterRegistry) {
+                           MeterRegistry meterRegistry,
+                           RouteLatencyRecorder routeLatencyRecorder) {
         this.applicationMetricsService = applicationMetricsService;
         this.securityMonitoringService = securityMonitoringService;
         this.meterRegistry = meterRegistry;
+        this.routeLatencyRecorder = routeLatencyRecorder;
     }
 
     @GetMapping("/metrics")
@@ -158,6 +163,20 @@ public class MetricsController {
         return ResponseEntity.ok(performanceMetrics);
     }
 
+    @GetMapping("/latency")
+    public ResponseEntity<Map<String, Object>> getLatencyMetrics() {
+        Map<String, Object> latencyMetrics = new HashMap<>();
+
+        Map<String, Object> routes = new LinkedHashMap<>();
+        routeLatencyRecorder.snapshot().forEach((route, snapshot) -> routes.put(route, snapshot.toMap()));
+
+        latencyMetrics.put("routes", routes);
+        latencyMetrics.put("window_seconds", routeLatencyRecorder.getWindowSeconds());
+        latencyMetrics.put("timestamp", Instant.now().toString());
+
+        return ResponseEntity.ok(latencyMetrics);
+    }
+
     private Map<String, Object> getSystemMetrics() {
         Map<String, Object> systemMetrics = new HashMap<>();
         Runtime runtime = Runtime.getRuntime();
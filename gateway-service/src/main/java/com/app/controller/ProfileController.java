@@ -7,9 +7,11 @@ import com.app.model.UserProfile;
 import com.app.repository.UserProfileRepository;
 import com.app.security.JwtAuthenticationFilter;
 import com.app.service.ApplicationMetricsService;
+import com.app.service.ResponseValidatorCache.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -35,8 +37,13 @@ public class ProfileController {
         this.metricsService = metricsService;
     }
 
+    /**
+     * Profiles are served from the repository's read-through cache, so conditional requests only save the
+     * body: the strong ETag is the profile version plus its update time (a re-created profile restarts at 1).
+     */
     @GetMapping("/profile")
-    public ResponseEntity<?> getProfile() {
+    public ResponseEntity<?> getProfile(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         long startTime = System.currentTimeMillis();
         String userId = getAuthenticatedUserId();
         if (userId == null) {
@@ -57,13 +64,26 @@ public class ProfileController {
             long processingTime = System.currentTimeMillis() - startTime;
             metricsService.recordProfileRetrieved(userId, true, processingTime);
 
-            return ResponseEntity.ok(profileOpt.get());
+            UserProfile profile = profileOpt.get();
+            Validator validator = Validator.strong(profile.getVersion() + "-"
+                    + (profile.getUpdatedAt() != null ? profile.getUpdatedAt().toEpochMilli() : 0), profile.getUpdatedAt());
+            if (ifNoneMatch != null) {
+                boolean matches = validator.matches(ifNoneMatch);
+                metricsService.recordConditionalGet("/api/profile", matches ? "not_modified" : "modified");
+                if (matches) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(validator.headers()).build();
+                }
+            }
+            return ResponseEntity.ok().headers(validator.headers()).body(profile);
 
         } catch (GatewayException e) {
             throw e;
         } catch (Exception e) {
             long processingTime = System.currentTimeMillis() - startTime;
             metricsService.recordProfileRetrieved(userId, false, processingTime);
+            if (e.getCause() instanceof GatewayException gateway) {
+                throw gateway;
+            }
             logger.error("Error getting profile for user: {}", userId, e);
             throw new GatewayException(ErrorCode.DATABASE_ERROR, "Failed to retrieve profile", e);
         }
@@ -110,11 +130,13 @@ public class ProfileController {
 
         logger.debug("Saving profile for user: {}", userId);
 
+        // Known once the existing profile has been read; the error paths use it to pick the metric
+        Boolean isUpdate = null;
         try {
             Optional<UserProfile> existingProfileOpt = userProfileRepository.findByUserId(userId).join();
 
             UserProfile profile;
-            boolean isUpdate = existingProfileOpt.isPresent();
+            isUpdate = existingProfileOpt.isPresent();
 
             if (isUpdate) {
                 profile = existingProfileOpt.get();
@@ -136,33 +158,27 @@ public class ProfileController {
             }
 
         } catch (GatewayException e) {
-            long processingTime = System.currentTimeMillis() - startTime;
-            Optional<UserProfile> existingProfileOpt = userProfileRepository.findByUserId(userId).join();
-            if (existingProfileOpt.isPresent()) {
-                metricsService.recordProfileUpdated(userId, false, processingTime);
-            } else {
-                metricsService.recordProfileCreated(userId, false, processingTime);
-            }
-
+            recordFailedSave(userId, isUpdate, e, System.currentTimeMillis() - startTime);
             throw e;
         } catch (Exception e) {
-            long processingTime = System.currentTimeMillis() - startTime;
-            try {
-                Optional<UserProfile> existingProfileOpt = userProfileRepository.findByUserId(userId).join();
-                if (existingProfileOpt.isPresent()) {
-                    metricsService.recordProfileUpdated(userId, false, processingTime);
-                } else {
-                    metricsService.recordProfileCreated(userId, false, processingTime);
-                }
-            } catch (Exception metricsEx) {
-                logger.warn("Failed to record metrics for failed profile save", metricsEx);
-            }
+            recordFailedSave(userId, isUpdate, e, System.currentTimeMillis() - startTime);
 
             logger.error("Error saving profile for user: {}", userId, e);
             throw new GatewayException(ErrorCode.PROFILE_UPDATE_FAILED, "Failed to save profile", e);
         }
     }
 
+    private void recordFailedSave(String userId, Boolean isUpdate, Exception e, long processingTime) {
+        if (isUpdate == null) {
+            // Failed before the existing profile was read
+            metricsService.recordProfileOperationFailure("save", e.getClass().getSimpleName());
+        } else if (isUpdate) {
+            metricsService.recordProfileUpdated(userId, false, processingTime);
+        } else {
+            metricsService.recordProfileCreated(userId, false, processingTime);
+        }
+    }
+
     private String getAuthenticatedUserId() {
         logger.debug("Getting authenticated user ID - Thread: {}", Thread.currentThread().getName());
 
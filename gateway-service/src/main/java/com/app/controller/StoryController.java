@@ -5,17 +5,21 @@ import com.app.dto.DeltaSyncRequest;
 import com.app.dto.DeltaSyncResponse;
 import com.app.exception.ErrorCode;
 import com.app.exception.ErrorResponse;
+import com.app.exception.GatewayException;
 import com.app.model.AssetVersion;
 import com.app.model.ContentVersion;
 import com.app.model.Story;
 import com.app.service.ApplicationMetricsService;
 import com.app.service.AssetService;
+import com.app.service.ResponseValidatorCache;
+import com.app.service.ResponseValidatorCache.Validator;
 import com.app.service.StoryService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -41,12 +45,15 @@ public class StoryController {
     private final StoryService storyService;
     private final AssetService assetService;
     private final ApplicationMetricsService metricsService;
+    private final ResponseValidatorCache validatorCache;
 
     @Autowired
-    public StoryController(StoryService storyService, AssetService assetService, ApplicationMetricsService metricsService) {
+    public StoryController(StoryService storyService, AssetService assetService, ApplicationMetricsService metricsService,
+                           ResponseValidatorCache validatorCache) {
         this.storyService = storyService;
         this.assetService = assetService;
         this.metricsService = metricsService;
+        this.validatorCache = validatorCache;
     }
 
     private String getRequestId() {
@@ -71,6 +78,9 @@ public class StoryController {
             return ResponseEntity.ok(stories);
         } catch (CompletionException e) {
             Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof GatewayException gateway) {
+                throw gateway;
+            }
             logger.error("[Stories] [reqId={}] FAILED: Error fetching all stories - {}", reqId, cause.getMessage(), cause);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse(ErrorCode.FIREBASE_SERVICE_ERROR, "Failed to fetch stories: " + cause.getMessage(), "/api/stories", reqId));
@@ -78,17 +88,30 @@ public class StoryController {
     }
 
     @GetMapping("/{storyId}")
-    public ResponseEntity<?> getStoryById(@PathVariable String storyId) {
+    public ResponseEntity<?> getStoryById(@PathVariable String storyId,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         String reqId = getRequestId();
         logger.info("[Stories] [reqId={}] GET /api/stories/{} - Request received", reqId, storyId);
+        String validatorKey = ResponseValidatorCache.story(storyId);
+        Optional<Validator> cached = validatorCache.matching(validatorKey, ifNoneMatch);
+        if (cached.isPresent()) {
+            logger.debug("[Stories] [reqId={}] GET /api/stories/{} - Not modified (cached validator)", reqId, storyId);
+            metricsService.recordConditionalGet("/api/stories/{storyId}", "not_modified_cached");
+            return notModified(cached.get());
+        }
         try {
+            long readGeneration = validatorCache.generation();
             Optional<Story> storyOpt = storyService.getStoryById(storyId).join();
             if (storyOpt.isPresent()) {
                 Story story = storyOpt.get();
+                Validator validator = validatorCache.remember(validatorKey, storyValidator(story), readGeneration);
+                if (conditional("/api/stories/{storyId}", validator, ifNoneMatch)) {
+                    return notModified(validator);
+                }
                 int pageCount = story.getPages() != null ? story.getPages().size() : 0;
                 logger.info("[Stories] [reqId={}] GET /api/stories/{} - Found: title='{}', pages={}",
                         reqId, storyId, story.getTitle(), pageCount);
-                return ResponseEntity.ok(story);
+                return ResponseEntity.ok().headers(validator.headers()).body(story);
             } else {
                 logger.warn("[Stories] [reqId={}] GET /api/stories/{} - NOT FOUND", reqId, storyId);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -96,6 +119,9 @@ public class StoryController {
             }
         } catch (CompletionException e) {
             Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof GatewayException gateway) {
+                throw gateway;
+            }
             logger.error("[Stories] [reqId={}] GET /api/stories/{} - Error: {}", reqId, storyId, cause.getMessage(), cause);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse(ErrorCode.FIREBASE_SERVICE_ERROR, "Failed to fetch story: " + cause.getMessage(), "/api/stories/" + storyId, reqId));
@@ -104,10 +130,20 @@ public class StoryController {
 
     @GetMapping("/version")
     public ResponseEntity<?> getContentVersion(
-            @RequestParam(required = false) Integer clientVersion) {
+            @RequestParam(required = false) Integer clientVersion,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         String reqId = getRequestId();
         logger.info("[Stories] [reqId={}] GET /api/stories/version - clientVersion={}", reqId, clientVersion);
+        Optional<Validator> cached = validatorCache.matching(ResponseValidatorCache.CONTENT_VERSION, ifNoneMatch);
+        if (cached.isPresent()) {
+            // The client already holds the current version, so it will not sync either
+            metricsService.recordStorySyncSkipped();
+            metricsService.recordConditionalGet("/api/stories/version", "not_modified_cached");
+            logger.info("[Stories] [reqId={}] Version check: not modified (cached validator {})", reqId, cached.get().etag());
+            return notModified(cached.get());
+        }
         try {
+            long readGeneration = validatorCache.generation();
             ContentVersion storyVersion = storyService.getCurrentContentVersion().join();
             AssetVersion assetVersionData = assetService.getCurrentAssetVersion().join();
 
@@ -129,9 +165,17 @@ public class StoryController {
                         reqId, storyVersion.getVersion(), assetVersionData.getVersion(), clientVersion);
             }
 
-            return ResponseEntity.ok(response);
+            Validator validator = validatorCache.remember(ResponseValidatorCache.CONTENT_VERSION,
+                    contentVersionValidator(storyVersion, assetVersionData), readGeneration);
+            if (conditional("/api/stories/version", validator, ifNoneMatch)) {
+                return notModified(validator);
+            }
+            return ResponseEntity.ok().headers(validator.headers()).body(response);
         } catch (CompletionException e) {
             Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof GatewayException gateway) {
+                throw gateway;
+            }
             logger.error("[Stories] [reqId={}] GET /api/stories/version - FAILED: {}", reqId, cause.getMessage(), cause);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse(ErrorCode.FIREBASE_SERVICE_ERROR, "Failed to fetch content version: " + cause.getMessage(), "/api/stories/version", reqId));
@@ -148,6 +192,9 @@ public class StoryController {
             return ResponseEntity.ok(stories);
         } catch (CompletionException e) {
             Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof GatewayException gateway) {
+                throw gateway;
+            }
             logger.error("[Stories] [reqId={}] GET /api/stories/category/{} - FAILED: {}", reqId, category, cause.getMessage(), cause);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse(ErrorCode.FIREBASE_SERVICE_ERROR, "Failed to fetch stories by category: " + cause.getMessage(), "/api/stories/category/" + category, reqId));
@@ -264,6 +311,9 @@ public class StoryController {
             return ResponseEntity.ok(response);
         } catch (CompletionException e) {
             Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof GatewayException gateway) {
+                throw gateway;
+            }
             logger.error("[Delta] [reqId={}] FAILED: {}", reqId, cause.getMessage(), cause);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse(ErrorCode.FIREBASE_SERVICE_ERROR,
@@ -299,6 +349,9 @@ public class StoryController {
             return ResponseEntity.ok(story);
         } catch (CompletionException e) {
             Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof GatewayException gateway) {
+                throw gateway;
+            }
             logger.error("[Download] [reqId={}] FAILED: {}", reqId, cause.getMessage(), cause);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse(ErrorCode.FIREBASE_SERVICE_ERROR,
@@ -307,6 +360,41 @@ public class StoryController {
         }
     }
 
+    /**
+     * Strong validator of a story: its content checksum when set, otherwise its version and update time.
+     */
+    private static Validator storyValidator(Story story) {
+        String tag = story.getChecksum() != null && !story.getChecksum().isBlank()
+                ? story.getChecksum()
+                : "v" + story.getVersion() + "-" + (story.getUpdatedAt() != null ? story.getUpdatedAt().toEpochMilli() : 0);
+        return Validator.strong(tag, story.getUpdatedAt());
+    }
+
+    /**
+     * The version response combines the content and asset versions, so the tag carries both.
+     */
+    private static Validator contentVersionValidator(ContentVersion storyVersion, AssetVersion assetVersion) {
+        Instant storyUpdated = storyVersion.getLastUpdated() != null ? storyVersion.getLastUpdated().toDate().toInstant() : null;
+        Instant assetUpdated = assetVersion.getLastUpdated();
+        Instant lastModified = storyUpdated == null || (assetUpdated != null && assetUpdated.isAfter(storyUpdated))
+                ? assetUpdated : storyUpdated;
+        return Validator.strong("c" + storyVersion.getVersion() + "-a" + assetVersion.getVersion(), lastModified);
+    }
+
+    /** Records the outcome of a GET carrying If-None-Match; true if it can be answered 304. */
+    private boolean conditional(String endpoint, Validator validator, String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        boolean matches = validator.matches(ifNoneMatch);
+        metricsService.recordConditionalGet(endpoint, matches ? "not_modified" : "modified");
+        return matches;
+    }
+
+    private static ResponseEntity<?> notModified(Validator validator) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(validator.headers()).build();
+    }
+
     private ErrorResponse createErrorResponse(ErrorCode errorCode, String message, String path, String requestId) {
         ErrorResponse response = new ErrorResponse();
         response.setSuccess(false);
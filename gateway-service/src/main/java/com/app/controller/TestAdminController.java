@@ -12,6 +12,7 @@ import com.app.model.StoryPage;
 import com.app.model.User;
 import com.app.model.UserSession;
 import com.app.security.RateLimitingFilter;
+import com.app.service.ResponseValidatorCache;
 import com.app.service.SessionService;
 import com.app.service.UserService;
 import com.app.testing.TestSimulationFlags;
@@ -70,6 +71,9 @@ public class TestAdminController {
     @Autowired(required = false)
     private GcsProperties gcsProperties;
 
+    @Autowired(required = false)
+    private ResponseValidatorCache validatorCache;
+
     public TestAdminController(RateLimitingFilter rateLimitingFilter,
                                TestSimulationFlags flags,
                                CircuitBreakerRegistry circuitBreakerRegistry) {
@@ -123,6 +127,7 @@ public class TestAdminController {
             } else {
                 logger.debug("Skipping Firestore seeding (already done this run)");
             }
+            contentChanged();
 
             Map<String, Object> resp = new HashMap<>();
             resp.put("status", "reset");
@@ -136,6 +141,13 @@ public class TestAdminController {
         }
     }
 
+    /** Content is written straight to Firestore here, so drop the validators cached for conditional GETs. */
+    private void contentChanged() {
+        if (validatorCache != null) {
+            validatorCache.invalidateAll();
+        }
+    }
+
     private void clearCmsCollections(boolean storiesOnly) {
         try {
             int storiesDeleted = 0;
@@ -731,6 +743,7 @@ public class TestAdminController {
             updateContentVersionWithStory(storyId, checksum);
 
             logger.info("Seeded story: {} with checksum: {}", storyId, checksum);
+            contentChanged();
 
             Map<String, Object> resp = new HashMap<>();
             resp.put("status", "created");
@@ -836,6 +849,7 @@ public class TestAdminController {
 
             logger.info("Rebuilt content version: version={}, totalStories={}, removedStories={}",
                     newVersion, storyChecksums.size(), removedStoryIds);
+            contentChanged();
 
             Map<String, Object> resp = new HashMap<>();
             resp.put("status", "rebuilt");
@@ -874,6 +888,7 @@ public class TestAdminController {
             }
 
             logger.info("Deleted story: {}", storyId);
+            contentChanged();
 
             Map<String, Object> resp = new HashMap<>();
             resp.put("status", "deleted");
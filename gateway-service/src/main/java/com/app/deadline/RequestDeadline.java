@@ -0,0 +1,133 @@
+package com.app.deadline;
+
+import com.app.exception.DownstreamServiceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Time budget of the current inbound request, set by {@link com.app.filter.InboundRequestTimeoutFilter} when an
+ * inbound timeout is configured or the client sends {@link #HEADER}.
+ *
+ * Available to downstream code on the request thread via {@link #current()} (and as the
+ * {@link #ATTRIBUTE} request attribute) so work that has no chance of finishing in time can be skipped.
+ * {@link com.app.config.ContextPropagatingExecutor} carries it onto the blocking I/O threads, where
+ * {@link #await} bounds each downstream call by whatever budget is left and cancels the call when it runs
+ * out. Every such cancellation is counted in app.deadline.exceeded, tagged by downstream, on the registry the
+ * deadline was created with.
+ */
+public final class RequestDeadline {
+
+    public static final String ATTRIBUTE = RequestDeadline.class.getName();
+
+    /** Client-supplied budget in milliseconds; can only shorten the configured timeout. */
+    public static final String HEADER = "X-Request-Timeout-Ms";
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final MeterRegistry meterRegistry;
+    private volatile boolean expired;
+
+    public RequestDeadline(long timeout, TimeUnit unit, MeterRegistry meterRegistry) {
+        this.deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static Optional<RequestDeadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /** Bind {@code deadline} to the current thread; null clears it. */
+    public static void set(RequestDeadline deadline) {
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+    }
+
+    /** Remaining budget, never negative. */
+    public long remainingMillis() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /** True once the timeout has fired and the 504 has been (or is being) sent. */
+    public boolean isExpired() {
+        return expired || deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    public void markExpired() {
+        expired = true;
+    }
+
+    /**
+     * Wait for a downstream call, but no longer than the current request's remaining budget.
+     *
+     * Without a deadline this is a plain {@link Future#get()}. When the budget runs out the future is
+     * cancelled (for Firestore futures that cancels the RPC itself) and a DOWNSTREAM_TIMEOUT is thrown.
+     */
+    public static <T> T await(Future<T> future, String downstream) throws InterruptedException, ExecutionException {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return future.get();
+        }
+        long startNanos = System.nanoTime();
+        try {
+            if (deadline.isExpired() && !future.isDone()) {
+                throw new TimeoutException();
+            }
+            return future.get(Math.max(0, deadline.deadlineNanos - startNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw deadline.exceeded(downstream, startNanos);
+        }
+    }
+
+    /**
+     * The current request's view of a shared downstream call: completes with {@code future}, or fails with
+     * DOWNSTREAM_TIMEOUT once this request's budget runs out. Unlike {@link #await} the call itself is not
+     * cancelled, since other requests may still be waiting on it.
+     */
+    public static <T> CompletableFuture<T> within(CompletableFuture<T> future, String downstream) {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline == null || future.isDone()) {
+            return future;
+        }
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> bounded = future.copy();
+        CompletableFuture.delayedExecutor(Math.max(0, deadline.deadlineNanos - startNanos), TimeUnit.NANOSECONDS)
+                .execute(() -> {
+                    if (!bounded.isDone()) {
+                        bounded.completeExceptionally(deadline.exceeded(downstream, startNanos));
+                    }
+                });
+        return bounded;
+    }
+
+    /**
+     * Fail fast if the current request has no budget left for a call to {@code downstream}.
+     */
+    public static void checkBudget(String downstream) {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) {
+            throw deadline.exceeded(downstream, System.nanoTime());
+        }
+    }
+
+    private DownstreamServiceException exceeded(String downstream, long startNanos) {
+        Counter.builder("app.deadline.exceeded")
+                .description("Downstream calls abandoned because the request deadline passed")
+                .tag("downstream", downstream)
+                .register(meterRegistry)
+                .increment();
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return DownstreamServiceException.timeout(downstream, "request-deadline", waitedMs);
+    }
+}
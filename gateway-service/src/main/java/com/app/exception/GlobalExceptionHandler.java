@@ -25,6 +25,7 @@ import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeoutException;
 
 @ControllerAdvice
@@ -228,6 +229,19 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
     }
 
+    /**
+     * Repository futures joined on the request thread: a GatewayException inside (e.g. a DOWNSTREAM_TIMEOUT once
+     * the request deadline has run out) keeps its own status instead of turning into a 500.
+     */
+    @ExceptionHandler(CompletionException.class)
+    public ResponseEntity<ErrorResponse> handleCompletionException(CompletionException ex,
+                                                                   HttpServletRequest request) {
+        if (ex.getCause() instanceof GatewayException gateway) {
+            return handleGatewayException(gateway, request);
+        }
+        return handleGenericException(ex, request);
+    }
+
     @ExceptionHandler(TimeoutException.class)
     public ResponseEntity<ErrorResponse> handleTimeoutException(TimeoutException ex,
                                                                HttpServletRequest request) {
@@ -0,0 +1,160 @@
+package com.app.filter;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit for one downstream that adapts to the round-trip times it observes (gradient algorithm).
+ *
+ * A slow-moving average of RTT stands in for healthy latency. While the recent average stays close to it the
+ * limit grows by about sqrt(limit) per sample; as the recent average climbs above it (work queueing up in the
+ * downstream) the limit shrinks in proportion. Failed or timed-out calls cut the limit multiplicatively.
+ * Lower priorities may only use part of the limit, so the last free slots always go to critical traffic.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    /** Share of the limit each class of traffic may occupy. */
+    public enum Priority {
+        CRITICAL(1.0),
+        NORMAL(0.9),
+        LOW(0.6);
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+
+    private static final double SHORT_RTT_WEIGHT = 0.1;    // ~10 samples
+    private static final double LONG_RTT_WEIGHT = 0.002;   // ~500 samples
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile double limit;
+    private double shortRttNanos; // guarded by lock
+    private double longRttNanos;  // guarded by lock
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        this.name = name;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+    }
+
+    /**
+     * Claim a slot for a call, or empty if {@code priority} has used up its share of the limit.
+     * Every permit must be completed exactly once with one of its on* methods.
+     */
+    public Optional<Permit> tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit * priority.share));
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return Optional.empty();
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return Optional.of(new Permit(current + 1));
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private void onSample(long rttNanos, int inflightAtStart) {
+        lock.lock();
+        try {
+            if (longRttNanos == 0) {
+                shortRttNanos = rttNanos;
+                longRttNanos = rttNanos;
+                return;
+            }
+            shortRttNanos += (rttNanos - shortRttNanos) * SHORT_RTT_WEIGHT;
+            longRttNanos += (rttNanos - longRttNanos) * LONG_RTT_WEIGHT;
+            // After a slowdown ends the long average lags far above the recent one; let it catch up
+            if (longRttNanos / shortRttNanos > 2) {
+                longRttNanos *= 0.95;
+            }
+            // Too little traffic to tell whether the limit is what holds us back
+            if (inflightAtStart < limit / 2) {
+                return;
+            }
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, longRttNanos / shortRttNanos));
+            double target = limit * gradient + Math.sqrt(limit);
+            setLimit(limit * (1 - SMOOTHING) + target * SMOOTHING);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onBackoff() {
+        lock.lock();
+        try {
+            setLimit(limit * BACKOFF_RATIO);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void setLimit(double newLimit) {
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    /**
+     * One admitted call. The outcome decides how it feeds back into the limit.
+     */
+    public final class Permit {
+        private final long startNanos = System.nanoTime();
+        private final int inflightAtStart;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private Permit(int inflightAtStart) {
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        /** The call succeeded; its RTT is a latency sample. */
+        public void onSuccess() {
+            if (complete()) {
+                onSample(System.nanoTime() - startNanos, inflightAtStart);
+            }
+        }
+
+        /** The call failed or timed out in a way that suggests the downstream is overloaded. */
+        public void onDropped() {
+            if (complete()) {
+                onBackoff();
+            }
+        }
+
+        /** The call says nothing about downstream health (e.g. rejected by validation). */
+        public void onIgnore() {
+            complete();
+        }
+
+        private boolean complete() {
+            if (!completed.compareAndSet(false, true)) {
+                return false;
+            }
+            inflight.decrementAndGet();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.app.filter;
+
+import com.app.config.ResilienceConfig;
+import com.app.exception.ErrorCode;
+import com.app.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Caps how many request threads each endpoint class may hold at once, using the Resilience4j semaphore
+ * bulkheads declared in {@link ResilienceConfig}.
+ *
+ * A flood of batch URL signing or analytics uploads fills only its own bulkhead and is answered 503 with
+ * Retry-After from then on, while auth, delta sync and profile calls keep their threads. Catalog browsing
+ * has its own bulkhead so a burst of story downloads cannot crowd out delta sync and version polls. Paths
+ * outside these classes (health, metrics, private endpoints) are not limited.
+ */
+@Component
+@Order(4) // after ConcurrencyLimitFilter
+public class BulkheadFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadFilter.class);
+
+    private final BulkheadRegistry bulkheadRegistry;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int retryAfterSeconds;
+
+    public BulkheadFilter(BulkheadRegistry bulkheadRegistry,
+                          ObjectMapper objectMapper,
+                          @Value("${bulkhead.endpoints.enabled:true}") boolean enabled,
+                          @Value("${bulkhead.endpoints.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    /** The endpoint class (bulkhead name) of a path, or null if the path is not isolated. */
+    static String endpointClass(String path) {
+        return switch (RouteClass.of(path)) {
+            case AUTH_REFRESH, AUTH -> ResilienceConfig.BULKHEAD_AUTH;
+            case STORY_DELTA, STORY_VERSION -> ResilienceConfig.BULKHEAD_SYNC;
+            case STORY_CATALOG -> ResilienceConfig.BULKHEAD_CATALOG;
+            case ASSET_BATCH_URLS, ASSETS -> ResilienceConfig.BULKHEAD_ASSETS;
+            case ANALYTICS -> ResilienceConfig.BULKHEAD_ANALYTICS;
+            case PROFILE -> ResilienceConfig.BULKHEAD_PROFILE;
+            default -> null;
+        };
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || "OPTIONS".equals(request.getMethod()) || endpointClass(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(endpointClass(request.getRequestURI()));
+        if (!bulkhead.tryAcquirePermission()) {
+            reject(request, response, bulkhead);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, Bulkhead bulkhead)
+            throws IOException {
+        logger.debug("Bulkhead full [name={}, path={}, maxConcurrentCalls={}]", bulkhead.getName(),
+                request.getRequestURI(), bulkhead.getBulkheadConfig().getMaxConcurrentCalls());
+
+        ErrorCode code = ErrorCode.SYSTEM_OVERLOADED;
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setContentType("application/json");
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        ErrorResponse body = new ErrorResponse();
+        body.setSuccess(false);
+        body.setErrorCode(code.getCode());
+        body.setError(code.getDefaultMessage());
+        body.setMessage("Too many concurrent " + bulkhead.getName() + " requests. Please retry shortly.");
+        body.setPath(request.getRequestURI());
+        body.setTimestamp(Instant.now().toString());
+        Object requestId = request.getAttribute(RequestIdFilter.ATTR_REQUEST_ID);
+        body.setRequestId(requestId != null ? String.valueOf(requestId) : UUID.randomUUID().toString());
+        body.setDetails(null);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
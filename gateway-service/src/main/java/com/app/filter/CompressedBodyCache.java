@@ -0,0 +1,71 @@
+package com.app.filter;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Content-addressed cache of encoded response bodies, bounded by their total size (LRU).
+ *
+ * Entries are keyed by the encoding and the SHA-256 of the uncompressed body, so a body is compressed once
+ * for as long as it stays byte-for-byte the same: a story at a given checksum, the catalog at a content
+ * version, the no-change delta sync. Hashing is an order of magnitude cheaper than compressing.
+ */
+final class CompressedBodyCache {
+
+    record Key(ContentEncoding encoding, String digest) {}
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    CompressedBodyCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** The cache key of {@code body} in {@code encoding}; hashes the body once per response. */
+    Key key(ContentEncoding encoding, byte[] body) {
+        return new Key(encoding, digest(body));
+    }
+
+    /** @return the cached encoded body, or null on a miss */
+    synchronized byte[] get(Key key) {
+        return entries.get(key);
+    }
+
+    /** Cache an encoded body; bodies larger than the whole cache are not kept. */
+    synchronized void put(Key key, byte[] encoded) {
+        if (encoded.length > maxBytes) {
+            return;
+        }
+        byte[] previous = entries.put(key, encoded);
+        if (previous != null) {
+            totalBytes -= previous.length;
+        }
+        totalBytes += encoded.length;
+        var eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Key, byte[]> entry = eldest.next();
+            totalBytes -= entry.getValue().length;
+            eldest.remove();
+        }
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static String digest(byte[] body) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
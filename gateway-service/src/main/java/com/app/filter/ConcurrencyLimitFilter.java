@@ -0,0 +1,172 @@
+package com.app.filter;
+
+import com.app.deadline.RequestDeadline;
+import com.app.exception.ErrorCode;
+import com.app.exception.ErrorResponse;
+import com.app.filter.AdaptiveConcurrencyLimiter.Permit;
+import com.app.filter.AdaptiveConcurrencyLimiter.Priority;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Sheds load in front of Firestore- and GCS-bound endpoints before requests pile up behind a slow downstream.
+ *
+ * Each downstream has an {@link AdaptiveConcurrencyLimiter} fed with the latency of the requests it admits.
+ * Requests over the limit are rejected at once with 503 and Retry-After instead of queueing until the
+ * circuit breaker or the inbound timeout gives up. Token refresh and the story delta sync are CRITICAL and
+ * may use the whole limit; catalog browsing is LOW and is shed first. Analytics uploads are not limited here:
+ * they only enqueue onto the ingestion queue, which sheds on its own, so their latency says nothing about
+ * Firestore and must not shrink its limit.
+ *
+ * Exports app.concurrency.limit, app.concurrency.inflight and app.concurrency.shed, tagged by downstream.
+ */
+@Component
+@Order(3) // after InboundRequestTimeoutFilter, so timed-out requests count as drops
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    static final String FIRESTORE = "firestore";
+    static final String GCS = "gcs";
+
+    record Route(String downstream, Priority priority) { }
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters;
+    private final boolean enabled;
+    private final int retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${concurrency-limit.enabled:true}") boolean enabled,
+                                  @Value("${concurrency-limit.initial-limit:40}") int initialLimit,
+                                  @Value("${concurrency-limit.min-limit:8}") int minLimit,
+                                  @Value("${concurrency-limit.max-limit:400}") int maxLimit,
+                                  @Value("${concurrency-limit.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+        this.limiters = Map.of(
+                FIRESTORE, new AdaptiveConcurrencyLimiter(FIRESTORE, initialLimit, minLimit, maxLimit),
+                GCS, new AdaptiveConcurrencyLimiter(GCS, initialLimit, minLimit, maxLimit));
+        limiters.values().forEach(this::registerGauges);
+    }
+
+    private void registerGauges(AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("app.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("downstream", limiter.getName())
+                .register(meterRegistry);
+        Gauge.builder("app.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight)
+                .description("Requests currently admitted by the concurrency limiter")
+                .tag("downstream", limiter.getName())
+                .register(meterRegistry);
+    }
+
+    AdaptiveConcurrencyLimiter limiter(String downstream) {
+        return limiters.get(downstream);
+    }
+
+    /** Which limiter guards a path and at what priority; null for paths that are not limited. */
+    static Route route(String path) {
+        return switch (RouteClass.of(path)) {
+            case AUTH_REFRESH, STORY_DELTA -> new Route(FIRESTORE, Priority.CRITICAL);
+            case AUTH, PROFILE, ASSETS -> new Route(FIRESTORE, Priority.NORMAL);
+            case ASSET_BATCH_URLS -> new Route(GCS, Priority.NORMAL);
+            case STORY_VERSION, STORY_CATALOG -> new Route(FIRESTORE, Priority.LOW);
+            default -> null;
+        };
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || "OPTIONS".equals(request.getMethod()) || route(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Route route = route(request.getRequestURI());
+        AdaptiveConcurrencyLimiter limiter = limiters.get(route.downstream());
+        Optional<Permit> acquired = limiter.tryAcquire(route.priority());
+        if (acquired.isEmpty()) {
+            shed(request, response, route, limiter);
+            return;
+        }
+
+        Permit permit = acquired.get();
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            permit.onDropped();
+            throw e;
+        }
+        complete(permit, request, response.getStatus());
+    }
+
+    private void complete(Permit permit, HttpServletRequest request, int status) {
+        boolean deadlineExpired = request.getAttribute(RequestDeadline.ATTRIBUTE) instanceof RequestDeadline deadline
+                && deadline.isExpired();
+        if (deadlineExpired || status >= 500) {
+            permit.onDropped();
+        } else if (status >= 400) {
+            // Mostly auth and validation failures that never reached the downstream
+            permit.onIgnore();
+        } else {
+            permit.onSuccess();
+        }
+    }
+
+    private void shed(HttpServletRequest request, HttpServletResponse response, Route route,
+                      AdaptiveConcurrencyLimiter limiter) throws IOException {
+        Counter.builder("app.concurrency.shed")
+                .description("Requests rejected by the adaptive concurrency limiter")
+                .tag("downstream", route.downstream())
+                .tag("priority", route.priority().name())
+                .register(meterRegistry)
+                .increment();
+        logger.debug("Shedding request [path={}, downstream={}, priority={}, limit={}, inflight={}]",
+                request.getRequestURI(), route.downstream(), route.priority(), limiter.getLimit(),
+                limiter.getInflight());
+
+        ErrorCode code = ErrorCode.SYSTEM_OVERLOADED;
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setContentType("application/json");
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        ErrorResponse body = new ErrorResponse();
+        body.setSuccess(false);
+        body.setErrorCode(code.getCode());
+        body.setError(code.getDefaultMessage());
+        body.setMessage("Server is busy. Please retry shortly.");
+        body.setPath(request.getRequestURI());
+        body.setTimestamp(Instant.now().toString());
+        body.setRequestId(requestId(request));
+        body.setDetails(null);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private String requestId(HttpServletRequest request) {
+        Object attr = request.getAttribute(RequestIdFilter.ATTR_REQUEST_ID);
+        return attr != null ? String.valueOf(attr) : UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,70 @@
+package com.app.filter;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response body encodings the gateway can produce, in server preference order.
+ *
+ * zstd comes from the zstd-jni native library; if it cannot be loaded on this platform (or in a native
+ * image without its JNI config) it is reported unavailable and clients fall back to gzip.
+ */
+enum ContentEncoding {
+    ZSTD("zstd") {
+        @Override
+        byte[] encode(byte[] body, int level) {
+            return Zstd.compress(body, level);
+        }
+    },
+    GZIP("gzip") {
+        @Override
+        byte[] encode(byte[] body, int level) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+            try (GZIPOutputStream gzip = new LeveledGzipOutputStream(out, level)) {
+                gzip.write(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    };
+
+    private static final boolean ZSTD_AVAILABLE = zstdLoads();
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    /** The Content-Encoding / Accept-Encoding token. */
+    String token() {
+        return token;
+    }
+
+    boolean isAvailable() {
+        return this != ZSTD || ZSTD_AVAILABLE;
+    }
+
+    abstract byte[] encode(byte[] body, int level);
+
+    private static boolean zstdLoads() {
+        try {
+            Zstd.compress(new byte[1], 1);
+            return true;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        LeveledGzipOutputStream(ByteArrayOutputStream out, int level) throws IOException {
+            super(out, 8192);
+            def.setLevel(level);
+        }
+    }
+}
@@ -1,29 +1,43 @@
 package com.app.filter;
 
+import com.app.deadline.RequestDeadline;
 import com.app.exception.ErrorCode;
 import com.app.exception.ErrorResponse;
 import com.app.testing.TestSimulationFlags;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.context.annotation.Profile;
-import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.time.Instant;
 import java.util.UUID;
-import java.util.concurrent.*;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Enforces performance.inbound.request-timeout-seconds (or the test-profile override) on every request.
+ * A client may send {@link RequestDeadline#HEADER} to ask for a shorter budget (e.g. what is left of its own
+ * deadline); it is clamped to performance.inbound.min-client-timeout-ms and never extends the server limit.
+ *
+ * The request runs on its own thread with a {@link RequestDeadline}; one shared {@link HashedWheelTimer}
+ * fires when the deadline passes and only marks the deadline and the response as expired. The request
+ * thread then sends the 504 the next time it writes, or when it leaves this filter, if nothing has been
+ * committed yet, and whatever it writes afterwards is discarded (see {@link TimeoutGuardedResponse}).
+ * Downstream calls check {@link RequestDeadline#current()} and give up once it has expired, so the request
+ * thread gets there promptly. No thread is spawned per request, so overload cannot grow the thread count,
+ * and the timer thread never does I/O, so a slow client cannot delay other requests' deadlines.
+ */
 @Component
 @Profile("!test")
 @Order(2) // after RequestIdFilter and MetricsFilter
@@ -33,65 +47,83 @@ public class InboundRequestTimeoutFilter extends OncePerRequestFilter {
     @Value("${performance.inbound.request-timeout-seconds:0}")
     private int inboundTimeoutSeconds;
 
+    @Value("${performance.inbound.min-client-timeout-ms:100}")
+    private long minClientTimeoutMs;
+
     private final ObjectProvider<TestSimulationFlags> flagsProvider; // test-profile only, may be null
     private final ObjectMapper objectMapper;
-
-    private final ExecutorService executor = new DelegatingSecurityContextExecutorService(
-        Executors.newCachedThreadPool(r -> {
-            Thread t = new Thread(r, "gw-inbound-timeout");
-            t.setDaemon(true);
-            return t;
-        })
-    );
+    private final MeterRegistry meterRegistry;
+    private final HashedWheelTimer timer;
 
     public InboundRequestTimeoutFilter(ObjectMapper objectMapper,
-                                       ObjectProvider<TestSimulationFlags> flagsProvider) {
+                                       ObjectProvider<TestSimulationFlags> flagsProvider,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${performance.inbound.timer-tick-ms:10}") long tickMs) {
         this.objectMapper = objectMapper;
         this.flagsProvider = flagsProvider;
+        this.meterRegistry = meterRegistry;
+        this.timer = new HashedWheelTimer("gw-inbound-timeout", tickMs, TimeUnit.MILLISECONDS, 512);
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        long thresholdMs = resolveThresholdMs();
+        long thresholdMs = applyClientTimeout(resolveThresholdMs(), request.getHeader(RequestDeadline.HEADER));
         if (thresholdMs <= 0) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        var mdc = MDC.getCopyOfContextMap();
-        Future<?> task = executor.submit(() -> {
-            if (mdc != null) MDC.setContextMap(mdc);
+        RequestDeadline deadline = new RequestDeadline(thresholdMs, TimeUnit.MILLISECONDS, meterRegistry);
+        String requestId = extractRequestId(request);
+        String path = request.getRequestURI();
+        TimeoutGuardedResponse guarded = new TimeoutGuardedResponse(response,
+                timeoutResponse -> writeTimeoutResponse(timeoutResponse, path, requestId));
+        HashedWheelTimer.Timeout timeout = timer.schedule(() -> {
+            deadline.markExpired();
+            guarded.expire();
+        }, thresholdMs, TimeUnit.MILLISECONDS);
+
+        request.setAttribute(RequestDeadline.ATTRIBUTE, deadline);
+        RequestDeadline.set(deadline);
+        try {
+            filterChain.doFilter(request, guarded);
+        } catch (IOException | ServletException | RuntimeException e) {
+            if (!sendTimeoutIfExpired(guarded, requestId)) {
+                throw e;
+            }
+            // The client has its 504; whatever the late request ran into is noise
+            logger.debug("Request failed after inbound timeout [requestId={}]: {}", requestId, e.getMessage());
+        } finally {
+            RequestDeadline.set(null);
+            timeout.cancel();
+            // Before the response can be recycled: an expiry from here on is a no-op
             try {
-                filterChain.doFilter(request, response);
-            } finally {
-                MDC.clear();
+                if (guarded.complete()) {
+                    logger.error("Inbound request timeout [requestId={}, method={}, path={}, thresholdMs={}]",
+                            requestId, request.getMethod(), path, thresholdMs);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to send inbound timeout response [requestId={}]: {}", requestId, e.getMessage());
             }
-            return null;
-        });
+        }
+    }
 
+    private boolean sendTimeoutIfExpired(TimeoutGuardedResponse guarded, String requestId) {
         try {
-            task.get(thresholdMs, TimeUnit.MILLISECONDS);
-        } catch (java.util.concurrent.TimeoutException e) {
-            task.cancel(true);
-            if (!response.isCommitted()) {
-                String requestId = extractRequestId(request);
-                logger.error("Inbound request timeout [requestId={}, method={}, path={}, thresholdMs={}]",
-                        requestId, request.getMethod(), request.getRequestURI(), thresholdMs);
-                writeTimeoutResponse(response, request, requestId);
-            }
-        } catch (ExecutionException ee) {
-            Throwable cause = ee.getCause() != null ? ee.getCause() : ee;
-            if (cause instanceof ServletException se) throw se;
-            if (cause instanceof IOException ioe) throw ioe;
-            throw new ServletException(cause);
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
-            throw new ServletException(ie);
+            return guarded.sendTimeoutIfExpired();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to send inbound timeout response [requestId={}]: {}", requestId, e.getMessage());
+            return guarded.isTimedOut();
         }
     }
 
+    @PreDestroy
+    public void shutdown() {
+        timer.close();
+    }
+
     private long resolveThresholdMs() {
         try {
             TestSimulationFlags flags = flagsProvider != null ? flagsProvider.getIfAvailable() : null;
@@ -102,6 +134,24 @@ public class InboundRequestTimeoutFilter extends OncePerRequestFilter {
         return inboundTimeoutSeconds > 0 ? inboundTimeoutSeconds * 1000L : 0L;
     }
 
+    /** The tighter of the server threshold and the client's requested budget; 0 means no deadline. */
+    long applyClientTimeout(long thresholdMs, String header) {
+        if (header == null || header.isBlank()) {
+            return thresholdMs;
+        }
+        long clientMs;
+        try {
+            clientMs = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return thresholdMs;
+        }
+        if (clientMs <= 0) {
+            return thresholdMs;
+        }
+        clientMs = Math.max(clientMs, minClientTimeoutMs);
+        return thresholdMs > 0 ? Math.min(thresholdMs, clientMs) : clientMs;
+    }
+
     private String extractRequestId(HttpServletRequest request) {
         try {
             Object attr = request.getAttribute(RequestIdFilter.ATTR_REQUEST_ID);
@@ -113,7 +163,7 @@ public class InboundRequestTimeoutFilter extends OncePerRequestFilter {
         return UUID.randomUUID().toString();
     }
 
-    private void writeTimeoutResponse(HttpServletResponse response, HttpServletRequest request, String requestId)
+    private void writeTimeoutResponse(HttpServletResponse response, String path, String requestId)
             throws IOException {
         response.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
         response.setContentType("application/json");
@@ -122,7 +172,7 @@ public class InboundRequestTimeoutFilter extends OncePerRequestFilter {
         body.setErrorCode(ErrorCode.TIMEOUT_ERROR.getCode());
         body.setError(ErrorCode.TIMEOUT_ERROR.getDefaultMessage());
         body.setMessage("Request timeout");
-        body.setPath(request.getRequestURI());
+        body.setPath(path);
         body.setTimestamp(Instant.now().toString());
         body.setRequestId(requestId);
         body.setDetails(null);
@@ -1,6 +1,8 @@
 package com.app.filter;
 
 import com.app.service.ApplicationMetricsService;
+import com.app.service.EndpointTemplateResolver;
+import com.app.service.RouteLatencyRecorder;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
@@ -29,9 +31,14 @@ public class MetricsFilter implements Filter {
     private static final Logger logger = LoggerFactory.getLogger(MetricsFilter.class);
 
     private final ApplicationMetricsService metricsService;
+    private final RouteLatencyRecorder routeLatencyRecorder;
+    private final EndpointTemplateResolver endpointTemplateResolver;
 
-    public MetricsFilter(ApplicationMetricsService metricsService) {
+    public MetricsFilter(ApplicationMetricsService metricsService, RouteLatencyRecorder routeLatencyRecorder,
+                         EndpointTemplateResolver endpointTemplateResolver) {
         this.metricsService = metricsService;
+        this.routeLatencyRecorder = routeLatencyRecorder;
+        this.endpointTemplateResolver = endpointTemplateResolver;
     }
 
     @Override
@@ -62,6 +69,7 @@ public class MetricsFilter implements Filter {
         }
 
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         ResponseSizeWrapper responseWrapper = new ResponseSizeWrapper(httpResponse);
         metricsService.incrementActiveConnections();
 
@@ -77,11 +85,13 @@ public class MetricsFilter implements Filter {
         } finally {
             long responseTime = System.currentTimeMillis() - startTime;
             int statusCode = responseWrapper.getStatus();
+            String endpoint = endpointTemplateResolver.resolve(httpRequest);
             metricsService.recordRequest(httpRequest, statusCode, responseTime);
+            routeLatencyRecorder.record(endpoint, System.nanoTime() - startNanos);
 
             long responseSize = responseWrapper.getResponseSize();
             if (responseSize > 0) {
-                metricsService.recordResponseSize(requestURI, httpRequest.getMethod(), responseSize);
+                metricsService.recordResponseSize(endpoint, httpRequest.getMethod(), responseSize);
             }
 
             metricsService.decrementActiveConnections();
@@ -19,6 +19,7 @@ public class RequestIdFilter implements Filter {
 
     public static final String HEADER_REQUEST_ID = "X-Request-Id";
     public static final String ATTR_REQUEST_ID = "requestId";
+    public static final String MDC_REQUEST_PATH = "requestPath";
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
@@ -36,10 +37,13 @@ public class RequestIdFilter implements Filter {
         httpReq.setAttribute(ATTR_REQUEST_ID, requestId);
         httpResp.setHeader(HEADER_REQUEST_ID, requestId);
         MDC.put("requestId", requestId);
+        // Used by the logback sampling filter to pick out hot endpoints
+        MDC.put(MDC_REQUEST_PATH, httpReq.getRequestURI());
         try {
             chain.doFilter(request, response);
         } finally {
             MDC.remove("requestId");
+            MDC.remove(MDC_REQUEST_PATH);
         }
     }
 
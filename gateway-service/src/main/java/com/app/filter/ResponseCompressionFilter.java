@@ -0,0 +1,317 @@
+package com.app.filter;
+
+import com.app.service.EndpointTemplateResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route-aware response compression, replacing Tomcat's blanket gzip (server.compression.enabled=false).
+ *
+ * The encoding is negotiated from Accept-Encoding: zstd when the client advertises it and the native library
+ * loads, otherwise gzip. Bodies under {@code min-response-bytes} and non-text content are sent as is.
+ * Story routes (a story or download at a given checksum, the catalog, the delta sync) mostly repeat the same
+ * bytes, so their encoded bodies are kept in a {@link CompressedBodyCache} and compressed once; other routes
+ * are compressed per response.
+ *
+ * Per route template and encoding, exports app.compression.ratio (uncompressed / encoded size),
+ * app.compression.cpu.time (CPU spent encoding, wall time where thread CPU time is unavailable) and
+ * app.compression.cache{outcome}.
+ *
+ * A strong ETag stays strong per representation: an encoded response gets the encoding appended to its tag
+ * ({@code "abc"} becomes {@code "abc-gzip"}), and the suffix is stripped from If-None-Match before the
+ * controllers compare it.
+ */
+@Component
+@Order(5) // after ConcurrencyLimitFilter and BulkheadFilter, so shed requests are never buffered
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    enum Policy { CACHED, PER_RESPONSE }
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final MeterRegistry meterRegistry;
+    private final EndpointTemplateResolver templateResolver;
+    private final boolean enabled;
+    private final int minResponseBytes;
+    private final boolean zstdEnabled;
+    private final int gzipLevel;
+    private final int zstdLevel;
+    private final CompressedBodyCache cache;
+
+    public ResponseCompressionFilter(MeterRegistry meterRegistry,
+                                     EndpointTemplateResolver templateResolver,
+                                     @Value("${compression.enabled:true}") boolean enabled,
+                                     @Value("${compression.min-response-bytes:1024}") int minResponseBytes,
+                                     @Value("${compression.zstd.enabled:true}") boolean zstdEnabled,
+                                     @Value("${compression.gzip.level:6}") int gzipLevel,
+                                     @Value("${compression.zstd.level:3}") int zstdLevel,
+                                     @Value("${compression.cache.max-bytes:16777216}") long cacheMaxBytes) {
+        this.meterRegistry = meterRegistry;
+        this.templateResolver = templateResolver;
+        this.enabled = enabled;
+        this.minResponseBytes = Math.max(0, minResponseBytes);
+        this.zstdEnabled = zstdEnabled;
+        this.gzipLevel = gzipLevel;
+        this.zstdLevel = zstdLevel;
+        this.cache = new CompressedBodyCache(cacheMaxBytes);
+        Gauge.builder("app.compression.cache.bytes", cache, CompressedBodyCache::totalBytes)
+                .description("Size of the cached pre-compressed response bodies")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /** How responses on a path are compressed, or null if they are left alone. */
+    static Policy policy(String path) {
+        return switch (RouteClass.of(path)) {
+            case STORY_DELTA, STORY_CATALOG -> Policy.CACHED;
+            case UNCLASSIFIED -> null;
+            default -> Policy.PER_RESPONSE;
+        };
+    }
+
+    /**
+     * The encoding to use for an Accept-Encoding header: the highest q-value among those available, the
+     * server preference (zstd, then gzip) breaking ties. Null when the client accepts none of them.
+     */
+    ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        ContentEncoding best = null;
+        double bestQ = 0;
+        double wildcardQ = 0;
+        Double[] q = new Double[ContentEncoding.values().length];
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.trim().split(";");
+            String token = params[0].trim().toLowerCase(Locale.ROOT);
+            double value = qValue(params);
+            if (token.equals("*")) {
+                wildcardQ = value;
+            }
+            for (ContentEncoding encoding : ContentEncoding.values()) {
+                if (encoding.token().equals(token)) {
+                    q[encoding.ordinal()] = value;
+                }
+            }
+        }
+        for (ContentEncoding encoding : ContentEncoding.values()) {
+            double value = q[encoding.ordinal()] != null ? q[encoding.ordinal()] : wildcardQ;
+            if (value > bestQ && usable(encoding)) {
+                best = encoding;
+                bestQ = value;
+            }
+        }
+        return best;
+    }
+
+    private boolean usable(ContentEncoding encoding) {
+        return encoding.isAvailable() && (encoding != ContentEncoding.ZSTD || zstdEnabled);
+    }
+
+    private static double qValue(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || "HEAD".equals(request.getMethod()) || policy(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                ? String.join(", ", Collections.list(request.getHeaders(HttpHeaders.IF_NONE_MATCH)))
+                : null;
+        request = withoutEncodingSuffixes(request);
+        ContentEncoding encoding = negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, buffered);
+
+        byte[] body = buffered.getContentAsByteArray();
+        if (!compressible(buffered, body)) {
+            if (buffered.getStatus() == HttpServletResponse.SC_NOT_MODIFIED) {
+                tagNotModified(response, encoding, ifNoneMatch);
+            }
+            buffered.copyBodyToResponse();
+            return;
+        }
+
+        String route = templateResolver.resolve(request);
+        byte[] encoded = policy(request.getRequestURI()) == Policy.CACHED
+                ? cachedEncode(route, encoding, body)
+                : encode(route, encoding, body);
+
+        DistributionSummary.builder("app.compression.ratio")
+                .description("Uncompressed / encoded response size")
+                .tags("route", route, "encoding", encoding.token())
+                .register(meterRegistry)
+                .record((double) body.length / Math.max(1, encoded.length));
+
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        if (isStrong(etag)) {
+            response.setHeader(HttpHeaders.ETAG, withEncodingSuffix(etag, encoding));
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding.token());
+        response.setContentLength(encoded.length);
+        response.getOutputStream().write(encoded);
+    }
+
+    /**
+     * A 304 must carry the ETag a 200 to the same request would have had (RFC 9110 15.4.5), so the strong tag
+     * gets the suffix of the negotiated encoding. The exception is a client that revalidated the bare tag: the
+     * representation it holds went out uncompressed (below min-response-bytes), and so would a 200.
+     */
+    private static void tagNotModified(HttpServletResponse response, ContentEncoding encoding, String ifNoneMatch) {
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        if (isStrong(etag) && !listsTag(ifNoneMatch, etag)) {
+            response.setHeader(HttpHeaders.ETAG, withEncodingSuffix(etag, encoding));
+        }
+    }
+
+    private static boolean isStrong(String etag) {
+        return etag != null && !etag.startsWith("W/") && etag.endsWith("\"");
+    }
+
+    private static String withEncodingSuffix(String etag, ContentEncoding encoding) {
+        return etag.substring(0, etag.length() - 1) + "-" + encoding.token() + "\"";
+    }
+
+    private static boolean listsTag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Strips the encoding suffixes this filter adds to ETags from each tag in an If-None-Match header. */
+    static String stripEncodingSuffixes(String ifNoneMatch) {
+        String stripped = ifNoneMatch;
+        for (ContentEncoding encoding : ContentEncoding.values()) {
+            stripped = stripped.replace("-" + encoding.token() + "\"", "\"");
+        }
+        return stripped;
+    }
+
+    private static HttpServletRequest withoutEncodingSuffixes(HttpServletRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return request;
+        }
+        String stripped = stripEncodingSuffixes(
+                String.join(", ", Collections.list(request.getHeaders(HttpHeaders.IF_NONE_MATCH))));
+        return new HttpServletRequestWrapper(request) {
+            @Override
+            public String getHeader(String name) {
+                return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name) ? stripped : super.getHeader(name);
+            }
+
+            @Override
+            public Enumeration<String> getHeaders(String name) {
+                return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name)
+                        ? Collections.enumeration(Collections.singletonList(stripped))
+                        : super.getHeaders(name);
+            }
+        };
+    }
+
+    private boolean compressible(HttpServletResponse response, byte[] body) {
+        int status = response.getStatus();
+        if (body.length < minResponseBytes || status == HttpServletResponse.SC_NO_CONTENT
+                || status == HttpServletResponse.SC_NOT_MODIFIED || status == HttpServletResponse.SC_PARTIAL_CONTENT
+                || response.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            return false;
+        }
+        String contentType = response.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("application/json") || type.contains("+json") || type.startsWith("text/")
+                || type.startsWith("application/xml") || type.startsWith("application/javascript")
+                || type.startsWith("application/openmetrics-text");
+    }
+
+    private byte[] cachedEncode(String route, ContentEncoding encoding, byte[] body) {
+        CompressedBodyCache.Key key = cache.key(encoding, body);
+        byte[] cached = cache.get(key);
+        cacheCounter(route, cached != null ? "hit" : "miss").increment();
+        if (cached != null) {
+            return cached;
+        }
+        byte[] encoded = encode(route, encoding, body);
+        cache.put(key, encoded);
+        return encoded;
+    }
+
+    private byte[] encode(String route, ContentEncoding encoding, byte[] body) {
+        boolean cpuTimed = THREADS.isCurrentThreadCpuTimeSupported() && !Thread.currentThread().isVirtual();
+        long start = cpuTimed ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+        byte[] encoded = encoding.encode(body, encoding == ContentEncoding.ZSTD ? zstdLevel : gzipLevel);
+        long elapsed = (cpuTimed ? THREADS.getCurrentThreadCpuTime() : System.nanoTime()) - start;
+        Timer.builder("app.compression.cpu.time")
+                .description("CPU time spent compressing response bodies")
+                .tags("route", route, "encoding", encoding.token())
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        return encoded;
+    }
+
+    private Counter cacheCounter(String route, String outcome) {
+        return Counter.builder("app.compression.cache")
+                .description("Pre-compressed response cache lookups")
+                .tags("route", route, "outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    CompressedBodyCache cache() {
+        return cache;
+    }
+}
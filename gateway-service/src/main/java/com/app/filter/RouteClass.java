@@ -0,0 +1,55 @@
+package com.app.filter;
+
+/**
+ * The classes of request paths that the admission filters tell apart.
+ *
+ * ConcurrencyLimitFilter, BulkheadFilter and ResponseCompressionFilter each map a class to their own
+ * setting (limiter and priority, bulkhead, compression policy), so a new endpoint is classified once here
+ * instead of in three prefix lists that drift apart.
+ */
+enum RouteClass {
+    AUTH_REFRESH,
+    AUTH_STATUS,
+    AUTH,
+    STORY_DELTA,
+    STORY_VERSION,
+    STORY_CATALOG,
+    ASSET_BATCH_URLS,
+    ASSETS,
+    ANALYTICS,
+    PROFILE,
+    OTHER_API,
+    INTERNAL,
+    UNCLASSIFIED;
+
+    static RouteClass of(String path) {
+        if (path.startsWith("/auth/")) {
+            if (path.equals("/auth/refresh")) {
+                return AUTH_REFRESH;
+            }
+            return path.equals("/auth/status") ? AUTH_STATUS : AUTH;
+        }
+        if (path.startsWith("/api/stories")) {
+            if (path.equals("/api/stories/delta")) {
+                return STORY_DELTA;
+            }
+            return path.equals("/api/stories/version") ? STORY_VERSION : STORY_CATALOG;
+        }
+        if (path.startsWith("/api/assets/")) {
+            return path.equals("/api/assets/batch-urls") ? ASSET_BATCH_URLS : ASSETS;
+        }
+        if (path.startsWith("/api/analytics/")) {
+            return ANALYTICS;
+        }
+        if (path.startsWith("/api/profile") || path.startsWith("/api/account") || path.startsWith("/api/users")) {
+            return PROFILE;
+        }
+        if (path.startsWith("/api/")) {
+            return OTHER_API;
+        }
+        if (path.startsWith("/private/") || path.startsWith("/actuator/")) {
+            return INTERNAL;
+        }
+        return UNCLASSIFIED;
+    }
+}
@@ -0,0 +1,312 @@
+package com.app.filter;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Response wrapper that replaces the response with the timeout response once the inbound deadline passes.
+ *
+ * The timer only calls {@link #expire}, which sets a flag and never touches the response: the wheel thread
+ * must stay short, and a non-async servlet response belongs to the request thread. The request thread sends
+ * the timeout response the next time it writes to the response, or when it leaves the filter
+ * ({@link #complete}), provided nothing has been committed yet. From then on whatever it writes is silently
+ * discarded, so the client never sees a 504 interleaved with a late 200. Once the filter has called
+ * {@link #complete} a late {@link #expire} is a no-op, so a timer task never affects a recycled response.
+ */
+class TimeoutGuardedResponse extends HttpServletResponseWrapper {
+
+    /** Writes the timeout response to the underlying (uncommitted, reset) response. */
+    interface TimeoutWriter {
+        void write(HttpServletResponse response) throws IOException;
+    }
+
+    private final TimeoutWriter timeoutWriter;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean expired;
+    private boolean timedOut;
+    private boolean completed;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    TimeoutGuardedResponse(HttpServletResponse response, TimeoutWriter timeoutWriter) {
+        super(response);
+        this.timeoutWriter = timeoutWriter;
+    }
+
+    /** Called by the timer: marks the deadline as passed. Does no I/O and takes no lock. */
+    void expire() {
+        expired = true;
+    }
+
+    /**
+     * Send the timeout response if the deadline has passed and the response can still be replaced.
+     *
+     * @return true if the timeout response has been sent, now or earlier
+     */
+    boolean sendTimeoutIfExpired() throws IOException {
+        lock.lock();
+        try {
+            sendTimeoutIfReplaceable();
+            return timedOut;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Called by the request thread when the request has left the filter. Sends the timeout response if it is
+     * still due, then makes every later {@link #expire} a no-op.
+     *
+     * @return true if the client got the timeout response
+     */
+    boolean complete() throws IOException {
+        lock.lock();
+        try {
+            sendTimeoutIfReplaceable();
+            return timedOut;
+        } finally {
+            completed = true;
+            lock.unlock();
+        }
+    }
+
+    boolean isTimedOut() {
+        lock.lock();
+        try {
+            return timedOut;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Lock held. */
+    private boolean replaceable() {
+        return expired && !timedOut && !completed && !getResponse().isCommitted();
+    }
+
+    /** Lock held. */
+    private void sendTimeoutIfReplaceable() throws IOException {
+        if (!replaceable()) {
+            return;
+        }
+        timedOut = true;
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        response.reset();
+        timeoutWriter.write(response);
+        response.flushBuffer();
+    }
+
+    private interface Action {
+        void run() throws IOException;
+    }
+
+    private void guarded(Action action) throws IOException {
+        lock.lock();
+        try {
+            sendTimeoutIfReplaceable();
+            if (!timedOut) {
+                action.run();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** For metadata changes that cannot throw: dropped once the response is about to be replaced. */
+    private void guardedUnchecked(Runnable action) {
+        lock.lock();
+        try {
+            if (!timedOut && !replaceable()) {
+                action.run();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new GuardedOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new GuardedWriter(super.getWriter()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setStatus(int sc) {
+        guardedUnchecked(() -> super.setStatus(sc));
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        guarded(() -> super.sendError(sc));
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        guarded(() -> super.sendError(sc, msg));
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        guarded(() -> super.sendRedirect(location));
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        guardedUnchecked(() -> super.setHeader(name, value));
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        guardedUnchecked(() -> super.addHeader(name, value));
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        guardedUnchecked(() -> super.setIntHeader(name, value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        guardedUnchecked(() -> super.addIntHeader(name, value));
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+        guardedUnchecked(() -> super.setDateHeader(name, date));
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+        guardedUnchecked(() -> super.addDateHeader(name, date));
+    }
+
+    @Override
+    public void addCookie(Cookie cookie) {
+        guardedUnchecked(() -> super.addCookie(cookie));
+    }
+
+    @Override
+    public void setContentType(String type) {
+        guardedUnchecked(() -> super.setContentType(type));
+    }
+
+    @Override
+    public void setCharacterEncoding(String charset) {
+        guardedUnchecked(() -> super.setCharacterEncoding(charset));
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        guardedUnchecked(() -> super.setContentLength(len));
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        guardedUnchecked(() -> super.setContentLengthLong(len));
+    }
+
+    @Override
+    public void setLocale(Locale loc) {
+        guardedUnchecked(() -> super.setLocale(loc));
+    }
+
+    @Override
+    public void setBufferSize(int size) {
+        guardedUnchecked(() -> super.setBufferSize(size));
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        guarded(super::flushBuffer);
+    }
+
+    @Override
+    public void reset() {
+        guardedUnchecked(super::reset);
+    }
+
+    @Override
+    public void resetBuffer() {
+        guardedUnchecked(super::resetBuffer);
+    }
+
+    private final class GuardedOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+
+        GuardedOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            guarded(() -> delegate.write(b));
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            guarded(() -> delegate.write(b, off, len));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            guarded(delegate::flush);
+        }
+
+        @Override
+        public void close() throws IOException {
+            guarded(delegate::close);
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    private final class GuardedWriter extends Writer {
+        private final PrintWriter delegate;
+
+        GuardedWriter(PrintWriter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            guarded(() -> delegate.write(cbuf, off, len));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            guarded(delegate::flush);
+        }
+
+        @Override
+        public void close() throws IOException {
+            guarded(delegate::close);
+        }
+    }
+}
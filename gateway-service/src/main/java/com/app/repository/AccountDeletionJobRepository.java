@@ -0,0 +1,53 @@
+package com.app.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One document per account being deleted, recording which deletion steps have completed. The document
+ * exists from the moment a deletion is queued or started until every step has succeeded, so an
+ * interrupted deletion resumes from the first unfinished step and the set of unfinished jobs doubles as
+ * the bulk-deletion queue.
+ */
+public interface AccountDeletionJobRepository {
+
+    /**
+     * Create a QUEUED job if none exists yet. An existing job is returned unchanged.
+     */
+    CompletableFuture<DeletionJob> enqueue(String userId, String provider);
+
+    /**
+     * Create the job if needed and mark it RUNNING, incrementing its attempt count. Completed steps
+     * from earlier attempts are kept.
+     */
+    CompletableFuture<DeletionJob> begin(String userId, String provider);
+
+    CompletableFuture<Optional<DeletionJob>> findByUserId(String userId);
+
+    /**
+     * Unfinished jobs (queued, running or failed), oldest request first, starting after {@code after} (the last
+     * job of the previous page) or from the oldest job when it is null.
+     */
+    CompletableFuture<List<DeletionJob>> findUnfinished(DeletionJob after, int limit);
+
+    CompletableFuture<Void> markStepCompleted(String userId, String step);
+
+    CompletableFuture<Void> markFailed(String userId, String error);
+
+    /**
+     * Remove the job once every step has completed.
+     */
+    CompletableFuture<Void> complete(String userId);
+
+    enum Status { QUEUED, RUNNING, FAILED }
+
+    record DeletionJob(String userId, String provider, Status status, Map<String, Long> completedSteps,
+                       int attempts, long requestedAtMillis, long updatedAtMillis) {
+
+        public boolean isStepCompleted(String step) {
+            return completedSteps != null && completedSteps.containsKey(step);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.app.repository;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Time-bounded leases for background jobs that must run on a single gateway instance at a time.
+ * The lease document also carries the job's last checkpoint so a new holder can resume where a
+ * crashed or rotated-out instance stopped.
+ */
+public interface JobLeaseRepository {
+
+    /**
+     * Acquire the lease if it is free, expired, or already held by {@code holderId}.
+     * Returns empty if another instance holds a live lease.
+     */
+    CompletableFuture<Optional<Lease>> tryAcquire(String jobName, String holderId, Duration leaseDuration);
+
+    /**
+     * Extend the lease and store a checkpoint. Returns false if the lease has been taken over,
+     * in which case the caller must stop working.
+     */
+    CompletableFuture<Boolean> renew(String jobName, String holderId, Duration leaseDuration,
+                                     Map<String, Object> checkpoint);
+
+    /**
+     * Release the lease, keeping {@code checkpoint} (null clears it).
+     */
+    CompletableFuture<Void> release(String jobName, String holderId, Map<String, Object> checkpoint);
+
+    record Lease(String jobName, String holderId, long leaseUntilMillis, Map<String, Object> checkpoint) {
+
+        public boolean hasCheckpoint() {
+            return checkpoint != null && !checkpoint.isEmpty();
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.app.repository;
 
+import com.app.model.ChildProfile;
 import com.app.model.User;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface UserRepository {
 
@@ -18,7 +20,8 @@ public interface UserRepository {
 
     CompletableFuture<List<User>> findUsersCreatedAfter(long timestamp);
 
-    CompletableFuture<User> updateLastLogin(String userId);
+    /** Buffered write-behind; completes once the update is queued, not when it is written. */
+    CompletableFuture<Void> updateLastLogin(String userId);
 
     CompletableFuture<User> deactivateUser(String userId);
 
@@ -28,9 +31,16 @@ public interface UserRepository {
 
     CompletableFuture<User> updatePreferences(String userId, Object preferences);
 
-    CompletableFuture<User> addChild(String userId, Object childProfile);
+    CompletableFuture<ChildProfile> addChild(String userId, ChildProfile child);
 
-    CompletableFuture<User> removeChild(String userId, String childId);
+    /** @return false if the user has no child with {@code childId} */
+    CompletableFuture<Boolean> removeChild(String userId, String childId);
 
-    CompletableFuture<User> updateChild(String userId, String childId, Object childProfile);
+    /**
+     * Apply {@code mutation} to the child atomically. The mutation may be invoked more than once if the
+     * write contends with another, so it must only set fields.
+     *
+     * @return the updated child, or empty if the user has no child with {@code childId}
+     */
+    CompletableFuture<Optional<ChildProfile>> updateChild(String userId, String childId, Consumer<ChildProfile> mutation);
 }
@@ -2,14 +2,22 @@ package com.app.repository;
 
 import com.app.model.UserSession;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 public interface UserSessionRepository {
 
     CompletableFuture<UserSession> save(UserSession session);
 
+    /**
+     * Create {@code session}, first revoking the user's oldest live sessions so that at most {@code maxSessions}
+     * remain active. Eviction and creation happen atomically against the user's session index.
+     */
+    CompletableFuture<SessionAdmission> createSessionWithinLimit(UserSession session, int maxSessions);
+
     CompletableFuture<Optional<UserSession>> findById(String sessionId);
 
     CompletableFuture<Optional<UserSession>> findByRefreshToken(String refreshToken);
@@ -20,7 +28,8 @@ public interface UserSessionRepository {
 
     CompletableFuture<List<UserSession>> findSessionsByDeviceId(String deviceId);
 
-    CompletableFuture<UserSession> updateLastAccessed(String sessionId);
+    /** Buffered write-behind; completes once the update is queued, not when it is written. */
+    CompletableFuture<Void> updateLastAccessed(String sessionId);
 
     CompletableFuture<UserSession> revokeSession(String sessionId);
 
@@ -30,6 +39,14 @@ public interface UserSessionRepository {
 
     CompletableFuture<Long> deleteExpiredSessions();
 
+    /**
+     * Delete sessions that expired before {@code cutoff}, one page at a time, starting after {@code resumeAfter}
+     * (null to start from the beginning). Stops after {@code maxPages}, when no expired sessions remain, or when
+     * {@code onPage} returns false. {@code onPage} is called with cumulative progress after each page is durable.
+     */
+    CompletableFuture<SweepResult> sweepExpiredSessions(Instant cutoff, SweepCursor resumeAfter, int pageSize,
+                                                        int maxPages, Predicate<SweepResult> onPage);
+
     CompletableFuture<Void> deleteSession(String sessionId);
 
     CompletableFuture<Long> deleteAllUserSessions(String userId);
@@ -45,4 +62,12 @@ public interface UserSessionRepository {
     CompletableFuture<UserSession> extendSession(String sessionId, long additionalSeconds);
 
     CompletableFuture<UserSession> updateRefreshToken(String sessionId, String newRefreshToken);
+
+    /** The created session and any sessions revoked to make room for it. */
+    record SessionAdmission(UserSession session, List<UserSession> evicted) {}
+
+    /** Position of an expired-session sweep: the (expiresAt, id) of the last deleted session. */
+    record SweepCursor(Object expiresAt, String sessionId) {}
+
+    record SweepResult(long deleted, long failed, int pages, SweepCursor lastCursor, boolean complete) {}
 }
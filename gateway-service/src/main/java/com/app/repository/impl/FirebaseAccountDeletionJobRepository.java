@@ -0,0 +1,259 @@
+package com.app.repository.impl;
+
+import com.app.config.ExecutionConfig;
+import com.app.deadline.RequestDeadline;
+import com.app.exception.GatewayException;
+import com.app.repository.AccountDeletionJobRepository;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.SetOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Account deletion jobs stored in {@code account_deletion_jobs/{userId}}. Completed steps are kept in a
+ * {@code steps} map of step name to completion time, written with a field-path update per step so
+ * concurrently running steps never overwrite each other's checkpoint.
+ */
+@Repository
+public class FirebaseAccountDeletionJobRepository implements AccountDeletionJobRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirebaseAccountDeletionJobRepository.class);
+    private static final String COLLECTION_NAME = "account_deletion_jobs";
+
+    private static final String FIELD_USER_ID = "userId";
+    private static final String FIELD_PROVIDER = "provider";
+    private static final String FIELD_STATUS = "status";
+    private static final String FIELD_STEPS = "steps";
+    private static final String FIELD_ATTEMPTS = "attempts";
+    private static final String FIELD_LAST_ERROR = "lastError";
+    private static final String FIELD_REQUESTED_AT = "requestedAtMillis";
+    private static final String FIELD_UPDATED_AT = "updatedAtMillis";
+
+    private final Firestore firestore;
+    private final Executor executor;
+
+    @Autowired
+    public FirebaseAccountDeletionJobRepository(Firestore firestore, @Qualifier(ExecutionConfig.BLOCKING_IO_EXECUTOR) Executor executor) {
+        this.firestore = firestore;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<DeletionJob> enqueue(String userId, String provider) {
+        logger.debug("Queueing account deletion for user: {}", userId);
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(userId);
+                return RequestDeadline.await(firestore.runTransaction(transaction -> {
+                    DocumentSnapshot snapshot = transaction.get(docRef).get();
+                    if (snapshot.exists()) {
+                        return toJob(snapshot);
+                    }
+                    Map<String, Object> data = newJob(userId, provider, Status.QUEUED, 0);
+                    transaction.set(docRef, data);
+                    return toJob(userId, data);
+                }), "firestore");
+            } catch (GatewayException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Error queueing account deletion for user: {}", userId, e);
+                throw new RuntimeException("Failed to queue account deletion", e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<DeletionJob> begin(String userId, String provider) {
+        logger.debug("Starting account deletion job for user: {}", userId);
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(userId);
+                return RequestDeadline.await(firestore.runTransaction(transaction -> {
+                    DocumentSnapshot snapshot = transaction.get(docRef).get();
+                    if (!snapshot.exists()) {
+                        Map<String, Object> data = newJob(userId, provider, Status.RUNNING, 1);
+                        transaction.set(docRef, data);
+                        return toJob(userId, data);
+                    }
+
+                    DeletionJob existing = toJob(snapshot);
+                    long now = System.currentTimeMillis();
+                    Map<String, Object> update = new HashMap<>();
+                    update.put(FIELD_STATUS, Status.RUNNING.name());
+                    update.put(FIELD_ATTEMPTS, existing.attempts() + 1);
+                    update.put(FIELD_UPDATED_AT, now);
+                    transaction.update(docRef, update);
+                    return new DeletionJob(userId, existing.provider(), Status.RUNNING, existing.completedSteps(),
+                            existing.attempts() + 1, existing.requestedAtMillis(), now);
+                }), "firestore");
+            } catch (GatewayException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Error starting account deletion job for user: {}", userId, e);
+                throw new RuntimeException("Failed to start account deletion job", e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Optional<DeletionJob>> findByUserId(String userId) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                DocumentSnapshot snapshot = RequestDeadline.await(
+                        firestore.collection(COLLECTION_NAME).document(userId).get(), "firestore");
+                return snapshot.exists() ? Optional.of(toJob(snapshot)) : Optional.<DeletionJob>empty();
+            } catch (GatewayException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Error finding account deletion job for user: {}", userId, e);
+                throw new RuntimeException("Failed to find account deletion job", e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<DeletionJob>> findUnfinished(DeletionJob after, int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                // Finished jobs are deleted, so every document is pending work. Ordered by document id as well,
+                // so the cursor is unique when several jobs were requested in the same millisecond.
+                Query query = firestore.collection(COLLECTION_NAME)
+                        .orderBy(FIELD_REQUESTED_AT)
+                        .orderBy(FieldPath.documentId());
+                if (after != null) {
+                    query = query.startAfter(after.requestedAtMillis(), after.userId());
+                }
+                List<QueryDocumentSnapshot> documents = RequestDeadline.await(query.limit(limit).get(), "firestore")
+                        .getDocuments();
+
+                List<DeletionJob> jobs = new ArrayList<>(documents.size());
+                for (QueryDocumentSnapshot document : documents) {
+                    jobs.add(toJob(document));
+                }
+                return jobs;
+            } catch (GatewayException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Error listing unfinished account deletion jobs", e);
+                throw new RuntimeException("Failed to list account deletion jobs", e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> markStepCompleted(String userId, String step) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                long now = System.currentTimeMillis();
+                RequestDeadline.await(firestore.collection(COLLECTION_NAME).document(userId)
+                        .update(FieldPath.of(FIELD_STEPS, step), now, FieldPath.of(FIELD_UPDATED_AT), now),
+                        "firestore");
+                return null;
+            } catch (GatewayException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Error checkpointing deletion step {} for user: {}", step, userId, e);
+                throw new RuntimeException("Failed to checkpoint account deletion step", e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> markFailed(String userId, String error) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Map<String, Object> update = new HashMap<>();
+                update.put(FIELD_STATUS, Status.FAILED.name());
+                update.put(FIELD_LAST_ERROR, error);
+                update.put(FIELD_UPDATED_AT, System.currentTimeMillis());
+                RequestDeadline.await(
+                        firestore.collection(COLLECTION_NAME).document(userId).set(update, SetOptions.merge()),
+                        "firestore");
+                return null;
+            } catch (GatewayException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Error marking account deletion failed for user: {}", userId, e);
+                throw new RuntimeException("Failed to mark account deletion job failed", e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> complete(String userId) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                RequestDeadline.await(firestore.collection(COLLECTION_NAME).document(userId).delete(), "firestore");
+                return null;
+            } catch (GatewayException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Error removing account deletion job for user: {}", userId, e);
+                throw new RuntimeException("Failed to complete account deletion job", e);
+            }
+        }, executor);
+    }
+
+    private static Map<String, Object> newJob(String userId, String provider, Status status, int attempts) {
+        long now = System.currentTimeMillis();
+        Map<String, Object> data = new HashMap<>();
+        data.put(FIELD_USER_ID, userId);
+        data.put(FIELD_PROVIDER, provider);
+        data.put(FIELD_STATUS, status.name());
+        data.put(FIELD_STEPS, new HashMap<String, Long>());
+        data.put(FIELD_ATTEMPTS, attempts);
+        data.put(FIELD_REQUESTED_AT, now);
+        data.put(FIELD_UPDATED_AT, now);
+        return data;
+    }
+
+    private static DeletionJob toJob(String userId, Map<String, Object> data) {
+        return new DeletionJob(userId, (String) data.get(FIELD_PROVIDER), Status.valueOf((String) data.get(FIELD_STATUS)),
+                Map.of(), (Integer) data.get(FIELD_ATTEMPTS), (Long) data.get(FIELD_REQUESTED_AT),
+                (Long) data.get(FIELD_UPDATED_AT));
+    }
+
+    private static DeletionJob toJob(DocumentSnapshot snapshot) {
+        String status = snapshot.getString(FIELD_STATUS);
+        Long attempts = snapshot.getLong(FIELD_ATTEMPTS);
+        Long requestedAt = snapshot.getLong(FIELD_REQUESTED_AT);
+        Long updatedAt = snapshot.getLong(FIELD_UPDATED_AT);
+        return new DeletionJob(snapshot.getId(),
+                snapshot.getString(FIELD_PROVIDER),
+                status != null ? Status.valueOf(status) : Status.QUEUED,
+                readSteps(snapshot),
+                attempts != null ? attempts.intValue() : 0,
+                requestedAt != null ? requestedAt : 0L,
+                updatedAt != null ? updatedAt : 0L);
+    }
+
+    private static Map<String, Long> readSteps(DocumentSnapshot snapshot) {
+        Map<String, Long> steps = new HashMap<>();
+        if (snapshot.get(FIELD_STEPS) instanceof Map<?, ?> raw) {
+            raw.forEach((step, completedAt) -> {
+                if (step instanceof String name && completedAt instanceof Number millis) {
+                    steps.put(name, millis.longValue());
+                }
+            });
+        }
+        return steps;
+    }
+}
@@ -1,5 +1,8 @@
 package com.app.repository.impl;
 
+import com.app.config.ExecutionConfig;
+import com.app.deadline.RequestDeadline;
+import com.app.exception.GatewayException;
 import com.app.model.AssetVersion;
 import com.app.repository.AssetVersionRepository;
 import com.app.service.ApplicationMetricsService;
@@ -8,10 +11,12 @@ import com.google.cloud.firestore.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Repository
 public class FirebaseAssetVersionRepository implements AssetVersionRepository {
@@ -22,11 +27,17 @@ public class FirebaseAssetVersionRepository implements AssetVersionRepository {
 
     private final Firestore firestore;
     private final ApplicationMetricsService metricsService;
+    private final FirestoreHedgedReader hedgedReader;
+    private final Executor executor;
 
     @Autowired
-    public FirebaseAssetVersionRepository(Firestore firestore, ApplicationMetricsService metricsService) {
+    public FirebaseAssetVersionRepository(Firestore firestore, ApplicationMetricsService metricsService,
+                                          FirestoreHedgedReader hedgedReader,
+                                          @Qualifier(ExecutionConfig.BLOCKING_IO_EXECUTOR) Executor executor) {
         this.firestore = firestore;
         this.metricsService = metricsService;
+        this.hedgedReader = hedgedReader;
+        this.executor = executor;
     }
 
     @Override
@@ -37,8 +48,7 @@ public class FirebaseAssetVersionRepository implements AssetVersionRepository {
             long startTime = System.currentTimeMillis();
             try {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(CURRENT_DOC_ID);
-                ApiFuture<DocumentSnapshot> future = docRef.get();
-                DocumentSnapshot document = future.get();
+                DocumentSnapshot document = hedgedReader.read(COLLECTION_NAME, "getCurrent", docRef::get);
 
                 long duration = System.currentTimeMillis() - startTime;
 
@@ -52,13 +62,15 @@ public class FirebaseAssetVersionRepository implements AssetVersionRepository {
                     metricsService.recordFirestoreOperation(COLLECTION_NAME, "getCurrent", true, duration);
                     return Optional.empty();
                 }
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error getting current asset version", e);
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "getCurrent", false, duration);
                 throw new RuntimeException("Failed to get asset version", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -72,20 +84,22 @@ public class FirebaseAssetVersionRepository implements AssetVersionRepository {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(CURRENT_DOC_ID);
                 ApiFuture<WriteResult> future = docRef.set(assetVersion);
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("Asset version saved: version={} at {}", assetVersion.getVersion(), result.getUpdateTime());
 
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "save", true, duration);
 
                 return assetVersion;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error saving asset version", e);
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "save", false, duration);
                 throw new RuntimeException("Failed to save asset version", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -101,19 +115,21 @@ public class FirebaseAssetVersionRepository implements AssetVersionRepository {
 
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(CURRENT_DOC_ID);
                 ApiFuture<WriteResult> future = docRef.set(version);
-                future.get();
+                RequestDeadline.await(future, "firestore");
 
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "updateAssetChecksum", true, duration);
 
                 return version;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error updating asset checksum: assetPath={}", assetPath, e);
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "updateAssetChecksum", false, duration);
                 throw new RuntimeException("Failed to update asset checksum", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -134,19 +150,21 @@ public class FirebaseAssetVersionRepository implements AssetVersionRepository {
 
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(CURRENT_DOC_ID);
                 ApiFuture<WriteResult> future = docRef.set(version);
-                future.get();
+                RequestDeadline.await(future, "firestore");
 
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "removeAssetChecksum", true, duration);
 
                 return version;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error removing asset checksum: assetPath={}", assetPath, e);
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "removeAssetChecksum", false, duration);
                 throw new RuntimeException("Failed to remove asset checksum", e);
             }
-        });
+        }, executor);
     }
 }
 
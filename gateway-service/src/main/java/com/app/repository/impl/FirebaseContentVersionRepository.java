@@ -1,5 +1,8 @@
 package com.app.repository.impl;
 
+import com.app.config.ExecutionConfig;
+import com.app.deadline.RequestDeadline;
+import com.app.exception.GatewayException;
 import com.app.model.ContentVersion;
 import com.app.repository.ContentVersionRepository;
 import com.app.service.ApplicationMetricsService;
@@ -8,10 +11,12 @@ import com.google.cloud.firestore.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Repository
 public class FirebaseContentVersionRepository implements ContentVersionRepository {
@@ -22,11 +27,17 @@ public class FirebaseContentVersionRepository implements ContentVersionRepositor
 
     private final Firestore firestore;
     private final ApplicationMetricsService metricsService;
+    private final FirestoreHedgedReader hedgedReader;
+    private final Executor executor;
 
     @Autowired
-    public FirebaseContentVersionRepository(Firestore firestore, ApplicationMetricsService metricsService) {
+    public FirebaseContentVersionRepository(Firestore firestore, ApplicationMetricsService metricsService,
+                                            FirestoreHedgedReader hedgedReader,
+                                            @Qualifier(ExecutionConfig.BLOCKING_IO_EXECUTOR) Executor executor) {
         this.firestore = firestore;
         this.metricsService = metricsService;
+        this.hedgedReader = hedgedReader;
+        this.executor = executor;
     }
 
     @Override
@@ -37,9 +48,7 @@ public class FirebaseContentVersionRepository implements ContentVersionRepositor
             long startTime = System.currentTimeMillis();
             try {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(CURRENT_DOC_ID);
-                ApiFuture<DocumentSnapshot> future = docRef.get();
-
-                DocumentSnapshot document = future.get();
+                DocumentSnapshot document = hedgedReader.read(COLLECTION_NAME, "getCurrent", docRef::get);
 
                 long duration = System.currentTimeMillis() - startTime;
                 logger.debug("[Firestore] Document check: exists={}, id={}, durationMs={}", document.exists(), document.getId(), duration);
@@ -56,13 +65,15 @@ public class FirebaseContentVersionRepository implements ContentVersionRepositor
                     metricsService.recordFirestoreOperation(COLLECTION_NAME, "getCurrent", true, duration);
                     return Optional.empty();
                 }
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error getting current content version", e);
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "getCurrent", false, duration);
                 throw new RuntimeException("Failed to get content version", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -77,20 +88,22 @@ public class FirebaseContentVersionRepository implements ContentVersionRepositor
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(CURRENT_DOC_ID);
                 ApiFuture<WriteResult> future = docRef.set(contentVersion);
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("Content version saved: version={} at {}", contentVersion.getVersion(), result.getUpdateTime());
 
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "save", true, duration);
 
                 return contentVersion;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error saving content version", e);
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "save", false, duration);
                 throw new RuntimeException("Failed to save content version", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -107,20 +120,22 @@ public class FirebaseContentVersionRepository implements ContentVersionRepositor
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(CURRENT_DOC_ID);
                 ApiFuture<WriteResult> future = docRef.set(version);
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("Story checksum updated: storyId={} at {}", storyId, result.getUpdateTime());
 
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "updateStoryChecksum", true, duration);
 
                 return version;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error updating story checksum: storyId={}", storyId, e);
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "updateStoryChecksum", false, duration);
                 throw new RuntimeException("Failed to update story checksum", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -142,20 +157,22 @@ public class FirebaseContentVersionRepository implements ContentVersionRepositor
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(CURRENT_DOC_ID);
                 ApiFuture<WriteResult> future = docRef.set(version);
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("Story checksum removed: storyId={} at {}", storyId, result.getUpdateTime());
 
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "removeStoryChecksum", true, duration);
 
                 return version;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error removing story checksum: storyId={}", storyId, e);
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "removeStoryChecksum", false, duration);
                 throw new RuntimeException("Failed to remove story checksum", e);
             }
-        });
+        }, executor);
     }
 }
 
@@ -0,0 +1,143 @@
+package com.app.repository.impl;
+
+import com.app.config.ExecutionConfig;
+import com.app.repository.JobLeaseRepository;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Job leases stored as one document per job in {@code job_leases}. Acquire and renew run in a
+ * Firestore transaction, so two instances racing for an expired lease cannot both win.
+ */
+@Repository
+public class FirebaseJobLeaseRepository implements JobLeaseRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirebaseJobLeaseRepository.class);
+    private static final String COLLECTION_NAME = "job_leases";
+
+    private static final String FIELD_HOLDER = "holderId";
+    private static final String FIELD_LEASE_UNTIL = "leaseUntilMillis";
+    private static final String FIELD_CHECKPOINT = "checkpoint";
+    private static final String FIELD_UPDATED_AT = "updatedAtMillis";
+
+    private final Firestore firestore;
+    private final Executor executor;
+
+    @Autowired
+    public FirebaseJobLeaseRepository(Firestore firestore, @Qualifier(ExecutionConfig.BLOCKING_IO_EXECUTOR) Executor executor) {
+        this.firestore = firestore;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Lease>> tryAcquire(String jobName, String holderId, Duration leaseDuration) {
+        logger.debug("Trying to acquire lease for job: {} as {}", jobName, holderId);
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(jobName);
+                return firestore.runTransaction(transaction -> {
+                    DocumentSnapshot snapshot = transaction.get(docRef).get();
+                    long now = System.currentTimeMillis();
+
+                    Map<String, Object> checkpoint = null;
+                    if (snapshot.exists()) {
+                        String currentHolder = snapshot.getString(FIELD_HOLDER);
+                        Long leaseUntil = snapshot.getLong(FIELD_LEASE_UNTIL);
+                        if (currentHolder != null && !currentHolder.equals(holderId)
+                                && leaseUntil != null && leaseUntil > now) {
+                            return Optional.<Lease>empty();
+                        }
+                        checkpoint = readCheckpoint(snapshot);
+                    }
+
+                    long leaseUntil = now + leaseDuration.toMillis();
+                    Map<String, Object> data = new HashMap<>();
+                    data.put(FIELD_HOLDER, holderId);
+                    data.put(FIELD_LEASE_UNTIL, leaseUntil);
+                    data.put(FIELD_CHECKPOINT, checkpoint);
+                    data.put(FIELD_UPDATED_AT, now);
+                    transaction.set(docRef, data);
+
+                    return Optional.of(new Lease(jobName, holderId, leaseUntil, checkpoint));
+                }).get();
+            } catch (Exception e) {
+                logger.error("Error acquiring lease for job: {}", jobName, e);
+                throw new RuntimeException("Failed to acquire job lease", e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> renew(String jobName, String holderId, Duration leaseDuration,
+                                            Map<String, Object> checkpoint) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(jobName);
+                return firestore.runTransaction(transaction -> {
+                    DocumentSnapshot snapshot = transaction.get(docRef).get();
+                    if (!snapshot.exists() || !holderId.equals(snapshot.getString(FIELD_HOLDER))) {
+                        return false;
+                    }
+                    long now = System.currentTimeMillis();
+                    Map<String, Object> data = new HashMap<>();
+                    data.put(FIELD_HOLDER, holderId);
+                    data.put(FIELD_LEASE_UNTIL, now + leaseDuration.toMillis());
+                    data.put(FIELD_CHECKPOINT, checkpoint);
+                    data.put(FIELD_UPDATED_AT, now);
+                    transaction.set(docRef, data);
+                    return true;
+                }).get();
+            } catch (Exception e) {
+                logger.error("Error renewing lease for job: {}", jobName, e);
+                throw new RuntimeException("Failed to renew job lease", e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> release(String jobName, String holderId, Map<String, Object> checkpoint) {
+        logger.debug("Releasing lease for job: {} held by {}", jobName, holderId);
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(jobName);
+                firestore.runTransaction(transaction -> {
+                    DocumentSnapshot snapshot = transaction.get(docRef).get();
+                    if (snapshot.exists() && holderId.equals(snapshot.getString(FIELD_HOLDER))) {
+                        Map<String, Object> data = new HashMap<>();
+                        data.put(FIELD_HOLDER, null);
+                        data.put(FIELD_LEASE_UNTIL, 0L);
+                        data.put(FIELD_CHECKPOINT, checkpoint);
+                        data.put(FIELD_UPDATED_AT, System.currentTimeMillis());
+                        transaction.set(docRef, data);
+                    }
+                    return null;
+                }).get();
+                return null;
+            } catch (Exception e) {
+                logger.error("Error releasing lease for job: {}", jobName, e);
+                throw new RuntimeException("Failed to release job lease", e);
+            }
+        }, executor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readCheckpoint(DocumentSnapshot snapshot) {
+        Object raw = snapshot.get(FIELD_CHECKPOINT);
+        return raw instanceof Map<?, ?> map ? new HashMap<>((Map<String, Object>) map) : null;
+    }
+}
@@ -1,5 +1,8 @@
 package com.app.repository.impl;
 
+import com.app.config.ExecutionConfig;
+import com.app.deadline.RequestDeadline;
+import com.app.exception.GatewayException;
 import com.app.model.Story;
 import com.app.repository.StoryRepository;
 import com.app.service.ApplicationMetricsService;
@@ -8,6 +11,7 @@ import com.google.cloud.firestore.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
@@ -15,6 +19,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Repository
 public class FirebaseStoryRepository implements StoryRepository {
@@ -24,11 +29,17 @@ public class FirebaseStoryRepository implements StoryRepository {
 
     private final Firestore firestore;
     private final ApplicationMetricsService metricsService;
+    private final FirestoreHedgedReader hedgedReader;
+    private final Executor executor;
 
     @Autowired
-    public FirebaseStoryRepository(Firestore firestore, ApplicationMetricsService metricsService) {
+    public FirebaseStoryRepository(Firestore firestore, ApplicationMetricsService metricsService,
+                                   FirestoreHedgedReader hedgedReader,
+                                   @Qualifier(ExecutionConfig.BLOCKING_IO_EXECUTOR) Executor executor) {
         this.firestore = firestore;
         this.metricsService = metricsService;
+        this.hedgedReader = hedgedReader;
+        this.executor = executor;
     }
 
     @Override
@@ -43,20 +54,22 @@ public class FirebaseStoryRepository implements StoryRepository {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(story.getId());
                 ApiFuture<WriteResult> future = docRef.set(story);
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("Story saved successfully: {} at {}", story.getId(), result.getUpdateTime());
 
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "save", true, duration);
 
                 return story;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error saving story: {}", story.getId(), e);
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "save", false, duration);
                 throw new RuntimeException("Failed to save story", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -71,20 +84,22 @@ public class FirebaseStoryRepository implements StoryRepository {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(story.getId());
                 ApiFuture<WriteResult> future = docRef.set(story);
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("Story updated successfully: {} at {}", story.getId(), result.getUpdateTime());
 
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "update", true, duration);
 
                 return story;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error updating story: {}", story.getId(), e);
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "update", false, duration);
                 throw new RuntimeException("Failed to update story", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -95,9 +110,7 @@ public class FirebaseStoryRepository implements StoryRepository {
             long startTime = System.currentTimeMillis();
             try {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(storyId);
-                ApiFuture<DocumentSnapshot> future = docRef.get();
-
-                DocumentSnapshot document = future.get();
+                DocumentSnapshot document = hedgedReader.read(COLLECTION_NAME, "findById", docRef::get);
 
                 long duration = System.currentTimeMillis() - startTime;
 
@@ -111,13 +124,15 @@ public class FirebaseStoryRepository implements StoryRepository {
                     metricsService.recordFirestoreOperation(COLLECTION_NAME, "findById", true, duration);
                     return Optional.empty();
                 }
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding story by ID: {}", storyId, e);
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "findById", false, duration);
                 throw new RuntimeException("Failed to find story", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -128,7 +143,7 @@ public class FirebaseStoryRepository implements StoryRepository {
             long startTime = System.currentTimeMillis();
             try {
                 ApiFuture<QuerySnapshot> future = firestore.collection(COLLECTION_NAME).get();
-                QuerySnapshot querySnapshot = future.get();
+                QuerySnapshot querySnapshot = RequestDeadline.await(future, "firestore");
 
                 List<Story> stories = new ArrayList<>();
                 for (DocumentSnapshot document : querySnapshot.getDocuments()) {
@@ -141,13 +156,15 @@ public class FirebaseStoryRepository implements StoryRepository {
 
                 logger.debug("Found {} stories", stories.size());
                 return stories;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding all stories", e);
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "findAll", false, duration);
                 throw new RuntimeException("Failed to find stories", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -161,7 +178,7 @@ public class FirebaseStoryRepository implements StoryRepository {
                         .whereEqualTo("category", category);
 
                 ApiFuture<QuerySnapshot> future = query.get();
-                QuerySnapshot querySnapshot = future.get();
+                QuerySnapshot querySnapshot = RequestDeadline.await(future, "firestore");
 
                 List<Story> stories = new ArrayList<>();
                 for (DocumentSnapshot document : querySnapshot.getDocuments()) {
@@ -174,13 +191,15 @@ public class FirebaseStoryRepository implements StoryRepository {
 
                 logger.debug("Found {} stories in category: {}", stories.size(), category);
                 return stories;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding stories by category: {}", category, e);
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "findByCategory", false, duration);
                 throw new RuntimeException("Failed to find stories by category", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -194,7 +213,7 @@ public class FirebaseStoryRepository implements StoryRepository {
                         .whereEqualTo("isAvailable", true);
 
                 ApiFuture<QuerySnapshot> future = query.get();
-                QuerySnapshot querySnapshot = future.get();
+                QuerySnapshot querySnapshot = RequestDeadline.await(future, "firestore");
 
                 List<Story> stories = new ArrayList<>();
                 for (DocumentSnapshot document : querySnapshot.getDocuments()) {
@@ -207,13 +226,15 @@ public class FirebaseStoryRepository implements StoryRepository {
 
                 logger.debug("Found {} available stories", stories.size());
                 return stories;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding available stories", e);
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "findAvailable", false, duration);
                 throw new RuntimeException("Failed to find available stories", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -229,7 +250,7 @@ public class FirebaseStoryRepository implements StoryRepository {
                         .whereGreaterThan("updatedAt", instant);
 
                 ApiFuture<QuerySnapshot> future = query.get();
-                QuerySnapshot querySnapshot = future.get();
+                QuerySnapshot querySnapshot = RequestDeadline.await(future, "firestore");
 
                 List<Story> stories = new ArrayList<>();
                 for (DocumentSnapshot document : querySnapshot.getDocuments()) {
@@ -242,13 +263,15 @@ public class FirebaseStoryRepository implements StoryRepository {
 
                 logger.debug("Found {} stories updated after timestamp", stories.size());
                 return stories;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding stories updated after timestamp: {}", timestamp, e);
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "findUpdatedAfter", false, duration);
                 throw new RuntimeException("Failed to find updated stories", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -261,20 +284,22 @@ public class FirebaseStoryRepository implements StoryRepository {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(storyId);
                 ApiFuture<WriteResult> future = docRef.delete();
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("Story deleted: {} at {}", storyId, result.getUpdateTime());
 
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "delete", true, duration);
 
                 return null;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error deleting story: {}", storyId, e);
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "delete", false, duration);
                 throw new RuntimeException("Failed to delete story", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -286,13 +311,15 @@ public class FirebaseStoryRepository implements StoryRepository {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(storyId);
                 ApiFuture<DocumentSnapshot> future = docRef.get();
 
-                DocumentSnapshot document = future.get();
+                DocumentSnapshot document = RequestDeadline.await(future, "firestore");
                 return document.exists();
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error checking if story exists: {}", storyId, e);
                 throw new RuntimeException("Failed to check story existence", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -301,17 +328,19 @@ public class FirebaseStoryRepository implements StoryRepository {
 
         return CompletableFuture.supplyAsync(() -> {
             try {
-                ApiFuture<QuerySnapshot> future = firestore.collection(COLLECTION_NAME).get();
-                QuerySnapshot querySnapshot = future.get();
+                // Server-side aggregation: billed per index entry batch, no documents transferred
+                ApiFuture<AggregateQuerySnapshot> future = firestore.collection(COLLECTION_NAME).count().get();
 
-                long count = querySnapshot.size();
+                long count = RequestDeadline.await(future, "firestore").getCount();
                 logger.debug("Total stories: {}", count);
                 return count;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error counting stories", e);
                 throw new RuntimeException("Failed to count stories", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -320,19 +349,19 @@ public class FirebaseStoryRepository implements StoryRepository {
 
         return CompletableFuture.supplyAsync(() -> {
             try {
-                Query query = firestore.collection(COLLECTION_NAME)
-                        .whereEqualTo("available", true);
-
-                ApiFuture<QuerySnapshot> future = query.get();
-                QuerySnapshot querySnapshot = future.get();
+                AggregateQuery query = firestore.collection(COLLECTION_NAME)
+                        .whereEqualTo("available", true)
+                        .count();
 
-                long count = querySnapshot.size();
+                long count = RequestDeadline.await(query.get(), "firestore").getCount();
                 logger.debug("Available stories: {}", count);
                 return count;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error counting available stories", e);
                 throw new RuntimeException("Failed to count available stories", e);
             }
-        });
+        }, executor);
     }
 }
@@ -1,18 +1,29 @@
 package com.app.repository.impl;
 
+import com.app.config.ExecutionConfig;
+import com.app.deadline.RequestDeadline;
+import com.app.exception.GatewayException;
 import com.app.model.UserProfile;
 import com.app.repository.UserProfileRepository;
 import com.app.service.ApplicationMetricsService;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+/**
+ * Profiles are read through a short-TTL cache of document snapshots, invalidated by every write here.
+ */
 @Repository
 public class FirebaseUserProfileRepository implements UserProfileRepository {
 
@@ -21,11 +32,23 @@ public class FirebaseUserProfileRepository implements UserProfileRepository {
 
     private final Firestore firestore;
     private final ApplicationMetricsService metricsService;
+    private final FirestoreHedgedReader hedgedReader;
+    private final Executor executor;
+    private final ReadThroughCache<String, DocumentSnapshot> profileCache;
 
     @Autowired
-    public FirebaseUserProfileRepository(Firestore firestore, ApplicationMetricsService metricsService) {
+    public FirebaseUserProfileRepository(Firestore firestore, ApplicationMetricsService metricsService,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${cache.profiles.ttl-seconds:30}") long cacheTtlSeconds,
+                                         @Value("${cache.profiles.max-size:10000}") int cacheMaxSize,
+                                         FirestoreHedgedReader hedgedReader,
+                                         @Qualifier(ExecutionConfig.BLOCKING_IO_EXECUTOR) Executor executor) {
         this.firestore = firestore;
+        this.hedgedReader = hedgedReader;
+        this.executor = executor;
         this.metricsService = metricsService;
+        this.profileCache = new ReadThroughCache<>("user_profiles", Duration.ofSeconds(cacheTtlSeconds),
+                cacheMaxSize, meterRegistry);
     }
 
     @Override
@@ -44,13 +67,15 @@ public class FirebaseUserProfileRepository implements UserProfileRepository {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(profile.getUserId());
                 ApiFuture<WriteResult> future = docRef.set(profile);
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("User profile saved successfully: {} at {}", profile.getUserId(), result.getUpdateTime());
 
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "save", true, duration);
 
                 return profile;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error saving user profile: {}", profile.getUserId(), e);
 
@@ -59,8 +84,10 @@ public class FirebaseUserProfileRepository implements UserProfileRepository {
                 metricsService.recordFirestoreError(COLLECTION_NAME, "save", e.getClass().getSimpleName());
 
                 throw new RuntimeException("Failed to save user profile", e);
+            } finally {
+                profileCache.invalidate(profile.getUserId());
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -80,13 +107,15 @@ public class FirebaseUserProfileRepository implements UserProfileRepository {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(profile.getUserId());
                 ApiFuture<WriteResult> future = docRef.set(profile);
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("User profile updated successfully: {} at {}", profile.getUserId(), result.getUpdateTime());
 
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "update", true, duration);
 
                 return profile;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error updating user profile: {}", profile.getUserId(), e);
 
@@ -95,8 +124,10 @@ public class FirebaseUserProfileRepository implements UserProfileRepository {
                 metricsService.recordFirestoreError(COLLECTION_NAME, "update", e.getClass().getSimpleName());
 
                 throw new RuntimeException("Failed to update user profile", e);
+            } finally {
+                profileCache.invalidate(profile.getUserId());
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -107,26 +138,17 @@ public class FirebaseUserProfileRepository implements UserProfileRepository {
 
         logger.debug("Finding user profile by userId: {}", userId);
 
-        return CompletableFuture.supplyAsync(() -> {
+        return profileCache.get(userId, () -> CompletableFuture.supplyAsync(() -> {
             long startTime = System.currentTimeMillis();
             try {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(userId);
-                ApiFuture<DocumentSnapshot> future = docRef.get();
-
-                DocumentSnapshot document = future.get();
+                DocumentSnapshot document = hedgedReader.read(COLLECTION_NAME, "findByUserId", docRef::get);
 
                 long duration = System.currentTimeMillis() - startTime;
-
-                if (document.exists()) {
-                    UserProfile profile = document.toObject(UserProfile.class);
-                    logger.debug("User profile found: {}", userId);
-                    metricsService.recordFirestoreOperation(COLLECTION_NAME, "findByUserId", true, duration);
-                    return Optional.of(profile);
-                } else {
-                    logger.debug("User profile not found: {}", userId);
-                    metricsService.recordFirestoreOperation(COLLECTION_NAME, "findByUserId", true, duration);
-                    return Optional.empty();
-                }
+                metricsService.recordFirestoreOperation(COLLECTION_NAME, "findByUserId", true, duration);
+                return document;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding user profile by userId: {}", userId, e);
 
@@ -136,6 +158,14 @@ public class FirebaseUserProfileRepository implements UserProfileRepository {
 
                 throw new RuntimeException("Failed to find user profile", e);
             }
+        }, executor)).thenApply(document -> {
+            if (document.exists()) {
+                logger.debug("User profile found: {}", userId);
+                return Optional.of(document.toObject(UserProfile.class));
+            } else {
+                logger.debug("User profile not found: {}", userId);
+                return Optional.empty();
+            }
         });
     }
 
@@ -153,13 +183,15 @@ public class FirebaseUserProfileRepository implements UserProfileRepository {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(userId);
                 ApiFuture<WriteResult> future = docRef.delete();
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("User profile deleted successfully: {} at {}", userId, result.getUpdateTime());
 
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "delete", true, duration);
 
                 return null;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error deleting user profile: {}", userId, e);
 
@@ -168,8 +200,10 @@ public class FirebaseUserProfileRepository implements UserProfileRepository {
                 metricsService.recordFirestoreError(COLLECTION_NAME, "delete", e.getClass().getSimpleName());
 
                 throw new RuntimeException("Failed to delete user profile", e);
+            } finally {
+                profileCache.invalidate(userId);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -186,7 +220,7 @@ public class FirebaseUserProfileRepository implements UserProfileRepository {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(userId);
                 ApiFuture<DocumentSnapshot> future = docRef.get();
 
-                DocumentSnapshot document = future.get();
+                DocumentSnapshot document = RequestDeadline.await(future, "firestore");
                 boolean exists = document.exists();
 
                 long duration = System.currentTimeMillis() - startTime;
@@ -194,6 +228,8 @@ public class FirebaseUserProfileRepository implements UserProfileRepository {
 
                 logger.debug("User profile exists check for {}: {}", userId, exists);
                 return exists;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error checking if user profile exists: {}", userId, e);
 
@@ -203,6 +239,6 @@ public class FirebaseUserProfileRepository implements UserProfileRepository {
 
                 throw new RuntimeException("Failed to check if user profile exists", e);
             }
-        });
+        }, executor);
     }
 }
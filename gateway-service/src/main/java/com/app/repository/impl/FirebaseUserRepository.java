@@ -1,35 +1,64 @@
 package com.app.repository.impl;
 
+import com.app.config.ExecutionConfig;
+import com.app.deadline.RequestDeadline;
+import com.app.exception.GatewayException;
+import com.app.model.ChildProfile;
 import com.app.model.User;
 import com.app.repository.UserRepository;
 import com.app.service.ApplicationMetricsService;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Users are read through short-TTL caches of document snapshots: by id, and provider/providerId to id.
+ * Every write through this repository invalidates the user's entry. Lookups racing on the same key share one read.
+ */
 @Repository
 public class FirebaseUserRepository implements UserRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(FirebaseUserRepository.class);
     private static final String COLLECTION_NAME = "users";
+    private static final String FIELD_CHILDREN = "children";
 
     private final Firestore firestore;
     private final ApplicationMetricsService metricsService;
+    private final FirestoreWriteBehindBuffer writeBehind;
+    private final Executor executor;
+    private final ReadThroughCache<String, DocumentSnapshot> userCache;
+    private final ReadThroughCache<String, Optional<String>> providerCache;
 
     @Autowired
-    public FirebaseUserRepository(Firestore firestore, ApplicationMetricsService metricsService) {
+    public FirebaseUserRepository(Firestore firestore, ApplicationMetricsService metricsService,
+                                  FirestoreWriteBehindBuffer writeBehind, MeterRegistry meterRegistry,
+                                  @Value("${cache.users.ttl-seconds:30}") long cacheTtlSeconds,
+                                  @Value("${cache.users.max-size:10000}") int cacheMaxSize,
+                                  @Qualifier(ExecutionConfig.BLOCKING_IO_EXECUTOR) Executor executor) {
         this.firestore = firestore;
+        this.executor = executor;
         this.metricsService = metricsService;
+        this.writeBehind = writeBehind;
+        this.userCache = new ReadThroughCache<>("users", Duration.ofSeconds(cacheTtlSeconds), cacheMaxSize, meterRegistry);
+        this.providerCache = new ReadThroughCache<>("users_by_provider", Duration.ofSeconds(cacheTtlSeconds),
+                cacheMaxSize, meterRegistry);
     }
 
     @Override
@@ -44,13 +73,15 @@ public class FirebaseUserRepository implements UserRepository {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(user.getId());
                 ApiFuture<WriteResult> future = docRef.set(user);
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("User saved successfully: {} at {}", user.getId(), result.getUpdateTime());
 
                 long duration = System.currentTimeMillis() - startTime;
                 metricsService.recordFirestoreOperation(COLLECTION_NAME, "save", true, duration);
 
                 return user;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error saving user: {}", user.getId(), e);
                 long duration = System.currentTimeMillis() - startTime;
@@ -58,64 +89,73 @@ public class FirebaseUserRepository implements UserRepository {
                 metricsService.recordFirestoreError(COLLECTION_NAME, "save", e.getClass().getSimpleName());
 
                 throw new RuntimeException("Failed to save user", e);
+            } finally {
+                invalidate(user);
             }
-        });
+        }, executor);
     }
 
     @Override
     public CompletableFuture<Optional<User>> findById(String userId) {
         logger.debug("Finding user by ID: {}", userId);
-        
-        return CompletableFuture.supplyAsync(() -> {
+
+        return userCache.get(userId, () -> CompletableFuture.supplyAsync(() -> {
             try {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(userId);
                 ApiFuture<DocumentSnapshot> future = docRef.get();
-                
-                DocumentSnapshot document = future.get();
-                
-                if (document.exists()) {
-                    User user = document.toObject(User.class);
-                    logger.debug("User found: {}", userId);
-                    return Optional.of(user);
-                } else {
-                    logger.debug("User not found: {}", userId);
-                    return Optional.empty();
-                }
+
+                return RequestDeadline.await(future, "firestore");
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding user by ID: {}", userId, e);
                 throw new RuntimeException("Failed to find user", e);
             }
+        }, executor)).thenApply(document -> {
+            if (document.exists()) {
+                logger.debug("User found: {}", userId);
+                return Optional.of(document.toObject(User.class));
+            } else {
+                logger.debug("User not found: {}", userId);
+                return Optional.empty();
+            }
         });
     }
 
     @Override
     public CompletableFuture<Optional<User>> findByProviderAndProviderId(String provider, String providerId) {
         logger.debug("Finding user by provider: {} and providerId: {}", provider, providerId);
-        
-        return CompletableFuture.supplyAsync(() -> {
+
+        return providerCache.get(providerKey(provider, providerId), () -> CompletableFuture.supplyAsync(() -> {
             try {
+                long readGeneration = userCache.generation();
                 Query query = firestore.collection(COLLECTION_NAME)
                         .whereEqualTo("provider", provider)
                         .whereEqualTo("providerId", providerId)
                         .limit(1);
-                
+
                 ApiFuture<QuerySnapshot> future = query.get();
-                QuerySnapshot querySnapshot = future.get();
-                
+                QuerySnapshot querySnapshot = RequestDeadline.await(future, "firestore");
+
                 if (!querySnapshot.isEmpty()) {
                     DocumentSnapshot document = querySnapshot.getDocuments().get(0);
-                    User user = document.toObject(User.class);
+                    // The query already returned the document; the by-id lookup below should not read it again
+                    userCache.put(document.getId(), document, readGeneration);
                     logger.debug("User found by provider: {} and providerId: {}", provider, providerId);
-                    return Optional.of(user);
+                    return Optional.of(document.getId());
                 } else {
                     logger.debug("User not found by provider: {} and providerId: {}", provider, providerId);
-                    return Optional.empty();
+                    return Optional.<String>empty();
                 }
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding user by provider: {} and providerId: {}", provider, providerId, e);
                 throw new RuntimeException("Failed to find user by provider", e);
             }
-        });
+        }, executor)).thenCompose(userId -> userId.isPresent()
+                ? findById(userId.get())
+                : CompletableFuture.completedFuture(Optional.empty()));
     }
 
     @Override
@@ -128,7 +168,7 @@ public class FirebaseUserRepository implements UserRepository {
                         .whereEqualTo("isActive", true);
 
                 ApiFuture<QuerySnapshot> future = query.get();
-                QuerySnapshot querySnapshot = future.get();
+                QuerySnapshot querySnapshot = RequestDeadline.await(future, "firestore");
                 
                 List<User> users = new ArrayList<>();
                 for (DocumentSnapshot document : querySnapshot.getDocuments()) {
@@ -138,11 +178,13 @@ public class FirebaseUserRepository implements UserRepository {
                 
                 logger.debug("Found {} active users", users.size());
                 return users;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding active users", e);
                 throw new RuntimeException("Failed to find active users", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -157,7 +199,7 @@ public class FirebaseUserRepository implements UserRepository {
                         .whereGreaterThan("createdAt", instant);
                 
                 ApiFuture<QuerySnapshot> future = query.get();
-                QuerySnapshot querySnapshot = future.get();
+                QuerySnapshot querySnapshot = RequestDeadline.await(future, "firestore");
                 
                 List<User> users = new ArrayList<>();
                 for (DocumentSnapshot document : querySnapshot.getDocuments()) {
@@ -167,37 +209,23 @@ public class FirebaseUserRepository implements UserRepository {
                 
                 logger.debug("Found {} users created after timestamp: {}", users.size(), timestamp);
                 return users;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding users created after timestamp: {}", timestamp, e);
                 throw new RuntimeException("Failed to find users by creation time", e);
             }
-        });
+        }, executor);
     }
 
     @Override
-    public CompletableFuture<User> updateLastLogin(String userId) {
-        logger.debug("Updating last login for user: {}", userId);
-        
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(userId);
-                
-                Instant now = Instant.now();
-                ApiFuture<WriteResult> future = docRef.update(
-                        "lastLoginAt", now,
-                        "updatedAt", now
-                );
-                
-                WriteResult result = future.get();
-                logger.debug("Last login updated for user: {} at {}", userId, result.getUpdateTime());
-                return findById(userId).join().orElseThrow(() ->
-                        new RuntimeException("User not found after update: " + userId));
-                
-            } catch (Exception e) {
-                logger.error("Error updating last login for user: {}", userId, e);
-                throw new RuntimeException("Failed to update last login", e);
-            }
-        });
+    public CompletableFuture<Void> updateLastLogin(String userId) {
+        logger.debug("Buffering last login update for user: {}", userId);
+
+        // Deliberately not invalidating the cache: lastLoginAt is allowed to trail by a TTL
+        Instant now = Instant.now();
+        writeBehind.enqueue(COLLECTION_NAME, userId, Map.of("lastLoginAt", now, "updatedAt", now));
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
@@ -214,16 +242,19 @@ public class FirebaseUserRepository implements UserRepository {
                         "updatedAt", now
                 );
                 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("User deactivated: {} at {}", userId, result.getUpdateTime());
+                userCache.invalidate(userId);
                 return findById(userId).join().orElseThrow(() ->
                         new RuntimeException("User not found after deactivation: " + userId));
                 
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error deactivating user: {}", userId, e);
                 throw new RuntimeException("Failed to deactivate user", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -235,15 +266,18 @@ public class FirebaseUserRepository implements UserRepository {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(userId);
                 ApiFuture<WriteResult> future = docRef.delete();
                 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("User deleted: {} at {}", userId, result.getUpdateTime());
+                userCache.invalidate(userId);
                 
                 return null;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error deleting user: {}", userId, e);
                 throw new RuntimeException("Failed to delete user", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -252,20 +286,20 @@ public class FirebaseUserRepository implements UserRepository {
 
         return CompletableFuture.supplyAsync(() -> {
             try {
-                Query query = firestore.collection(COLLECTION_NAME)
-                        .whereEqualTo("isActive", true);
-
-                ApiFuture<QuerySnapshot> future = query.get();
-                QuerySnapshot querySnapshot = future.get();
+                AggregateQuery query = firestore.collection(COLLECTION_NAME)
+                        .whereEqualTo("isActive", true)
+                        .count();
 
-                long count = querySnapshot.size();
+                long count = RequestDeadline.await(query.get(), "firestore").getCount();
                 logger.debug("Active user count: {}", count);
                 return count;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error counting active users", e);
                 throw new RuntimeException("Failed to count active users", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -282,21 +316,24 @@ public class FirebaseUserRepository implements UserRepository {
                         "updatedAt", now
                 );
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("Preferences updated for user: {} at {}", userId, result.getUpdateTime());
+                userCache.invalidate(userId);
                 return findById(userId).join().orElseThrow(() ->
                         new RuntimeException("User not found after preferences update: " + userId));
 
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error updating preferences for user: {}", userId, e);
                 throw new RuntimeException("Failed to update preferences", e);
             }
-        });
+        }, executor);
     }
 
     @Override
-    public CompletableFuture<User> addChild(String userId, Object childProfile) {
-        logger.debug("Adding child to user: {}", userId);
+    public CompletableFuture<ChildProfile> addChild(String userId, ChildProfile child) {
+        logger.debug("Adding child {} to user: {}", child.getId(), userId);
 
         return CompletableFuture.supplyAsync(() -> {
             try {
@@ -304,56 +341,113 @@ public class FirebaseUserRepository implements UserRepository {
 
                 Instant now = Instant.now();
                 ApiFuture<WriteResult> future = docRef.update(
-                        "children", FieldValue.arrayUnion(childProfile),
+                        "children", FieldValue.arrayUnion(child),
                         "updatedAt", now
                 );
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("Child added to user: {} at {}", userId, result.getUpdateTime());
-                return findById(userId).join().orElseThrow(() ->
-                        new RuntimeException("User not found after adding child: " + userId));
+                return child;
 
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error adding child to user: {}", userId, e);
                 throw new RuntimeException("Failed to add child", e);
+            } finally {
+                userCache.invalidate(userId);
             }
-        });
+        }, executor);
     }
 
     @Override
-    public CompletableFuture<User> removeChild(String userId, String childId) {
+    public CompletableFuture<Boolean> removeChild(String userId, String childId) {
         logger.debug("Removing child {} from user: {}", childId, userId);
 
         return CompletableFuture.supplyAsync(() -> {
             try {
-                User user = findById(userId).join().orElseThrow(() ->
-                        new RuntimeException("User not found: " + userId));
-                user.removeChild(childId);
-                return save(user).join();
+                Optional<Boolean> removed = mutateChildren(userId, children ->
+                        children.removeIf(child -> childId.equals(child.getId())) ? Optional.of(true) : Optional.empty());
+                logger.debug("Child {} removed from user {}: {}", childId, userId, removed.isPresent());
+                return removed.isPresent();
 
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error removing child {} from user: {}", childId, userId, e);
                 throw new RuntimeException("Failed to remove child", e);
             }
-        });
+        }, executor);
     }
 
     @Override
-    public CompletableFuture<User> updateChild(String userId, String childId, Object childProfile) {
+    public CompletableFuture<Optional<ChildProfile>> updateChild(String userId, String childId,
+                                                                 Consumer<ChildProfile> mutation) {
         logger.debug("Updating child {} for user: {}", childId, userId);
 
         return CompletableFuture.supplyAsync(() -> {
             try {
-                User user = findById(userId).join().orElseThrow(() ->
-                        new RuntimeException("User not found: " + userId));
-                user.removeChild(childId);
-                user.addChild((com.app.model.ChildProfile) childProfile);
-                return save(user).join();
+                return mutateChildren(userId, children -> {
+                    for (ChildProfile child : children) {
+                        if (childId.equals(child.getId())) {
+                            mutation.accept(child);
+                            child.setUpdatedAt(Instant.now());
+                            return Optional.of(child);
+                        }
+                    }
+                    return Optional.empty();
+                });
 
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error updating child {} for user: {}", childId, userId, e);
                 throw new RuntimeException("Failed to update child", e);
             }
-        });
+        }, executor);
+    }
+
+    /**
+     * Reads only the children field inside a transaction, applies {@code mutation} and, if it reports a change,
+     * writes back children + updatedAt. Other user fields are neither read nor rewritten, and concurrent child
+     * mutations on the same user retry instead of overwriting each other. {@code mutation} may run more than once.
+     */
+    private <T> Optional<T> mutateChildren(String userId, Function<List<ChildProfile>, Optional<T>> mutation)
+            throws Exception {
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(userId);
+        try {
+            return RequestDeadline.await(firestore.runTransaction(transaction -> {
+                DocumentSnapshot snapshot = transaction
+                        .getAll(new DocumentReference[]{docRef}, FieldMask.of(FIELD_CHILDREN))
+                        .get()
+                        .get(0);
+                if (!snapshot.exists()) {
+                    throw new IllegalArgumentException("User not found: " + userId);
+                }
+
+                User partial = snapshot.toObject(User.class);
+                List<ChildProfile> children = partial != null && partial.getChildren() != null
+                        ? new ArrayList<>(partial.getChildren())
+                        : new ArrayList<>();
+                Optional<T> outcome = mutation.apply(children);
+                if (outcome.isPresent()) {
+                    transaction.update(docRef, FIELD_CHILDREN, children, "updatedAt", Instant.now());
+                }
+                return outcome;
+            }), "firestore");
+        } finally {
+            userCache.invalidate(userId);
+        }
+    }
+
+    private void invalidate(User user) {
+        userCache.invalidate(user.getId());
+        if (user.getProvider() != null && user.getProviderId() != null) {
+            providerCache.invalidate(providerKey(user.getProvider(), user.getProviderId()));
+        }
+    }
+
+    private static String providerKey(String provider, String providerId) {
+        return provider + ":" + providerId;
     }
 }
@@ -1,31 +1,67 @@
 package com.app.repository.impl;
 
+import com.app.config.ExecutionConfig;
+import com.app.deadline.RequestDeadline;
+import com.app.exception.GatewayException;
 import com.app.model.UserSession;
 import com.app.repository.UserSessionRepository;
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
 import com.google.cloud.firestore.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Sessions live in {@code user_sessions}. Each user also has a small index document in
+ * {@code user_session_index} mapping their live session ids to (createdAtMillis, expiresAtMillis), which lets
+ * login enforce the per-user session limit in one transaction without querying the user's sessions.
+ */
 @Repository
 public class FirebaseUserSessionRepository implements UserSessionRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(FirebaseUserSessionRepository.class);
     private static final String COLLECTION_NAME = "user_sessions";
+    private static final String INDEX_COLLECTION_NAME = "user_session_index";
+    private static final String FIELD_SLOTS = "slots";
+    private static final String FIELD_CREATED_AT_MILLIS = "createdAtMillis";
+    private static final String FIELD_EXPIRES_AT_MILLIS = "expiresAtMillis";
+    private static final String FIELD_UPDATED_AT_MILLIS = "updatedAtMillis";
+    private static final int DEFAULT_SWEEP_PAGE_SIZE = 500;
+    private static final int MAX_BULK_WRITE_ATTEMPTS = 5;
 
     private final Firestore firestore;
+    private final FirestoreWriteBehindBuffer writeBehind;
+    private final int bulkInitialOpsPerSecond;
+    private final int bulkMaxOpsPerSecond;
+    private final Executor executor;
 
     @Autowired
-    public FirebaseUserSessionRepository(Firestore firestore) {
+    public FirebaseUserSessionRepository(Firestore firestore,
+                                         FirestoreWriteBehindBuffer writeBehind,
+                                         @Value("${sessions.bulk-writer.initial-ops-per-second:500}") int bulkInitialOpsPerSecond,
+                                         @Value("${sessions.bulk-writer.max-ops-per-second:5000}") int bulkMaxOpsPerSecond,
+                                         @Qualifier(ExecutionConfig.BLOCKING_IO_EXECUTOR) Executor executor) {
         this.firestore = firestore;
+        this.executor = executor;
+        this.writeBehind = writeBehind;
+        this.bulkInitialOpsPerSecond = bulkInitialOpsPerSecond;
+        this.bulkMaxOpsPerSecond = Math.max(bulkInitialOpsPerSecond, bulkMaxOpsPerSecond);
     }
 
     @Override
@@ -37,15 +73,154 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(session.getId());
                 ApiFuture<WriteResult> future = docRef.set(session);
                 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("User session saved successfully: {} at {}", session.getId(), result.getUpdateTime());
                 
                 return session;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error saving user session: {}", session.getId(), e);
                 throw new RuntimeException("Failed to save user session", e);
             }
-        });
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<SessionAdmission> createSessionWithinLimit(UserSession session, int maxSessions) {
+        logger.debug("Creating session {} for user {} (limit {})", session.getId(), session.getUserId(), maxSessions);
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                DocumentReference indexRef = firestore.collection(INDEX_COLLECTION_NAME).document(session.getUserId());
+                DocumentReference sessionRef = firestore.collection(COLLECTION_NAME).document(session.getId());
+                int limit = Math.max(1, maxSessions);
+
+                SessionAdmission admission = RequestDeadline.await(firestore.runTransaction(transaction -> {
+                    long now = System.currentTimeMillis();
+                    DocumentSnapshot index = transaction.get(indexRef).get();
+                    List<SessionSlot> slots = index.exists()
+                            ? readSlots(index)
+                            : seedSlots(transaction, session.getUserId());
+                    slots.removeIf(slot -> slot.expiresAtMillis() <= now);
+                    slots.sort(Comparator.comparingLong(SessionSlot::createdAtMillis));
+
+                    // All reads before any write: confirm each eviction candidate is still live. Slots for sessions
+                    // revoked or deleted elsewhere are dropped here without costing the user a live session.
+                    List<UserSession> evicted = new ArrayList<>();
+                    while (slots.size() >= limit) {
+                        SessionSlot oldest = slots.remove(0);
+                        DocumentSnapshot candidate = transaction.get(
+                                firestore.collection(COLLECTION_NAME).document(oldest.sessionId())).get();
+                        UserSession oldSession = candidate.exists() ? candidate.toObject(UserSession.class) : null;
+                        if (oldSession != null && oldSession.isValid()) {
+                            evicted.add(oldSession);
+                        }
+                    }
+
+                    Instant revokedAt = Instant.now();
+                    for (UserSession oldSession : evicted) {
+                        transaction.update(firestore.collection(COLLECTION_NAME).document(oldSession.getId()),
+                                "isActive", false,
+                                "revokedAt", revokedAt);
+                        oldSession.setActive(false);
+                        oldSession.setRevokedAt(revokedAt);
+                    }
+                    transaction.set(sessionRef, session);
+
+                    slots.add(SessionSlot.of(session));
+                    Map<String, Object> slotData = new HashMap<>();
+                    for (SessionSlot slot : slots) {
+                        slotData.put(slot.sessionId(), slot.toMap());
+                    }
+                    Map<String, Object> indexData = new HashMap<>();
+                    indexData.put(FIELD_SLOTS, slotData);
+                    indexData.put(FIELD_UPDATED_AT_MILLIS, now);
+                    transaction.set(indexRef, indexData);
+
+                    return new SessionAdmission(session, evicted);
+                }), "firestore");
+
+                logger.debug("Session {} created for user {}, evicted {}", session.getId(), session.getUserId(),
+                        admission.evicted().size());
+                return admission;
+            } catch (GatewayException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Error creating session within limit for user: {}", session.getUserId(), e);
+                throw new RuntimeException("Failed to create user session", e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Builds the slot list for a user without an index document yet (sessions created before the index existed).
+     */
+    private List<SessionSlot> seedSlots(Transaction transaction, String userId) throws Exception {
+        Query query = firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("userId", userId)
+                .whereEqualTo("isActive", true);
+
+        List<SessionSlot> slots = new ArrayList<>();
+        for (DocumentSnapshot document : transaction.get(query).get().getDocuments()) {
+            UserSession existing = document.toObject(UserSession.class);
+            if (existing != null && existing.isValid()) {
+                slots.add(SessionSlot.of(existing));
+            }
+        }
+        return slots;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<SessionSlot> readSlots(DocumentSnapshot index) {
+        List<SessionSlot> slots = new ArrayList<>();
+        Object raw = index.get(FIELD_SLOTS);
+        if (raw instanceof Map<?, ?> slotMap) {
+            for (Map.Entry<?, ?> entry : slotMap.entrySet()) {
+                if (entry.getValue() instanceof Map<?, ?> slot
+                        && slot.get(FIELD_CREATED_AT_MILLIS) instanceof Number createdAt
+                        && slot.get(FIELD_EXPIRES_AT_MILLIS) instanceof Number expiresAt) {
+                    slots.add(new SessionSlot((String) entry.getKey(), createdAt.longValue(), expiresAt.longValue()));
+                }
+            }
+        }
+        return slots;
+    }
+
+    /** Slot changes that remove the given sessions from a user's index document. */
+    private static Map<String, Object> slotRelease(List<String> sessionIds) {
+        Map<String, Object> released = new HashMap<>();
+        for (String sessionId : sessionIds) {
+            released.put(sessionId, FieldValue.delete());
+        }
+        return released;
+    }
+
+    /**
+     * Merges slot changes into a user's index document. Best effort: login re-checks eviction candidates
+     * and prunes expired slots, so a missed update only costs an extra read there.
+     */
+    private void writeSlot(String userId, Map<String, Object> slots) {
+        try {
+            firestore.collection(INDEX_COLLECTION_NAME).document(userId)
+                    .set(Map.<String, Object>of(FIELD_SLOTS, slots), SetOptions.merge())
+                    .get();
+        } catch (Exception e) {
+            logger.warn("Failed to update session index for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private record SessionSlot(String sessionId, long createdAtMillis, long expiresAtMillis) {
+
+        static SessionSlot of(UserSession session) {
+            return new SessionSlot(session.getId(),
+                    session.getCreatedAt() != null ? session.getCreatedAt().toEpochMilli() : 0L,
+                    session.getExpiresAt() != null ? session.getExpiresAt().toEpochMilli() : Long.MAX_VALUE);
+        }
+
+        Map<String, Object> toMap() {
+            return Map.of(FIELD_CREATED_AT_MILLIS, createdAtMillis, FIELD_EXPIRES_AT_MILLIS, expiresAtMillis);
+        }
     }
 
     @Override
@@ -57,7 +232,7 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(sessionId);
                 ApiFuture<DocumentSnapshot> future = docRef.get();
                 
-                DocumentSnapshot document = future.get();
+                DocumentSnapshot document = RequestDeadline.await(future, "firestore");
                 
                 if (document.exists()) {
                     UserSession session = document.toObject(UserSession.class);
@@ -67,11 +242,13 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                     logger.debug("User session not found: {}", sessionId);
                     return Optional.empty();
                 }
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding user session by ID: {}", sessionId, e);
                 throw new RuntimeException("Failed to find user session", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -85,7 +262,7 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                         .limit(1);
                 
                 ApiFuture<QuerySnapshot> future = query.get();
-                QuerySnapshot querySnapshot = future.get();
+                QuerySnapshot querySnapshot = RequestDeadline.await(future, "firestore");
                 
                 if (!querySnapshot.isEmpty()) {
                     DocumentSnapshot document = querySnapshot.getDocuments().get(0);
@@ -96,11 +273,13 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                     logger.debug("User session not found by refresh token");
                     return Optional.empty();
                 }
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding user session by refresh token", e);
                 throw new RuntimeException("Failed to find user session by refresh token", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -114,7 +293,7 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                         .whereEqualTo("isActive", true);
 
                 ApiFuture<QuerySnapshot> future = query.get();
-                QuerySnapshot querySnapshot = future.get();
+                QuerySnapshot querySnapshot = RequestDeadline.await(future, "firestore");
                 
                 List<UserSession> sessions = new ArrayList<>();
                 for (DocumentSnapshot document : querySnapshot.getDocuments()) {
@@ -126,11 +305,13 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                 
                 logger.debug("Found {} active sessions for user: {}", sessions.size(), userId);
                 return sessions;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding active sessions for user: {}", userId, e);
                 throw new RuntimeException("Failed to find active sessions", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -143,7 +324,7 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                         .whereEqualTo("userId", userId);
                 
                 ApiFuture<QuerySnapshot> future = query.get();
-                QuerySnapshot querySnapshot = future.get();
+                QuerySnapshot querySnapshot = RequestDeadline.await(future, "firestore");
                 
                 List<UserSession> sessions = new ArrayList<>();
                 for (DocumentSnapshot document : querySnapshot.getDocuments()) {
@@ -155,11 +336,13 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                 
                 logger.debug("Found {} total sessions for user: {}", sessions.size(), userId);
                 return sessions;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding all sessions for user: {}", userId, e);
                 throw new RuntimeException("Failed to find sessions", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -172,7 +355,7 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                         .whereEqualTo("deviceId", deviceId);
                 
                 ApiFuture<QuerySnapshot> future = query.get();
-                QuerySnapshot querySnapshot = future.get();
+                QuerySnapshot querySnapshot = RequestDeadline.await(future, "firestore");
                 
                 List<UserSession> sessions = new ArrayList<>();
                 for (DocumentSnapshot document : querySnapshot.getDocuments()) {
@@ -184,36 +367,21 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                 
                 logger.debug("Found {} sessions for device: {}", sessions.size(), deviceId);
                 return sessions;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding sessions for device: {}", deviceId, e);
                 throw new RuntimeException("Failed to find sessions by device", e);
             }
-        });
+        }, executor);
     }
 
     @Override
-    public CompletableFuture<UserSession> updateLastAccessed(String sessionId) {
-        logger.debug("Updating last accessed for session: {}", sessionId);
-        
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(sessionId);
-                
-                Instant now = Instant.now();
-                ApiFuture<WriteResult> future = docRef.update(
-                        "lastAccessedAt", now
-                );
-                
-                WriteResult result = future.get();
-                logger.debug("Last accessed updated for session: {} at {}", sessionId, result.getUpdateTime());
-                return findById(sessionId).join().orElseThrow(() ->
-                        new RuntimeException("Session not found after update: " + sessionId));
-                
-            } catch (Exception e) {
-                logger.error("Error updating last accessed for session: {}", sessionId, e);
-                throw new RuntimeException("Failed to update last accessed", e);
-            }
-        });
+    public CompletableFuture<Void> updateLastAccessed(String sessionId) {
+        logger.debug("Buffering last accessed update for session: {}", sessionId);
+
+        writeBehind.enqueue(COLLECTION_NAME, sessionId, Map.of("lastAccessedAt", Instant.now()));
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
@@ -230,16 +398,20 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                         "revokedAt", now
                 );
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("Session revoked: {} at {}", sessionId, result.getUpdateTime());
-                return findById(sessionId).join().orElseThrow(() ->
+                UserSession revoked = findById(sessionId).join().orElseThrow(() ->
                         new RuntimeException("Session not found after revocation: " + sessionId));
+                writeSlot(revoked.getUserId(), slotRelease(List.of(sessionId)));
+                return revoked;
                 
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error revoking session: {}", sessionId, e);
                 throw new RuntimeException("Failed to revoke session", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -249,19 +421,17 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
         return CompletableFuture.supplyAsync(() -> {
             try {
                 List<UserSession> activeSessions = findActiveSessionsByUserId(userId).join();
-                List<UserSession> revokedSessions = new ArrayList<>();
-                for (UserSession session : activeSessions) {
-                    UserSession revokedSession = revokeSession(session.getId()).join();
-                    revokedSessions.add(revokedSession);
-                }
-                
+                List<UserSession> revokedSessions = revokeInBulk(activeSessions);
+
                 logger.debug("Revoked {} sessions for user: {}", revokedSessions.size(), userId);
                 return revokedSessions;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error revoking all sessions for user: {}", userId, e);
                 throw new RuntimeException("Failed to revoke all user sessions", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -270,52 +440,145 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
         
         return CompletableFuture.supplyAsync(() -> {
             try {
-                List<UserSession> deviceSessions = findSessionsByDeviceId(deviceId).join();
-                List<UserSession> revokedSessions = new ArrayList<>();
-                for (UserSession session : deviceSessions) {
-                    if (session.isActive()) {
-                        UserSession revokedSession = revokeSession(session.getId()).join();
-                        revokedSessions.add(revokedSession);
-                    }
-                }
-                
+                List<UserSession> activeSessions = findSessionsByDeviceId(deviceId).join().stream()
+                        .filter(UserSession::isActive)
+                        .toList();
+                List<UserSession> revokedSessions = revokeInBulk(activeSessions);
+
                 logger.debug("Revoked {} sessions for device: {}", revokedSessions.size(), deviceId);
                 return revokedSessions;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error revoking all sessions for device: {}", deviceId, e);
                 throw new RuntimeException("Failed to revoke all device sessions", e);
             }
-        });
+        }, executor);
+    }
+
+    /**
+     * Revoke sessions through one BulkWriter instead of an update + re-read round trip per session.
+     * Fails if any write fails, matching the previous one-at-a-time behaviour.
+     */
+    private List<UserSession> revokeInBulk(List<UserSession> sessions) throws Exception {
+        if (sessions.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Instant now = Instant.now();
+        List<ApiFuture<WriteResult>> writes = new ArrayList<>(sessions.size());
+        BulkWriter bulkWriter = firestore.bulkWriter();
+        Map<String, List<String>> releasedByUser = new HashMap<>();
+        try {
+            for (UserSession session : sessions) {
+                DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(session.getId());
+                writes.add(bulkWriter.update(docRef, Map.of("isActive", false, "revokedAt", now)));
+                releasedByUser.computeIfAbsent(session.getUserId(), id -> new ArrayList<>()).add(session.getId());
+            }
+            for (Map.Entry<String, List<String>> entry : releasedByUser.entrySet()) {
+                DocumentReference indexRef = firestore.collection(INDEX_COLLECTION_NAME).document(entry.getKey());
+                writes.add(bulkWriter.set(indexRef, Map.<String, Object>of(FIELD_SLOTS, slotRelease(entry.getValue())),
+                        SetOptions.merge()));
+            }
+        } finally {
+            bulkWriter.close();
+        }
+        RequestDeadline.await(ApiFutures.allAsList(writes), "firestore");
+
+        List<UserSession> revokedSessions = new ArrayList<>(sessions.size());
+        for (UserSession session : sessions) {
+            session.setActive(false);
+            session.setRevokedAt(now);
+            revokedSessions.add(session);
+        }
+        return revokedSessions;
     }
 
     @Override
     public CompletableFuture<Long> deleteExpiredSessions() {
         logger.debug("Deleting expired sessions");
 
+        return sweepExpiredSessions(Instant.now(), null, DEFAULT_SWEEP_PAGE_SIZE, Integer.MAX_VALUE, progress -> true)
+                .thenApply(result -> {
+                    logger.debug("Deleted {} expired sessions", result.deleted());
+                    return result.deleted();
+                });
+    }
+
+    @Override
+    public CompletableFuture<SweepResult> sweepExpiredSessions(Instant cutoff, SweepCursor resumeAfter, int pageSize,
+                                                               int maxPages, Predicate<SweepResult> onPage) {
+        logger.debug("Sweeping sessions expired before {} (resumeAfter={}, pageSize={}, maxPages={})",
+                cutoff, resumeAfter != null ? resumeAfter.sessionId() : null, pageSize, maxPages);
+
         return CompletableFuture.supplyAsync(() -> {
+            // One BulkWriter for the whole sweep so its 500/50/5 ramp-up carries across pages
+            BulkWriter bulkWriter = firestore.bulkWriter(BulkWriterOptions.builder()
+                    .setInitialOpsPerSecond(bulkInitialOpsPerSecond)
+                    .setMaxOpsPerSecond(bulkMaxOpsPerSecond)
+                    .build());
+            AtomicLong failed = new AtomicLong();
+            bulkWriter.addWriteErrorListener(error -> {
+                if (error.getFailedAttempts() < MAX_BULK_WRITE_ATTEMPTS) {
+                    return true;
+                }
+                failed.incrementAndGet();
+                logger.warn("Giving up deleting expired session {}: {}",
+                        error.getDocumentReference().getId(), error.getMessage());
+                return false;
+            });
+
+            SweepCursor cursor = resumeAfter;
+            long attempted = 0;
+            int pages = 0;
+            boolean complete = false;
             try {
-                Instant now = Instant.now();
+                while (pages < maxPages) {
+                    // Keyset pagination on (expiresAt, id); only the cursor field is fetched
+                    Query query = firestore.collection(COLLECTION_NAME)
+                            .whereLessThan("expiresAt", cutoff)
+                            .orderBy("expiresAt")
+                            .orderBy(FieldPath.documentId())
+                            .select("expiresAt")
+                            .limit(pageSize);
+                    if (cursor != null) {
+                        query = query.startAfter(cursor.expiresAt(), cursor.sessionId());
+                    }
 
-                Query query = firestore.collection(COLLECTION_NAME)
-                        .whereLessThan("expiresAt", now);
+                    List<QueryDocumentSnapshot> documents = RequestDeadline.await(query.get(), "firestore").getDocuments();
+                    if (documents.isEmpty()) {
+                        complete = true;
+                        break;
+                    }
+                    for (QueryDocumentSnapshot document : documents) {
+                        bulkWriter.delete(document.getReference());
+                    }
+                    RequestDeadline.await(bulkWriter.flush(), "firestore");
 
-                ApiFuture<QuerySnapshot> future = query.get();
-                QuerySnapshot querySnapshot = future.get();
+                    QueryDocumentSnapshot last = documents.get(documents.size() - 1);
+                    cursor = new SweepCursor(last.get("expiresAt"), last.getId());
+                    attempted += documents.size();
+                    pages++;
+                    complete = documents.size() < pageSize;
 
-                long deletedCount = 0;
-                for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-                    ApiFuture<WriteResult> deleteFuture = document.getReference().delete();
-                    deleteFuture.get();
-                    deletedCount++;
+                    SweepResult progress = new SweepResult(attempted - failed.get(), failed.get(), pages, cursor, complete);
+                    if (!onPage.test(progress) || complete) {
+                        break;
+                    }
                 }
-
-                logger.debug("Deleted {} expired sessions", deletedCount);
-                return deletedCount;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
-                logger.error("Error deleting expired sessions", e);
+                logger.error("Error sweeping expired sessions after {} pages", pages, e);
                 throw new RuntimeException("Failed to delete expired sessions", e);
+            } finally {
+                bulkWriter.close();
             }
-        });
+
+            SweepResult result = new SweepResult(attempted - failed.get(), failed.get(), pages, cursor, complete);
+            logger.debug("Expired session sweep finished: deleted={}, failed={}, pages={}, complete={}",
+                    result.deleted(), result.failed(), pages, complete);
+            return result;
+        }, executor);
     }
 
     @Override
@@ -327,15 +590,17 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                 DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(sessionId);
                 ApiFuture<WriteResult> future = docRef.delete();
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("Session deleted: {} at {}", sessionId, result.getUpdateTime());
 
                 return null;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error deleting session: {}", sessionId, e);
                 throw new RuntimeException("Failed to delete session", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -344,30 +609,60 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
 
         return CompletableFuture.supplyAsync(() -> {
             try {
-                List<UserSession> allSessions = findAllSessionsByUserId(userId).join();
-                long deletedCount = 0;
-
-                for (UserSession session : allSessions) {
-                    DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(session.getId());
-                    ApiFuture<WriteResult> future = docRef.delete();
-                    future.get();
-                    deletedCount++;
+                // References only; the session bodies are not needed to delete them
+                List<QueryDocumentSnapshot> documents = RequestDeadline.await(firestore.collection(COLLECTION_NAME)
+                        .whereEqualTo("userId", userId)
+                        .select(FieldPath.documentId())
+                        .get(), "firestore")
+                        .getDocuments();
+
+                List<ApiFuture<WriteResult>> deletes = new ArrayList<>(documents.size() + 1);
+                BulkWriter bulkWriter = firestore.bulkWriter();
+                try {
+                    for (QueryDocumentSnapshot document : documents) {
+                        deletes.add(bulkWriter.delete(document.getReference()));
+                    }
+                    deletes.add(bulkWriter.delete(firestore.collection(INDEX_COLLECTION_NAME).document(userId)));
+                } finally {
+                    bulkWriter.close();
                 }
+                RequestDeadline.await(ApiFutures.allAsList(deletes), "firestore");
 
+                long deletedCount = documents.size();
                 logger.debug("Deleted {} sessions for user: {}", deletedCount, userId);
                 return deletedCount;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error deleting all sessions for user: {}", userId, e);
                 throw new RuntimeException("Failed to delete all user sessions", e);
             }
-        });
+        }, executor);
     }
 
     @Override
     public CompletableFuture<Long> countActiveSessionsByUserId(String userId) {
         logger.debug("Counting active sessions for user: {}", userId);
 
-        return findActiveSessionsByUserId(userId).thenApply(sessions -> (long) sessions.size());
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                // Same predicate as UserSession.isValid(): revoking clears isActive, expiry is filtered server-side
+                AggregateQuery query = firestore.collection(COLLECTION_NAME)
+                        .whereEqualTo("userId", userId)
+                        .whereEqualTo("isActive", true)
+                        .whereGreaterThan("expiresAt", Instant.now())
+                        .count();
+
+                long count = RequestDeadline.await(query.get(), "firestore").getCount();
+                logger.debug("Active session count for user {}: {}", userId, count);
+                return count;
+            } catch (GatewayException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Error counting active sessions for user: {}", userId, e);
+                throw new RuntimeException("Failed to count active sessions", e);
+            }
+        }, executor);
     }
 
     @Override
@@ -376,24 +671,21 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
 
         return CompletableFuture.supplyAsync(() -> {
             try {
-                Query query = firestore.collection(COLLECTION_NAME)
-                        .whereEqualTo("isActive", true);
-
-                ApiFuture<QuerySnapshot> future = query.get();
-                QuerySnapshot querySnapshot = future.get();
-
-                long count = querySnapshot.getDocuments().stream()
-                        .map(doc -> doc.toObject(UserSession.class))
-                        .filter(session -> session != null && session.isValid())
+                AggregateQuery query = firestore.collection(COLLECTION_NAME)
+                        .whereEqualTo("isActive", true)
+                        .whereGreaterThan("expiresAt", Instant.now())
                         .count();
 
+                long count = RequestDeadline.await(query.get(), "firestore").getCount();
                 logger.debug("Total active session count: {}", count);
                 return count;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error counting active sessions", e);
                 throw new RuntimeException("Failed to count active sessions", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -406,7 +698,7 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                         .whereEqualTo("isActive", true);
 
                 ApiFuture<QuerySnapshot> future = query.get();
-                QuerySnapshot querySnapshot = future.get();
+                QuerySnapshot querySnapshot = RequestDeadline.await(future, "firestore");
 
                 List<UserSession> sessions = querySnapshot.getDocuments().stream()
                         .map(doc -> doc.toObject(UserSession.class))
@@ -415,11 +707,13 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
 
                 logger.debug("Found {} active sessions", sessions.size());
                 return sessions;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding all active sessions", e);
                 throw new RuntimeException("Failed to find all active sessions", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -437,7 +731,7 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                         .whereGreaterThan("expiresAt", now);
 
                 ApiFuture<QuerySnapshot> future = query.get();
-                QuerySnapshot querySnapshot = future.get();
+                QuerySnapshot querySnapshot = RequestDeadline.await(future, "firestore");
 
                 List<UserSession> sessions = new ArrayList<>();
                 for (DocumentSnapshot document : querySnapshot.getDocuments()) {
@@ -449,11 +743,13 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
 
                 logger.debug("Found {} sessions expiring within {} minutes", sessions.size(), withinMinutes);
                 return sessions;
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error finding sessions expiring within {} minutes", withinMinutes, e);
                 throw new RuntimeException("Failed to find expiring sessions", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -473,16 +769,23 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                         "expiresAt", newExpiresAt
                 );
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("Session extended: {} until {} at {}", sessionId, newExpiresAt, result.getUpdateTime());
-                return findById(sessionId).join().orElseThrow(() ->
+                UserSession extended = findById(sessionId).join().orElseThrow(() ->
                         new RuntimeException("Session not found after extension: " + sessionId));
+                if (extended.isValid()) {
+                    // Keep the index expiry in step so login does not prune a session that is still live
+                    writeSlot(extended.getUserId(), Map.of(sessionId, SessionSlot.of(extended).toMap()));
+                }
+                return extended;
 
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error extending session: {}", sessionId, e);
                 throw new RuntimeException("Failed to extend session", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -498,15 +801,17 @@ public class FirebaseUserSessionRepository implements UserSessionRepository {
                         "refreshToken", newRefreshToken
                 );
 
-                WriteResult result = future.get();
+                WriteResult result = RequestDeadline.await(future, "firestore");
                 logger.debug("Refresh token updated for session: {} at {}", sessionId, result.getUpdateTime());
                 return findById(sessionId).join().orElseThrow(() ->
                         new RuntimeException("Session not found after refresh token update: " + sessionId));
 
+            } catch (GatewayException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error updating refresh token for session: {}", sessionId, e);
                 throw new RuntimeException("Failed to update refresh token", e);
             }
-        });
+        }, executor);
     }
 }
@@ -0,0 +1,225 @@
+package com.app.repository.impl;
+
+import com.app.deadline.RequestDeadline;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in hedging for idempotent Firestore point reads (firestore.hedging.enabled).
+ *
+ * The read is issued once; if it has not answered after the configured percentile of its own recent
+ * latency (from the app.firestore.operation.duration series for that collection and operation), an identical
+ * second read is issued and whichever answers first wins. The loser is cancelled. Hedges draw on a global
+ * budget that only refills as a fixed share of reads ({@code budget-percent}), so a slow Firestore sees at
+ * most a few percent of extra load however slow it gets. Outcomes are counted in app.firestore.hedge.
+ *
+ * Only for reads that are safe to repeat; never for writes or transactions.
+ */
+@Component
+public class FirestoreHedgedReader {
+
+    private static final String DOWNSTREAM = "firestore";
+    private static final long MILLI_TOKENS_PER_HEDGE = 1000;
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private record CachedDelay(long delayNanos, long computedAtNanos) {}
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long fallbackDelayNanos;
+    private final long depositMilliTokens;
+    private final long maxMilliTokens;
+    private final LongSupplier nanoClock;
+    private final AtomicLong budgetMilliTokens;
+    private final ConcurrentHashMap<String, CachedDelay> delays = new ConcurrentHashMap<>();
+
+    private final Counter primaryWonCounter;
+    private final Counter hedgeWonCounter;
+    private final Counter budgetExhaustedCounter;
+
+    @Autowired
+    public FirestoreHedgedReader(MeterRegistry meterRegistry,
+                                 @Value("${firestore.hedging.enabled:false}") boolean enabled,
+                                 @Value("${firestore.hedging.percentile:0.95}") double percentile,
+                                 @Value("${firestore.hedging.min-delay-ms:5}") long minDelayMs,
+                                 @Value("${firestore.hedging.fallback-delay-ms:50}") long fallbackDelayMs,
+                                 @Value("${firestore.hedging.budget-percent:5}") double budgetPercent,
+                                 @Value("${firestore.hedging.max-burst:20}") int maxBurst) {
+        this(meterRegistry, enabled, percentile, minDelayMs, fallbackDelayMs, budgetPercent, maxBurst,
+                System::nanoTime);
+    }
+
+    FirestoreHedgedReader(MeterRegistry meterRegistry, boolean enabled, double percentile, long minDelayMs,
+                          long fallbackDelayMs, double budgetPercent, int maxBurst, LongSupplier nanoClock) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.percentile = effectivePercentile(percentile);
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, minDelayMs));
+        this.fallbackDelayNanos = Math.max(minDelayNanos, TimeUnit.MILLISECONDS.toNanos(fallbackDelayMs));
+        this.depositMilliTokens = Math.round(MILLI_TOKENS_PER_HEDGE * Math.max(0, budgetPercent) / 100.0);
+        this.maxMilliTokens = MILLI_TOKENS_PER_HEDGE * Math.max(1, maxBurst);
+        this.budgetMilliTokens = new AtomicLong(maxMilliTokens);
+        this.nanoClock = nanoClock;
+
+        this.primaryWonCounter = outcomeCounter("primary_won");
+        this.hedgeWonCounter = outcomeCounter("hedge_won");
+        this.budgetExhaustedCounter = outcomeCounter("budget_exhausted");
+    }
+
+    /** The configured hedge percentile clamped to the range the reader uses (FirestoreHedgingConfig publishes it). */
+    public static double effectivePercentile(double configured) {
+        return Math.min(0.999, Math.max(0.5, configured));
+    }
+
+    private Counter outcomeCounter(String outcome) {
+        return Counter.builder("app.firestore.hedge")
+                .tag("outcome", outcome)
+                .description("Hedged Firestore reads by outcome")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run {@code read} (which must start a fresh, idempotent read each time it is called) and wait for it
+     * within the request deadline, hedging it if it is slow and the budget allows. {@code collection} and
+     * {@code operation} name the latency series the hedge delay is taken from.
+     */
+    public <T> T read(String collection, String operation, Supplier<ApiFuture<T>> read)
+            throws InterruptedException, ExecutionException {
+        if (!enabled) {
+            return RequestDeadline.await(read.get(), DOWNSTREAM);
+        }
+        deposit();
+
+        AtomicInteger outstanding = new AtomicInteger(1);
+        CompletableFuture<Attempt<T>> first = new CompletableFuture<>();
+        ApiFuture<T> primary = read.get();
+        race(primary, false, first, outstanding);
+        ApiFuture<T> hedge = null;
+        try {
+            if (!awaitQuietly(first, hedgeDelayNanos(collection, operation))) {
+                if (tryWithdraw()) {
+                    outstanding.incrementAndGet();
+                    hedge = read.get();
+                    race(hedge, true, first, outstanding);
+                } else {
+                    budgetExhaustedCounter.increment();
+                }
+            }
+
+            Attempt<T> winner = RequestDeadline.await(first, DOWNSTREAM);
+            if (hedge != null) {
+                (winner.hedged() ? hedgeWonCounter : primaryWonCounter).increment();
+            }
+            return winner.value();
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    private record Attempt<T>(T value, boolean hedged) {}
+
+    /** Complete {@code first} with the first success, or with the failure once every attempt has failed. */
+    private static <T> void race(ApiFuture<T> attempt, boolean hedged, CompletableFuture<Attempt<T>> first,
+                                 AtomicInteger outstanding) {
+        ApiFutures.addCallback(attempt, new ApiFutureCallback<>() {
+            @Override
+            public void onSuccess(T value) {
+                first.complete(new Attempt<>(value, hedged));
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                if (outstanding.decrementAndGet() == 0) {
+                    first.completeExceptionally(t);
+                }
+            }
+        }, Runnable::run);
+    }
+
+    /** @return true if {@code future} completed (either way) within the delay or the remaining request budget */
+    private boolean awaitQuietly(CompletableFuture<?> future, long delayNanos) throws InterruptedException {
+        long waitNanos = RequestDeadline.current()
+                .map(deadline -> Math.min(delayNanos, TimeUnit.MILLISECONDS.toNanos(deadline.remainingMillis())))
+                .orElse(delayNanos);
+        try {
+            future.get(waitNanos, TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+
+    long hedgeDelayNanos(String collection, String operation) {
+        String key = collection + '/' + operation;
+        long now = nanoClock.getAsLong();
+        CachedDelay cached = delays.get(key);
+        if (cached != null && now - cached.computedAtNanos() < DELAY_REFRESH_NANOS) {
+            return cached.delayNanos();
+        }
+        long delay = Math.max(minDelayNanos, observedPercentileNanos(collection, operation));
+        delays.put(key, new CachedDelay(delay, now));
+        return delay;
+    }
+
+    /**
+     * The configured percentile of successful reads from the rolling client-side percentiles published by
+     * FirestoreHedgingConfig; the fixed fallback delay until the series has data.
+     */
+    private long observedPercentileNanos(String collection, String operation) {
+        Timer timer = meterRegistry.find("app.firestore.operation.duration")
+                .tags("collection", collection, "operation", operation, "status", "success")
+                .timer();
+        if (timer == null || timer.count() == 0) {
+            return fallbackDelayNanos;
+        }
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (Math.abs(value.percentile() - percentile) < 1e-6 && value.value() > 0) {
+                return (long) value.value(TimeUnit.NANOSECONDS);
+            }
+        }
+        return fallbackDelayNanos;
+    }
+
+    private void deposit() {
+        budgetMilliTokens.updateAndGet(balance -> Math.min(maxMilliTokens, balance + depositMilliTokens));
+    }
+
+    private boolean tryWithdraw() {
+        while (true) {
+            long balance = budgetMilliTokens.get();
+            if (balance < MILLI_TOKENS_PER_HEDGE) {
+                return false;
+            }
+            if (budgetMilliTokens.compareAndSet(balance, balance - MILLI_TOKENS_PER_HEDGE)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.app.repository.impl;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteResult;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind buffer for low-value, high-frequency field updates such as session lastAccessedAt and
+ * user lastLoginAt.
+ *
+ * Callers enqueue field values per document and return immediately. Updates to the same document are
+ * coalesced in memory (later timestamps win), and a single background thread writes the pending set
+ * through a BulkWriter every flush interval, or sooner once {@code flush-threshold} documents are pending.
+ * When {@code max-pending} documents are already buffered, updates for new documents are dropped and
+ * counted rather than blocking the request. Pending updates are flushed on shutdown.
+ */
+@Component
+public class FirestoreWriteBehindBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirestoreWriteBehindBuffer.class);
+
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    record DocumentKey(String collection, String documentId) {}
+
+    private final Firestore firestore;
+    private final int flushThreshold;
+    private final int maxPending;
+    private final ConcurrentHashMap<DocumentKey, Map<String, Object>> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    private final ScheduledExecutorService flusher;
+
+    private final Counter bufferedCounter;
+    private final Counter coalescedCounter;
+    private final Counter flushedCounter;
+    private final Counter droppedCounter;
+
+    @Autowired
+    public FirestoreWriteBehindBuffer(Firestore firestore,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${firestore.write-behind.flush-interval-ms:5000}") long flushIntervalMs,
+                                      @Value("${firestore.write-behind.flush-threshold:500}") int flushThreshold,
+                                      @Value("${firestore.write-behind.max-pending:50000}") int maxPending) {
+        this(firestore, meterRegistry, flushIntervalMs, flushThreshold, maxPending, true);
+    }
+
+    FirestoreWriteBehindBuffer(Firestore firestore, MeterRegistry meterRegistry, long flushIntervalMs,
+                               int flushThreshold, int maxPending, boolean scheduleFlush) {
+        this.firestore = firestore;
+        this.flushThreshold = Math.max(1, flushThreshold);
+        this.maxPending = Math.max(this.flushThreshold, maxPending);
+
+        this.bufferedCounter = updateCounter(meterRegistry, "buffered");
+        this.coalescedCounter = updateCounter(meterRegistry, "coalesced");
+        this.flushedCounter = updateCounter(meterRegistry, "flushed");
+        this.droppedCounter = updateCounter(meterRegistry, "dropped");
+        Gauge.builder("app.firestore.write_behind.pending", pending, Map::size)
+                .description("Documents with buffered updates not yet written")
+                .register(meterRegistry);
+
+        if (scheduleFlush) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "firestore-write-behind");
+                t.setDaemon(true);
+                return t;
+            });
+            long interval = Math.max(100, flushIntervalMs);
+            this.flusher.scheduleWithFixedDelay(this::flushSafely, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * Buffer an update of {@code fields} on {@code collection/documentId}.
+     *
+     * @return false if the update was dropped because the buffer is full
+     */
+    public boolean enqueue(String collection, String documentId, Map<String, Object> fields) {
+        DocumentKey key = new DocumentKey(collection, documentId);
+        if (!pending.containsKey(key) && pending.size() >= maxPending) {
+            droppedCounter.increment();
+            logger.debug("Write-behind buffer full, dropping update for {}/{}", collection, documentId);
+            return false;
+        }
+
+        boolean[] coalesced = {false};
+        pending.merge(key, new HashMap<>(fields), (current, update) -> {
+            coalesced[0] = true;
+            Map<String, Object> merged = new HashMap<>(current);
+            update.forEach((field, value) -> merged.merge(field, value, FirestoreWriteBehindBuffer::later));
+            return merged;
+        });
+        (coalesced[0] ? coalescedCounter : bufferedCounter).increment();
+
+        if (pending.size() >= flushThreshold && flusher != null && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushSafely);
+        }
+        return true;
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Write everything currently pending. Only ever runs on the flusher thread or during shutdown.
+     *
+     * @return number of documents written
+     */
+    synchronized int flush() {
+        flushRequested.set(false);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        List<DocumentKey> keys = new ArrayList<>(pending.keySet());
+        List<DocumentKey> writtenKeys = new ArrayList<>(keys.size());
+        List<ApiFuture<WriteResult>> writes = new ArrayList<>(keys.size());
+        BulkWriter bulkWriter = firestore.bulkWriter();
+        bulkWriter.addWriteErrorListener(error -> {
+            // A deleted document will never accept the update
+            return error.getStatus().getCode() != Status.Code.NOT_FOUND
+                    && error.getFailedAttempts() < MAX_WRITE_ATTEMPTS;
+        });
+        try {
+            for (DocumentKey key : keys) {
+                Map<String, Object> fields = pending.remove(key);
+                if (fields == null) {
+                    continue;
+                }
+                DocumentReference docRef = firestore.collection(key.collection()).document(key.documentId());
+                writes.add(bulkWriter.update(docRef, fields));
+                writtenKeys.add(key);
+            }
+        } finally {
+            bulkWriter.close();
+        }
+
+        int written = 0;
+        for (int i = 0; i < writes.size(); i++) {
+            try {
+                writes.get(i).get();
+                written++;
+            } catch (Exception e) {
+                DocumentKey key = writtenKeys.get(i);
+                droppedCounter.increment();
+                logger.debug("Dropping buffered update for {}/{}: {}", key.collection(), key.documentId(), e.getMessage());
+            }
+        }
+        flushedCounter.increment(written);
+        logger.debug("Write-behind flush wrote {} of {} documents", written, writes.size());
+        return written;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int remaining = pending.size();
+        if (remaining > 0) {
+            logger.info("Flushing {} buffered document updates before shutdown", remaining);
+            flushSafely();
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            // Updates taken off the buffer by a failed flush are lost; they are only timestamps
+            logger.warn("Write-behind flush failed: {}", e.getMessage());
+        }
+    }
+
+    private static Object later(Object current, Object update) {
+        if (current instanceof Instant a && update instanceof Instant b) {
+            return a.isAfter(b) ? a : b;
+        }
+        return update;
+    }
+
+    private static Counter updateCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("app.firestore.write_behind.updates")
+                .tag("result", result)
+                .description("Buffered Firestore field updates by outcome")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,244 @@
+package com.app.repository.impl;
+
+import com.app.deadline.RequestDeadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Small bounded read-through cache of in-flight or completed loads, keyed per document.
+ *
+ * Concurrent {@link #get} calls for a key that is already loading share the same future instead of each
+ * issuing a read. Completed values live for the TTL; failed loads are not cached. {@link #invalidate} records
+ * the key's invalidation against a sequence number, and a load of that key that started before it is handed to
+ * its waiters but not stored, so a read racing a write cannot re-populate the entry with pre-write data.
+ * Writes to one key never block fills of another. Only the last {@code maxSize} invalidations are remembered;
+ * a read older than the ones forgotten is treated as stale.
+ *
+ * Bounded LRU: entries are kept in access order and a miss past {@code maxSize} evicts the least recently
+ * used completed entry. The map is guarded by a lock held only for the lookup or update, never while loading.
+ *
+ * The load runs detached from the deadline of the request that started it, so one caller with little budget
+ * left cannot fail the read for everyone coalesced onto it. Each caller instead gets its own view of the shared
+ * future, bounded by its own {@link RequestDeadline}.
+ *
+ * Exports the shared app.cache.hits / misses / evictions / size meters tagged with the cache name; a lookup
+ * that joins an in-flight load counts as a hit and is also counted in app.cache.coalesced.
+ *
+ * Values must be immutable (e.g. Firestore snapshots); callers materialise their own model objects.
+ */
+final class ReadThroughCache<K, V> {
+
+    private record Entry<V>(CompletableFuture<V> future, long expiresAtNanos) {}
+
+    private static final long LOADING = Long.MAX_VALUE;
+    private static final String DOWNSTREAM = "firestore";
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true); // guarded by lock
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<K, Long> invalidatedAt = new ConcurrentHashMap<>();
+    private final AtomicLong forgottenUpTo = new AtomicLong();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter coalescedCounter;
+    private final Counter sizeEvictionCounter;
+    private final Counter expiredEvictionCounter;
+
+    ReadThroughCache(String name, Duration ttl, int maxSize, MeterRegistry meterRegistry) {
+        this(name, ttl, maxSize, meterRegistry, System::nanoTime);
+    }
+
+    ReadThroughCache(String name, Duration ttl, int maxSize, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.ttlNanos = Math.max(0, ttl.toNanos());
+        this.maxSize = Math.max(1, maxSize);
+        this.nanoClock = nanoClock;
+
+        this.hitCounter = Counter.builder("app.cache.hits")
+                .tags("cache", name)
+                .description("Number of cache hits")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("app.cache.misses")
+                .tags("cache", name)
+                .description("Number of cache misses")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("app.cache.coalesced")
+                .tags("cache", name)
+                .description("Cache lookups that joined an in-flight load of the same key")
+                .register(meterRegistry);
+        this.sizeEvictionCounter = evictionCounter(meterRegistry, name, "size");
+        this.expiredEvictionCounter = evictionCounter(meterRegistry, name, "expired");
+        Gauge.builder("app.cache.size", this, ReadThroughCache::size)
+                .tags("cache", name)
+                .description("Number of entries in the cache")
+                .register(meterRegistry);
+    }
+
+    CompletableFuture<V> get(K key, Supplier<CompletableFuture<V>> loader) {
+        long now = nanoClock.getAsLong();
+        Entry<V> mine = new Entry<>(new CompletableFuture<>(), LOADING);
+        lock.lock();
+        try {
+            Entry<V> current = entries.get(key);
+            if (current != null && isLive(current, now)) {
+                return shared(current);
+            }
+            if (current != null) {
+                expiredEvictionCounter.increment();
+            }
+            entries.put(key, mine);
+            evictEldest(now);
+        } finally {
+            lock.unlock();
+        }
+
+        missCounter.increment();
+        long loadGeneration = sequence.get();
+
+        CompletableFuture<V> load;
+        RequestDeadline callerDeadline = RequestDeadline.current().orElse(null);
+        RequestDeadline.set(null);
+        try {
+            load = loader.get();
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        } finally {
+            RequestDeadline.set(callerDeadline);
+        }
+        load.whenComplete((value, error) -> {
+            lock.lock();
+            try {
+                if (error != null || ttlNanos == 0 || invalidatedSince(key, loadGeneration)) {
+                    entries.remove(key, mine);
+                } else {
+                    entries.replace(key, mine, new Entry<>(mine.future(), nanoClock.getAsLong() + ttlNanos));
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (error != null) {
+                mine.future().completeExceptionally(error);
+            } else {
+                mine.future().complete(value);
+            }
+        });
+        return RequestDeadline.within(mine.future(), DOWNSTREAM);
+    }
+
+    /**
+     * Snapshot of the invalidation sequence, for callers that want to {@link #put} a value they read elsewhere.
+     */
+    long generation() {
+        return sequence.get();
+    }
+
+    /**
+     * Store a value read outside {@link #get}, unless the key is already cached or was invalidated since
+     * {@code readGeneration}.
+     */
+    void put(K key, V value, long readGeneration) {
+        if (ttlNanos == 0 || invalidatedSince(key, readGeneration)) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        lock.lock();
+        try {
+            Entry<V> existing = entries.get(key);
+            if (existing == null || !isLive(existing, now)) {
+                entries.put(key, new Entry<>(CompletableFuture.completedFuture(value), now + ttlNanos));
+                evictEldest(now);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void invalidate(K key) {
+        long seq = sequence.incrementAndGet();
+        invalidatedAt.merge(key, seq, Math::max);
+        // Removed after recording the invalidation, so a fill that missed it is dropped here
+        lock.lock();
+        try {
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+        forgetOldInvalidations(seq);
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CompletableFuture<V> shared(Entry<V> entry) {
+        hitCounter.increment();
+        if (!entry.future().isDone()) {
+            coalescedCounter.increment();
+        }
+        return RequestDeadline.within(entry.future(), DOWNSTREAM);
+    }
+
+    private boolean invalidatedSince(K key, long readGeneration) {
+        if (readGeneration < forgottenUpTo.get()) {
+            return true;
+        }
+        Long at = invalidatedAt.get(key);
+        return at != null && at > readGeneration;
+    }
+
+    private void forgetOldInvalidations(long seq) {
+        if (invalidatedAt.size() <= maxSize) {
+            return;
+        }
+        long cutoff = seq - maxSize;
+        // Raise the floor before dropping the records it covers
+        forgottenUpTo.accumulateAndGet(cutoff, Math::max);
+        invalidatedAt.values().removeIf(at -> at <= cutoff);
+    }
+
+    private boolean isLive(Entry<V> entry, long now) {
+        return entry.expiresAtNanos() == LOADING || now - entry.expiresAtNanos() < 0;
+    }
+
+    /**
+     * Drop least recently used entries until under the limit, skipping loads still in flight. Called with the
+     * lock held; the new entry is the most recent, so this normally stops after the first one.
+     */
+    private void evictEldest(long now) {
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            Entry<V> eldest = it.next();
+            if (eldest.expiresAtNanos() == LOADING) {
+                continue;
+            }
+            it.remove();
+            (isLive(eldest, now) ? sizeEvictionCounter : expiredEvictionCounter).increment();
+        }
+    }
+
+    private static Counter evictionCounter(MeterRegistry meterRegistry, String name, String reason) {
+        return Counter.builder("app.cache.evictions")
+                .tags("cache", name, "reason", reason)
+                .description("Number of cache evictions")
+                .register(meterRegistry);
+    }
+}
@@ -21,6 +21,7 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.app.exception.ErrorCode;
 import com.app.exception.ErrorResponse;
@@ -227,13 +228,17 @@ public class RateLimitingFilter extends OncePerRequestFilter {
         ClientRateData rateData = clientRateData.computeIfAbsent(clientKey,
             k -> new ClientRateData());
 
-        synchronized (rateData) {
+        // A ReentrantLock rather than synchronized: on Java 21 a virtual thread waiting for a monitor pins its carrier
+        rateData.lock.lock();
+        try {
             rateData.cleanupOldRequests(currentTime - WINDOW_SIZE_MS);
             if (rateData.getRequestCount() >= rateLimit) {
                 return false;
             }
             rateData.addRequest(currentTime);
             return true;
+        } finally {
+            rateData.lock.unlock();
         }
     }
 
@@ -250,8 +255,11 @@ public class RateLimitingFilter extends OncePerRequestFilter {
 
             clientRateData.entrySet().removeIf(entry -> {
                 ClientRateData rateData = entry.getValue();
-                synchronized (rateData) {
+                rateData.lock.lock();
+                try {
                     return rateData.getLastRequestTime() < cutoffTime;
+                } finally {
+                    rateData.lock.unlock();
                 }
             });
 
@@ -290,6 +298,7 @@ public class RateLimitingFilter extends OncePerRequestFilter {
     }
 
     private static class ClientRateData {
+        private final ReentrantLock lock = new ReentrantLock();
         private final ConcurrentHashMap<Long, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
         private volatile long lastRequestTime = 0;
 
@@ -0,0 +1,218 @@
+package com.app.service;
+
+import com.app.repository.AccountDeletionJobRepository;
+import com.app.repository.AccountDeletionJobRepository.DeletionJob;
+import com.app.repository.AccountDeletionJobRepository.Status;
+import com.app.repository.JobLeaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Background job that works through unfinished account deletion jobs: accounts queued with
+ * {@link AccountDeletionService#requestDeletion}, and deletions that failed or were interrupted by a crash.
+ *
+ * Only the instance holding the "account-deletion-queue" lease processes the queue. Accounts are deleted one
+ * at a time, paced to at most {@code max-accounts-per-second}, so a large batch does not compete with
+ * interactive traffic for Firestore write capacity. RUNNING jobs updated within {@code stale-after-seconds}
+ * are assumed to be in progress elsewhere and skipped; jobs that have already failed {@code max-attempts}
+ * times are left for manual follow-up. Skipped jobs stay in the queue, so a run pages past them until it has
+ * attempted {@code batch-size} jobs or reached the end of the queue; they never starve newer requests.
+ */
+@Service
+public class AccountDeletionQueueProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountDeletionQueueProcessor.class);
+
+    static final String JOB_NAME = "account-deletion-queue";
+
+    public enum Outcome { COMPLETED, PARTIAL, NOT_LEADER, ALREADY_RUNNING, DISABLED, FAILED }
+
+    private final AccountDeletionJobRepository jobRepository;
+    private final AccountDeletionService deletionService;
+    private final JobLeaseRepository leaseRepository;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long minIntervalNanos;
+    private final int maxAttempts;
+    private final long staleAfterMillis;
+    private final Duration leaseDuration;
+    private final String instanceId;
+    private final LongSupplier nanoClock;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final Counter deletedCounter;
+    private final Counter failedCounter;
+    private final Counter skippedCounter;
+
+    public AccountDeletionQueueProcessor(AccountDeletionJobRepository jobRepository,
+                                         AccountDeletionService deletionService,
+                                         JobLeaseRepository leaseRepository,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${account-deletion.queue.enabled:true}") boolean enabled,
+                                         @Value("${account-deletion.queue.batch-size:100}") int batchSize,
+                                         @Value("${account-deletion.queue.max-accounts-per-second:5}") double maxAccountsPerSecond,
+                                         @Value("${account-deletion.queue.max-attempts:5}") int maxAttempts,
+                                         @Value("${account-deletion.queue.stale-after-seconds:300}") long staleAfterSeconds,
+                                         @Value("${account-deletion.queue.lease-seconds:120}") long leaseSeconds) {
+        this(jobRepository, deletionService, leaseRepository, meterRegistry, enabled, batchSize, maxAccountsPerSecond,
+                maxAttempts, staleAfterSeconds, leaseSeconds, System::nanoTime);
+    }
+
+    AccountDeletionQueueProcessor(AccountDeletionJobRepository jobRepository,
+                                  AccountDeletionService deletionService,
+                                  JobLeaseRepository leaseRepository,
+                                  MeterRegistry meterRegistry,
+                                  boolean enabled, int batchSize, double maxAccountsPerSecond, int maxAttempts,
+                                  long staleAfterSeconds, long leaseSeconds, LongSupplier nanoClock) {
+        this.jobRepository = jobRepository;
+        this.deletionService = deletionService;
+        this.leaseRepository = leaseRepository;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.minIntervalNanos = maxAccountsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / maxAccountsPerSecond) : 0L;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.staleAfterMillis = TimeUnit.SECONDS.toMillis(Math.max(0, staleAfterSeconds));
+        this.leaseDuration = Duration.ofSeconds(Math.max(10, leaseSeconds));
+        this.instanceId = resolveInstanceId();
+        this.nanoClock = nanoClock;
+
+        this.deletedCounter = jobCounter(meterRegistry, "deleted");
+        this.failedCounter = jobCounter(meterRegistry, "failed");
+        this.skippedCounter = jobCounter(meterRegistry, "skipped");
+    }
+
+    @Scheduled(fixedDelayString = "${account-deletion.queue.interval-ms:60000}",
+               initialDelayString = "${account-deletion.queue.initial-delay-ms:90000}")
+    public void scheduledRun() {
+        processQueue();
+    }
+
+    public Outcome processQueue() {
+        if (!enabled) {
+            return Outcome.DISABLED;
+        }
+        if (!running.compareAndSet(false, true)) {
+            return record(Outcome.ALREADY_RUNNING);
+        }
+        try {
+            Optional<JobLeaseRepository.Lease> lease =
+                    leaseRepository.tryAcquire(JOB_NAME, instanceId, leaseDuration).join();
+            if (lease.isEmpty()) {
+                logger.debug("Account deletion queue skipped: lease held by another instance");
+                return record(Outcome.NOT_LEADER);
+            }
+
+            int attempted = 0;
+            int deleted = 0;
+            int seen = 0;
+            long nextStartNanos = nanoClock.getAsLong();
+            DeletionJob cursor = null;
+            List<DeletionJob> page;
+            do {
+                page = jobRepository.findUnfinished(cursor, batchSize).join();
+                for (DeletionJob job : page) {
+                    if (attempted >= batchSize) {
+                        break;
+                    }
+                    cursor = job;
+                    seen++;
+                    if (!isRunnable(job)) {
+                        skippedCounter.increment();
+                        continue;
+                    }
+
+                    pace(nextStartNanos);
+                    nextStartNanos = nanoClock.getAsLong() + minIntervalNanos;
+                    attempted++;
+                    try {
+                        deletionService.deleteAccount(job.userId()).join();
+                        deletedCounter.increment();
+                        deleted++;
+                    } catch (Exception e) {
+                        // Recorded on the job by the deletion service; retried on a later run
+                        failedCounter.increment();
+                        logger.warn("Queued account deletion failed for user: {}: {}", job.userId(), e.getMessage());
+                    }
+
+                    if (!leaseRepository.renew(JOB_NAME, instanceId, leaseDuration, null).join()) {
+                        logger.warn("Lost account deletion queue lease after {} accounts", deleted);
+                        return record(Outcome.PARTIAL);
+                    }
+                }
+            } while (page.size() == batchSize && attempted < batchSize);
+
+            leaseRepository.release(JOB_NAME, instanceId, null).join();
+            if (seen > 0) {
+                logger.info("Account deletion queue run: deleted={} of {} attempted, {} pending jobs seen",
+                        deleted, attempted, seen);
+            }
+            return record(Outcome.COMPLETED);
+        } catch (Exception e) {
+            logger.error("Account deletion queue run failed: {}", e.getMessage(), e);
+            return record(Outcome.FAILED);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private boolean isRunnable(DeletionJob job) {
+        if (job.status() == Status.RUNNING
+                && System.currentTimeMillis() - job.updatedAtMillis() < staleAfterMillis) {
+            return false;
+        }
+        if (job.attempts() >= maxAttempts) {
+            logger.debug("Account deletion for user {} exceeded {} attempts; skipping", job.userId(), maxAttempts);
+            return false;
+        }
+        return true;
+    }
+
+    private void pace(long startAtNanos) throws InterruptedException {
+        long waitNanos = startAtNanos - nanoClock.getAsLong();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private Outcome record(Outcome outcome) {
+        Counter.builder("app.account.deletion.queue.runs")
+                .tag("outcome", outcome.name().toLowerCase())
+                .description("Account deletion queue runs by outcome")
+                .register(meterRegistry)
+                .increment();
+        return outcome;
+    }
+
+    private static Counter jobCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("app.account.deletion.queue.jobs")
+                .tag("result", result)
+                .description("Queued account deletion jobs processed by result")
+                .register(meterRegistry);
+    }
+
+    private static String resolveInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown-host";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
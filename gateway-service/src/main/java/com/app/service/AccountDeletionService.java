@@ -3,6 +3,8 @@ package com.app.service;
 import com.app.exception.ErrorCode;
 import com.app.exception.GatewayException;
 import com.app.model.User;
+import com.app.repository.AccountDeletionJobRepository;
+import com.app.repository.AccountDeletionJobRepository.DeletionJob;
 import com.app.repository.UserProfileRepository;
 import com.app.repository.UserRepository;
 import com.app.repository.UserSessionRepository;
@@ -14,29 +16,40 @@ import org.springframework.stereotype.Service;
 
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 /**
  * Orchestrates cascading account deletion for GDPR / App Store compliance.
  *
- * Deletion order:
- *   1. Delete user profile (UserProfileRepository)
- *   2. Revoke + delete all sessions across all devices (UserSessionRepository)
- *   3. Delete the user record itself (UserRepository)
+ * Deletion pipeline:
+ *   1. Delete user profile (UserProfileRepository) and delete all sessions across all devices
+ *      (UserSessionRepository) concurrently; the two are independent
+ *   2. Delete the user record itself (UserRepository), only once both have succeeded, so a failed
+ *      deletion can still be retried by the signed-in user
  *
- * Each step is individually timed for observability and wrapped in a
- * Resilience4j circuit breaker to protect against Firestore outages.
+ * Each completed step is checkpointed in the account's deletion job (AccountDeletionJobRepository), and
+ * a retry — by the user or by {@link AccountDeletionQueueProcessor} after a crash — skips steps that
+ * already finished. The job is removed once every step has succeeded.
+ *
+ * Each step is individually timed for observability and the pipeline is wrapped in a Resilience4j
+ * circuit breaker to protect against Firestore outages.
  */
 @Service
 public class AccountDeletionService {
 
     private static final Logger logger = LoggerFactory.getLogger(AccountDeletionService.class);
 
+    static final String STEP_DELETE_PROFILE = "delete_profile";
+    static final String STEP_DELETE_SESSIONS = "delete_sessions";
+    static final String STEP_DELETE_USER = "delete_user";
+
     private final UserRepository userRepository;
     private final UserProfileRepository userProfileRepository;
     private final UserSessionRepository userSessionRepository;
-    private final SessionService sessionService;
+    private final AccountDeletionJobRepository jobRepository;
     private final ApplicationMetricsService metricsService;
     private final CircuitBreaker circuitBreaker;
 
@@ -46,19 +59,20 @@ public class AccountDeletionService {
     public AccountDeletionService(UserRepository userRepository,
                                   UserProfileRepository userProfileRepository,
                                   UserSessionRepository userSessionRepository,
-                                  SessionService sessionService,
+                                  AccountDeletionJobRepository jobRepository,
                                   ApplicationMetricsService metricsService,
                                   CircuitBreakerRegistry circuitBreakerRegistry) {
         this.userRepository = userRepository;
         this.userProfileRepository = userProfileRepository;
         this.userSessionRepository = userSessionRepository;
-        this.sessionService = sessionService;
+        this.jobRepository = jobRepository;
         this.metricsService = metricsService;
         this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("accountDeletion");
     }
 
     /**
-     * Delete a user account and all associated data.
+     * Delete a user account and all associated data, resuming an earlier interrupted deletion if one
+     * exists.
      *
      * @param userId the authenticated user's ID
      * @return a future containing the provider of the deleted user (for metrics)
@@ -76,103 +90,135 @@ public class AccountDeletionService {
 
         long overallStart = System.currentTimeMillis();
 
-        return CompletableFuture.supplyAsync(() ->
-                CircuitBreaker.decorateSupplier(circuitBreaker, () -> {
-                    try {
-                        // ── Step 0: Verify user exists ──
-                        Optional<User> userOpt = userRepository.findById(userId).join();
-                        if (userOpt.isEmpty()) {
-                            throw new GatewayException(ErrorCode.USER_NOT_FOUND,
-                                    "User not found: " + userId);
-                        }
-                        User user = userOpt.get();
-                        String provider = user.getProvider() != null ? user.getProvider() : "unknown";
+        Supplier<CompletableFuture<String>> pipeline = () -> runPipeline(userId, overallStart);
+        return CircuitBreaker.decorateCompletionStage(circuitBreaker, pipeline::get).get()
+                .toCompletableFuture()
+                .whenComplete((provider, error) -> deletionsInProgress.remove(userId));
+    }
 
-                        // ── Step 1: Delete profile ──
-                        deleteProfile(userId);
+    /**
+     * Queue an account for deletion by {@link AccountDeletionQueueProcessor} instead of deleting it
+     * inline; used for bulk and administrative deletions that should run at a controlled write rate.
+     */
+    public CompletableFuture<DeletionJob> requestDeletion(String userId) {
+        return userRepository.findById(userId)
+                .thenCompose(userOpt -> {
+                    if (userOpt.isEmpty()) {
+                        throw new GatewayException(ErrorCode.USER_NOT_FOUND, "User not found: " + userId);
+                    }
+                    logger.info("Account deletion queued for user: {}", userId);
+                    return jobRepository.enqueue(userId, providerOf(userOpt.get()));
+                });
+    }
 
-                        // ── Step 2: Revoke and delete all sessions (all devices) ──
-                        revokeAndDeleteSessions(userId);
+    // ── Pipeline ─────────────────────────────────────────────────────────
 
-                        // ── Step 3: Delete user record ──
-                        deleteUserRecord(userId);
+    private CompletableFuture<String> runPipeline(String userId, long overallStart) {
+        CompletableFuture<Optional<User>> userLookup = userRepository.findById(userId);
+        CompletableFuture<Optional<DeletionJob>> jobLookup = jobRepository.findByUserId(userId);
 
-                        long totalDuration = System.currentTimeMillis() - overallStart;
+        return userLookup.thenCombine(jobLookup, (userOpt, jobOpt) -> {
+                    // The user record is deleted last, so a job without a user is a resume of the final steps
+                    if (userOpt.isEmpty() && jobOpt.isEmpty()) {
+                        throw new GatewayException(ErrorCode.USER_NOT_FOUND, "User not found: " + userId);
+                    }
+                    return userOpt.map(AccountDeletionService::providerOf)
+                            .orElseGet(() -> jobOpt.get().provider() != null ? jobOpt.get().provider() : "unknown");
+                })
+                .thenCompose(provider -> jobRepository.begin(userId, provider))
+                .thenCompose(job -> {
+                    if (job.attempts() > 1) {
+                        logger.info("Resuming account deletion for user: {} (attempt {}, completed steps: {})",
+                                userId, job.attempts(), job.completedSteps().keySet());
+                    }
+                    CompletableFuture<Void> profile = runStep(job, STEP_DELETE_PROFILE, () -> deleteProfile(userId));
+                    CompletableFuture<Void> sessions = runStep(job, STEP_DELETE_SESSIONS, () -> deleteSessions(userId));
+                    return CompletableFuture.allOf(profile, sessions)
+                            .thenCompose(ignored -> runStep(job, STEP_DELETE_USER, () -> deleteUserRecord(userId)))
+                            .thenCompose(ignored -> jobRepository.complete(userId))
+                            .thenApply(ignored -> job.provider());
+                })
+                .handle((provider, error) -> {
+                    long totalDuration = System.currentTimeMillis() - overallStart;
+                    if (error == null) {
                         metricsService.recordAccountDeletion(provider, true, totalDuration);
                         logger.info("Account deletion completed for user: {} in {}ms", userId, totalDuration);
-
                         return provider;
+                    }
 
-                    } catch (GatewayException e) {
-                        throw e;
-                    } catch (Exception e) {
-                        long totalDuration = System.currentTimeMillis() - overallStart;
-                        metricsService.recordAccountDeletion("unknown", false, totalDuration);
-                        logger.error("Account deletion failed for user: {}", userId, e);
-                        throw new GatewayException(ErrorCode.ACCOUNT_DELETION_FAILED,
-                                "Account deletion failed", e);
-                    } finally {
-                        deletionsInProgress.remove(userId);
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof GatewayException gatewayException) {
+                        throw gatewayException;
                     }
-                }).get()
-        );
+                    metricsService.recordAccountDeletion("unknown", false, totalDuration);
+                    logger.error("Account deletion failed for user: {}", userId, cause);
+                    recordFailure(userId, cause);
+                    throw new GatewayException(ErrorCode.ACCOUNT_DELETION_FAILED, "Account deletion failed", cause);
+                });
     }
 
-    // ── Private step methods ─────────────────────────────────────────────
+    /**
+     * Run {@code step} unless an earlier attempt already completed it, then checkpoint it.
+     */
+    private CompletableFuture<Void> runStep(DeletionJob job, String step, Supplier<CompletableFuture<?>> action) {
+        if (job.isStepCompleted(step)) {
+            logger.debug("Skipping completed deletion step {} for user: {}", step, job.userId());
+            return CompletableFuture.completedFuture(null);
+        }
 
-    private void deleteProfile(String userId) {
         long stepStart = System.currentTimeMillis();
+        CompletableFuture<?> result;
         try {
-            // Profile may not exist (e.g. user created but never completed onboarding)
-            boolean exists = userProfileRepository.exists(userId).join();
-            if (exists) {
-                userProfileRepository.delete(userId).join();
-                logger.debug("Profile deleted for user: {}", userId);
-            } else {
-                logger.debug("No profile to delete for user: {}", userId);
-            }
-            metricsService.recordAccountDeletionStep("delete_profile", true,
-                    System.currentTimeMillis() - stepStart);
-        } catch (Exception e) {
-            metricsService.recordAccountDeletionStep("delete_profile", false,
-                    System.currentTimeMillis() - stepStart);
-            throw e;
+            result = action.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
         }
+        return result
+                .thenCompose(ignored -> jobRepository.markStepCompleted(job.userId(), step))
+                .whenComplete((ignored, error) -> metricsService.recordAccountDeletionStep(step, error == null,
+                        System.currentTimeMillis() - stepStart));
     }
 
-    private void revokeAndDeleteSessions(String userId) {
-        long stepStart = System.currentTimeMillis();
-        try {
-            // First revoke all active sessions so tokens are immediately invalid
-            var revokedSessions = sessionService.revokeAllUserSessions(userId).join();
-            int revokedCount = revokedSessions.size();
-            metricsService.recordAccountDeletionSessionsRevoked(revokedCount);
-
-            // Then hard-delete all session records (active + already-expired) for GDPR
-            long deletedCount = userSessionRepository.deleteAllUserSessions(userId).join();
-
-            logger.debug("Sessions handled for user: {} -revoked: {}, deleted: {}",
-                    userId, revokedCount, deletedCount);
-            metricsService.recordAccountDeletionStep("delete_sessions", true,
-                    System.currentTimeMillis() - stepStart);
-        } catch (Exception e) {
-            metricsService.recordAccountDeletionStep("delete_sessions", false,
-                    System.currentTimeMillis() - stepStart);
-            throw e;
-        }
+    private CompletableFuture<Void> deleteProfile(String userId) {
+        // Deleting a profile that was never created (onboarding not completed) is a no-op
+        return userProfileRepository.delete(userId)
+                .thenRun(() -> logger.debug("Profile deleted for user: {}", userId));
     }
 
-    private void deleteUserRecord(String userId) {
-        long stepStart = System.currentTimeMillis();
-        try {
-            userRepository.deleteUser(userId).join();
-            logger.debug("User record deleted: {}", userId);
-            metricsService.recordAccountDeletionStep("delete_user", true,
-                    System.currentTimeMillis() - stepStart);
-        } catch (Exception e) {
-            metricsService.recordAccountDeletionStep("delete_user", false,
-                    System.currentTimeMillis() - stepStart);
-            throw e;
+    private CompletableFuture<Long> deleteSessions(String userId) {
+        // Hard-delete every session record (active + already-expired) in one batched pass for GDPR.
+        // Deleted sessions fail validation immediately, so there is no separate revoke pass.
+        return userSessionRepository.deleteAllUserSessions(userId)
+                .whenComplete((deletedCount, error) -> {
+                    if (error == null) {
+                        metricsService.recordAccountDeletionSessionsDeleted(deletedCount);
+                        logger.debug("Sessions deleted for user: {} - deleted: {}", userId, deletedCount);
+                    }
+                });
+    }
+
+    private CompletableFuture<Void> deleteUserRecord(String userId) {
+        return userRepository.deleteUser(userId)
+                .thenRun(() -> logger.debug("User record deleted: {}", userId));
+    }
+
+    private void recordFailure(String userId, Throwable cause) {
+        jobRepository.markFailed(userId, cause.getClass().getSimpleName())
+                .exceptionally(e -> {
+                    logger.warn("Could not mark deletion job failed for user: {}: {}", userId, e.getMessage());
+                    return null;
+                });
+    }
+
+    private static String providerOf(User user) {
+        return user.getProvider() != null ? user.getProvider() : "unknown";
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
         }
+        return cause;
     }
 }
@@ -0,0 +1,385 @@
+package com.app.service;
+
+import com.app.analytics.AnalyticsSegmentFormat;
+import com.app.analytics.AnalyticsSegmentFormat.SpooledEvent;
+import com.app.dto.AnalyticsEventBatchDTO;
+import com.app.dto.AnalyticsEventBatchDTO.AnalyticsEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Opt-in local spool of anonymous analytics events for offline analysis (see
+ * {@link com.app.analytics.PageFunnelReport}).
+ *
+ * Only allowed event names and allowed property keys are kept. The allowlist is wider than the Prometheus
+ * labels because the spool adds no series: it also keeps pagesViewed, lastPage and songIndex, as small
+ * integers only. The batch's sessionId is never written, and the receive time is truncated to the minute.
+ *
+ * Events are appended to the current segment file in {@link AnalyticsSegmentFormat}. A segment rolls once it
+ * reaches {@code segment-max-bytes} or {@code segment-max-age-seconds}, and is then gzip-compressed. The oldest
+ * compressed segments are deleted while the spool exceeds {@code max-total-bytes}. The ingestion consumer is
+ * the only writer on the hot path and only ever closes a full segment; a scheduled tick flushes the open
+ * segment, rolls it when it is due, and does all compression and trimming.
+ */
+@Component
+public class AnalyticsEventSpool {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsEventSpool.class);
+
+    private static final Set<String> SPOOLED_PROPERTY_KEYS = Set.of(
+        "storyId", "category", "storyType", "instrumentId",
+        "durationBucket", "trigger",
+        "step", "result", "errorType", "reason",
+        // Excluded from Prometheus labels for cardinality, but what page-level funnels need
+        "pagesViewed", "lastPage", "songIndex"
+    );
+    private static final Set<String> NUMERIC_PROPERTY_KEYS = Set.of("pagesViewed", "lastPage", "songIndex");
+    private static final int MAX_NUMERIC_VALUE = 9_999;
+    private static final int MAX_VALUE_LENGTH = 64;
+
+    private final Set<String> allowedEvents;
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentMaxBytes;
+    private final long segmentMaxAgeMillis;
+    private final long maxTotalBytes;
+    private final LongSupplier clock;
+
+    private AnalyticsSegmentFormat.Writer writer;
+    private Path openSegment;
+    private long openedAtMillis;
+    private int segmentSequence;
+    private final Object maintenanceLock = new Object();
+    private final AtomicBoolean maintenanceDue = new AtomicBoolean();
+
+    private final Counter writtenCounter;
+    private final Counter skippedCounter;
+    private final Counter failedCounter;
+    private final Counter rolledCounter;
+    private final Counter deletedCounter;
+
+    @Autowired
+    public AnalyticsEventSpool(ContentAnalyticsService analyticsService,
+                               MeterRegistry meterRegistry,
+                               @Value("${analytics.spool.enabled:false}") boolean enabled,
+                               @Value("${analytics.spool.directory:analytics-spool}") String directory,
+                               @Value("${analytics.spool.segment-max-bytes:16777216}") long segmentMaxBytes,
+                               @Value("${analytics.spool.segment-max-age-seconds:3600}") long segmentMaxAgeSeconds,
+                               @Value("${analytics.spool.max-total-bytes:536870912}") long maxTotalBytes) {
+        this(analyticsService.getAllowedEvents(), meterRegistry, enabled, Paths.get(directory), segmentMaxBytes,
+                segmentMaxAgeSeconds, maxTotalBytes, System::currentTimeMillis);
+    }
+
+    AnalyticsEventSpool(Set<String> allowedEvents, MeterRegistry meterRegistry, boolean enabled, Path directory,
+                        long segmentMaxBytes, long segmentMaxAgeSeconds, long maxTotalBytes, LongSupplier clock) {
+        this.allowedEvents = allowedEvents;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentMaxBytes = Math.max(1024, segmentMaxBytes);
+        this.segmentMaxAgeMillis = Math.max(1, segmentMaxAgeSeconds) * 1000L;
+        this.maxTotalBytes = Math.max(this.segmentMaxBytes, maxTotalBytes);
+        this.clock = clock;
+
+        this.writtenCounter = eventCounter(meterRegistry, "written");
+        this.skippedCounter = eventCounter(meterRegistry, "skipped");
+        this.failedCounter = eventCounter(meterRegistry, "failed");
+        this.rolledCounter = Counter.builder("app.analytics.spool.segments")
+                .tag("result", "rolled")
+                .description("Analytics spool segments by lifecycle step")
+                .register(meterRegistry);
+        this.deletedCounter = Counter.builder("app.analytics.spool.segments")
+                .tag("result", "deleted")
+                .description("Analytics spool segments by lifecycle step")
+                .register(meterRegistry);
+
+        if (enabled) {
+            try {
+                Files.createDirectories(directory);
+                // Segments left open by a crash are complete up to their last flushed record
+                try (Stream<Path> files = Files.list(directory)) {
+                    for (Path leftover : files.filter(path -> path.getFileName().toString()
+                            .endsWith(AnalyticsSegmentFormat.OPEN_SUFFIX)).toList()) {
+                        Files.move(leftover, closedName(leftover));
+                    }
+                }
+                compressAndTrim();
+                logger.info("Analytics spool enabled at {}", directory.toAbsolutePath());
+            } catch (IOException e) {
+                logger.warn("Analytics spool directory {} unavailable: {}", directory, e.getMessage());
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Append the spoolable part of a batch. Never throws; failures are counted and logged.
+     */
+    public void append(AnalyticsEventBatchDTO batch) {
+        if (!enabled || batch == null || batch.getEvents() == null) {
+            return;
+        }
+
+        long now = clock.getAsLong();
+        long epochMinute = now / 60_000L;
+        String platform = label(batch.getPlatform());
+        String appVersion = label(batch.getAppVersion());
+        String locale = label(batch.getLocale());
+
+        List<SpooledEvent> events = new ArrayList<>(batch.getEvents().size());
+        for (AnalyticsEvent event : batch.getEvents()) {
+            if (event == null || event.getEvent() == null) {
+                continue;
+            }
+            String name = event.getEvent().trim().toLowerCase(Locale.ROOT);
+            if (!allowedEvents.contains(name)) {
+                skippedCounter.increment();
+                continue;
+            }
+            events.add(new SpooledEvent(epochMinute, name, platform, appVersion, locale,
+                    properties(event.getProperties())));
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        synchronized (this) {
+            try {
+                if (writer == null) {
+                    openSegment(now);
+                }
+                for (SpooledEvent event : events) {
+                    writer.write(event);
+                }
+                writtenCounter.increment(events.size());
+            } catch (IOException e) {
+                failedCounter.increment(events.size());
+                logger.warn("Failed to spool {} analytics events: {}", events.size(), e.getMessage());
+                closeQuietly();
+                return;
+            }
+            if (writer.size() >= segmentMaxBytes && closeSegment()) {
+                // Compressed by the next tick, not on the ingestion thread
+                maintenanceDue.set(true);
+            }
+        }
+    }
+
+    /**
+     * Flush the open segment so it survives a crash, roll it if it is older than the max age, and compress
+     * whatever segments were closed since the last tick.
+     */
+    @Scheduled(fixedDelayString = "${analytics.spool.flush-interval-ms:5000}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (writer != null) {
+                try {
+                    writer.flush();
+                } catch (IOException e) {
+                    logger.warn("Failed to flush analytics spool segment: {}", e.getMessage());
+                }
+                if (clock.getAsLong() - openedAtMillis >= segmentMaxAgeMillis && closeSegment()) {
+                    maintenanceDue.set(true);
+                }
+            }
+        }
+        if (maintenanceDue.getAndSet(false)) {
+            compressAndTrim();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (writer != null && closeSegment()) {
+                maintenanceDue.set(true);
+            }
+        }
+        if (maintenanceDue.getAndSet(false)) {
+            compressAndTrim();
+        }
+    }
+
+    private void openSegment(long now) throws IOException {
+        Files.createDirectories(directory);
+        // Name sorts by open time, so retention deletes oldest first
+        String name = String.format("events-%013d-%04d%s", now, segmentSequence++ % 10_000,
+                AnalyticsSegmentFormat.OPEN_SUFFIX);
+        openSegment = directory.resolve(name);
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(openSegment), 64 * 1024);
+        writer = new AnalyticsSegmentFormat.Writer(out);
+        openedAtMillis = now;
+    }
+
+    /** @return true if a segment was closed and is ready to compress */
+    private boolean closeSegment() {
+        try {
+            writer.close();
+            Files.move(openSegment, closedName(openSegment));
+            rolledCounter.increment();
+            return true;
+        } catch (IOException e) {
+            logger.warn("Failed to close analytics spool segment {}: {}", openSegment, e.getMessage());
+            return false;
+        } finally {
+            writer = null;
+            openSegment = null;
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            writer.close();
+            // Already failing; the partial segment is still readable up to its last record
+            Files.move(openSegment, closedName(openSegment));
+        } catch (IOException | RuntimeException ignored) {
+            // Left as an open segment, recovered on the next start
+        } finally {
+            writer = null;
+            openSegment = null;
+        }
+    }
+
+    /**
+     * Compress closed segments and enforce the disk budget. Only called from startup, the scheduled tick and
+     * shutdown, never from append; the open segment has a different suffix and is never touched here.
+     */
+    private void compressAndTrim() {
+        synchronized (maintenanceLock) {
+            try {
+                compressClosedSegments();
+                trimToBudget();
+            } catch (IOException e) {
+                logger.warn("Analytics spool maintenance failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static Path closedName(Path openSegment) {
+        String name = openSegment.getFileName().toString();
+        return openSegment.resolveSibling(name.substring(0, name.length() - AnalyticsSegmentFormat.OPEN_SUFFIX.length())
+                + AnalyticsSegmentFormat.CLOSED_SUFFIX);
+    }
+
+    private void compressClosedSegments() throws IOException {
+        List<Path> closed;
+        try (Stream<Path> files = Files.list(directory)) {
+            closed = files.filter(path -> path.getFileName().toString().endsWith(AnalyticsSegmentFormat.CLOSED_SUFFIX))
+                    .toList();
+        }
+        for (Path segment : closed) {
+            Path target = segment.resolveSibling(segment.getFileName() + ".gz");
+            Path partial = segment.resolveSibling(segment.getFileName() + ".gz.tmp");
+            try (InputStream in = Files.newInputStream(segment);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial), 64 * 1024)) {
+                in.transferTo(out);
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(segment);
+        }
+    }
+
+    private void trimToBudget() throws IOException {
+        Map<Path, Long> compressed = new LinkedHashMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.sorted().toList()) {
+                if (path.getFileName().toString().endsWith(AnalyticsSegmentFormat.COMPRESSED_SUFFIX)) {
+                    compressed.put(path, Files.size(path));
+                }
+            }
+        }
+        long total = compressed.values().stream().mapToLong(Long::longValue).sum();
+        for (Map.Entry<Path, Long> segment : compressed.entrySet()) {
+            if (total <= maxTotalBytes) {
+                break;
+            }
+            Files.deleteIfExists(segment.getKey());
+            total -= segment.getValue();
+            deletedCounter.increment();
+            logger.info("Deleted analytics spool segment {} to stay within {} bytes", segment.getKey().getFileName(),
+                    maxTotalBytes);
+        }
+    }
+
+    private static Map<String, String> properties(Map<String, String> properties) {
+        if (properties == null || properties.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> kept = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            String key = entry.getKey();
+            if (!SPOOLED_PROPERTY_KEYS.contains(key) || entry.getValue() == null || entry.getValue().isBlank()) {
+                continue;
+            }
+            String value = entry.getValue().trim();
+            if (NUMERIC_PROPERTY_KEYS.contains(key)) {
+                value = smallInteger(value);
+                if (value == null) {
+                    continue;
+                }
+            } else if (value.length() > MAX_VALUE_LENGTH) {
+                value = value.substring(0, MAX_VALUE_LENGTH);
+            }
+            kept.put(key, value);
+        }
+        return kept;
+    }
+
+    private static String smallInteger(String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            return parsed >= 0 && parsed <= MAX_NUMERIC_VALUE ? Integer.toString(parsed) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String label(String value) {
+        if (value == null || value.isBlank()) {
+            return "unknown";
+        }
+        String trimmed = value.trim();
+        return trimmed.length() > MAX_VALUE_LENGTH ? trimmed.substring(0, MAX_VALUE_LENGTH) : trimmed;
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("app.analytics.spool.events")
+                .tag("result", result)
+                .description("Analytics events offered to the local spool by outcome")
+                .register(meterRegistry);
+    }
+}
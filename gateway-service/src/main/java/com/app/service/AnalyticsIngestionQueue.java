@@ -0,0 +1,177 @@
+package com.app.service;
+
+import com.app.dto.AnalyticsEventBatchDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded hand-off between the analytics endpoint and {@link ContentAnalyticsService}.
+ *
+ * Request threads offer validated batches and return immediately; a single dedicated consumer thread turns
+ * them into counter increments. When the queue is full the batch is dropped and counted rather than
+ * blocking the request thread, so an analytics spike (e.g. app launches at bedtime) cannot tie up Tomcat
+ * threads needed by story and auth traffic. Batches still queued at shutdown are drained before exit.
+ * When {@link AnalyticsEventSpool} is enabled the consumer also appends each batch to it.
+ */
+@Component
+public class AnalyticsIngestionQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsIngestionQueue.class);
+
+    private static final long POLL_TIMEOUT_MS = 200;
+
+    private record QueuedBatch(AnalyticsEventBatchDTO batch, long enqueuedAtNanos) {}
+
+    private final ContentAnalyticsService analyticsService;
+    private final AnalyticsEventSpool spool;
+    private final BlockingQueue<QueuedBatch> queue;
+    private final long drainTimeoutMs;
+
+    private final Counter acceptedCounter;
+    private final Counter droppedCounter;
+    private final Counter droppedEventsCounter;
+    private final Counter failedCounter;
+    private final Timer lagTimer;
+
+    private final Thread consumer;
+    private volatile boolean running = true;
+
+    @Autowired
+    public AnalyticsIngestionQueue(ContentAnalyticsService analyticsService,
+                                   AnalyticsEventSpool spool,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${analytics.queue.capacity:10000}") int capacity,
+                                   @Value("${analytics.queue.drain-timeout-ms:5000}") long drainTimeoutMs) {
+        this(analyticsService, spool, meterRegistry, capacity, drainTimeoutMs, true);
+    }
+
+    AnalyticsIngestionQueue(ContentAnalyticsService analyticsService, AnalyticsEventSpool spool,
+                            MeterRegistry meterRegistry, int capacity, long drainTimeoutMs, boolean startConsumer) {
+        this.analyticsService = analyticsService;
+        this.spool = spool;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.drainTimeoutMs = Math.max(0, drainTimeoutMs);
+
+        this.acceptedCounter = batchCounter(meterRegistry, "accepted");
+        this.droppedCounter = batchCounter(meterRegistry, "dropped");
+        this.failedCounter = batchCounter(meterRegistry, "failed");
+        this.droppedEventsCounter = Counter.builder("app.analytics.queue.events.dropped")
+                .description("Analytics events discarded because their batch was dropped")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("app.analytics.queue.lag")
+                .description("Time analytics batches wait in the queue before processing")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("app.analytics.queue.depth", queue, BlockingQueue::size)
+                .description("Analytics batches waiting to be processed")
+                .register(meterRegistry);
+
+        if (startConsumer) {
+            this.consumer = new Thread(this::runConsumer, "analytics-ingest");
+            this.consumer.setDaemon(true);
+            this.consumer.start();
+        } else {
+            this.consumer = null;
+        }
+    }
+
+    /**
+     * Queue a batch for processing without blocking.
+     *
+     * @return false if the queue was full (or shutting down) and the batch was dropped
+     */
+    public boolean offer(AnalyticsEventBatchDTO batch) {
+        if (running && queue.offer(new QueuedBatch(batch, System.nanoTime()))) {
+            acceptedCounter.increment();
+            return true;
+        }
+        droppedCounter.increment();
+        droppedEventsCounter.increment(batch.getEvents() != null ? batch.getEvents().size() : 0);
+        return false;
+    }
+
+    public int depth() {
+        return queue.size();
+    }
+
+    /**
+     * Process every batch currently queued on the calling thread. Used by the consumer during shutdown,
+     * and directly in tests.
+     *
+     * @return number of batches processed
+     */
+    int drain() {
+        int drained = 0;
+        QueuedBatch next;
+        while ((next = queue.poll()) != null) {
+            process(next);
+            drained++;
+        }
+        return drained;
+    }
+
+    private void runConsumer() {
+        while (running) {
+            try {
+                QueuedBatch next = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (next != null) {
+                    process(next);
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        int drained = drain();
+        if (drained > 0) {
+            logger.info("Drained {} queued analytics batches on shutdown", drained);
+        }
+    }
+
+    private void process(QueuedBatch queued) {
+        lagTimer.record(System.nanoTime() - queued.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+        try {
+            analyticsService.processBatch(queued.batch());
+            spool.append(queued.batch());
+        } catch (Exception e) {
+            failedCounter.increment();
+            logger.warn("Failed to process analytics batch: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (consumer != null) {
+            try {
+                consumer.join(drainTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (consumer.isAlive()) {
+                logger.warn("Analytics consumer did not drain within {}ms; {} batches discarded",
+                        drainTimeoutMs, queue.size());
+            }
+        } else {
+            drain();
+        }
+    }
+
+    private static Counter batchCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("app.analytics.queue.batches")
+                .tag("result", result)
+                .description("Analytics batches by ingestion outcome")
+                .register(meterRegistry);
+    }
+}
@@ -13,7 +13,6 @@ import jakarta.servlet.http.HttpServletRequest;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.regex.Pattern;
 import java.util.Map;
 
 @Service
@@ -22,6 +21,8 @@ public class ApplicationMetricsService {
     private static final Logger logger = LoggerFactory.getLogger(ApplicationMetricsService.class);
 
     private final MeterRegistry meterRegistry;
+    private final ClientFingerprintResolver clientFingerprintResolver;
+    private final EndpointTemplateResolver endpointTemplateResolver;
 
     private final AtomicLong activeSessions = new AtomicLong(0);
     private final AtomicLong activeConnections = new AtomicLong(0);
@@ -29,13 +30,11 @@ public class ApplicationMetricsService {
     private final ConcurrentHashMap<String, AtomicLong> platformCounters = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, AtomicLong> appVersionCounters = new ConcurrentHashMap<>();
 
-    private static final Pattern MOBILE_PATTERN = Pattern.compile("(?i)mobile|android|iphone|ipod|blackberry|windows phone");
-    private static final Pattern TABLET_PATTERN = Pattern.compile("(?i)tablet|ipad|kindle|silk");
-    private static final Pattern DESKTOP_PATTERN = Pattern.compile("(?i)windows|macintosh|linux|x11");
-    private static final Pattern BOT_PATTERN = Pattern.compile("(?i)bot|crawler|spider|scraper");
-
-    public ApplicationMetricsService(MeterRegistry meterRegistry) {
+    public ApplicationMetricsService(MeterRegistry meterRegistry, ClientFingerprintResolver clientFingerprintResolver,
+                                     EndpointTemplateResolver endpointTemplateResolver) {
         this.meterRegistry = meterRegistry;
+        this.clientFingerprintResolver = clientFingerprintResolver;
+        this.endpointTemplateResolver = endpointTemplateResolver;
 
         Gauge.builder("app.sessions.active", activeSessions, AtomicLong::doubleValue)
                 .description("Number of active sessions")
@@ -47,10 +46,11 @@ public class ApplicationMetricsService {
     }
 
     public void recordRequest(HttpServletRequest request, int statusCode, long responseTimeMs) {
-        String deviceType = extractDeviceType(request);
-        String platform = extractPlatform(request);
-        String appVersion = extractAppVersion(request);
-        String endpoint = sanitizeEndpoint(request.getRequestURI());
+        ClientFingerprintResolver.ClientFingerprint client = clientFingerprintResolver.resolve(request);
+        String deviceType = client.deviceType();
+        String platform = client.platform();
+        String appVersion = client.appVersion();
+        String endpoint = endpointTemplateResolver.resolve(request);
         String method = request.getMethod();
 
         Tags tags = Tags.of(
@@ -114,9 +114,10 @@ public class ApplicationMetricsService {
     }
 
     public void recordError(HttpServletRequest request, String errorType, String errorCode) {
-        String deviceType = extractDeviceType(request);
-        String platform = extractPlatform(request);
-        String endpoint = sanitizeEndpoint(request.getRequestURI());
+        ClientFingerprintResolver.ClientFingerprint client = clientFingerprintResolver.resolve(request);
+        String deviceType = client.deviceType();
+        String platform = client.platform();
+        String endpoint = endpointTemplateResolver.resolve(request);
 
         Tags tags = Tags.of(
             "device_type", deviceType,
@@ -133,9 +134,10 @@ public class ApplicationMetricsService {
     }
 
     public void recordRateLimitViolation(HttpServletRequest request, String limitType) {
-        String deviceType = extractDeviceType(request);
-        String platform = extractPlatform(request);
-        String endpoint = sanitizeEndpoint(request.getRequestURI());
+        ClientFingerprintResolver.ClientFingerprint client = clientFingerprintResolver.resolve(request);
+        String deviceType = client.deviceType();
+        String platform = client.platform();
+        String endpoint = endpointTemplateResolver.resolve(request);
 
         Tags tags = Tags.of(
             "device_type", deviceType,
@@ -150,76 +152,6 @@ public class ApplicationMetricsService {
                 .increment();
     }
 
-    private String extractDeviceType(HttpServletRequest request) {
-        String deviceType = request.getHeader("X-Device-Type");
-        if (deviceType != null && !deviceType.trim().isEmpty()) {
-            return deviceType.toLowerCase();
-        }
-
-        String userAgent = request.getHeader("User-Agent");
-        if (userAgent == null) {
-            return "unknown";
-        }
-
-        userAgent = userAgent.toLowerCase();
-
-        if (BOT_PATTERN.matcher(userAgent).find()) {
-            return "bot";
-        } else if (MOBILE_PATTERN.matcher(userAgent).find()) {
-            return "mobile";
-        } else if (TABLET_PATTERN.matcher(userAgent).find()) {
-            return "tablet";
-        } else if (DESKTOP_PATTERN.matcher(userAgent).find()) {
-            return "desktop";
-        } else {
-            return "unknown";
-        }
-    }
-
-    private String extractPlatform(HttpServletRequest request) {
-        String platform = request.getHeader("X-Client-Platform");
-        if (platform != null && !platform.trim().isEmpty()) {
-            return platform.toLowerCase();
-        }
-        platform = request.getHeader("X-Platform");
-        if (platform != null && !platform.trim().isEmpty()) {
-            return platform.toLowerCase();
-        }
-
-        String userAgent = request.getHeader("User-Agent");
-        if (userAgent == null) {
-            return "unknown";
-        }
-
-        userAgent = userAgent.toLowerCase();
-        if (userAgent.contains("android")) {
-            return "android";
-        } else if (userAgent.contains("ios") || userAgent.contains("iphone") || userAgent.contains("ipad")) {
-            return "ios";
-        } else if (userAgent.contains("windows")) {
-            return "windows";
-        } else if (userAgent.contains("mac")) {
-            return "macos";
-        } else if (userAgent.contains("linux")) {
-            return "linux";
-        } else {
-            return "unknown";
-        }
-    }
-
-    private String extractAppVersion(HttpServletRequest request) {
-        return request.getHeader("X-App-Version");
-    }
-
-    private String sanitizeEndpoint(String uri) {
-        if (uri == null) {
-            return "unknown";
-        }
-        return uri.replaceAll("/[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}", "/{uuid}")
-                 .replaceAll("/\\d+", "/{id}")
-                 .replaceAll("\\?.*", "");
-    }
-
     private String getStatusClass(int statusCode) {
         return statusCode / 100 + "xx";
     }
@@ -515,12 +447,19 @@ public class ApplicationMetricsService {
         logger.debug("Firestore connection health metric recorded: {}", status);
     }
 
+    private final ConcurrentHashMap<String, AtomicLong> documentCountGauges = new ConcurrentHashMap<>();
+
     public void recordFirestoreDocumentCount(String collection, long count) {
         String safeCollection = collection != null ? collection : "unknown";
-        Gauge.builder("app.firestore.documents.count", () -> count)
-                .tags("collection", safeCollection)
-                .description("Number of documents in Firestore collection")
-                .register(meterRegistry);
+        // One gauge per collection backed by a holder, so periodic refreshes update the exported value
+        documentCountGauges.computeIfAbsent(safeCollection, k -> {
+            AtomicLong value = new AtomicLong(count);
+            Gauge.builder("app.firestore.documents.count", value, AtomicLong::doubleValue)
+                    .tags("collection", safeCollection)
+                    .description("Number of documents in Firestore collection")
+                    .register(meterRegistry);
+            return value;
+        }).set(count);
 
         logger.debug("Firestore document count metric recorded: {} documents in {}", count, safeCollection);
     }
@@ -614,6 +553,17 @@ public class ApplicationMetricsService {
                 .increment();
     }
 
+    public void recordBulkheadCall(String name, String outcome) {
+        String safeName = name != null ? name : "unknown";
+        String safeOutcome = outcome != null ? outcome : "unknown";
+        Counter.builder("app.bulkhead.calls")
+                .description("Bulkhead call outcomes per endpoint class")
+                .tag("name", safeName)
+                .tag("outcome", safeOutcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
     public void recordAuthenticationFailure(String provider, String deviceType, String platform, String errorType, String errorCode) {
         String safeProvider = provider != null ? provider : "unknown";
         String safeDeviceType = deviceType != null ? deviceType : "unknown";
@@ -903,7 +853,7 @@ public class ApplicationMetricsService {
     }
 
     public void recordRateLimitExceeded(String endpoint, String clientKey) {
-        String safeEndpoint = endpoint != null ? sanitizeEndpoint(endpoint) : "unknown";
+        String safeEndpoint = endpointTemplateResolver.resolve(endpoint);
         String safeClientKey = clientKey != null ? clientKey : "unknown";
         Counter.builder("app.rate_limit.exceeded")
                 .tags("endpoint", safeEndpoint, "client_key", safeClientKey)
@@ -916,7 +866,7 @@ public class ApplicationMetricsService {
     private final ConcurrentHashMap<String, AtomicLong> rateLimitRemainingGauges = new ConcurrentHashMap<>();
 
     public void updateRateLimitRemaining(String endpoint, int remaining) {
-        String safeEndpoint = endpoint != null ? sanitizeEndpoint(endpoint) : "unknown";
+        String safeEndpoint = endpointTemplateResolver.resolve(endpoint);
         String gaugeKey = safeEndpoint;
 
         rateLimitRemainingGauges.computeIfAbsent(gaugeKey, k -> {
@@ -983,8 +933,21 @@ public class ApplicationMetricsService {
         logger.debug("Story sync skipped metric recorded");
     }
 
+    /**
+     * A GET carrying If-None-Match. Outcome is not_modified_cached (304 from a cached validator, no Firestore
+     * read), not_modified (304 after the read) or modified (full body).
+     */
+    public void recordConditionalGet(String endpoint, String outcome) {
+        Counter.builder("app.http.conditional.requests")
+                .description("Conditional GET requests by endpoint and outcome")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
     public void recordResponseSize(String endpoint, String method, long sizeBytes) {
-        String safeEndpoint = endpoint != null ? sanitizeEndpoint(endpoint) : "unknown";
+        String safeEndpoint = endpointTemplateResolver.resolve(endpoint);
         String safeMethod = method != null ? method : "unknown";
 
         io.micrometer.core.instrument.DistributionSummary.builder("app.response.size.bytes")
@@ -1014,6 +977,29 @@ public class ApplicationMetricsService {
         logger.info("Application startup time recorded: {}ms", startupTimeMillis);
     }
 
+    private final ConcurrentHashMap<String, AtomicLong> beanStartupGauges = new ConcurrentHashMap<>();
+
+    public void recordBeanStartupTime(String beanName, long durationMillis) {
+        String safeBeanName = beanName != null ? beanName : "unknown";
+        beanStartupGauges.computeIfAbsent(safeBeanName, k -> {
+            AtomicLong value = new AtomicLong(durationMillis);
+            Gauge.builder("app.startup.bean.time", value, AtomicLong::doubleValue)
+                    .tags("bean", safeBeanName)
+                    .description("Bean instantiation time during startup, including its dependencies")
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            return value;
+        }).set(durationMillis);
+    }
+
+    public void recordStartupWarmup(String task, boolean success, long durationMillis) {
+        Timer.builder("app.startup.warmup.duration")
+                .tags("task", task != null ? task : "unknown", "outcome", success ? "success" : "failure")
+                .description("Background warm-up after the application is ready")
+                .register(meterRegistry)
+                .record(durationMillis, TimeUnit.MILLISECONDS);
+    }
+
     public long getStartupTime() {
         return startupTimeMs.get();
     }
@@ -1121,14 +1107,14 @@ public class ApplicationMetricsService {
                 safeStep, result, durationMs);
     }
 
-    public void recordAccountDeletionSessionsRevoked(int sessionCount) {
-        Counter.builder("app.account.deletion.sessions.revoked")
-                .tags("session_count", categorizeCount(sessionCount))
-                .description("Sessions revoked during account deletion")
+    public void recordAccountDeletionSessionsDeleted(long sessionCount) {
+        Counter.builder("app.account.deletion.sessions.deleted")
+                .tags("session_count", categorizeCount((int) Math.min(sessionCount, Integer.MAX_VALUE)))
+                .description("Sessions deleted during account deletion")
                 .register(meterRegistry)
                 .increment(sessionCount);
 
-        logger.debug("Account deletion sessions revoked: {}", sessionCount);
+        logger.debug("Account deletion sessions deleted: {}", sessionCount);
     }
 
     public void recordApiCallReduction(int traditionalCalls, int batchedCalls) {
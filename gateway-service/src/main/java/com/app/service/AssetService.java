@@ -2,6 +2,7 @@ package com.app.service;
 
 import com.app.config.GcsConfig.GcsProperties;
 import com.app.config.UrlGenerationStrategy;
+import com.app.deadline.RequestDeadline;
 import com.app.exception.AssetUrlGenerationException;
 import com.app.exception.InvalidAssetPathException;
 import com.app.model.AssetVersion;
@@ -15,8 +16,6 @@ import org.springframework.stereotype.Service;
 
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 @Service
 public class AssetService {
@@ -36,8 +35,6 @@ public class AssetService {
     private final AssetVersionRepository assetVersionRepository;
     private final ApplicationMetricsService metricsService;
 
-    private final Executor urlGenerationExecutor;
-
     @Autowired
     public AssetService(Storage storage, GcsProperties gcsProperties,
                         UrlGenerationStrategy urlStrategy,
@@ -48,15 +45,6 @@ public class AssetService {
         this.urlStrategy = urlStrategy;
         this.assetVersionRepository = assetVersionRepository;
         this.metricsService = metricsService;
-        this.urlGenerationExecutor = Executors.newFixedThreadPool(
-                Runtime.getRuntime().availableProcessors(),
-                r -> {
-                    Thread t = new Thread(r, "url-generation-worker");
-                    t.setDaemon(true);
-                    return t;
-                }
-        );
-
         logger.info("Asset service initialized with URL strategy: {}", urlStrategy.getStrategyName());
     }
 
@@ -87,6 +75,8 @@ public class AssetService {
 
     public String generateSignedUrl(String assetPath) {
         validateAssetPath(assetPath);
+        // Signing may call IAM signBlob; don't start it for a request that has already timed out
+        RequestDeadline.checkBudget("gcs");
 
         long startTime = System.currentTimeMillis();
         try {
@@ -0,0 +1,348 @@
+package com.app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Non-blocking audit log pipeline.
+ *
+ * Request threads claim a slot in a pre-allocated ring buffer with a single CAS, copy the event fields
+ * into it and publish. They never allocate maps, format timestamps or touch the AUDIT appender.
+ * When the ring is full the event is dropped and counted instead of blocking the caller.
+ *
+ * A single background writer drains the ring, folds identical events (same type and fields) seen within
+ * the flush window into one entry with a count, and writes each entry as a JSON line to the AUDIT logger.
+ * During a brute-force or rate-limit storm this turns thousands of identical lines into one per window.
+ */
+@Component
+public class AuditEventPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditEventPipeline.class);
+    private static final Logger auditLogger = LoggerFactory.getLogger("AUDIT");
+
+    public enum EventType {
+        SUCCESSFUL_LOGIN(false),
+        FAILED_LOGIN(true),
+        SUSPICIOUS_REQUEST(true),
+        RATE_LIMIT_VIOLATION(true),
+        TOKEN_REFRESH(false),
+        TOKEN_REVOCATION(false),
+        AUDIT_EVENTS_DROPPED(true);
+
+        private final boolean warn;
+
+        EventType(boolean warn) {
+            this.warn = warn;
+        }
+
+        public boolean isWarn() {
+            return warn;
+        }
+    }
+
+    /** Destination for formatted JSON lines; the default writes to the AUDIT logger. */
+    @FunctionalInterface
+    interface AuditSink {
+        void write(EventType type, String jsonLine);
+    }
+
+    private static final AuditSink LOGGER_SINK = (type, jsonLine) -> {
+        if (type.isWarn()) {
+            auditLogger.warn(jsonLine);
+        } else {
+            auditLogger.info(jsonLine);
+        }
+    };
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(0);
+    private volatile long head = 0;
+
+    private final long flushIntervalMs;
+    private final int maxBatch;
+    private final AuditSink sink;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<AggregateKey, Aggregate> window = new LinkedHashMap<>();
+    private long windowStartMs = System.currentTimeMillis();
+    private final AtomicLong droppedTotal = new AtomicLong(0);
+    private long droppedReported = 0;
+
+    private final Counter publishedCounter;
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+    private final Counter coalescedCounter;
+
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    @Autowired
+    public AuditEventPipeline(MeterRegistry meterRegistry,
+                              @Value("${audit.pipeline.capacity:8192}") int capacity,
+                              @Value("${audit.pipeline.flush-interval-ms:1000}") long flushIntervalMs,
+                              @Value("${audit.pipeline.max-batch:512}") int maxBatch) {
+        this(meterRegistry, capacity, flushIntervalMs, maxBatch, LOGGER_SINK, true);
+    }
+
+    AuditEventPipeline(MeterRegistry meterRegistry, int capacity, long flushIntervalMs, int maxBatch,
+                       AuditSink sink, boolean startWriter) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ring = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Slot(i - size);
+        }
+        this.mask = size - 1;
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.maxBatch = Math.max(1, maxBatch);
+        this.sink = sink;
+
+        this.publishedCounter = Counter.builder("app.audit.events")
+                .tag("result", "published")
+                .description("Audit events accepted by the pipeline")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("app.audit.events")
+                .tag("result", "dropped")
+                .description("Audit events dropped because the ring buffer was full")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("app.audit.lines.written")
+                .description("Audit JSON lines written after aggregation")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("app.audit.events.coalesced")
+                .description("Audit events folded into an identical event within the flush window")
+                .register(meterRegistry);
+        Gauge.builder("app.audit.queue.depth", this, AuditEventPipeline::depth)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+
+        if (startWriter) {
+            this.writer = new Thread(this::runWriter, "audit-writer");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        } else {
+            this.writer = null;
+        }
+    }
+
+    /**
+     * Publish an event without blocking. Returns false if the ring was full and the event was dropped.
+     */
+    public boolean publish(EventType type, String userId, String provider, String reason,
+                           String clientKey, String requestUri) {
+        long sequence;
+        while (true) {
+            sequence = tail.get();
+            if (sequence - head >= ring.length) {
+                droppedTotal.incrementAndGet();
+                droppedCounter.increment();
+                return false;
+            }
+            if (tail.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+
+        Slot slot = ring[(int) (sequence & mask)];
+        slot.type = type;
+        slot.userId = userId;
+        slot.provider = provider;
+        slot.reason = reason;
+        slot.clientKey = clientKey;
+        slot.requestUri = requestUri;
+        slot.timestampMs = System.currentTimeMillis();
+        slot.published = sequence;
+        publishedCounter.increment();
+        return true;
+    }
+
+    public long getDroppedCount() {
+        return droppedTotal.get();
+    }
+
+    public long depth() {
+        return Math.max(0, tail.get() - head);
+    }
+
+    private void runWriter() {
+        while (running) {
+            try {
+                int drained = drainAndMaybeFlush(false);
+                if (drained == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            } catch (Exception e) {
+                logger.warn("Audit writer iteration failed: {}", e.getMessage());
+            }
+        }
+        drainAndMaybeFlush(true);
+    }
+
+    /**
+     * Drain everything currently published and flush the window if it is due (or if forced).
+     * Only ever called from the single writer thread, or directly in tests.
+     */
+    synchronized int drainAndMaybeFlush(boolean force) {
+        int drained = 0;
+        while (true) {
+            long sequence = head;
+            Slot slot = ring[(int) (sequence & mask)];
+            if (slot.published != sequence) {
+                break;
+            }
+            AggregateKey key = new AggregateKey(slot.type, slot.userId, slot.provider, slot.reason,
+                    slot.clientKey, slot.requestUri);
+            long timestamp = slot.timestampMs;
+            slot.clear();
+            head = sequence + 1;
+
+            Aggregate aggregate = window.get(key);
+            if (aggregate == null) {
+                window.put(key, new Aggregate(timestamp));
+            } else {
+                aggregate.add(timestamp);
+                coalescedCounter.increment();
+            }
+            drained++;
+
+            if (window.size() >= maxBatch) {
+                flush();
+            }
+        }
+
+        if (force || System.currentTimeMillis() - windowStartMs >= flushIntervalMs) {
+            flush();
+        }
+        return drained;
+    }
+
+    private void flush() {
+        for (Map.Entry<AggregateKey, Aggregate> entry : window.entrySet()) {
+            write(entry.getKey(), entry.getValue());
+        }
+        window.clear();
+
+        long dropped = droppedTotal.get();
+        if (dropped > droppedReported) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("event", EventType.AUDIT_EVENTS_DROPPED.name());
+            line.put("count", dropped - droppedReported);
+            line.put("timestamp", Instant.now().toString());
+            emit(EventType.AUDIT_EVENTS_DROPPED, line);
+            droppedReported = dropped;
+        }
+        windowStartMs = System.currentTimeMillis();
+    }
+
+    private void write(AggregateKey key, Aggregate aggregate) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("event", key.type().name());
+        putIfPresent(line, "userId", key.userId());
+        putIfPresent(line, "provider", key.provider());
+        putIfPresent(line, "reason", key.reason());
+        putIfPresent(line, "clientKey", key.clientKey());
+        putIfPresent(line, "requestUri", key.requestUri());
+        line.put("timestamp", Instant.ofEpochMilli(aggregate.firstMs).toString());
+        if (aggregate.count > 1) {
+            line.put("count", aggregate.count);
+            line.put("lastTimestamp", Instant.ofEpochMilli(aggregate.lastMs).toString());
+        }
+        emit(key.type(), line);
+    }
+
+    private void emit(EventType type, Map<String, Object> line) {
+        try {
+            sink.write(type, objectMapper.writeValueAsString(line));
+            writtenCounter.increment();
+        } catch (JsonProcessingException e) {
+            logger.warn("Failed to serialize audit event {}: {}", type, e.getMessage());
+        }
+    }
+
+    private static void putIfPresent(Map<String, Object> line, String key, String value) {
+        if (value != null) {
+            line.put(key, value);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(2));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            drainAndMaybeFlush(true);
+        }
+    }
+
+    /** Pre-allocated ring entry; fields are written by one producer, then published via the volatile sequence. */
+    private static final class Slot {
+        private volatile long published;
+        private EventType type;
+        private String userId;
+        private String provider;
+        private String reason;
+        private String clientKey;
+        private String requestUri;
+        private long timestampMs;
+
+        Slot(long initialSequence) {
+            this.published = initialSequence;
+        }
+
+        void clear() {
+            type = null;
+            userId = null;
+            provider = null;
+            reason = null;
+            clientKey = null;
+            requestUri = null;
+        }
+    }
+
+    private record AggregateKey(EventType type, String userId, String provider, String reason,
+                                String clientKey, String requestUri) {
+        AggregateKey {
+            Objects.requireNonNull(type);
+        }
+    }
+
+    private static final class Aggregate {
+        private final long firstMs;
+        private long lastMs;
+        private long count = 1;
+
+        Aggregate(long timestampMs) {
+            this.firstMs = timestampMs;
+            this.lastMs = timestampMs;
+        }
+
+        void add(long timestampMs) {
+            count++;
+            lastMs = Math.max(lastMs, timestampMs);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.app.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Classifies the calling client (device type, platform, app version) from request headers.
+ *
+ * Traffic comes from a small set of distinct app User-Agent strings, so classification
+ * results are memoized in a bounded LRU keyed by User-Agent + X-Platform + X-App-Version.
+ * After warm-up the regex work below runs once per distinct client build, not per request.
+ *
+ * Explicit X-Device-Type / X-Client-Platform headers still take precedence and are
+ * applied on top of the cached value (cheap header reads, no pattern matching).
+ */
+@Component
+public class ClientFingerprintResolver {
+
+    static final String CACHE_NAME = "client_fingerprint";
+
+    private static final String UNKNOWN = "unknown";
+
+    private static final Pattern MOBILE_PATTERN = Pattern.compile("(?i)mobile|android|iphone|ipod|blackberry|windows phone");
+    private static final Pattern TABLET_PATTERN = Pattern.compile("(?i)tablet|ipad|kindle|silk");
+    private static final Pattern DESKTOP_PATTERN = Pattern.compile("(?i)windows|macintosh|linux|x11");
+    private static final Pattern BOT_PATTERN = Pattern.compile("(?i)bot|crawler|spider|scraper");
+
+    /** Upper bound on the User-Agent prefix used as a cache key, so oversized headers cannot bloat the cache */
+    private static final int MAX_USER_AGENT_KEY_LENGTH = 512;
+
+    private final Map<String, ClientFingerprint> cache;
+    /** Guards the access-ordered cache; a lock rather than a monitor so waiting virtual threads unmount */
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong lookupCount = new AtomicLong(0);
+
+    public ClientFingerprintResolver(MeterRegistry meterRegistry,
+                                     @Value("${metrics.client-fingerprint.cache-size:1024}") int maxEntries) {
+        this.evictions = Counter.builder("app.cache.evictions")
+                .tags("cache", CACHE_NAME, "reason", "size")
+                .description("Number of cache evictions")
+                .register(meterRegistry);
+        this.cache = new LinkedHashMap<>(Math.min(maxEntries, 256), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ClientFingerprint> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = Counter.builder("app.cache.hits")
+                .tags("cache", CACHE_NAME)
+                .description("Number of cache hits")
+                .register(meterRegistry);
+        this.misses = Counter.builder("app.cache.misses")
+                .tags("cache", CACHE_NAME)
+                .description("Number of cache misses")
+                .register(meterRegistry);
+
+        Gauge.builder("app.cache.size", this, ClientFingerprintResolver::size)
+                .tags("cache", CACHE_NAME)
+                .description("Number of entries in the cache")
+                .register(meterRegistry);
+        Gauge.builder("app.cache.hit_ratio", this, ClientFingerprintResolver::hitRatio)
+                .tags("cache", CACHE_NAME)
+                .description("Cache hit ratio since startup")
+                .register(meterRegistry);
+    }
+
+    public ClientFingerprint resolve(HttpServletRequest request) {
+        String userAgent = request.getHeader("User-Agent");
+        String platformHeader = request.getHeader("X-Platform");
+        String appVersion = request.getHeader("X-App-Version");
+
+        ClientFingerprint fingerprint = lookup(userAgent, platformHeader, appVersion);
+
+        String deviceTypeOverride = request.getHeader("X-Device-Type");
+        String clientPlatformOverride = request.getHeader("X-Client-Platform");
+        boolean hasDeviceType = deviceTypeOverride != null && !deviceTypeOverride.trim().isEmpty();
+        boolean hasClientPlatform = clientPlatformOverride != null && !clientPlatformOverride.trim().isEmpty();
+        if (!hasDeviceType && !hasClientPlatform) {
+            return fingerprint;
+        }
+        return new ClientFingerprint(
+                hasDeviceType ? deviceTypeOverride.toLowerCase() : fingerprint.deviceType(),
+                hasClientPlatform ? clientPlatformOverride.toLowerCase() : fingerprint.platform(),
+                fingerprint.appVersion());
+    }
+
+    public String resolveDeviceType(HttpServletRequest request) {
+        return resolve(request).deviceType();
+    }
+
+    public String resolvePlatform(HttpServletRequest request) {
+        return resolve(request).platform();
+    }
+
+    private ClientFingerprint lookup(String userAgent, String platformHeader, String appVersion) {
+        String key = cacheKey(userAgent, platformHeader, appVersion);
+        lookupCount.incrementAndGet();
+
+        ClientFingerprint cached;
+        cacheLock.lock();
+        try {
+            cached = cache.get(key);
+        } finally {
+            cacheLock.unlock();
+        }
+        if (cached != null) {
+            hitCount.incrementAndGet();
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        ClientFingerprint computed = new ClientFingerprint(
+                classifyDeviceType(userAgent),
+                classifyPlatform(userAgent, platformHeader),
+                appVersion);
+        cacheLock.lock();
+        try {
+            cache.putIfAbsent(key, computed);
+        } finally {
+            cacheLock.unlock();
+        }
+        return computed;
+    }
+
+    private static String cacheKey(String userAgent, String platformHeader, String appVersion) {
+        String ua = userAgent == null ? "" : userAgent;
+        if (ua.length() > MAX_USER_AGENT_KEY_LENGTH) {
+            ua = ua.substring(0, MAX_USER_AGENT_KEY_LENGTH);
+        }
+        return ua + '\u0000' + (platformHeader == null ? "" : platformHeader)
+                + '\u0000' + (appVersion == null ? "" : appVersion);
+    }
+
+    private static String classifyDeviceType(String userAgent) {
+        if (userAgent == null) {
+            return UNKNOWN;
+        }
+        if (BOT_PATTERN.matcher(userAgent).find()) {
+            return "bot";
+        } else if (MOBILE_PATTERN.matcher(userAgent).find()) {
+            return "mobile";
+        } else if (TABLET_PATTERN.matcher(userAgent).find()) {
+            return "tablet";
+        } else if (DESKTOP_PATTERN.matcher(userAgent).find()) {
+            return "desktop";
+        }
+        return UNKNOWN;
+    }
+
+    private static String classifyPlatform(String userAgent, String platformHeader) {
+        if (platformHeader != null && !platformHeader.trim().isEmpty()) {
+            return platformHeader.toLowerCase();
+        }
+        if (userAgent == null) {
+            return UNKNOWN;
+        }
+
+        String ua = userAgent.toLowerCase();
+        if (ua.contains("android")) {
+            return "android";
+        } else if (ua.contains("ios") || ua.contains("iphone") || ua.contains("ipad")) {
+            return "ios";
+        } else if (ua.contains("windows")) {
+            return "windows";
+        } else if (ua.contains("mac")) {
+            return "macos";
+        } else if (ua.contains("linux")) {
+            return "linux";
+        }
+        return UNKNOWN;
+    }
+
+    public int size() {
+        cacheLock.lock();
+        try {
+            return cache.size();
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    public double hitRatio() {
+        long lookups = lookupCount.get();
+        return lookups == 0 ? 0.0 : (double) hitCount.get() / lookups;
+    }
+
+    /**
+     * Resolved client classification. appVersion is the raw X-App-Version header and may be null.
+     */
+    public record ClientFingerprint(String deviceType, String platform, String appVersion) {
+    }
+}
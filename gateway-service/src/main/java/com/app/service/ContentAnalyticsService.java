@@ -9,8 +9,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Processes anonymous analytics events into Prometheus counters.
@@ -20,6 +25,11 @@ import java.util.Set;
  *
  * No data is persisted -events are converted to counter increments and discarded.
  * Privacy-safe: no PII is accepted, no user-level tracking, no persistent identifiers.
+ *
+ * Hot path: event names resolve to precomputed event types (meter name, description, label set), each
+ * batch is folded into per-series counts locally, and each distinct series is then incremented once from a
+ * table of already-registered counters, so a batch costs one registry lookup per new series rather than
+ * one per event.
  */
 @Service
 public class ContentAnalyticsService {
@@ -72,6 +82,20 @@ public class ContentAnalyticsService {
     /** Max label value length to prevent cardinality abuse */
     private static final int MAX_LABEL_VALUE_LENGTH = 64;
 
+    /**
+     * Upper bound on cached counters and interned label values. Beyond it, new series are still counted
+     * but go through the registry lookup; the registry itself is the source of truth.
+     */
+    private static final int MAX_CACHED_SERIES = 10_000;
+
+    /** Property label keys in a fixed order, so a series key can hold values positionally */
+    private static final String[] PROPERTY_KEYS = ALLOWED_PROPERTY_KEYS.stream().sorted().toArray(String[]::new);
+    private static final Map<String, Integer> PROPERTY_KEY_INDEX = indexOf(PROPERTY_KEYS);
+
+    private final ConcurrentHashMap<SeriesKey, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> batchCounters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> labelValues = new ConcurrentHashMap<>();
+
     public ContentAnalyticsService(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
     }
@@ -87,6 +111,18 @@ public class ContentAnalyticsService {
         "download_limit_reached", "app_error"
     );
 
+    /** Static per-event data, resolved once instead of per event */
+    private record EventType(String name, String meterName, String description, boolean sessionLevel) {}
+
+    private static final Map<String, EventType> EVENT_TYPES = eventTypes();
+
+    /**
+     * One time series. App version and locale are null for content-level events; property values are
+     * positional per {@link #PROPERTY_KEYS} with null for absent keys.
+     */
+    private record SeriesKey(EventType type, String platform, String appVersion, String locale,
+                             List<String> properties) {}
+
     /**
      * Process a batch of analytics events, incrementing Prometheus counters for each.
      * Returns the number of events successfully processed.
@@ -101,54 +137,42 @@ public class ContentAnalyticsService {
             return 0;
         }
 
-        String platform = sanitize(batch.getPlatform(), "unknown");
-        String appVersion = sanitize(batch.getAppVersion(), "unknown");
-        String locale = sanitize(batch.getLocale(), "unknown");
+        String platform = label(batch.getPlatform());
+        String appVersion = label(batch.getAppVersion());
+        String locale = label(batch.getLocale());
 
         int processed = 0;
+        Map<SeriesKey, int[]> counts = new HashMap<>();
 
         for (AnalyticsEvent event : batch.getEvents()) {
             if (event == null || event.getEvent() == null) {
                 continue;
             }
 
-            String eventName = event.getEvent().trim().toLowerCase();
-            if (!ALLOWED_EVENTS.contains(eventName)) {
-                logger.debug("Rejected unknown analytics event: {}", eventName);
+            EventType type = resolve(event.getEvent());
+            if (type == null) {
+                logger.debug("Rejected unknown analytics event: {}", event.getEvent());
                 continue;
             }
 
             // Session-level events: full labels (low cardinality)
             // Content-level events: platform only (avoids storyId × locale × version explosion)
-            Tags tags;
-            if (SESSION_LEVEL_EVENTS.contains(eventName)) {
-                tags = Tags.of(
-                    "platform", platform,
-                    "app_version", appVersion,
-                    "locale", locale
-                );
-            } else {
-                tags = Tags.of("platform", platform);
-            }
-
-            // Add safe property labels
-            if (event.getProperties() != null) {
-                tags = addPropertyTags(tags, event.getProperties());
-            }
-
-            Counter.builder("app.analytics." + eventName)
-                    .tags(tags)
-                    .description("Analytics: " + eventName)
-                    .register(meterRegistry)
-                    .increment();
+            SeriesKey key = type.sessionLevel()
+                    ? new SeriesKey(type, platform, appVersion, locale, propertyLabels(event.getProperties()))
+                    : new SeriesKey(type, platform, null, null, propertyLabels(event.getProperties()));
+            counts.computeIfAbsent(key, k -> new int[1])[0]++;
 
             processed++;
         }
 
+        for (Map.Entry<SeriesKey, int[]> entry : counts.entrySet()) {
+            counterFor(entry.getKey()).increment(entry.getValue()[0]);
+        }
+
         // Increment batch counter for monitoring ingestion rate
-        Counter.builder("app.analytics.batches_processed")
-                .tags("platform", platform)
-                .register(meterRegistry)
+        batchCounters.computeIfAbsent(platform, p -> Counter.builder("app.analytics.batches_processed")
+                        .tags("platform", p)
+                        .register(meterRegistry))
                 .increment();
 
         logger.debug("Processed analytics batch: {}/{} events from {} ({})",
@@ -157,19 +181,75 @@ public class ContentAnalyticsService {
         return processed;
     }
 
-    private Tags addPropertyTags(Tags tags, Map<String, String> properties) {
+    private static EventType resolve(String rawName) {
+        // Clients send canonical names; only normalise when the exact lookup misses
+        EventType type = EVENT_TYPES.get(rawName);
+        return type != null ? type : EVENT_TYPES.get(rawName.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private List<String> propertyLabels(Map<String, String> properties) {
+        if (properties == null || properties.isEmpty()) {
+            return List.of();
+        }
+        String[] values = null;
         for (Map.Entry<String, String> entry : properties.entrySet()) {
-            String key = entry.getKey();
-            if (!ALLOWED_PROPERTY_KEYS.contains(key)) {
+            Integer index = PROPERTY_KEY_INDEX.get(entry.getKey());
+            if (index == null) {
                 continue;
             }
             String value = sanitize(entry.getValue(), "unknown");
             if (value.length() > MAX_LABEL_VALUE_LENGTH) {
                 value = value.substring(0, MAX_LABEL_VALUE_LENGTH);
             }
-            tags = tags.and(key, value);
+            if (values == null) {
+                values = new String[PROPERTY_KEYS.length];
+            }
+            values[index] = intern(value);
         }
-        return tags;
+        return values != null ? Arrays.asList(values) : List.of();
+    }
+
+    private Counter counterFor(SeriesKey key) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            return counter;
+        }
+
+        Tags tags = key.type().sessionLevel()
+                ? Tags.of("platform", key.platform(), "app_version", key.appVersion(), "locale", key.locale())
+                : Tags.of("platform", key.platform());
+        List<String> properties = key.properties();
+        for (int i = 0; i < properties.size(); i++) {
+            if (properties.get(i) != null) {
+                tags = tags.and(PROPERTY_KEYS[i], properties.get(i));
+            }
+        }
+
+        counter = Counter.builder(key.type().meterName())
+                .tags(tags)
+                .description(key.type().description())
+                .register(meterRegistry);
+        if (counters.size() < MAX_CACHED_SERIES) {
+            counters.putIfAbsent(key, counter);
+        }
+        return counter;
+    }
+
+    private String label(String value) {
+        return intern(sanitize(value, "unknown"));
+    }
+
+    /** Share one instance per label value so series keys compare and hash cheaply */
+    private String intern(String value) {
+        String existing = labelValues.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        if (labelValues.size() >= MAX_CACHED_SERIES) {
+            return value;
+        }
+        existing = labelValues.putIfAbsent(value, value);
+        return existing != null ? existing : value;
     }
 
     private String sanitize(String value, String fallback) {
@@ -179,6 +259,23 @@ public class ContentAnalyticsService {
         return value.trim();
     }
 
+    private static Map<String, EventType> eventTypes() {
+        Map<String, EventType> types = new HashMap<>();
+        for (String name : ALLOWED_EVENTS) {
+            types.put(name, new EventType(name, "app.analytics." + name, "Analytics: " + name,
+                    SESSION_LEVEL_EVENTS.contains(name)));
+        }
+        return Map.copyOf(types);
+    }
+
+    private static Map<String, Integer> indexOf(String[] keys) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            index.put(keys[i], i);
+        }
+        return Map.copyOf(index);
+    }
+
     /** Returns the set of allowed event names (for testing/documentation) */
     public Set<String> getAllowedEvents() {
         return ALLOWED_EVENTS;
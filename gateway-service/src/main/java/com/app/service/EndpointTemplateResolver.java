@@ -0,0 +1,157 @@
+package com.app.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the bounded "endpoint" metric tag for a request.
+ *
+ * Preference order:
+ *   1. The route template Spring MVC matched for this request (BEST_MATCHING_PATTERN_ATTRIBUTE),
+ *      resolved once and stashed on the request for every later metric call.
+ *   2. For callers that run before dispatch (rate limiting) or only have a raw URI, the URI is matched
+ *      against the registered @RequestMapping templates and the result memoized per URI.
+ *   3. URIs that match no controller share the single {@value #UNMATCHED} value, so scanners probing
+ *      random paths cannot create new tag values. Only the standalone resolver (no handler mappings)
+ *      falls back to the legacy UUID / numeric-id collapsing.
+ *
+ * The URI cache only remembers matched routes and is bounded; once full, URIs are still resolved, just
+ * not remembered.
+ */
+@Component
+public class EndpointTemplateResolver {
+
+    static final String REQUEST_ATTRIBUTE = EndpointTemplateResolver.class.getName() + ".TEMPLATE";
+    public static final String UNMATCHED = "unmatched";
+
+    private static final Pattern UUID_SEGMENT = Pattern.compile("/[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+");
+
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMappingProvider;
+    private final int maxCachedUris;
+    private final ConcurrentHashMap<String, String> uriTemplates = new ConcurrentHashMap<>();
+    private volatile List<PathPattern> routePatterns;
+
+    @Autowired
+    public EndpointTemplateResolver(
+            @Qualifier("requestMappingHandlerMapping") ObjectProvider<RequestMappingHandlerMapping> handlerMappingProvider,
+            @Value("${metrics.endpoint-template.max-cached-uris:10000}") int maxCachedUris) {
+        this.handlerMappingProvider = handlerMappingProvider;
+        this.maxCachedUris = maxCachedUris;
+    }
+
+    /**
+     * Resolver without access to MVC handler mappings; raw URIs use the legacy fallback only.
+     */
+    public EndpointTemplateResolver() {
+        this.handlerMappingProvider = null;
+        this.maxCachedUris = 10000;
+        this.routePatterns = List.of();
+    }
+
+    public String resolve(HttpServletRequest request) {
+        Object resolved = request.getAttribute(REQUEST_ATTRIBUTE);
+        if (resolved instanceof String template) {
+            return template;
+        }
+
+        Object bestMatch = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (bestMatch != null) {
+            String template = bestMatch.toString();
+            request.setAttribute(REQUEST_ATTRIBUTE, template);
+            return template;
+        }
+
+        // Not dispatched yet (or no handler matched): do not pin the result on the request, so
+        // a later call after dispatch can still pick up the real handler template.
+        return resolve(request.getRequestURI());
+    }
+
+    public String resolve(String uri) {
+        if (uri == null) {
+            return "unknown";
+        }
+        int queryStart = uri.indexOf('?');
+        String path = queryStart >= 0 ? uri.substring(0, queryStart) : uri;
+
+        String cached = uriTemplates.get(path);
+        if (cached != null) {
+            return cached;
+        }
+
+        String template = matchRouteTemplate(path);
+        if (template == null) {
+            return handlerMappingProvider != null ? UNMATCHED : collapseIdentifiers(path);
+        }
+        if (uriTemplates.size() < maxCachedUris) {
+            uriTemplates.putIfAbsent(path, template);
+        }
+        return template;
+    }
+
+    int cachedUriCount() {
+        return uriTemplates.size();
+    }
+
+    private String matchRouteTemplate(String path) {
+        List<PathPattern> patterns = routePatterns();
+        if (patterns.isEmpty()) {
+            return null;
+        }
+        PathContainer container;
+        try {
+            container = PathContainer.parsePath(path);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(container)) {
+                return pattern.getPatternString();
+            }
+        }
+        return null;
+    }
+
+    private List<PathPattern> routePatterns() {
+        List<PathPattern> patterns = routePatterns;
+        if (patterns != null) {
+            return patterns;
+        }
+        RequestMappingHandlerMapping mapping = handlerMappingProvider != null
+                ? handlerMappingProvider.getIfAvailable()
+                : null;
+        if (mapping == null) {
+            // Context not ready yet; retry on the next call rather than caching an empty list.
+            return List.of();
+        }
+        List<PathPattern> collected = new ArrayList<>();
+        for (RequestMappingInfo info : mapping.getHandlerMethods().keySet()) {
+            if (info.getPathPatternsCondition() != null) {
+                collected.addAll(info.getPathPatternsCondition().getPatterns());
+            }
+        }
+        // Most specific first, so /api/stories/delta wins over /api/stories/{storyId}
+        collected.sort(PathPattern.SPECIFICITY_COMPARATOR);
+        routePatterns = List.copyOf(collected);
+        return routePatterns;
+    }
+
+    private static String collapseIdentifiers(String path) {
+        String collapsed = UUID_SEGMENT.matcher(path).replaceAll("/{uuid}");
+        return NUMERIC_SEGMENT.matcher(collapsed).replaceAll("/{id}");
+    }
+}
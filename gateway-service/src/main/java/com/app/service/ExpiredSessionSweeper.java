@@ -0,0 +1,215 @@
+package com.app.service;
+
+import com.app.repository.JobLeaseRepository;
+import com.app.repository.UserSessionRepository;
+import com.app.repository.UserSessionRepository.SweepCursor;
+import com.app.repository.UserSessionRepository.SweepResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Background job that deletes expired sessions.
+ *
+ * Only the instance holding the "expired-session-sweep" lease sweeps; the others skip the run. Sessions are
+ * deleted through a BulkWriter in chunks of {@code max-pages-per-run} pages, renewing the lease with a
+ * checkpoint (cutoff + last (expiresAt, id)) after every page. The run keeps taking chunks for as long as the
+ * lease is held, so a backlog drains in one run instead of one chunk per interval; a sweep interrupted by a
+ * deploy, crash or lost lease resumes from the last durable page on whichever instance picks up the lease next.
+ */
+@Service
+public class ExpiredSessionSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiredSessionSweeper.class);
+
+    static final String JOB_NAME = "expired-session-sweep";
+
+    static final String CHECKPOINT_CUTOFF = "cutoffMillis";
+    static final String CHECKPOINT_EXPIRES_AT = "cursorExpiresAt";
+    static final String CHECKPOINT_SESSION_ID = "cursorSessionId";
+    static final String CHECKPOINT_DELETED = "deleted";
+
+    public enum Outcome { COMPLETED, PARTIAL, NOT_LEADER, ALREADY_RUNNING, DISABLED, FAILED }
+
+    private final UserSessionRepository sessionRepository;
+    private final JobLeaseRepository leaseRepository;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int pageSize;
+    private final int maxPagesPerRun;
+    private final Duration leaseDuration;
+    private final String instanceId;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final Counter deletedCounter;
+    private final Counter failedCounter;
+
+    public ExpiredSessionSweeper(UserSessionRepository sessionRepository,
+                                 JobLeaseRepository leaseRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${sessions.sweeper.enabled:true}") boolean enabled,
+                                 @Value("${sessions.sweeper.page-size:500}") int pageSize,
+                                 @Value("${sessions.sweeper.max-pages-per-run:200}") int maxPagesPerRun,
+                                 @Value("${sessions.sweeper.lease-seconds:120}") long leaseSeconds) {
+        this.sessionRepository = sessionRepository;
+        this.leaseRepository = leaseRepository;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.pageSize = Math.max(1, pageSize);
+        this.maxPagesPerRun = Math.max(1, maxPagesPerRun);
+        this.leaseDuration = Duration.ofSeconds(Math.max(10, leaseSeconds));
+        this.instanceId = resolveInstanceId();
+
+        this.deletedCounter = Counter.builder("app.sessions.sweep.deleted")
+                .description("Expired sessions deleted by the background sweeper")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("app.sessions.sweep.failed")
+                .description("Expired sessions the background sweeper failed to delete")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${sessions.sweeper.interval-ms:900000}",
+               initialDelayString = "${sessions.sweeper.initial-delay-ms:120000}")
+    public void scheduledSweep() {
+        sweep();
+    }
+
+    public Outcome sweep() {
+        if (!enabled) {
+            return Outcome.DISABLED;
+        }
+        if (!running.compareAndSet(false, true)) {
+            return record(Outcome.ALREADY_RUNNING);
+        }
+        try {
+            Optional<JobLeaseRepository.Lease> lease =
+                    leaseRepository.tryAcquire(JOB_NAME, instanceId, leaseDuration).join();
+            if (lease.isEmpty()) {
+                logger.debug("Expired session sweep skipped: lease held by another instance");
+                return record(Outcome.NOT_LEADER);
+            }
+
+            Map<String, Object> checkpoint = lease.get().checkpoint();
+            Instant cutoff;
+            SweepCursor resumeAfter;
+            long deletedBefore;
+            if (lease.get().hasCheckpoint() && checkpoint.get(CHECKPOINT_CUTOFF) instanceof Number cutoffMillis) {
+                cutoff = Instant.ofEpochMilli(cutoffMillis.longValue());
+                resumeAfter = checkpoint.get(CHECKPOINT_SESSION_ID) != null
+                        ? new SweepCursor(checkpoint.get(CHECKPOINT_EXPIRES_AT), (String) checkpoint.get(CHECKPOINT_SESSION_ID))
+                        : null;
+                deletedBefore = checkpoint.get(CHECKPOINT_DELETED) instanceof Number n ? n.longValue() : 0L;
+                logger.info("Resuming expired session sweep (cutoff={}, after={}, deletedSoFar={})",
+                        cutoff, resumeAfter != null ? resumeAfter.sessionId() : null, deletedBefore);
+            } else {
+                cutoff = Instant.now();
+                resumeAfter = null;
+                deletedBefore = 0L;
+            }
+
+            SweepCursor cursor = resumeAfter;
+            long deletedSoFar = deletedBefore;
+            while (true) {
+                long deletedBeforeChunk = deletedSoFar;
+                long[] countedSoFar = {0L, 0L};
+                // Renewals are chained rather than awaited, so a page never waits on the lease write; a renewal
+                // that has come back false stops the sweep at the next page
+                AtomicReference<CompletableFuture<Boolean>> renewal = new AtomicReference<>();
+                SweepResult result = sessionRepository.sweepExpiredSessions(cutoff, cursor, pageSize, maxPagesPerRun,
+                        progress -> {
+                            deletedCounter.increment(progress.deleted() - countedSoFar[0]);
+                            failedCounter.increment(progress.failed() - countedSoFar[1]);
+                            countedSoFar[0] = progress.deleted();
+                            countedSoFar[1] = progress.failed();
+                            Map<String, Object> pageCheckpoint =
+                                    checkpoint(cutoff, progress.lastCursor(), deletedBeforeChunk + progress.deleted());
+                            CompletableFuture<Boolean> previous = renewal.get() != null
+                                    ? renewal.get() : CompletableFuture.completedFuture(true);
+                            CompletableFuture<Boolean> next = previous.thenCompose(held -> held
+                                    ? leaseRepository.renew(JOB_NAME, instanceId, leaseDuration, pageCheckpoint)
+                                    : CompletableFuture.completedFuture(false));
+                            renewal.set(next);
+                            if (!next.getNow(true)) {
+                                logger.warn("Lost expired-session sweep lease; stopping after {} pages", progress.pages());
+                                return false;
+                            }
+                            return true;
+                        }).join();
+                // The one wait per chunk: whether the last checkpoint was written under our lease
+                boolean stillLeader = renewal.get() != null && renewal.get().join();
+
+                deletedSoFar += result.deleted();
+                if (result.lastCursor() != null) {
+                    cursor = result.lastCursor();
+                }
+                if (result.complete()) {
+                    leaseRepository.release(JOB_NAME, instanceId, null).join();
+                    logger.info("Expired session sweep complete: deleted={} (this run {}), failed={}, pages={}",
+                            deletedSoFar, deletedSoFar - deletedBefore, result.failed(), result.pages());
+                    return record(Outcome.COMPLETED);
+                }
+                if (!stillLeader) {
+                    break;
+                }
+                logger.debug("Expired session sweep still leader after {} pages; continuing from {}",
+                        result.pages(), cursor != null ? cursor.sessionId() : null);
+            }
+
+            leaseRepository.release(JOB_NAME, instanceId, checkpoint(cutoff, cursor, deletedSoFar)).join();
+            logger.info("Expired session sweep paused: deleted this run={}", deletedSoFar - deletedBefore);
+            return record(Outcome.PARTIAL);
+        } catch (Exception e) {
+            logger.error("Expired session sweep failed: {}", e.getMessage(), e);
+            return record(Outcome.FAILED);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    String getInstanceId() {
+        return instanceId;
+    }
+
+    private Outcome record(Outcome outcome) {
+        Counter.builder("app.sessions.sweep.runs")
+                .tag("outcome", outcome.name().toLowerCase())
+                .description("Expired session sweeper runs by outcome")
+                .register(meterRegistry)
+                .increment();
+        return outcome;
+    }
+
+    private static Map<String, Object> checkpoint(Instant cutoff, SweepCursor cursor, long deleted) {
+        Map<String, Object> checkpoint = new HashMap<>();
+        checkpoint.put(CHECKPOINT_CUTOFF, cutoff.toEpochMilli());
+        checkpoint.put(CHECKPOINT_EXPIRES_AT, cursor != null ? cursor.expiresAt() : null);
+        checkpoint.put(CHECKPOINT_SESSION_ID, cursor != null ? cursor.sessionId() : null);
+        checkpoint.put(CHECKPOINT_DELETED, deleted);
+        return checkpoint;
+    }
+
+    private static String resolveInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown-host";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
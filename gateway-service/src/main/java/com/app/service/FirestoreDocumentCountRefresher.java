@@ -0,0 +1,68 @@
+package com.app.service;
+
+import com.app.repository.StoryRepository;
+import com.app.repository.UserRepository;
+import com.app.repository.UserSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Periodically refreshes the app.firestore.documents.count gauges from server-side count() aggregations.
+ * Scrapes read the last refreshed value; nothing on a request path counts a collection.
+ */
+@Component
+public class FirestoreDocumentCountRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirestoreDocumentCountRefresher.class);
+
+    private static final long COUNT_TIMEOUT_SECONDS = 30;
+
+    private final StoryRepository storyRepository;
+    private final UserRepository userRepository;
+    private final UserSessionRepository sessionRepository;
+    private final ApplicationMetricsService metricsService;
+    private final boolean enabled;
+
+    public FirestoreDocumentCountRefresher(StoryRepository storyRepository,
+                                           UserRepository userRepository,
+                                           UserSessionRepository sessionRepository,
+                                           ApplicationMetricsService metricsService,
+                                           @Value("${metrics.document-counts.enabled:true}") boolean enabled) {
+        this.storyRepository = storyRepository;
+        this.userRepository = userRepository;
+        this.sessionRepository = sessionRepository;
+        this.metricsService = metricsService;
+        this.enabled = enabled;
+    }
+
+    @Scheduled(fixedDelayString = "${metrics.document-counts.refresh-interval-ms:300000}",
+               initialDelayString = "${metrics.document-counts.initial-delay-ms:30000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        refreshCount("stories", storyRepository::count);
+        refreshCount("stories_available", storyRepository::countAvailable);
+        refreshCount("users_active", userRepository::countActiveUsers);
+        refreshCount("user_sessions_active", sessionRepository::countActiveSessions);
+    }
+
+    private void refreshCount(String collection, Supplier<CompletableFuture<Long>> countQuery) {
+        try {
+            long count = countQuery.get().get(COUNT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            metricsService.recordFirestoreDocumentCount(collection, count);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Keep the previous value; a stale gauge is better than a gap
+            logger.warn("Failed to refresh document count for {}: {}", collection, e.getMessage());
+        }
+    }
+}
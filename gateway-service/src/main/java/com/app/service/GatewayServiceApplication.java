@@ -2,14 +2,20 @@ package com.app.service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.annotation.ComponentScan;
 
 @ComponentScan(basePackages = {"com.app"})
 @SpringBootApplication
 public class GatewayServiceApplication {
 
+	// Startup steps kept for StartupMetricsConfig and /actuator/startup
+	private static final int STARTUP_STEP_CAPACITY = 8192;
+
 	public static void main(String[] args) {
-		SpringApplication.run(GatewayServiceApplication.class, args);
+		SpringApplication application = new SpringApplication(GatewayServiceApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+		application.run(args);
 	}
 
 }
@@ -0,0 +1,139 @@
+package com.app.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Last known validators (strong ETag and Last-Modified) of polled read endpoints, per instance.
+ *
+ * Lets a conditional GET whose If-None-Match still matches be answered 304 without the Firestore read.
+ * Entries live for {@code conditional-get.validator-ttl-seconds} and are dropped on writes through this
+ * instance; content written elsewhere (CMS uploads, other instances) can be answered 304 for up to the TTL.
+ * A read that started before an invalidation does not store its validator, as in ReadThroughCache.
+ */
+@Service
+public class ResponseValidatorCache {
+
+    public static final String CONTENT_VERSION = "stories:version";
+    public static final String ASSET_VERSION = "assets:version";
+
+    /** A strong entity tag (quoted) and the optional Last-Modified time of a representation. */
+    public record Validator(String etag, Instant lastModified) {
+
+        public static Validator strong(String opaqueTag, Instant lastModified) {
+            return new Validator("\"" + opaqueTag + "\"", lastModified);
+        }
+
+        /**
+         * If-None-Match evaluation (RFC 9110, weak comparison): true if the header is {@code *} or lists this
+         * entity tag, with or without the W/ prefix.
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*")) {
+                    return true;
+                }
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public HttpHeaders headers() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setETag(etag);
+            if (lastModified != null) {
+                headers.setLastModified(lastModified);
+            }
+            return headers;
+        }
+    }
+
+    private record Entry(Validator validator, long expiresAtNanos) {}
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public ResponseValidatorCache(@Value("${conditional-get.validator-ttl-seconds:30}") long ttlSeconds,
+                                  @Value("${conditional-get.max-validators:10000}") int maxSize) {
+        this(Duration.ofSeconds(ttlSeconds), maxSize, System::nanoTime);
+    }
+
+    ResponseValidatorCache(Duration ttl, int maxSize, LongSupplier nanoClock) {
+        this.ttlNanos = Math.max(0, ttl.toNanos());
+        this.maxSize = Math.max(1, maxSize);
+        this.nanoClock = nanoClock;
+    }
+
+    public static String story(String storyId) {
+        return "story:" + storyId;
+    }
+
+    /** The cached validator for {@code key}, if it is still fresh and {@code ifNoneMatch} matches it. */
+    public Optional<Validator> matching(String key, String ifNoneMatch) {
+        if (ifNoneMatch == null || ttlNanos == 0) {
+            return Optional.empty();
+        }
+        Entry entry = entries.get(key);
+        if (entry == null || nanoClock.getAsLong() - entry.expiresAtNanos() >= 0) {
+            return Optional.empty();
+        }
+        return entry.validator().matches(ifNoneMatch) ? Optional.of(entry.validator()) : Optional.empty();
+    }
+
+    /** Snapshot to take before the read whose validator is later passed to {@link #remember}. */
+    public long generation() {
+        return generation.get();
+    }
+
+    /** Store the validator of a fresh read, unless something was invalidated since {@code readGeneration}. */
+    public Validator remember(String key, Validator validator, long readGeneration) {
+        if (ttlNanos == 0 || generation.get() != readGeneration) {
+            return validator;
+        }
+        long now = nanoClock.getAsLong();
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            entries.values().removeIf(entry -> now - entry.expiresAtNanos() >= 0);
+            if (entries.size() >= maxSize) {
+                entries.clear();
+            }
+        }
+        entries.put(key, new Entry(validator, now + ttlNanos));
+        return validator;
+    }
+
+    public void invalidate(String key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
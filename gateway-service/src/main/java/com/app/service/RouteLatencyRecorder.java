@@ -0,0 +1,225 @@
+package com.app.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-route request latency recorder backed by HdrHistogram.
+ *
+ * Writers call {@link #record(String, long)} on the request thread; each route owns an HdrHistogram
+ * {@link Recorder}, which is wait-free for concurrent writers and lets the reader swap out the active
+ * interval histogram without blocking them. A single background thread rotates every route's recorder
+ * once per interval into a ring of interval histograms, and the last N intervals are merged into a
+ * sliding-window snapshot. Scrapes and the /actuator/custom/latency endpoint only read that snapshot.
+ *
+ * Routes are keyed by normalized route template only (no device/platform/status tags), so the exported
+ * series count is routes × quantiles rather than the cross product carried by app.response.time.
+ */
+@Component
+public class RouteLatencyRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteLatencyRecorder.class);
+
+    static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    static final String OVERFLOW_ROUTE = "other";
+
+    /** Values are recorded in microseconds; anything slower than this is clamped */
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final MeterRegistry meterRegistry;
+    private final long intervalSeconds;
+    private final int windowIntervals;
+    private final int maxRoutes;
+    private final ConcurrentHashMap<String, RouteWindow> routes = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService rotator;
+
+    @Autowired
+    public RouteLatencyRecorder(MeterRegistry meterRegistry,
+                                @Value("${metrics.route-latency.interval-seconds:10}") long intervalSeconds,
+                                @Value("${metrics.route-latency.window-intervals:6}") int windowIntervals,
+                                @Value("${metrics.route-latency.max-routes:200}") int maxRoutes) {
+        this(meterRegistry, intervalSeconds, windowIntervals, maxRoutes, true);
+    }
+
+    RouteLatencyRecorder(MeterRegistry meterRegistry, long intervalSeconds, int windowIntervals,
+                         int maxRoutes, boolean scheduleRotation) {
+        this.meterRegistry = meterRegistry;
+        this.intervalSeconds = Math.max(1, intervalSeconds);
+        this.windowIntervals = Math.max(1, windowIntervals);
+        this.maxRoutes = Math.max(1, maxRoutes);
+
+        if (scheduleRotation) {
+            this.rotator = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "route-latency-rotator");
+                t.setDaemon(true);
+                return t;
+            });
+            this.rotator.scheduleAtFixedRate(this::rotateSafely,
+                    this.intervalSeconds, this.intervalSeconds, TimeUnit.SECONDS);
+        } else {
+            this.rotator = null;
+        }
+    }
+
+    public void record(String route, long durationNanos) {
+        String key = route != null ? route : "unknown";
+        RouteWindow window = routes.get(key);
+        if (window == null) {
+            window = routes.size() >= maxRoutes
+                    ? routes.computeIfAbsent(OVERFLOW_ROUTE, this::newRouteWindow)
+                    : routes.computeIfAbsent(key, this::newRouteWindow);
+        }
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(durationNanos));
+        window.recorder.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+    }
+
+    /**
+     * Latest sliding-window snapshot per route, sorted by route.
+     */
+    public Map<String, RouteLatencySnapshot> snapshot() {
+        Map<String, RouteLatencySnapshot> result = new TreeMap<>();
+        routes.forEach((route, window) -> result.put(route, window.latest));
+        return result;
+    }
+
+    public long getWindowSeconds() {
+        return intervalSeconds * windowIntervals;
+    }
+
+    void rotate() {
+        routes.values().forEach(RouteWindow::rotate);
+    }
+
+    private void rotateSafely() {
+        try {
+            rotate();
+        } catch (Exception e) {
+            logger.warn("Route latency rotation failed: {}", e.getMessage());
+        }
+    }
+
+    private RouteWindow newRouteWindow(String route) {
+        RouteWindow window = new RouteWindow(windowIntervals);
+        for (double quantile : QUANTILES) {
+            Gauge.builder("app.route.latency", window, w -> w.latest.valueAtQuantileSeconds(quantile))
+                    .tags("route", route, "quantile", String.valueOf(quantile))
+                    .description("Request latency quantile per route over the sliding window")
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("app.route.latency.max", window, w -> w.latest.maxSeconds())
+                .tags("route", route)
+                .description("Maximum request latency per route over the sliding window")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("app.route.latency.count", window, w -> w.latest.count())
+                .tags("route", route)
+                .description("Number of requests per route over the sliding window")
+                .register(meterRegistry);
+        return window;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (rotator != null) {
+            rotator.shutdownNow();
+        }
+    }
+
+    private static final class RouteWindow {
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final Histogram[] intervals;
+        private final Histogram merged = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private int next = 0;
+        private volatile RouteLatencySnapshot latest = RouteLatencySnapshot.EMPTY;
+
+        RouteWindow(int windowIntervals) {
+            this.intervals = new Histogram[windowIntervals];
+        }
+
+        /** Only called from the rotator thread (or tests). */
+        synchronized void rotate() {
+            Histogram recycle = intervals[next];
+            intervals[next] = recycle != null
+                    ? recorder.getIntervalHistogram(recycle)
+                    : recorder.getIntervalHistogram();
+            next = (next + 1) % intervals.length;
+
+            merged.reset();
+            for (Histogram interval : intervals) {
+                if (interval != null) {
+                    merged.add(interval);
+                }
+            }
+            latest = RouteLatencySnapshot.of(merged);
+        }
+    }
+
+    /**
+     * Immutable percentile summary for one route, in microseconds.
+     */
+    public record RouteLatencySnapshot(long count, long p50Micros, long p90Micros, long p99Micros,
+                                       long p999Micros, long maxMicros) {
+
+        static final RouteLatencySnapshot EMPTY = new RouteLatencySnapshot(0, 0, 0, 0, 0, 0);
+
+        static RouteLatencySnapshot of(Histogram histogram) {
+            if (histogram.getTotalCount() == 0) {
+                return EMPTY;
+            }
+            return new RouteLatencySnapshot(
+                    histogram.getTotalCount(),
+                    histogram.getValueAtPercentile(50.0),
+                    histogram.getValueAtPercentile(90.0),
+                    histogram.getValueAtPercentile(99.0),
+                    histogram.getValueAtPercentile(99.9),
+                    histogram.getMaxValue());
+        }
+
+        double valueAtQuantileSeconds(double quantile) {
+            long micros;
+            if (quantile >= 0.999) {
+                micros = p999Micros;
+            } else if (quantile >= 0.99) {
+                micros = p99Micros;
+            } else if (quantile >= 0.9) {
+                micros = p90Micros;
+            } else {
+                micros = p50Micros;
+            }
+            return micros / 1_000_000.0;
+        }
+
+        double maxSeconds() {
+            return maxMicros / 1_000_000.0;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", count);
+            map.put("p50_ms", p50Micros / 1000.0);
+            map.put("p90_ms", p90Micros / 1000.0);
+            map.put("p99_ms", p99Micros / 1000.0);
+            map.put("p999_ms", p999Micros / 1000.0);
+            map.put("max_ms", maxMicros / 1000.0);
+            return map;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.app.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -9,11 +10,16 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Security counters plus audit events. Events are handed to {@link AuditEventPipeline}, which writes
+ * them to the AUDIT logger off the request thread.
+ */
 @Service
 public class SecurityMonitoringService {
 
     private static final Logger logger = LoggerFactory.getLogger(SecurityMonitoringService.class);
-    private static final Logger auditLogger = LoggerFactory.getLogger("AUDIT");
+
+    private final AuditEventPipeline auditPipeline;
 
     private final AtomicLong successfulLogins = new AtomicLong(0);
     private final AtomicLong failedLogins = new AtomicLong(0);
@@ -22,74 +28,39 @@ public class SecurityMonitoringService {
     private final AtomicLong tokenRefreshes = new AtomicLong(0);
     private final AtomicLong tokenRevocations = new AtomicLong(0);
 
+    @Autowired
+    public SecurityMonitoringService(AuditEventPipeline auditPipeline) {
+        this.auditPipeline = auditPipeline;
+    }
+
     public void logSuccessfulAuthentication(String userId, String provider) {
         successfulLogins.incrementAndGet();
-
-        Map<String, Object> auditData = new HashMap<>();
-        auditData.put("event", "SUCCESSFUL_LOGIN");
-        auditData.put("userId", userId);
-        auditData.put("provider", provider);
-        auditData.put("timestamp", Instant.now().toString());
-
-        auditLogger.info("Authentication successful: {}", auditData);
+        auditPipeline.publish(AuditEventPipeline.EventType.SUCCESSFUL_LOGIN, userId, provider, null, null, null);
     }
 
     public void logFailedAuthentication(String reason) {
         failedLogins.incrementAndGet();
-
-        Map<String, Object> auditData = new HashMap<>();
-        auditData.put("event", "FAILED_LOGIN");
-        auditData.put("reason", reason);
-        auditData.put("timestamp", Instant.now().toString());
-
-        auditLogger.warn("Authentication failed: {}", auditData);
+        auditPipeline.publish(AuditEventPipeline.EventType.FAILED_LOGIN, null, null, reason, null, null);
     }
 
     public void logSuspiciousRequest(String requestUri, String reason) {
         suspiciousRequests.incrementAndGet();
-
-        Map<String, Object> auditData = new HashMap<>();
-        auditData.put("event", "SUSPICIOUS_REQUEST");
-        auditData.put("requestUri", requestUri);
-        auditData.put("reason", reason);
-        auditData.put("timestamp", Instant.now().toString());
-
-        auditLogger.warn("Suspicious request detected: {}", auditData);
+        auditPipeline.publish(AuditEventPipeline.EventType.SUSPICIOUS_REQUEST, null, null, reason, null, requestUri);
     }
 
     public void logRateLimitViolation(String clientKey, String requestUri) {
         rateLimitViolations.incrementAndGet();
-
-        Map<String, Object> auditData = new HashMap<>();
-        auditData.put("event", "RATE_LIMIT_VIOLATION");
-        auditData.put("clientKey", clientKey);
-        auditData.put("requestUri", requestUri);
-        auditData.put("timestamp", Instant.now().toString());
-
-        auditLogger.warn("Rate limit violation: {}", auditData);
+        auditPipeline.publish(AuditEventPipeline.EventType.RATE_LIMIT_VIOLATION, null, null, null, clientKey, requestUri);
     }
 
     public void logTokenRefresh(String userId) {
         tokenRefreshes.incrementAndGet();
-
-        Map<String, Object> auditData = new HashMap<>();
-        auditData.put("event", "TOKEN_REFRESH");
-        auditData.put("userId", userId);
-        auditData.put("timestamp", Instant.now().toString());
-
-        auditLogger.info("Token refreshed: {}", auditData);
+        auditPipeline.publish(AuditEventPipeline.EventType.TOKEN_REFRESH, userId, null, null, null, null);
     }
 
     public void logTokenRevocation(String userId, String reason) {
         tokenRevocations.incrementAndGet();
-
-        Map<String, Object> auditData = new HashMap<>();
-        auditData.put("event", "TOKEN_REVOCATION");
-        auditData.put("userId", userId);
-        auditData.put("reason", reason);
-        auditData.put("timestamp", Instant.now().toString());
-
-        auditLogger.info("Token revoked: {}", auditData);
+        auditPipeline.publish(AuditEventPipeline.EventType.TOKEN_REVOCATION, userId, null, reason, null, null);
     }
 
     public Map<String, Object> getSecurityMetrics() {
@@ -100,6 +71,7 @@ public class SecurityMonitoringService {
         metrics.put("rateLimitViolations", rateLimitViolations.get());
         metrics.put("tokenRefreshes", tokenRefreshes.get());
         metrics.put("tokenRevocations", tokenRevocations.get());
+        metrics.put("auditEventsDropped", auditPipeline.getDroppedCount());
         metrics.put("timestamp", Instant.now().toString());
 
         return metrics;
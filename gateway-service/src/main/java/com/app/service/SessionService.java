@@ -40,12 +40,6 @@ public class SessionService {
 
         return CompletableFuture.supplyAsync(() -> {
             try {
-                long activeSessionCount = sessionRepository.countActiveSessionsByUserId(userId).join();
-                if (activeSessionCount >= MAX_SESSIONS_PER_USER) {
-                    logger.warn("User {} has too many active sessions ({}), revoking oldest", userId, activeSessionCount);
-                    revokeOldestUserSession(userId).join();
-                }
-
                 UserSession session = new UserSession();
                 session.setId(UUID.randomUUID().toString());
                 session.setUserId(userId);
@@ -61,7 +55,16 @@ public class SessionService {
                 session.setLastAccessedAt(Instant.now());
                 session.setExpiresAt(Instant.now().plusSeconds(DEFAULT_SESSION_EXPIRY_SECONDS));
 
-                UserSession savedSession = sessionRepository.save(session).join();
+                // Eviction of the oldest session and creation of this one commit together
+                UserSessionRepository.SessionAdmission admission =
+                        sessionRepository.createSessionWithinLimit(session, MAX_SESSIONS_PER_USER).join();
+                for (UserSession evicted : admission.evicted()) {
+                    logger.warn("User {} reached {} active sessions, revoked oldest: {}",
+                            userId, MAX_SESSIONS_PER_USER, evicted.getId());
+                    metricsService.recordSessionRevoked(evicted.getDeviceType(), evicted.getPlatform(), "auto_cleanup");
+                }
+
+                UserSession savedSession = admission.session();
                 metricsService.recordSessionCreated(deviceType, platform);
                 logger.info("Session created successfully: {} for user: {}", savedSession.getId(), userId);
                 return savedSession;
@@ -131,11 +134,12 @@ public class SessionService {
                     return sessionRepository.updateRefreshToken(session.getId(), hashedNewRefreshToken)
                             .thenCompose(updatedSession ->
                                 sessionRepository.extendSession(session.getId(), DEFAULT_SESSION_EXPIRY_SECONDS))
-                            .thenCompose(extendedSession ->
-                                sessionRepository.updateLastAccessed(session.getId()))
-                            .thenApply(finalSession -> {
+                            .thenApply(extendedSession -> {
+                                // Buffered write; the refresh does not wait for it
+                                sessionRepository.updateLastAccessed(session.getId());
+                                extendedSession.updateLastAccessed();
                                 metricsService.recordSessionRefreshed(session.getDeviceType(), session.getPlatform());
-                                return finalSession;
+                                return extendedSession;
                             });
                 });
     }
@@ -225,37 +229,14 @@ public class SessionService {
         return sessionRepository.countActiveSessions();
     }
 
-    public CompletableFuture<UserSession> updateSessionAccess(String sessionId) {
-        logger.debug("Updating session access: {}", sessionId);
+    public CompletableFuture<UserSession> updateSessionAccess(UserSession session) {
+        logger.debug("Updating session access: {}", session.getId());
         
-        return sessionRepository.updateLastAccessed(sessionId)
-                .thenApply(session -> {
+        return sessionRepository.updateLastAccessed(session.getId())
+                .thenApply(ignored -> {
+                    session.updateLastAccessed();
                     metricsService.recordSessionAccess(session.getDeviceType(), session.getPlatform());
                     return session;
                 });
     }
-
-    private CompletableFuture<Void> revokeOldestUserSession(String userId) {
-        return sessionRepository.findActiveSessionsByUserId(userId)
-                .thenCompose(sessions -> {
-                    if (sessions.isEmpty()) {
-                        return CompletableFuture.completedFuture(null);
-                    }
-
-                    UserSession oldestSession = sessions.stream()
-                            .min((s1, s2) -> s1.getCreatedAt().compareTo(s2.getCreatedAt()))
-                            .orElse(null);
-                    
-                    if (oldestSession != null) {
-                        return revokeSession(oldestSession.getId())
-                                .thenApply(session -> {
-                                    metricsService.recordSessionRevoked(session.getDeviceType(), 
-                                            session.getPlatform(), "auto_cleanup");
-                                    return null;
-                                });
-                    }
-                    
-                    return CompletableFuture.completedFuture(null);
-                });
-    }
 }
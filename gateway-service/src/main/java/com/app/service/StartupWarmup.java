@@ -0,0 +1,80 @@
+package com.app.service;
+
+import com.app.config.JwtConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Once the application is ready, preloads in the background what the first requests after a cold start
+ * would otherwise wait for: the JWKS key sets used to verify sign-in tokens, and the story catalog (which
+ * also opens the Firestore channel and creates the lazily initialized repository beans).
+ *
+ * Readiness is not held back; a failed step is logged and left to the first real request.
+ */
+@Component
+public class StartupWarmup implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private final JwtConfig jwtConfig;
+    private final ObjectProvider<StoryService> storyService;
+    private final ApplicationMetricsService metricsService;
+    private final boolean enabled;
+    private final long timeoutSeconds;
+
+    public StartupWarmup(JwtConfig jwtConfig,
+                         ObjectProvider<StoryService> storyService,
+                         ApplicationMetricsService metricsService,
+                         @Value("${startup.warmup.enabled:true}") boolean enabled,
+                         @Value("${startup.warmup.timeout-seconds:20}") long timeoutSeconds) {
+        this.jwtConfig = jwtConfig;
+        this.storyService = storyService;
+        this.metricsService = metricsService;
+        this.enabled = enabled;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    @Override
+    public void onApplicationEvent(@NonNull ApplicationReadyEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Thread warmup = new Thread(this::run, "startup-warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+    }
+
+    void run() {
+        step("jwks", jwtConfig::preloadPublicKeys);
+        // Resolved here rather than injected, so lazy init does not pull the repositories into startup
+        StoryService stories = storyService.getObject();
+        step("content-version", () -> stories.getCurrentContentVersion().get(timeoutSeconds, TimeUnit.SECONDS));
+        step("story-catalog", () -> stories.getAllAvailableStories().get(timeoutSeconds, TimeUnit.SECONDS).size());
+    }
+
+    private void step(String task, Callable<?> work) {
+        long start = System.currentTimeMillis();
+        try {
+            Object result = work.call();
+            long durationMs = System.currentTimeMillis() - start;
+            metricsService.recordStartupWarmup(task, true, durationMs);
+            logger.info("Startup warm-up {} done in {}ms [result={}]", task, durationMs,
+                    result instanceof Number ? result : "ok");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            long durationMs = System.currentTimeMillis() - start;
+            metricsService.recordStartupWarmup(task, false, durationMs);
+            logger.warn("Startup warm-up {} failed after {}ms: {}", task, durationMs, e.getMessage());
+        }
+    }
+}
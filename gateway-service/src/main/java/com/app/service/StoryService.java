@@ -7,7 +7,6 @@ import com.app.repository.ContentVersionRepository;
 import com.app.repository.StoryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
@@ -23,11 +22,13 @@ public class StoryService {
 
     private final StoryRepository storyRepository;
     private final ContentVersionRepository contentVersionRepository;
+    private final ResponseValidatorCache validatorCache;
 
-    @Autowired
-    public StoryService(StoryRepository storyRepository, ContentVersionRepository contentVersionRepository) {
+    public StoryService(StoryRepository storyRepository, ContentVersionRepository contentVersionRepository,
+                        ResponseValidatorCache validatorCache) {
         this.storyRepository = storyRepository;
         this.contentVersionRepository = contentVersionRepository;
+        this.validatorCache = validatorCache;
     }
 
     public CompletableFuture<List<Story>> getAllAvailableStories() {
@@ -95,7 +96,7 @@ public class StoryService {
                 .thenCompose(savedStory -> {
                     String checksum = calculateStoryChecksum(savedStory);
                     return contentVersionRepository.updateStoryChecksum(savedStory.getId(), checksum)
-                            .thenApply(v -> savedStory);
+                            .thenApply(v -> contentChanged(savedStory.getId(), savedStory));
                 });
     }
 
@@ -106,7 +107,7 @@ public class StoryService {
                 .thenCompose(updatedStory -> {
                     String checksum = calculateStoryChecksum(updatedStory);
                     return contentVersionRepository.updateStoryChecksum(updatedStory.getId(), checksum)
-                            .thenApply(v -> updatedStory);
+                            .thenApply(v -> contentChanged(updatedStory.getId(), updatedStory));
                 });
     }
 
@@ -115,7 +116,14 @@ public class StoryService {
 
         return storyRepository.delete(storyId)
                 .thenCompose(v -> contentVersionRepository.removeStoryChecksum(storyId))
-                .thenApply(v -> null);
+                .thenApply(v -> contentChanged(storyId, null));
+    }
+
+    /** Drops the cached validators of a written story and of the content version. */
+    private <T> T contentChanged(String storyId, T result) {
+        validatorCache.invalidate(ResponseValidatorCache.story(storyId));
+        validatorCache.invalidate(ResponseValidatorCache.CONTENT_VERSION);
+        return result;
     }
 
     /**
@@ -86,10 +86,11 @@ public class UserService {
                         User existingUser = userOpt.get();
                         existingUser.updateLastLogin();
 
-                        return userRepository.save(existingUser)
-                                .thenApply(savedUser -> {
+                        // Only the login timestamps change; buffered rather than rewriting the whole user
+                        return userRepository.updateLastLogin(existingUser.getId())
+                                .thenApply(ignored -> {
                                     metricsService.recordUserLogin(provider, "existing");
-                                    return savedUser;
+                                    return existingUser;
                                 });
                     } else {
                         return createUser(provider, providerId)
@@ -126,48 +127,28 @@ public class UserService {
                             });
                 });
     }
-    public CompletableFuture<User> addChildProfile(String userId, UserDTOs.CreateChildProfileRequest request) {
+    public CompletableFuture<ChildProfile> addChildProfile(String userId, UserDTOs.CreateChildProfileRequest request) {
         logger.debug("Adding child profile for user: {}", userId);
-        
-        return getUserById(userId)
-                .thenCompose(userOpt -> {
-                    if (userOpt.isEmpty()) {
-                        throw new IllegalArgumentException("User not found: " + userId);
-                    }
-                    
-                    User user = userOpt.get();
-                    ChildProfile child = new ChildProfile();
-                    child.setId(UUID.randomUUID().toString());
-                    child.setName(request.getName());
-                    child.setAvatar(request.getAvatar());
-                    child.setAgeRange(request.getAgeRange());
-                    child.setActive(true);
-                    child.setCreatedAt(Instant.now());
-                    user.addChild(child);
-                    user.setUpdatedAt(Instant.now());
-                    
-                    return userRepository.save(user)
-                            .thenApply(savedUser -> {
-                                logger.info("Child profile added for user: {} - child: {}", userId, child.getId());
-                                return savedUser;
-                            });
+
+        ChildProfile child = new ChildProfile();
+        child.setId(UUID.randomUUID().toString());
+        child.setName(request.getName());
+        child.setAvatar(request.getAvatar());
+        child.setAgeRange(request.getAgeRange());
+        child.setActive(true);
+        child.setCreatedAt(Instant.now());
+
+        return userRepository.addChild(userId, child)
+                .thenApply(added -> {
+                    logger.info("Child profile added for user: {} - child: {}", userId, added.getId());
+                    return added;
                 });
     }
-    public CompletableFuture<User> updateChildProfile(String userId, String childId,
-                                                    UserDTOs.UpdateChildProfileRequest request) {
+    public CompletableFuture<ChildProfile> updateChildProfile(String userId, String childId,
+                                                            UserDTOs.UpdateChildProfileRequest request) {
         logger.debug("Updating child profile {} for user: {}", childId, userId);
-        
-        return getUserById(userId)
-                .thenCompose(userOpt -> {
-                    if (userOpt.isEmpty()) {
-                        throw new IllegalArgumentException("User not found: " + userId);
-                    }
-                    
-                    User user = userOpt.get();
-                    ChildProfile child = user.getChildById(childId);
-                    if (child == null) {
-                        throw new IllegalArgumentException("Child not found: " + childId);
-                    }
+
+        return userRepository.updateChild(userId, childId, child -> {
                     if (request.getName() != null) {
                         child.setName(request.getName());
                     }
@@ -177,38 +158,23 @@ public class UserService {
                     if (request.getAgeRange() != null) {
                         child.setAgeRange(request.getAgeRange());
                     }
-
-                    user.setUpdatedAt(Instant.now());
-                    
-                    return userRepository.save(user)
-                            .thenApply(savedUser -> {
-                                logger.debug("Child profile updated: {} for user: {}", childId, userId);
-                                return savedUser;
-                            });
+                })
+                .thenApply(updated -> {
+                    ChildProfile child = updated.orElseThrow(
+                            () -> new IllegalArgumentException("Child not found: " + childId));
+                    logger.debug("Child profile updated: {} for user: {}", childId, userId);
+                    return child;
                 });
     }
-    public CompletableFuture<User> removeChildProfile(String userId, String childId) {
+    public CompletableFuture<Void> removeChildProfile(String userId, String childId) {
         logger.debug("Removing child profile {} for user: {}", childId, userId);
-        
-        return getUserById(userId)
-                .thenCompose(userOpt -> {
-                    if (userOpt.isEmpty()) {
-                        throw new IllegalArgumentException("User not found: " + userId);
-                    }
-                    
-                    User user = userOpt.get();
-                    boolean removed = user.removeChild(childId);
+
+        return userRepository.removeChild(userId, childId)
+                .thenAccept(removed -> {
                     if (!removed) {
                         throw new IllegalArgumentException("Child not found: " + childId);
                     }
-                    
-                    user.setUpdatedAt(Instant.now());
-                    
-                    return userRepository.save(user)
-                            .thenApply(savedUser -> {
-                                logger.info("Child profile removed: {} for user: {}", childId, userId);
-                                return savedUser;
-                            });
+                    logger.info("Child profile removed: {} for user: {}", childId, userId);
                 });
     }
     public CompletableFuture<User> deactivateUser(String userId) {
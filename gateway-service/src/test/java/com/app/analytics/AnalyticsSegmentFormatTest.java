@@ -0,0 +1,70 @@
+package com.app.analytics;
+
+import com.app.analytics.AnalyticsSegmentFormat.SpooledEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticsSegmentFormatTest {
+
+    private static SpooledEvent event(String name, Map<String, String> properties) {
+        return new SpooledEvent(29_000_000L, name, "ios", "1.2.0", "en", properties);
+    }
+
+    @Test
+    void roundTripsEventsAndReusesDictionaryEntries() throws IOException {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("storyId", "story-1");
+        properties.put("lastPage", "7");
+        SpooledEvent first = event("story_abandoned", properties);
+        SpooledEvent second = event("story_opened", Map.of("storyId", "story-1"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (AnalyticsSegmentFormat.Writer writer = new AnalyticsSegmentFormat.Writer(bytes)) {
+            writer.write(first);
+            long afterFirst = writer.size();
+            writer.write(second);
+            // Only the new event name is added to the dictionary; everything else is ids
+            assertTrue(writer.size() - afterFirst < 30, "second event should be dictionary-encoded");
+        }
+
+        try (AnalyticsSegmentFormat.Reader reader = new AnalyticsSegmentFormat.Reader(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(first, reader.next());
+            assertEquals(second, reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void truncatedSegmentIsReadableUpToLastCompleteRecord() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SpooledEvent complete = event("story_opened", Map.of("storyId", "story-1"));
+        try (AnalyticsSegmentFormat.Writer writer = new AnalyticsSegmentFormat.Writer(bytes)) {
+            writer.write(complete);
+            writer.write(event("story_completed", Map.of("storyId", "story-2")));
+        }
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 2);
+
+        try (AnalyticsSegmentFormat.Reader reader = new AnalyticsSegmentFormat.Reader(
+                new ByteArrayInputStream(truncated))) {
+            assertEquals(complete, reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNotSegments() {
+        byte[] garbage = "not a segment".getBytes();
+
+        assertThrows(IOException.class,
+                () -> new AnalyticsSegmentFormat.Reader(new ByteArrayInputStream(garbage)));
+    }
+}
@@ -0,0 +1,87 @@
+package com.app.analytics;
+
+import com.app.analytics.AnalyticsSegmentFormat.SpooledEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageFunnelReportTest {
+
+    @TempDir
+    Path spool;
+
+    private static SpooledEvent story(String event, String storyId, String... extra) {
+        Map<String, String> properties = extra.length == 0
+                ? Map.of("storyId", storyId)
+                : Map.of("storyId", storyId, extra[0], extra[1]);
+        return new SpooledEvent(29_000_000L, event, "ios", "1.2.0", "en", properties);
+    }
+
+    private void writeSegment(String name, List<SpooledEvent> events) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(spool.resolve(name)));
+             AnalyticsSegmentFormat.Writer writer = new AnalyticsSegmentFormat.Writer(out)) {
+            for (SpooledEvent event : events) {
+                writer.write(event);
+            }
+        }
+    }
+
+    private static String csv(PageFunnelReport report) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        report.writeCsv(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void computesReachedAndAbandonedPerPageAcrossSegments() throws IOException {
+        writeSegment("events-0000000000001-0000.seg.gz", List.of(
+                story("story_opened", "s1"),
+                story("story_opened", "s1"),
+                story("story_opened", "s1"),
+                story("story_abandoned", "s1", "lastPage", "1")));
+        writeSegment("events-0000000000002-0001.seg.gz", List.of(
+                story("story_opened", "s1"),
+                story("story_abandoned", "s1", "lastPage", "2"),
+                story("story_completed", "s1", "pagesViewed", "4"),
+                story("app_error", "s1")));
+
+        PageFunnelReport report = new PageFunnelReport(100, 10);
+        assertEquals(2, report.addSpool(spool));
+
+        assertEquals("""
+                storyId,page,reached,abandoned_here,completed
+                s1,0,4,0,1
+                s1,1,4,1,1
+                s1,2,3,1,1
+                """, csv(report).replace(System.lineSeparator(), "\n"));
+    }
+
+    @Test
+    void capsStoriesAndPages() {
+        PageFunnelReport report = new PageFunnelReport(5, 2);
+
+        report.add(story("story_opened", "s1"));
+        report.add(story("story_opened", "s2"));
+        report.add(story("story_opened", "s3"));
+        report.add(story("story_opened", "s4"));
+        report.add(story("story_abandoned", "s1", "lastPage", "40"));
+        report.add(story("story_abandoned", "s1", "lastPage", "not-a-number"));
+
+        assertEquals(2, report.story(PageFunnelReport.OTHER_STORY).opened);
+        assertNull(report.story("s3"));
+        assertEquals(1, report.story("s1").abandonedAt[5], "pages past the cap share the last bucket");
+        assertEquals(1, java.util.Arrays.stream(report.story("s1").abandonedAt).sum());
+    }
+}
@@ -0,0 +1,59 @@
+package com.app.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContextPropagatingExecutorTest {
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void carriesMdcAndSecurityContextOntoVirtualThreads() {
+        Authentication user = new UsernamePasswordAuthenticationToken("user-1", null, List.of());
+        SecurityContextHolder.getContext().setAuthentication(user);
+        MDC.put("requestId", "req-123");
+
+        try (ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            ContextPropagatingExecutor executor = new ContextPropagatingExecutor(virtualThreads);
+
+            String seen = CompletableFuture.supplyAsync(() -> Thread.currentThread().isVirtual()
+                    + "|" + MDC.get("requestId")
+                    + "|" + SecurityContextHolder.getContext().getAuthentication().getName(), executor).join();
+
+            assertEquals("true|req-123|user-1", seen);
+        }
+    }
+
+    @Test
+    void restoresWorkerContextAfterTask() throws Exception {
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        try {
+            worker.submit(() -> MDC.put("requestId", "worker-own")).get();
+            MDC.put("requestId", "req-456");
+
+            new ContextPropagatingExecutor(worker).execute(() -> assertEquals("req-456", MDC.get("requestId")));
+
+            AtomicReference<String> after = new AtomicReference<>();
+            worker.submit(() -> after.set(MDC.get("requestId"))).get();
+            assertEquals("worker-own", after.get());
+        } finally {
+            worker.shutdownNow();
+        }
+    }
+}
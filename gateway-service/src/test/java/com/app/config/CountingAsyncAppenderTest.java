@@ -0,0 +1,107 @@
+package com.app.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountingAsyncAppenderTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private CountingAsyncAppender appender;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (appender != null) {
+            appender.stop();
+        }
+    }
+
+    /** A logger whose async appender's worker is stuck in the first event until {@link #release}. */
+    private Logger loggerWith(String name, int queueSize, int discardingThreshold, boolean neverBlock) {
+        AppenderBase<ILoggingEvent> stuck = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        stuck.setContext(context);
+        stuck.start();
+
+        appender = new CountingAsyncAppender();
+        appender.setContext(context);
+        appender.setName(name);
+        appender.setQueueSize(queueSize);
+        appender.setDiscardingThreshold(discardingThreshold);
+        appender.setNeverBlock(neverBlock);
+        appender.addAppender(stuck);
+        appender.start();
+
+        Logger logger = context.getLogger(name);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private static long dropped(String appender) {
+        return CountingAsyncAppender.droppedByAppender().get(appender).sum();
+    }
+
+    @Test
+    void countsEventsDroppedOnAFullQueue() throws InterruptedException {
+        Logger logger = loggerWith("full-queue", 1, 0, true);
+
+        logger.warn("taken by the worker");
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        logger.warn("queued");
+        logger.warn("dropped");
+        logger.error("dropped too");
+
+        assertEquals(2, dropped("full-queue"));
+    }
+
+    @Test
+    void countsInfoDiscardedPastTheThresholdButKeepsWarnings() throws InterruptedException {
+        Logger logger = loggerWith("threshold", 4, 4, false);
+
+        logger.info("taken by the worker");
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        logger.info("queued");
+        logger.info("discarded");
+        logger.warn("queued, never discarded");
+
+        assertEquals(1, dropped("threshold"));
+        assertEquals(2, 4 - appender.getRemainingCapacity());
+    }
+
+    @Test
+    void exportsDropsPerAppender() throws InterruptedException {
+        Logger logger = loggerWith("exported", 1, 0, true);
+        logger.warn("taken by the worker");
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        logger.warn("queued");
+        logger.warn("dropped");
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new LoggingMetricsConfig().droppedLogEvents().bindTo(registry);
+
+        assertEquals(1.0, registry.get("app.logging.events.dropped").tag("appender", "exported")
+                .functionCounter().count());
+    }
+}
@@ -0,0 +1,42 @@
+package com.app.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirestoreHedgingConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(FirestoreHedgingConfig.class);
+
+    @Test
+    void percentilesArePublishedOnlyWhenHedgingIsEnabled() {
+        contextRunner.run(context -> assertTrue(context.getBeansOfType(MeterFilter.class).isEmpty()));
+        contextRunner.withPropertyValues("firestore.hedging.enabled=true")
+                .run(context -> assertEquals(1, context.getBeansOfType(MeterFilter.class).size()));
+    }
+
+    @Test
+    void filterAddsTheHedgePercentileToFirestoreOperationsOnly() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new FirestoreHedgingConfig().firestoreOperationPercentiles(0.9));
+
+        Timer firestore = Timer.builder(FirestoreHedgingConfig.FIRESTORE_OPERATION_DURATION)
+                .tags("collection", "stories", "operation", "findById", "status", "success")
+                .register(registry);
+        Timer other = Timer.builder("app.http.request.duration").register(registry);
+
+        double[] published = Arrays.stream(firestore.takeSnapshot().percentileValues())
+                .mapToDouble(ValueAtPercentile::percentile)
+                .toArray();
+        assertArrayEquals(new double[]{0.5, 0.9, 0.99}, published, 1e-9);
+        assertEquals(0, other.takeSnapshot().percentileValues().length);
+    }
+}
@@ -1,6 +1,8 @@
 package com.app.config;
 
 import com.app.service.ApplicationMetricsService;
+import com.app.service.ClientFingerprintResolver;
+import com.app.service.EndpointTemplateResolver;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,7 +18,9 @@ class JwtConfigTest {
 
     @BeforeEach
     void setUp() {
-        metricsService = new ApplicationMetricsService(new SimpleMeterRegistry());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        metricsService = new ApplicationMetricsService(meterRegistry,
+                new ClientFingerprintResolver(meterRegistry, 1024), new EndpointTemplateResolver());
     }
 
     @Test
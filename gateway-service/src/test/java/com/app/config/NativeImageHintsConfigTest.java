@@ -0,0 +1,37 @@
+package com.app.config;
+
+import com.app.dto.UserDTOs;
+import com.app.model.Story;
+import com.app.model.UserProfile;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.net.SocketTimeoutException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeImageHintsConfigTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Test
+    void registersModelAndDtoTypesForReflection() {
+        new NativeImageHintsConfig.GatewayRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Story.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(UserProfile.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(UserDTOs.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(SocketTimeoutException.class).test(hints));
+    }
+
+    @Test
+    void modelScanIncludesNestedClasses() {
+        List<String> types = NativeImageHintsConfig.modelTypes(getClass().getClassLoader());
+
+        assertTrue(types.contains(Story.class.getName()));
+        assertTrue(types.stream().anyMatch(type -> type.startsWith("com.app.dto.UserDTOs$")), types.toString());
+        assertTrue(types.stream().noneMatch(type -> type.startsWith("com.app.service.")));
+    }
+}
@@ -0,0 +1,102 @@
+package com.app.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import com.app.filter.RequestIdFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestSamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger appLogger = context.getLogger("com.app.controller.StoryController");
+    private RequestSamplingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RequestSamplingTurboFilter();
+        filter.setRate(0.01);
+        filter.setPaths("/api/stories/delta, /api/stories/version");
+        filter.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    private FilterReply decide(Logger logger, Level level) {
+        return filter.decide(null, logger, level, "msg", null, null);
+    }
+
+    @Test
+    void samplesRoughlyConfiguredRateOfRequests() {
+        MDC.put(RequestIdFilter.MDC_REQUEST_PATH, "/api/stories/delta");
+        int kept = 0;
+        int requests = 20_000;
+        for (int i = 0; i < requests; i++) {
+            MDC.put(RequestIdFilter.ATTR_REQUEST_ID, UUID.randomUUID().toString());
+            if (decide(appLogger, Level.INFO) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+        assertTrue(kept > 100 && kept < 320, "kept " + kept + " of " + requests);
+    }
+
+    @Test
+    void decisionIsStablePerRequest() {
+        MDC.put(RequestIdFilter.MDC_REQUEST_PATH, "/api/stories/delta");
+        for (int i = 0; i < 200; i++) {
+            MDC.put(RequestIdFilter.ATTR_REQUEST_ID, UUID.randomUUID().toString());
+            FilterReply first = decide(appLogger, Level.INFO);
+            assertEquals(first, decide(appLogger, Level.DEBUG));
+            assertEquals(first, decide(appLogger, Level.INFO));
+        }
+    }
+
+    @Test
+    void warningsAndErrorsAreNeverSampled() {
+        filter.setRate(0.0);
+        MDC.put(RequestIdFilter.MDC_REQUEST_PATH, "/api/stories/delta");
+        MDC.put(RequestIdFilter.ATTR_REQUEST_ID, UUID.randomUUID().toString());
+
+        assertEquals(FilterReply.DENY, decide(appLogger, Level.INFO));
+        assertEquals(FilterReply.NEUTRAL, decide(appLogger, Level.WARN));
+        assertEquals(FilterReply.NEUTRAL, decide(appLogger, Level.ERROR));
+        assertEquals(FilterReply.NEUTRAL,
+                filter.decide(null, appLogger, Level.INFO, "msg", null, new RuntimeException("boom")));
+    }
+
+    @Test
+    void otherPathsLoggersAndNonRequestThreadsAreUntouched() {
+        filter.setRate(0.0);
+        MDC.put(RequestIdFilter.ATTR_REQUEST_ID, UUID.randomUUID().toString());
+
+        MDC.put(RequestIdFilter.MDC_REQUEST_PATH, "/api/profile");
+        assertEquals(FilterReply.NEUTRAL, decide(appLogger, Level.INFO));
+
+        MDC.put(RequestIdFilter.MDC_REQUEST_PATH, "/api/stories/delta");
+        assertEquals(FilterReply.NEUTRAL, decide(context.getLogger("org.springframework.web"), Level.INFO));
+
+        MDC.remove(RequestIdFilter.ATTR_REQUEST_ID);
+        assertEquals(FilterReply.NEUTRAL, decide(appLogger, Level.INFO));
+    }
+
+    @Test
+    void fullRateKeepsEverything() {
+        filter.setRate(1.0);
+        MDC.put(RequestIdFilter.MDC_REQUEST_PATH, "/api/stories/delta");
+        for (int i = 0; i < 100; i++) {
+            MDC.put(RequestIdFilter.ATTR_REQUEST_ID, UUID.randomUUID().toString());
+            assertEquals(FilterReply.NEUTRAL, decide(appLogger, Level.INFO));
+        }
+    }
+}
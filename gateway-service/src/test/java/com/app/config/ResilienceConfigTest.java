@@ -1,5 +1,7 @@
 package com.app.config;
 
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -21,6 +23,9 @@ class ResilienceConfigTest {
     @Autowired
     CircuitBreakerRegistry circuitBreakerRegistry;
 
+    @Autowired
+    BulkheadRegistry bulkheadRegistry;
+
     @Autowired
     MeterRegistry meterRegistry;
 
@@ -31,5 +36,13 @@ class ResilienceConfigTest {
                 .stream().map(CircuitBreaker::getName).collect(Collectors.toSet());
         assertTrue(names.contains("default"), "default circuit breaker not registered");
     }
-}
 
+    @Test
+    void endpointBulkheadsAreRegisteredFromConfig() {
+        Set<String> names = bulkheadRegistry.getAllBulkheads()
+                .stream().map(Bulkhead::getName).collect(Collectors.toSet());
+        assertTrue(names.containsAll(ResilienceConfig.ENDPOINT_BULKHEADS), "missing bulkheads: " + names);
+        assertEquals(100, bulkheadRegistry.bulkhead(ResilienceConfig.BULKHEAD_AUTH)
+                .getBulkheadConfig().getMaxConcurrentCalls());
+    }
+}
@@ -7,6 +7,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,7 +27,7 @@ class StartupMetricsConfigTest {
     @Test
     void testOnApplicationEvent_RecordsStartupTime() {
         // Given - create config and immediately trigger event
-        StartupMetricsConfig startupMetricsConfig = new StartupMetricsConfig(mockMetricsService);
+        StartupMetricsConfig startupMetricsConfig = new StartupMetricsConfig(mockMetricsService, 20);
 
         // When
         startupMetricsConfig.onApplicationEvent(mockEvent);
@@ -40,7 +44,7 @@ class StartupMetricsConfigTest {
     @Test
     void testOnApplicationEvent_RecordsPositiveStartupTime() throws InterruptedException {
         // Given - create config with a small delay before event
-        StartupMetricsConfig startupMetricsConfig = new StartupMetricsConfig(mockMetricsService);
+        StartupMetricsConfig startupMetricsConfig = new StartupMetricsConfig(mockMetricsService, 20);
 
         // Simulate some startup time
         Thread.sleep(50);
@@ -59,7 +63,7 @@ class StartupMetricsConfigTest {
     @Test
     void testOnApplicationEvent_CalledOnce() {
         // Given
-        StartupMetricsConfig startupMetricsConfig = new StartupMetricsConfig(mockMetricsService);
+        StartupMetricsConfig startupMetricsConfig = new StartupMetricsConfig(mockMetricsService, 20);
 
         // When
         startupMetricsConfig.onApplicationEvent(mockEvent);
@@ -71,7 +75,7 @@ class StartupMetricsConfigTest {
     @Test
     void testOnApplicationEvent_MultipleEvents() {
         // Given
-        StartupMetricsConfig startupMetricsConfig = new StartupMetricsConfig(mockMetricsService);
+        StartupMetricsConfig startupMetricsConfig = new StartupMetricsConfig(mockMetricsService, 20);
 
         // When - multiple events (edge case)
         startupMetricsConfig.onApplicationEvent(mockEvent);
@@ -80,5 +84,42 @@ class StartupMetricsConfigTest {
         // Then - each event triggers a metric recording
         verify(mockMetricsService, times(2)).recordStartupTime(anyLong());
     }
-}
 
+    @Test
+    void testSlowestBeans_OrdersBeanInstantiationsAndIgnoresOtherSteps() throws InterruptedException {
+        // Given
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(16);
+        startup.start("spring.beans.instantiate").tag("beanName", "fastBean").end();
+        var slow = startup.start("spring.beans.instantiate").tag("beanName", "firestore");
+        Thread.sleep(20);
+        slow.end();
+        startup.start("spring.context.refresh").end();
+
+        // When
+        List<StartupMetricsConfig.BeanTiming> slowest =
+                StartupMetricsConfig.slowestBeans(startup.getBufferedTimeline(), 5);
+
+        // Then
+        assertEquals(2, slowest.size());
+        assertEquals("firestore", slowest.get(0).beanName());
+        assertTrue(slowest.get(0).durationMs() >= 20);
+    }
+
+    @Test
+    void testOnApplicationEvent_RecordsSlowestBeansFromBufferedStartup() {
+        // Given
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(16);
+        startup.start("spring.beans.instantiate").tag("beanName", "firstBean").end();
+        startup.start("spring.beans.instantiate").tag("beanName", "secondBean").end();
+        ConfigurableApplicationContext context = mock(ConfigurableApplicationContext.class);
+        when(context.getApplicationStartup()).thenReturn(startup);
+        when(mockEvent.getApplicationContext()).thenReturn(context);
+        StartupMetricsConfig startupMetricsConfig = new StartupMetricsConfig(mockMetricsService, 1);
+
+        // When
+        startupMetricsConfig.onApplicationEvent(mockEvent);
+
+        // Then - only the configured number of beans is exported
+        verify(mockMetricsService, times(1)).recordBeanStartupTime(anyString(), anyLong());
+    }
+}
@@ -0,0 +1,58 @@
+package com.app.config;
+
+import com.app.service.ExpiredSessionSweeper;
+import com.app.service.StartupWarmup;
+import com.app.service.StoryService;
+import com.google.cloud.firestore.Firestore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.LazyInitializationBeanFactoryPostProcessor;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupOptimizationConfigTest {
+
+    @Test
+    void scheduledListenerAndPostConstructBeansStayEager() {
+        assertTrue(StartupOptimizationConfig.hasContainerDrivenWork(ExpiredSessionSweeper.class));
+        assertTrue(StartupOptimizationConfig.hasContainerDrivenWork(StartupWarmup.class));
+        assertTrue(StartupOptimizationConfig.hasContainerDrivenWork(StartupMetricsConfig.class));
+        assertTrue(StartupOptimizationConfig.hasContainerDrivenWork(ResilienceConfig.class));
+        assertTrue(StartupOptimizationConfig.hasContainerDrivenWork(VirtualThreadPinningMonitor.class));
+    }
+
+    @Test
+    void pinningMonitorIsStartedWithLazyInitialization() {
+        new ApplicationContextRunner()
+                .withInitializer(context -> context.addBeanFactoryPostProcessor(
+                        new LazyInitializationBeanFactoryPostProcessor()))
+                .withPropertyValues("spring.threads.virtual.enabled=true")
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withBean(PlainBean.class)
+                .withUserConfiguration(StartupOptimizationConfig.class, VirtualThreadPinningMonitor.class)
+                .run(context -> {
+                    assertFalse(isInstantiated(context.getBeanFactory(), PlainBean.class), "lazy init is not on");
+                    assertTrue(isInstantiated(context.getBeanFactory(), VirtualThreadPinningMonitor.class));
+                    assertTrue(context.getBean(VirtualThreadPinningMonitor.class).isRunning());
+                });
+    }
+
+    @Test
+    void plainAndThirdPartyBeansMayBeLazy() {
+        assertFalse(StartupOptimizationConfig.hasContainerDrivenWork(StoryService.class));
+        assertFalse(StartupOptimizationConfig.hasContainerDrivenWork(GcsConfig.class));
+        assertFalse(StartupOptimizationConfig.hasContainerDrivenWork(Firestore.class));
+        assertFalse(StartupOptimizationConfig.hasContainerDrivenWork(null));
+    }
+
+    private static boolean isInstantiated(ConfigurableListableBeanFactory beanFactory, Class<?> type) {
+        String[] names = beanFactory.getBeanNamesForType(type, false, false);
+        return names.length == 1 && beanFactory.containsSingleton(names[0]);
+    }
+
+    static class PlainBean {
+    }
+}
@@ -1,7 +1,7 @@
 package com.app.controller;
 
 import com.app.security.JwtAuthenticationFilter;
-import com.app.service.ContentAnalyticsService;
+import com.app.service.AnalyticsIngestionQueue;
 import com.app.service.GatewayServiceApplication;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,11 +39,11 @@ class AnalyticsControllerTest {
     private ObjectMapper objectMapper;
 
     @MockBean
-    private ContentAnalyticsService contentAnalyticsService;
+    private AnalyticsIngestionQueue ingestionQueue;
 
     @BeforeEach
     void setUp() {
-        reset(contentAnalyticsService);
+        reset(ingestionQueue);
         setAuthenticatedUser("test-user-123");
     }
 
@@ -60,7 +60,7 @@ class AnalyticsControllerTest {
     @Test
     @DisplayName("POST /api/analytics/events -accepts valid batch")
     void testIngestValidBatch() throws Exception {
-        when(contentAnalyticsService.processBatch(any())).thenReturn(3);
+        when(ingestionQueue.offer(any())).thenReturn(true);
 
         Map<String, Object> batch = Map.of(
             "sessionId", "uuid-123",
@@ -77,12 +77,30 @@ class AnalyticsControllerTest {
         mockMvc.perform(post("/api/analytics/events")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(batch)))
-            .andExpect(status().isOk())
+            .andExpect(status().isAccepted())
             .andExpect(jsonPath("$.status").value("accepted"))
-            .andExpect(jsonPath("$.processed").value(3))
             .andExpect(jsonPath("$.total").value(3));
 
-        verify(contentAnalyticsService, times(1)).processBatch(any());
+        verify(ingestionQueue, times(1)).offer(any());
+    }
+
+    @Test
+    @DisplayName("POST /api/analytics/events -sheds batch with 429 when the queue is full")
+    void testShedsBatchWhenQueueFull() throws Exception {
+        when(ingestionQueue.offer(any())).thenReturn(false);
+
+        Map<String, Object> batch = Map.of(
+            "sessionId", "uuid-123",
+            "platform", "ios",
+            "events", List.of(Map.of("event", "session_started"))
+        );
+
+        mockMvc.perform(post("/api/analytics/events")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "1"))
+            .andExpect(jsonPath("$.status").value("dropped"));
     }
 
     @Test
@@ -3,6 +3,7 @@ package com.app.controller;
 import com.app.config.JwtConfig;
 import com.app.service.SecurityMonitoringService;
 import com.app.service.ApplicationMetricsService;
+import com.app.service.ClientFingerprintResolver;
 import com.app.service.UserService;
 import com.app.service.SessionService;
 import com.app.model.User;
@@ -10,11 +11,13 @@ import com.app.model.UserSession;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -53,6 +56,9 @@ class AuthControllerCleanTest {
     @Mock
     private DecodedJWT mockDecodedJWT;
 
+    @Spy
+    private ClientFingerprintResolver clientFingerprintResolver = new ClientFingerprintResolver(new SimpleMeterRegistry(), 1024);
+
     @InjectMocks
     private AuthController authController;
 
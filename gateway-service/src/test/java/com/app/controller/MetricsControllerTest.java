@@ -1,6 +1,7 @@
 package com.app.controller;
 
 import com.app.service.ApplicationMetricsService;
+import com.app.service.RouteLatencyRecorder;
 import com.app.service.SecurityMonitoringService;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
@@ -27,6 +28,9 @@ class MetricsControllerTest {
     @Mock
     private SecurityMonitoringService mockSecurityMonitoringService;
 
+    @Mock
+    private RouteLatencyRecorder mockRouteLatencyRecorder;
+
     private MeterRegistry meterRegistry;
     private MetricsController metricsController;
 
@@ -35,7 +39,8 @@ class MetricsControllerTest {
         meterRegistry = new SimpleMeterRegistry();
         metricsController = new MetricsController(mockApplicationMetricsService,
                                                 mockSecurityMonitoringService,
-                                                meterRegistry);
+                                                meterRegistry,
+                                                mockRouteLatencyRecorder);
     }
 
     @Test
@@ -272,6 +277,31 @@ class MetricsControllerTest {
         assertNotNull(systemMetrics.get("os_arch"));
     }
 
+    @Test
+    void testGetLatencyMetrics() {
+        // Given
+        when(mockRouteLatencyRecorder.snapshot()).thenReturn(Map.of("/api/stories/{storyId}",
+                new RouteLatencyRecorder.RouteLatencySnapshot(100, 12_000, 30_000, 90_000, 150_000, 151_000)));
+        when(mockRouteLatencyRecorder.getWindowSeconds()).thenReturn(60L);
+
+        // When
+        ResponseEntity<Map<String, Object>> response = metricsController.getLatencyMetrics();
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Map<String, Object> body = response.getBody();
+        assertNotNull(body);
+        assertEquals(60L, body.get("window_seconds"));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> routes = (Map<String, Object>) body.get("routes");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> route = (Map<String, Object>) routes.get("/api/stories/{storyId}");
+        assertEquals(100L, route.get("count"));
+        assertEquals(90.0, route.get("p99_ms"));
+        assertEquals(151.0, route.get("max_ms"));
+    }
+
     @Test
     void testMetricsEndpointsReturnValidTimestamps() {
         // Given
@@ -102,6 +102,30 @@ class ProfileControllerTest {
         verify(userProfileRepository).findByUserId(testUserId);
     }
 
+    @Test
+    @DisplayName("GET /api/profile - Should return 304 when If-None-Match matches the profile version")
+    void testGetProfile_NotModified() throws Exception {
+        setAuthenticatedUser(testUserId);
+        testProfile.setVersion(3);
+        String etag = "\"3-" + testProfile.getUpdatedAt().toEpochMilli() + "\"";
+
+        when(userProfileRepository.findByUserId(testUserId))
+            .thenReturn(CompletableFuture.completedFuture(Optional.of(testProfile)));
+
+        mockMvc.perform(get("/api/profile").header("If-None-Match", etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", etag))
+            .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/profile").header("If-None-Match", "\"2-0\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", etag))
+            .andExpect(jsonPath("$.version").value(3));
+
+        verify(metricsService).recordConditionalGet("/api/profile", "not_modified");
+        verify(metricsService).recordConditionalGet("/api/profile", "modified");
+    }
+
     @Test
     @DisplayName("GET /api/profile - Should return 404 when profile not found")
     void testGetProfile_NotFound() throws Exception {
@@ -218,6 +242,9 @@ class ProfileControllerTest {
             .andExpect(jsonPath("$.message").exists());
 
         verify(userProfileRepository, never()).save(any(UserProfile.class));
+        // The error path reuses the first lookup rather than re-reading the profile for its metric
+        verify(userProfileRepository, times(1)).findByUserId(testUserId);
+        verify(metricsService).recordProfileCreated(eq(testUserId), eq(false), anyLong());
     }
 
     @Test
@@ -1,6 +1,7 @@
 package com.app.controller;
 
 import com.app.dto.CatalogEntry;
+import com.app.exception.DownstreamServiceException;
 import com.app.model.AssetVersion;
 import com.app.model.ContentVersion;
 import com.app.model.InteractiveElement;
@@ -10,6 +11,7 @@ import com.app.model.StoryPage;
 import com.app.service.ApplicationMetricsService;
 import com.app.service.AssetService;
 import com.app.service.GatewayServiceApplication;
+import com.app.service.ResponseValidatorCache;
 import com.app.service.StoryService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -53,6 +55,9 @@ class StoryControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ResponseValidatorCache validatorCache;
+
     private Story testStory1;
     private Story testStory2;
     private ContentVersion testContentVersion;
@@ -60,6 +65,8 @@ class StoryControllerTest {
 
     @BeforeEach
     void setUp() {
+        validatorCache.invalidateAll();
+
         // Create test story 1 with interactive elements
         testStory1 = new Story();
         testStory1.setId("story-1");
@@ -346,6 +353,20 @@ class StoryControllerTest {
         verify(storyService, times(1)).getStoryById("story-1");
     }
 
+    @Test
+    void getStoryById_DeadlineExceededReturns504() throws Exception {
+        // Arrange
+        when(storyService.getStoryById("story-1"))
+                .thenReturn(CompletableFuture.failedFuture(
+                        DownstreamServiceException.timeout("firestore", "request-deadline", 250)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/stories/story-1"))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.errorCode").value("GTW-204"))
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
     @Test
     void getStoriesByCategory_Success() throws Exception {
         // Arrange
@@ -735,4 +756,73 @@ class StoryControllerTest {
                 .andExpect(status().isInternalServerError())
                 .andExpect(jsonPath("$.errorCode").value("GTW-201"));
     }
+
+    @Test
+    void getStoryById_ReturnsChecksumEtagAndLastModified() throws Exception {
+        testStory1.setUpdatedAt(Instant.parse("2026-01-18T12:30:00Z"));
+        when(storyService.getStoryById("story-1"))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(testStory1)));
+
+        mockMvc.perform(get("/api/stories/story-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"checksum1\""))
+                .andExpect(header().string("Last-Modified", "Sun, 18 Jan 2026 12:30:00 GMT"));
+    }
+
+    @Test
+    void getStoryById_MatchingIfNoneMatch_Returns304FromCachedValidatorWithoutRead() throws Exception {
+        when(storyService.getStoryById("story-1"))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(testStory1)));
+
+        mockMvc.perform(get("/api/stories/story-1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/stories/story-1").header("If-None-Match", "\"checksum1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"checksum1\""))
+                .andExpect(content().string(""));
+
+        verify(storyService, times(1)).getStoryById("story-1");
+        verify(metricsService).recordConditionalGet("/api/stories/{storyId}", "not_modified_cached");
+    }
+
+    @Test
+    void getStoryById_StaleIfNoneMatch_ReturnsFullBody() throws Exception {
+        when(storyService.getStoryById("story-1"))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(testStory1)));
+
+        mockMvc.perform(get("/api/stories/story-1").header("If-None-Match", "\"checksum0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"checksum1\""))
+                .andExpect(jsonPath("$.id").value("story-1"));
+
+        verify(metricsService).recordConditionalGet("/api/stories/{storyId}", "modified");
+    }
+
+    @Test
+    void getCurrentContentVersion_MatchingIfNoneMatch_Returns304AndSkipsReadOnceCached() throws Exception {
+        when(storyService.getCurrentContentVersion())
+                .thenReturn(CompletableFuture.completedFuture(testContentVersion));
+
+        mockMvc.perform(get("/api/stories/version").header("If-None-Match", "\"c1-a1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"c1-a1\""));
+        mockMvc.perform(get("/api/stories/version").header("If-None-Match", "\"c1-a1\""))
+                .andExpect(status().isNotModified());
+
+        verify(storyService, times(1)).getCurrentContentVersion();
+        verify(metricsService).recordConditionalGet("/api/stories/version", "not_modified");
+        verify(metricsService).recordConditionalGet("/api/stories/version", "not_modified_cached");
+    }
+
+    @Test
+    void getCurrentContentVersion_NewAssetVersion_ChangesEtag() throws Exception {
+        testAssetVersion.setVersion(2);
+        when(storyService.getCurrentContentVersion())
+                .thenReturn(CompletableFuture.completedFuture(testContentVersion));
+
+        mockMvc.perform(get("/api/stories/version").header("If-None-Match", "\"c1-a1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"c1-a2\""))
+                .andExpect(jsonPath("$.assetVersion").value(2));
+    }
 }
@@ -0,0 +1,107 @@
+package com.app.deadline;
+
+import com.app.config.ContextPropagatingExecutor;
+import com.app.exception.DownstreamServiceException;
+import com.app.exception.ErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestDeadlineTest {
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.set(null);
+    }
+
+    private double exceeded(String downstream) {
+        var counter = registry.find("app.deadline.exceeded").tag("downstream", downstream).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    @Test
+    void awaitWithoutDeadlineWaitsForResult() throws Exception {
+        CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> {
+            sleep(50);
+            return "done";
+        });
+
+        assertEquals("done", RequestDeadline.await(future, "firestore"));
+    }
+
+    @Test
+    void awaitCancelsCallWhenBudgetRunsOut() {
+        RequestDeadline.set(new RequestDeadline(50, TimeUnit.MILLISECONDS, registry));
+        CompletableFuture<String> never = new CompletableFuture<>();
+        long start = System.nanoTime();
+
+        DownstreamServiceException e = assertThrows(DownstreamServiceException.class,
+                () -> RequestDeadline.await(never, "firestore"));
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMs < 1000, "waited " + elapsedMs + "ms");
+        assertEquals(ErrorCode.DOWNSTREAM_TIMEOUT, e.getErrorCode());
+        assertTrue(never.isCancelled());
+        assertEquals(1.0, exceeded("firestore"));
+    }
+
+    @Test
+    void awaitReturnsCompletedResultEvenAfterExpiry() throws Exception {
+        RequestDeadline deadline = new RequestDeadline(1000, TimeUnit.MILLISECONDS, registry);
+        deadline.markExpired();
+        RequestDeadline.set(deadline);
+
+        assertEquals("cached", RequestDeadline.await(CompletableFuture.completedFuture("cached"), "firestore"));
+        assertEquals(0.0, exceeded("firestore"));
+    }
+
+    @Test
+    void checkBudgetFailsOnlyOnceExpired() {
+        RequestDeadline deadline = new RequestDeadline(1000, TimeUnit.MILLISECONDS, registry);
+        RequestDeadline.set(deadline);
+        assertDoesNotThrow(() -> RequestDeadline.checkBudget("gcs"));
+
+        deadline.markExpired();
+
+        assertThrows(DownstreamServiceException.class, () -> RequestDeadline.checkBudget("gcs"));
+        assertEquals(1.0, exceeded("gcs"));
+    }
+
+    @Test
+    void followsRequestOntoBlockingIoThreads() throws Exception {
+        RequestDeadline deadline = new RequestDeadline(1000, TimeUnit.MILLISECONDS, registry);
+        RequestDeadline.set(deadline);
+
+        try (ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            ContextPropagatingExecutor executor = new ContextPropagatingExecutor(virtualThreads);
+
+            RequestDeadline seen = CompletableFuture.supplyAsync(
+                    () -> RequestDeadline.current().orElse(null), executor).get();
+
+            assertSame(deadline, seen);
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
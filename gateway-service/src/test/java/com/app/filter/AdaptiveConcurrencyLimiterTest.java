@@ -0,0 +1,92 @@
+package com.app.filter;
+
+import com.app.filter.AdaptiveConcurrencyLimiter.Permit;
+import com.app.filter.AdaptiveConcurrencyLimiter.Priority;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static List<Permit> fill(AdaptiveConcurrencyLimiter limiter, Priority priority) {
+        List<Permit> permits = new ArrayList<>();
+        while (true) {
+            var permit = limiter.tryAcquire(priority);
+            if (permit.isEmpty()) {
+                return permits;
+            }
+            permits.add(permit.get());
+        }
+    }
+
+    @Test
+    void lowPriorityLeavesHeadroomForCriticalTraffic() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("firestore", 10, 1, 100);
+
+        List<Permit> low = fill(limiter, Priority.LOW);
+        List<Permit> critical = fill(limiter, Priority.CRITICAL);
+
+        assertEquals(6, low.size());
+        assertEquals(4, critical.size());
+        assertEquals(10, limiter.getInflight());
+        assertTrue(limiter.tryAcquire(Priority.NORMAL).isEmpty());
+    }
+
+    @Test
+    void completingAPermitTwiceReleasesOnce() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("firestore", 10, 1, 100);
+        Permit permit = limiter.tryAcquire(Priority.NORMAL).orElseThrow();
+        limiter.tryAcquire(Priority.NORMAL).orElseThrow();
+
+        permit.onIgnore();
+        permit.onSuccess();
+
+        assertEquals(1, limiter.getInflight());
+    }
+
+    @Test
+    void dropsBackOffToMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("firestore", 40, 8, 100);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire(Priority.CRITICAL).orElseThrow().onDropped();
+        }
+
+        assertEquals(8, limiter.getLimit());
+        assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    void steadyLatencyUnderFullLoadRaisesLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("firestore", 10, 1, 100);
+
+        for (int round = 0; round < 20; round++) {
+            List<Permit> permits = fill(limiter, Priority.CRITICAL);
+            Thread.sleep(2);
+            permits.forEach(Permit::onSuccess);
+        }
+
+        assertTrue(limiter.getLimit() > 10, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void risingLatencyLowersLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("firestore", 20, 1, 100);
+        // Establish a fast baseline, then slow down tenfold while saturated
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(Priority.CRITICAL).orElseThrow().onSuccess();
+        }
+        int before = limiter.getLimit();
+
+        for (int round = 0; round < 5; round++) {
+            List<Permit> permits = fill(limiter, Priority.CRITICAL);
+            Thread.sleep(20);
+            permits.forEach(Permit::onSuccess);
+        }
+
+        assertTrue(limiter.getLimit() < before, "limit " + limiter.getLimit() + " vs " + before);
+    }
+}
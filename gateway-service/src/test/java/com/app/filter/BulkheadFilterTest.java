@@ -0,0 +1,92 @@
+package com.app.filter;
+
+import com.app.config.ResilienceConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadFilterTest {
+
+    private BulkheadRegistry registry;
+    private BulkheadFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(2)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        filter = new BulkheadFilter(registry, new ObjectMapper(), true, 3);
+    }
+
+    @Test
+    void mapsPathsToEndpointClasses() {
+        assertEquals(ResilienceConfig.BULKHEAD_AUTH, BulkheadFilter.endpointClass("/auth/refresh"));
+        assertEquals(ResilienceConfig.BULKHEAD_SYNC, BulkheadFilter.endpointClass("/api/stories/delta"));
+        assertEquals(ResilienceConfig.BULKHEAD_SYNC, BulkheadFilter.endpointClass("/api/stories/version"));
+        assertEquals(ResilienceConfig.BULKHEAD_CATALOG, BulkheadFilter.endpointClass("/api/stories"));
+        assertEquals(ResilienceConfig.BULKHEAD_CATALOG, BulkheadFilter.endpointClass("/api/stories/story-1/download"));
+        assertEquals(ResilienceConfig.BULKHEAD_ASSETS, BulkheadFilter.endpointClass("/api/assets/batch-urls"));
+        assertEquals(ResilienceConfig.BULKHEAD_ANALYTICS, BulkheadFilter.endpointClass("/api/analytics/events"));
+        assertEquals(ResilienceConfig.BULKHEAD_PROFILE, BulkheadFilter.endpointClass("/api/profile"));
+        assertNull(BulkheadFilter.endpointClass("/auth/status"));
+        assertNull(BulkheadFilter.endpointClass("/private/healthcheck"));
+    }
+
+    @Test
+    void fullBulkheadRejectsOnlyItsOwnClass() throws ServletException, IOException {
+        Bulkhead analytics = registry.bulkhead(ResilienceConfig.BULKHEAD_ANALYTICS);
+        analytics.tryAcquirePermission();
+        analytics.tryAcquirePermission();
+        AtomicInteger chainCalls = new AtomicInteger();
+
+        MockHttpServletResponse flooded = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/analytics/events"), flooded,
+                (req, res) -> chainCalls.incrementAndGet());
+        MockHttpServletResponse refresh = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/auth/refresh"), refresh,
+                (req, res) -> chainCalls.incrementAndGet());
+
+        assertEquals(503, flooded.getStatus());
+        assertEquals("3", flooded.getHeader("Retry-After"));
+        assertTrue(flooded.getContentAsString().contains("GTW-509"), flooded.getContentAsString());
+        assertEquals(200, refresh.getStatus());
+        assertEquals(1, chainCalls.get());
+    }
+
+    @Test
+    void releasesPermitWhenChainFails() {
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(
+                new MockHttpServletRequest("GET", "/api/stories/delta"), new MockHttpServletResponse(),
+                (req, res) -> {
+                    throw new IllegalStateException("boom");
+                }));
+
+        assertEquals(2, registry.bulkhead(ResilienceConfig.BULKHEAD_SYNC).getMetrics().getAvailableConcurrentCalls());
+    }
+
+    @Test
+    void disabledFilterPassesEverythingThrough() throws ServletException, IOException {
+        BulkheadFilter disabled = new BulkheadFilter(registry, new ObjectMapper(), false, 1);
+        Bulkhead auth = registry.bulkhead(ResilienceConfig.BULKHEAD_AUTH);
+        auth.tryAcquirePermission();
+        auth.tryAcquirePermission();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        disabled.doFilter(new MockHttpServletRequest("POST", "/auth/refresh"), response, (req, res) -> { });
+
+        assertEquals(200, response.getStatus());
+    }
+}
@@ -0,0 +1,93 @@
+package com.app.filter;
+
+import com.app.filter.AdaptiveConcurrencyLimiter.Priority;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private SimpleMeterRegistry registry;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        filter = new ConcurrencyLimitFilter(new ObjectMapper(), registry, true, 10, 1, 100, 2);
+    }
+
+    @Test
+    void routesByPriority() {
+        assertEquals(new ConcurrencyLimitFilter.Route("firestore", Priority.CRITICAL),
+                ConcurrencyLimitFilter.route("/auth/refresh"));
+        assertEquals(new ConcurrencyLimitFilter.Route("firestore", Priority.CRITICAL),
+                ConcurrencyLimitFilter.route("/api/stories/delta"));
+        assertEquals(new ConcurrencyLimitFilter.Route("firestore", Priority.LOW),
+                ConcurrencyLimitFilter.route("/api/stories/abc"));
+        assertEquals(new ConcurrencyLimitFilter.Route("gcs", Priority.NORMAL),
+                ConcurrencyLimitFilter.route("/api/assets/batch-urls"));
+        assertNull(ConcurrencyLimitFilter.route("/auth/status"));
+        assertNull(ConcurrencyLimitFilter.route("/private/healthcheck"));
+        assertNull(ConcurrencyLimitFilter.route("/api/analytics/events"));
+    }
+
+    @Test
+    void shedsLowPriorityWith503WhenItsShareIsUsed() throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter limiter = filter.limiter("firestore");
+        for (int i = 0; i < 6; i++) {
+            limiter.tryAcquire(Priority.LOW).orElseThrow();
+        }
+        AtomicInteger chainCalls = new AtomicInteger();
+
+        MockHttpServletResponse browse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/stories"), browse,
+                (req, res) -> chainCalls.incrementAndGet());
+        MockHttpServletResponse refresh = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/auth/refresh"), refresh,
+                (req, res) -> chainCalls.incrementAndGet());
+
+        assertEquals(503, browse.getStatus());
+        assertEquals("2", browse.getHeader("Retry-After"));
+        assertTrue(browse.getContentAsString().contains("GTW-509"), browse.getContentAsString());
+        assertEquals(200, refresh.getStatus());
+        assertEquals(1, chainCalls.get());
+        assertEquals(1.0, registry.get("app.concurrency.shed")
+                .tags("downstream", "firestore", "priority", "LOW").counter().count());
+    }
+
+    @Test
+    void releasesPermitWhenChainFails() {
+        AdaptiveConcurrencyLimiter limiter = filter.limiter("firestore");
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(
+                new MockHttpServletRequest("GET", "/api/profile"), new MockHttpServletResponse(),
+                (req, res) -> {
+                    throw new IllegalStateException("boom");
+                }));
+
+        assertEquals(0, limiter.getInflight());
+        assertEquals(0.0, registry.get("app.concurrency.inflight").tag("downstream", "firestore").gauge().value());
+    }
+
+    @Test
+    void unlimitedPathsPassThrough() throws ServletException, IOException {
+        AtomicInteger chainCalls = new AtomicInteger();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/private/healthcheck"), new MockHttpServletResponse(),
+                (req, res) -> {
+                    chainCalls.incrementAndGet();
+                    assertEquals(0, filter.limiter("firestore").getInflight());
+                });
+
+        assertEquals(1, chainCalls.get());
+    }
+}
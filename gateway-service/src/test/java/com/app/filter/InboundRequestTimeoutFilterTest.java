@@ -0,0 +1,247 @@
+package com.app.filter;
+
+import com.app.deadline.RequestDeadline;
+import com.app.testing.TestSimulationFlags;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InboundRequestTimeoutFilterTest {
+
+    private TestSimulationFlags flags;
+    private InboundRequestTimeoutFilter filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        flags = new TestSimulationFlags();
+        ObjectProvider<TestSimulationFlags> flagsProvider = mock(ObjectProvider.class);
+        when(flagsProvider.getIfAvailable()).thenReturn(flags);
+        filter = new InboundRequestTimeoutFilter(new ObjectMapper(), flagsProvider, new SimpleMeterRegistry(), 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        filter.shutdown();
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/stories");
+    }
+
+    @Test
+    void passesThroughWhenNoTimeoutConfigured() throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<Boolean> deadlinePresent = new AtomicReference<>();
+
+        filter.doFilter(request(), response, (req, res) -> deadlinePresent.set(RequestDeadline.current().isPresent()));
+
+        assertFalse(deadlinePresent.get());
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void fastRequestRunsOnCallingThreadWithDeadline() throws ServletException, IOException {
+        flags.setInboundTimeoutMs(1000L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Thread caller = Thread.currentThread();
+        AtomicReference<Thread> chainThread = new AtomicReference<>();
+        AtomicReference<Long> remaining = new AtomicReference<>();
+
+        filter.doFilter(request(), response, (req, res) -> {
+            chainThread.set(Thread.currentThread());
+            remaining.set(RequestDeadline.current().orElseThrow().remainingMillis());
+            res.getWriter().write("ok");
+        });
+
+        assertSame(caller, chainThread.get());
+        assertTrue(remaining.get() > 0 && remaining.get() <= 1000);
+        assertEquals(200, response.getStatus());
+        assertEquals("ok", response.getContentAsString());
+        assertTrue(RequestDeadline.current().isEmpty(), "deadline is cleared after the request");
+    }
+
+    @Test
+    void slowRequestGets504AndLateOutputIsDiscarded() throws Exception {
+        flags.setInboundTimeoutMs(50L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<Boolean> expiredSeen = new AtomicReference<>();
+
+        FilterChain slowChain = (req, res) -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            expiredSeen.set(RequestDeadline.current().orElseThrow().isExpired());
+            res.setContentType("text/plain");
+            res.getOutputStream().write("late".getBytes(StandardCharsets.UTF_8));
+            res.flushBuffer();
+        };
+        filter.doFilter(request(), response, slowChain);
+
+        assertTrue(expiredSeen.get());
+        assertEquals(504, response.getStatus());
+        assertEquals("application/json", response.getContentType());
+        String body = response.getContentAsString();
+        assertTrue(body.contains("GTW-504"), body);
+        assertFalse(body.contains("late"), body);
+    }
+
+    @Test
+    void timeoutDuringAWriteIsSentByTheRequestThreadOnItsNextWrite() throws Exception {
+        flags.setInboundTimeoutMs(50L);
+        AtomicBoolean slowWrites = new AtomicBoolean(true);
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                ServletOutputStream delegate = super.getOutputStream();
+                return new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        if (slowWrites.get()) {
+                            sleep(150);
+                        }
+                        delegate.write(b);
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                    }
+                };
+            }
+        };
+
+        filter.doFilter(request(), response, (req, res) -> {
+            // The deadline passes while this write holds the response
+            res.getOutputStream().write('x');
+            slowWrites.set(false);
+            res.getOutputStream().write("late".getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertEquals(504, response.getStatus());
+        String body = response.getContentAsString();
+        assertTrue(body.contains("GTW-504"), body);
+        assertFalse(body.contains("late"), body);
+    }
+
+    @Test
+    void timeoutResponseIsWrittenOnTheRequestThreadNotTheTimer() throws Exception {
+        flags.setInboundTimeoutMs(50L);
+        Set<Thread> writers = ConcurrentHashMap.newKeySet();
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            @Override
+            public void reset() {
+                writers.add(Thread.currentThread());
+                super.reset();
+            }
+
+            @Override
+            public void setStatus(int status) {
+                writers.add(Thread.currentThread());
+                super.setStatus(status);
+            }
+        };
+
+        // Never touches the response: the 504 goes out when the request leaves the filter
+        filter.doFilter(request(), response, (req, res) -> sleep(200));
+
+        assertEquals(504, response.getStatus());
+        assertEquals(Set.of(Thread.currentThread()), writers);
+    }
+
+    @Test
+    void expiryAfterCompletionIsANoOp() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean written = new AtomicBoolean();
+        TimeoutGuardedResponse guarded = new TimeoutGuardedResponse(response, r -> written.set(true));
+
+        assertFalse(guarded.complete());
+        guarded.expire();
+
+        assertFalse(guarded.sendTimeoutIfExpired());
+        assertFalse(written.get());
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void failureAfterTimeoutIsNotRethrown() throws Exception {
+        flags.setInboundTimeoutMs(50L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request(), response, (req, res) -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("downstream gave up");
+        });
+
+        assertEquals(504, response.getStatus());
+    }
+
+    @Test
+    void failureBeforeTimeoutPropagates() {
+        flags.setInboundTimeoutMs(1000L);
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(request(), new MockHttpServletResponse(),
+                (req, res) -> {
+                    throw new IllegalStateException("boom");
+                }));
+    }
+
+    @Test
+    void clientHeaderCreatesDeadlineWithoutServerTimeout() throws ServletException, IOException {
+        MockHttpServletRequest request = request();
+        request.addHeader(RequestDeadline.HEADER, "400");
+        AtomicReference<Long> remaining = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> remaining.set(RequestDeadline.current().orElseThrow().remainingMillis()));
+
+        assertTrue(remaining.get() > 0 && remaining.get() <= 400, "remaining " + remaining.get());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void clientHeaderCanOnlyShortenServerTimeout() {
+        assertEquals(200L, filter.applyClientTimeout(1000L, "200"));
+        assertEquals(1000L, filter.applyClientTimeout(1000L, "5000"));
+        assertEquals(1000L, filter.applyClientTimeout(1000L, "not-a-number"));
+        assertEquals(1000L, filter.applyClientTimeout(1000L, "-1"));
+        assertEquals(1000L, filter.applyClientTimeout(1000L, null));
+        assertEquals(0L, filter.applyClientTimeout(0L, ""));
+    }
+}
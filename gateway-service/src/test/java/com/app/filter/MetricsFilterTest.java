@@ -1,6 +1,8 @@
 package com.app.filter;
 
 import com.app.service.ApplicationMetricsService;
+import com.app.service.EndpointTemplateResolver;
+import com.app.service.RouteLatencyRecorder;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,6 +26,9 @@ class MetricsFilterTest {
     @Mock
     private ApplicationMetricsService mockMetricsService;
 
+    @Mock
+    private RouteLatencyRecorder mockRouteLatencyRecorder;
+
     @Mock
     private HttpServletRequest mockRequest;
 
@@ -37,7 +42,7 @@ class MetricsFilterTest {
 
     @BeforeEach
     void setUp() {
-        metricsFilter = new MetricsFilter(mockMetricsService);
+        metricsFilter = new MetricsFilter(mockMetricsService, mockRouteLatencyRecorder, new EndpointTemplateResolver());
     }
 
     @Test
@@ -169,6 +174,44 @@ class MetricsFilterTest {
         assertTrue(recordedTime <= (endTime - startTime + 10), "Recorded time should be reasonable");
     }
 
+    @Test
+    void testDoFilter_RecordsLatencyByRouteTemplate() throws IOException, ServletException {
+        // Given
+        when(mockRequest.getRequestURI()).thenReturn("/api/stories/story-123");
+        when(mockRequest.getMethod()).thenReturn("GET");
+        when(mockRequest.getAttribute(org.springframework.web.servlet.HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE))
+                .thenReturn("/api/stories/{storyId}");
+        when(mockResponse.getStatus()).thenReturn(200);
+
+        // When
+        metricsFilter.doFilter(mockRequest, mockResponse, mockFilterChain);
+
+        // Then
+        verify(mockRouteLatencyRecorder).record(eq("/api/stories/{storyId}"), anyLong());
+    }
+
+    @Test
+    void testDoFilter_RecordsResponseSizeByRouteTemplate() throws IOException, ServletException {
+        // Given
+        when(mockRequest.getRequestURI()).thenReturn("/api/stories/story-123/download");
+        when(mockRequest.getMethod()).thenReturn("GET");
+        when(mockRequest.getAttribute(org.springframework.web.servlet.HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE))
+                .thenReturn("/api/stories/{storyId}/download");
+        when(mockResponse.getStatus()).thenReturn(200);
+        doAnswer(invocation -> {
+            HttpServletResponse wrapped = invocation.getArgument(1);
+            wrapped.getOutputStream().write(new byte[]{1, 2, 3});
+            return null;
+        }).when(mockFilterChain).doFilter(eq(mockRequest), any(HttpServletResponse.class));
+        when(mockResponse.getOutputStream()).thenReturn(mock(jakarta.servlet.ServletOutputStream.class));
+
+        // When
+        metricsFilter.doFilter(mockRequest, mockResponse, mockFilterChain);
+
+        // Then
+        verify(mockMetricsService).recordResponseSize("/api/stories/{storyId}/download", "GET", 3L);
+    }
+
     @Test
     void testDoFilter_HandlesIOException() throws IOException, ServletException {
         // Given
@@ -7,12 +7,14 @@ import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
 import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
 import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -66,5 +68,18 @@ class RequestIdFilterTest {
         assertDoesNotThrow(() -> UUID.fromString(header));
         assertNotEquals("not-a-uuid", header);
     }
-}
 
+    @Test
+    void exposesRequestPathInMdcForTheDurationOfTheRequest() throws ServletException, IOException {
+        RequestIdFilter filter = new RequestIdFilter();
+        MockHttpServletRequest req = new MockHttpServletRequest("POST", "/api/stories/delta");
+        MockHttpServletResponse resp = new MockHttpServletResponse();
+        AtomicReference<String> seenPath = new AtomicReference<>();
+
+        filter.doFilter(req, resp, (request, response) -> seenPath.set(MDC.get(RequestIdFilter.MDC_REQUEST_PATH)));
+
+        assertEquals("/api/stories/delta", seenPath.get());
+        assertNull(MDC.get(RequestIdFilter.MDC_REQUEST_PATH));
+        assertNull(MDC.get(RequestIdFilter.ATTR_REQUEST_ID));
+    }
+}
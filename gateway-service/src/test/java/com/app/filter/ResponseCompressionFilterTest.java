@@ -0,0 +1,240 @@
+package com.app.filter;
+
+import com.app.service.EndpointTemplateResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCompressionFilterTest {
+
+    private static final String STORY_JSON = "{\"id\":\"story-1\",\"pages\":[" +
+            "{\"text\":\"Once upon a time there was a very small fox.\"},".repeat(60) + "{}]}";
+
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseCompressionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = newFilter(true);
+    }
+
+    private ResponseCompressionFilter newFilter(boolean zstdEnabled) {
+        return new ResponseCompressionFilter(meterRegistry, new EndpointTemplateResolver(),
+                true, 1024, zstdEnabled, 6, 3, 1024 * 1024);
+    }
+
+    @Test
+    void mapsPathsToPolicies() {
+        assertEquals(ResponseCompressionFilter.Policy.CACHED, ResponseCompressionFilter.policy("/api/stories/story-1"));
+        assertEquals(ResponseCompressionFilter.Policy.CACHED, ResponseCompressionFilter.policy("/api/stories/delta"));
+        assertEquals(ResponseCompressionFilter.Policy.PER_RESPONSE, ResponseCompressionFilter.policy("/api/stories/version"));
+        assertEquals(ResponseCompressionFilter.Policy.PER_RESPONSE, ResponseCompressionFilter.policy("/api/profile"));
+        assertEquals(ResponseCompressionFilter.Policy.PER_RESPONSE, ResponseCompressionFilter.policy("/auth/refresh"));
+        assertNull(ResponseCompressionFilter.policy("/favicon.ico"));
+    }
+
+    @Test
+    void negotiatesByQValueThenServerPreference() {
+        ResponseCompressionFilter gzipOnly = newFilter(false);
+
+        assertNull(filter.negotiate(null));
+        assertNull(filter.negotiate("identity"));
+        assertNull(filter.negotiate("gzip;q=0"));
+        assertEquals(ContentEncoding.GZIP, filter.negotiate("gzip, deflate"));
+        assertEquals(ContentEncoding.GZIP, gzipOnly.negotiate("zstd, gzip"));
+        assertEquals(ContentEncoding.GZIP, gzipOnly.negotiate("*"));
+        if (ContentEncoding.ZSTD.isAvailable()) {
+            assertEquals(ContentEncoding.ZSTD, filter.negotiate("gzip, zstd"));
+            assertEquals(ContentEncoding.GZIP, filter.negotiate("zstd;q=0.5, gzip"));
+            assertEquals(ContentEncoding.ZSTD, filter.negotiate("*"));
+        }
+    }
+
+    @Test
+    void compressesLargeJsonWithGzip() throws ServletException, IOException {
+        MockHttpServletResponse response = run("/api/profile", "gzip", STORY_JSON, "application/json");
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertTrue(response.getHeaders("Vary").contains("Accept-Encoding"));
+        byte[] encoded = response.getContentAsByteArray();
+        assertTrue(encoded.length < STORY_JSON.length());
+        assertEquals(encoded.length, response.getContentLength());
+        assertEquals(STORY_JSON, gunzip(encoded));
+        assertEquals(1, meterRegistry.get("app.compression.ratio").tag("encoding", "gzip").summary().count());
+        assertEquals(1, meterRegistry.get("app.compression.cpu.time").tag("encoding", "gzip").timer().count());
+    }
+
+    @Test
+    void leavesSmallAndBinaryResponsesAlone() throws ServletException, IOException {
+        MockHttpServletResponse small = run("/api/profile", "gzip", "{\"ok\":true}", "application/json");
+        MockHttpServletResponse binary = run("/api/profile", "gzip", STORY_JSON, "image/png");
+
+        assertNull(small.getHeader("Content-Encoding"));
+        assertEquals("{\"ok\":true}", small.getContentAsString());
+        assertNull(binary.getHeader("Content-Encoding"));
+        assertEquals(STORY_JSON, binary.getContentAsString());
+    }
+
+    @Test
+    void passesThroughWhenClientAcceptsNoEncoding() throws ServletException, IOException {
+        MockHttpServletResponse response = run("/api/profile", null, STORY_JSON, "application/json");
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(STORY_JSON, response.getContentAsString());
+    }
+
+    @Test
+    void reusesCachedBodyForRepeatedStoryResponses() throws ServletException, IOException {
+        MockHttpServletResponse first = run("/api/stories/story-1", "gzip", STORY_JSON, "application/json");
+        MockHttpServletResponse second = run("/api/stories/story-1", "gzip", STORY_JSON, "application/json");
+
+        assertArrayEquals(first.getContentAsByteArray(), second.getContentAsByteArray());
+        assertEquals(1, filter.cache().size());
+        assertEquals(1.0, meterRegistry.get("app.compression.cache").tag("outcome", "miss").counter().count());
+        assertEquals(1.0, meterRegistry.get("app.compression.cache").tag("outcome", "hit").counter().count());
+        assertEquals(1, meterRegistry.get("app.compression.cpu.time").timer().count());
+    }
+
+    @Test
+    void perResponseRoutesAreNotCached() throws ServletException, IOException {
+        run("/api/stories/version", "gzip", STORY_JSON, "application/json");
+
+        assertEquals(0, filter.cache().size());
+    }
+
+    @Test
+    void tagsStrongEtagWithEncodingAndStripsItFromIfNoneMatch() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/stories/story-1");
+        request.addHeader("Accept-Encoding", "gzip");
+        request.addHeader("If-None-Match", "\"checksum1-gzip\", \"other\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String[] seenByController = new String[1];
+
+        filter.doFilter(request, response, (req, res) -> {
+            seenByController[0] = ((HttpServletRequest) req).getHeader("If-None-Match");
+            ((HttpServletResponse) res).setHeader("ETag", "\"checksum2\"");
+            res.setContentType("application/json");
+            res.getOutputStream().write(STORY_JSON.getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertEquals("\"checksum1\", \"other\"", seenByController[0]);
+        assertEquals("\"checksum2-gzip\"", response.getHeader("ETag"));
+    }
+
+    @Test
+    void gzipRevalidationRoundTripKeepsTheEncodedEtag() throws ServletException, IOException {
+        MockHttpServletResponse first = conditionalGet("gzip", null, STORY_JSON);
+        assertEquals(200, first.getStatus());
+        assertEquals("\"checksum1-gzip\"", first.getHeader("ETag"));
+
+        MockHttpServletResponse revalidated = conditionalGet("gzip", first.getHeader("ETag"), STORY_JSON);
+
+        assertEquals(304, revalidated.getStatus());
+        assertEquals(first.getHeader("ETag"), revalidated.getHeader("ETag"));
+        assertNull(revalidated.getHeader("Content-Encoding"));
+        assertEquals(0, revalidated.getContentAsByteArray().length);
+    }
+
+    @Test
+    void notModifiedKeepsTheBareEtagOfAnUncompressedRepresentation() throws ServletException, IOException {
+        MockHttpServletResponse first = conditionalGet("gzip", null, "{\"ok\":true}");
+        assertEquals("\"checksum1\"", first.getHeader("ETag"));
+
+        MockHttpServletResponse revalidated = conditionalGet("gzip", first.getHeader("ETag"), "{\"ok\":true}");
+
+        assertEquals(304, revalidated.getStatus());
+        assertEquals("\"checksum1\"", revalidated.getHeader("ETag"));
+    }
+
+    @Test
+    void leavesWeakEtagsAlone() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/profile");
+        request.addHeader("Accept-Encoding", "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            ((HttpServletResponse) res).setHeader("ETag", "W/\"3\"");
+            res.setContentType("application/json");
+            res.getOutputStream().write(STORY_JSON.getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertEquals("W/\"3\"", response.getHeader("ETag"));
+        assertEquals("\"a\", \"b\"", ResponseCompressionFilter.stripEncodingSuffixes("\"a-zstd\", \"b\""));
+    }
+
+    @Test
+    void cacheEvictsLeastRecentlyUsedBeyondItsSize() {
+        CompressedBodyCache cache = new CompressedBodyCache(10);
+        CompressedBodyCache.Key a = cache.key(ContentEncoding.GZIP, "a".getBytes(StandardCharsets.UTF_8));
+        CompressedBodyCache.Key b = cache.key(ContentEncoding.GZIP, "b".getBytes(StandardCharsets.UTF_8));
+        CompressedBodyCache.Key c = cache.key(ContentEncoding.GZIP, "c".getBytes(StandardCharsets.UTF_8));
+
+        cache.put(a, new byte[4]);
+        cache.put(b, new byte[4]);
+        cache.get(a);
+        cache.put(c, new byte[4]);
+        cache.put(cache.key(ContentEncoding.GZIP, new byte[0]), new byte[11]);
+
+        assertNotNull(cache.get(a));
+        assertNull(cache.get(b));
+        assertNotNull(cache.get(c));
+        assertEquals(8, cache.totalBytes());
+    }
+
+    private MockHttpServletResponse run(String path, String acceptEncoding, String body, String contentType)
+            throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            res.setContentType(contentType);
+            res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    /** A story read whose controller answers 304 when If-None-Match (as it sees it) lists its ETag. */
+    private MockHttpServletResponse conditionalGet(String acceptEncoding, String ifNoneMatch, String body)
+            throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/stories/story-1");
+        request.addHeader("Accept-Encoding", acceptEncoding);
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            HttpServletResponse http = (HttpServletResponse) res;
+            http.setHeader("ETag", "\"checksum1\"");
+            if ("\"checksum1\"".equals(((HttpServletRequest) req).getHeader("If-None-Match"))) {
+                http.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            res.setContentType("application/json");
+            res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        });
+        return response;
+    }
+
+    private static String gunzip(byte[] encoded) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.app.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteClassTest {
+
+    @Test
+    void classifiesAuthPaths() {
+        assertEquals(RouteClass.AUTH_REFRESH, RouteClass.of("/auth/refresh"));
+        assertEquals(RouteClass.AUTH_STATUS, RouteClass.of("/auth/status"));
+        assertEquals(RouteClass.AUTH, RouteClass.of("/auth/google"));
+    }
+
+    @Test
+    void separatesSyncFromCatalogReads() {
+        assertEquals(RouteClass.STORY_DELTA, RouteClass.of("/api/stories/delta"));
+        assertEquals(RouteClass.STORY_VERSION, RouteClass.of("/api/stories/version"));
+        assertEquals(RouteClass.STORY_CATALOG, RouteClass.of("/api/stories"));
+        assertEquals(RouteClass.STORY_CATALOG, RouteClass.of("/api/stories/category/bedtime"));
+        assertEquals(RouteClass.STORY_CATALOG, RouteClass.of("/api/stories/story-1/download"));
+    }
+
+    @Test
+    void classifiesTheRemainingApiAndInternalPaths() {
+        assertEquals(RouteClass.ASSET_BATCH_URLS, RouteClass.of("/api/assets/batch-urls"));
+        assertEquals(RouteClass.ASSETS, RouteClass.of("/api/assets/version"));
+        assertEquals(RouteClass.ANALYTICS, RouteClass.of("/api/analytics/events"));
+        assertEquals(RouteClass.PROFILE, RouteClass.of("/api/profile"));
+        assertEquals(RouteClass.PROFILE, RouteClass.of("/api/account/delete"));
+        assertEquals(RouteClass.PROFILE, RouteClass.of("/api/users/me"));
+        assertEquals(RouteClass.OTHER_API, RouteClass.of("/api/feedback"));
+        assertEquals(RouteClass.INTERNAL, RouteClass.of("/private/healthcheck"));
+        assertEquals(RouteClass.INTERNAL, RouteClass.of("/actuator/prometheus"));
+        assertEquals(RouteClass.UNCLASSIFIED, RouteClass.of("/favicon.ico"));
+    }
+}
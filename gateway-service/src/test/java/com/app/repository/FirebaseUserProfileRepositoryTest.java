@@ -2,9 +2,11 @@ package com.app.repository;
 
 import com.app.model.UserProfile;
 import com.app.repository.impl.FirebaseUserProfileRepository;
+import com.app.repository.impl.FirestoreHedgedReader;
 import com.app.service.ApplicationMetricsService;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -18,6 +20,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -58,7 +61,9 @@ class FirebaseUserProfileRepositoryTest {
 
     @BeforeEach
     void setUp() {
-        repository = new FirebaseUserProfileRepository(firestore, metricsService);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        repository = new FirebaseUserProfileRepository(firestore, metricsService, meterRegistry, 30, 10000,
+                new FirestoreHedgedReader(meterRegistry, false, 0.95, 5, 50, 0, 1), ForkJoinPool.commonPool());
         
         testProfile = new UserProfile("test-user-123");
         testProfile.setNickname("Freya");
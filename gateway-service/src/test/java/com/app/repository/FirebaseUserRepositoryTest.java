@@ -4,9 +4,12 @@ import com.app.model.ChildProfile;
 import com.app.model.User;
 import com.app.model.UserPreferences;
 import com.app.repository.impl.FirebaseUserRepository;
+import com.app.repository.impl.FirestoreWriteBehindBuffer;
 import com.app.service.ApplicationMetricsService;
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
 import com.google.cloud.firestore.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,6 +22,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -63,12 +67,16 @@ class FirebaseUserRepositoryTest {
     @Mock
     private Query query;
 
+    @Mock
+    private FirestoreWriteBehindBuffer writeBehind;
+
     private FirebaseUserRepository repository;
     private User testUser;
 
     @BeforeEach
     void setUp() {
-        repository = new FirebaseUserRepository(firestore, metricsService);
+        repository = new FirebaseUserRepository(firestore, metricsService, writeBehind, new SimpleMeterRegistry(),
+                30, 10000, ForkJoinPool.commonPool());
 
         // Create test user (PII-free)
         testUser = new User();
@@ -195,31 +203,65 @@ class FirebaseUserRepositoryTest {
     }
 
     @Test
-    void updateLastLogin_Success() throws Exception {
+    void findById_RepeatedLookupIsServedFromCacheUntilWrite() throws Exception {
         // Arrange
-        Instant loginTime = Instant.now();
         when(firestore.collection("users")).thenReturn(collectionReference);
         when(collectionReference.document(testUser.getId())).thenReturn(documentReference);
-        when(documentReference.update(eq("lastLoginAt"), any(Instant.class), eq("updatedAt"), any(Instant.class))).thenReturn(writeResultFuture);
-        when(writeResultFuture.get()).thenReturn(writeResult);
-
-        // Mock for findById call after update
         when(documentReference.get()).thenReturn(documentSnapshotFuture);
         when(documentSnapshotFuture.get()).thenReturn(documentSnapshot);
         when(documentSnapshot.exists()).thenReturn(true);
         when(documentSnapshot.toObject(User.class)).thenReturn(testUser);
+        when(documentReference.set(testUser)).thenReturn(writeResultFuture);
+        when(writeResultFuture.get()).thenReturn(writeResult);
 
         // Act
-        CompletableFuture<User> result = repository.updateLastLogin(testUser.getId());
-        User updatedUser = result.get();
+        repository.findById(testUser.getId()).get();
+        repository.findById(testUser.getId()).get();
+        repository.save(testUser).get();
+        repository.findById(testUser.getId()).get();
+
+        // Assert - one read before the write, one after it
+        verify(documentReference, times(2)).get();
+    }
+
+    @Test
+    void findByProviderAndProviderId_SeedsUserCacheFromQuery() throws Exception {
+        // Arrange
+        QueryDocumentSnapshot document = mock(QueryDocumentSnapshot.class);
+        when(document.getId()).thenReturn(testUser.getId());
+        when(document.exists()).thenReturn(true);
+        when(document.toObject(User.class)).thenReturn(testUser);
+        when(firestore.collection("users")).thenReturn(collectionReference);
+        when(collectionReference.whereEqualTo("provider", testUser.getProvider())).thenReturn(query);
+        when(query.whereEqualTo("providerId", testUser.getProviderId())).thenReturn(query);
+        when(query.limit(1)).thenReturn(query);
+        when(query.get()).thenReturn(querySnapshotFuture);
+        when(querySnapshotFuture.get()).thenReturn(querySnapshot);
+        when(querySnapshot.isEmpty()).thenReturn(false);
+        when(querySnapshot.getDocuments()).thenReturn(List.of(document));
+
+        // Act
+        Optional<User> first = repository.findByProviderAndProviderId(testUser.getProvider(), testUser.getProviderId()).get();
+        Optional<User> second = repository.findByProviderAndProviderId(testUser.getProvider(), testUser.getProviderId()).get();
+        Optional<User> byId = repository.findById(testUser.getId()).get();
+
+        // Assert - one query, no document reads
+        assertTrue(first.isPresent());
+        assertTrue(second.isPresent());
+        assertTrue(byId.isPresent());
+        verify(query).get();
+        verify(collectionReference, never()).document(anyString());
+    }
+
+    @Test
+    void updateLastLogin_IsBufferedWithoutWritingOrRereading() throws Exception {
+        // Act
+        repository.updateLastLogin(testUser.getId()).get();
 
         // Assert
-        assertNotNull(updatedUser);
-        assertEquals(testUser.getId(), updatedUser.getId());
-        verify(firestore, times(2)).collection("users"); // Called in updateLastLogin and findById
-        verify(collectionReference, times(2)).document(testUser.getId()); // Called in updateLastLogin and findById
-        verify(documentReference).update(eq("lastLoginAt"), any(Instant.class), eq("updatedAt"), any(Instant.class));
-        verify(documentReference).get(); // Called in findById
+        verify(writeBehind).enqueue(eq("users"), eq(testUser.getId()),
+                argThat(fields -> fields.get("lastLoginAt") instanceof Instant && fields.containsKey("updatedAt")));
+        verifyNoInteractions(firestore);
     }
 
     @Test
@@ -248,4 +290,71 @@ class FirebaseUserRepositoryTest {
         verify(documentReference).update(eq("isActive"), eq(false), eq("updatedAt"), any(Instant.class));
         verify(documentReference).get(); // Called in findById
     }
+
+    @SuppressWarnings("unchecked")
+    private Transaction stubChildrenTransaction() throws Exception {
+        Transaction transaction = mock(Transaction.class);
+        when(firestore.collection("users")).thenReturn(collectionReference);
+        when(collectionReference.document(testUser.getId())).thenReturn(documentReference);
+        when(firestore.runTransaction(any(Transaction.Function.class))).thenAnswer(invocation ->
+                ApiFutures.immediateFuture(((Transaction.Function<?>) invocation.getArgument(0)).updateCallback(transaction)));
+        when(transaction.getAll(any(DocumentReference[].class), any(FieldMask.class)))
+                .thenReturn(ApiFutures.immediateFuture(List.of(documentSnapshot)));
+        when(documentSnapshot.exists()).thenReturn(true);
+        when(documentSnapshot.toObject(User.class)).thenReturn(testUser);
+        return transaction;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateChild_WritesOnlyChildrenFieldInTransaction() throws Exception {
+        // Arrange
+        Transaction transaction = stubChildrenTransaction();
+
+        // Act
+        Optional<ChildProfile> updated = repository.updateChild(testUser.getId(), "child-1",
+                child -> child.setName("Renamed")).get();
+
+        // Assert
+        assertTrue(updated.isPresent());
+        assertEquals("Renamed", updated.get().getName());
+        verify(transaction).getAll(any(DocumentReference[].class), eq(FieldMask.of("children")));
+        verify(transaction).update(eq(documentReference), eq("children"),
+                argThat(children -> ((List<ChildProfile>) children).get(0).getName().equals("Renamed")),
+                eq("updatedAt"), any(Instant.class));
+        verify(documentReference, never()).get();
+        verify(documentReference, never()).set(any());
+    }
+
+    @Test
+    void removeChild_UnknownChildDoesNotWrite() throws Exception {
+        // Arrange
+        Transaction transaction = stubChildrenTransaction();
+
+        // Act
+        boolean removed = repository.removeChild(testUser.getId(), "non-existent-child").get();
+
+        // Assert
+        assertFalse(removed);
+        verify(transaction, never()).update(any(DocumentReference.class), anyString(), any(), any(), any());
+    }
+
+    @Test
+    void addChild_IsSingleArrayUnionWithoutReread() throws Exception {
+        // Arrange
+        ChildProfile child = new ChildProfile();
+        child.setId("child-2");
+        when(firestore.collection("users")).thenReturn(collectionReference);
+        when(collectionReference.document(testUser.getId())).thenReturn(documentReference);
+        when(documentReference.update(eq("children"), any(FieldValue.class), eq("updatedAt"), any(Instant.class)))
+                .thenReturn(writeResultFuture);
+        when(writeResultFuture.get()).thenReturn(writeResult);
+
+        // Act
+        ChildProfile added = repository.addChild(testUser.getId(), child).get();
+
+        // Assert
+        assertSame(child, added);
+        verify(documentReference, never()).get();
+    }
 }
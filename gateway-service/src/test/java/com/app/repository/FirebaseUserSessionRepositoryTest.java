@@ -2,21 +2,27 @@ package com.app.repository;
 
 import com.app.model.UserSession;
 import com.app.repository.impl.FirebaseUserSessionRepository;
+import com.app.repository.impl.FirestoreWriteBehindBuffer;
 import com.app.service.ApplicationMetricsService;
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
 import com.google.cloud.firestore.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -61,12 +67,21 @@ class FirebaseUserSessionRepositoryTest {
     @Mock
     private Query query;
 
+    @Mock
+    private CollectionReference indexCollection;
+
+    @Mock
+    private DocumentReference indexReference;
+
+    @Mock
+    private FirestoreWriteBehindBuffer writeBehind;
+
     private FirebaseUserSessionRepository repository;
     private UserSession testSession;
 
     @BeforeEach
     void setUp() {
-        repository = new FirebaseUserSessionRepository(firestore);
+        repository = new FirebaseUserSessionRepository(firestore, writeBehind, 500, 5000, ForkJoinPool.commonPool());
         
         // Create test session
         testSession = new UserSession();
@@ -263,6 +278,8 @@ class FirebaseUserSessionRepositoryTest {
         when(documentSnapshotFuture.get()).thenReturn(documentSnapshot);
         when(documentSnapshot.exists()).thenReturn(true);
         when(documentSnapshot.toObject(UserSession.class)).thenReturn(testSession);
+        stubIndex();
+        when(indexReference.set(anyMap(), any(SetOptions.class))).thenReturn(writeResultFuture);
 
         // Act
         CompletableFuture<UserSession> result = repository.revokeSession(testSession.getId());
@@ -273,58 +290,34 @@ class FirebaseUserSessionRepositoryTest {
         verify(collectionReference, times(2)).document(testSession.getId()); // Called in revokeSession and findById
         verify(documentReference).update(eq("isActive"), eq(false), eq("revokedAt"), any(Instant.class));
         verify(documentReference).get(); // Called in findById
+        verify(indexReference).set(argThat((Map<String, Object> m) ->
+                ((Map<?, ?>) m.get("slots")).get(testSession.getId()) instanceof FieldValue), any(SetOptions.class));
     }
 
     @Test
-    void updateLastAccessed_Success() throws Exception {
-        // Arrange
-        when(firestore.collection("user_sessions")).thenReturn(collectionReference);
-        when(collectionReference.document(testSession.getId())).thenReturn(documentReference);
-        when(documentReference.get()).thenReturn(documentSnapshotFuture);
-        when(documentSnapshotFuture.get()).thenReturn(documentSnapshot);
-        when(documentSnapshot.exists()).thenReturn(true);
-        when(documentSnapshot.toObject(UserSession.class)).thenReturn(testSession);
-        when(documentReference.update(eq("lastAccessedAt"), any(Instant.class))).thenReturn(writeResultFuture);
-        when(writeResultFuture.get()).thenReturn(writeResult);
-
+    void updateLastAccessed_IsBufferedWithoutWritingOrRereading() throws Exception {
         // Act
-        CompletableFuture<UserSession> result = repository.updateLastAccessed(testSession.getId());
-        UserSession updatedSession = result.get();
+        repository.updateLastAccessed(testSession.getId()).get();
 
         // Assert
-        assertNotNull(updatedSession);
-        assertEquals(testSession.getId(), updatedSession.getId());
-        
-        // Verify Firestore interactions
-        verify(firestore, times(2)).collection("user_sessions");
-        verify(collectionReference, times(2)).document(testSession.getId());
-        verify(documentReference).get();
-        verify(documentReference).update(eq("lastAccessedAt"), any(Instant.class));
+        verify(writeBehind).enqueue(eq("user_sessions"), eq(testSession.getId()),
+                argThat(fields -> fields.get("lastAccessedAt") instanceof Instant));
+        verifyNoInteractions(firestore);
     }
 
     @Test
     void countActiveSessionsByUserId_Success() throws Exception {
         // Arrange
-        List<QueryDocumentSnapshot> documents = new ArrayList<>();
-        documents.add(mock(QueryDocumentSnapshot.class));
-        documents.add(mock(QueryDocumentSnapshot.class));
+        AggregateQuery countQuery = mock(AggregateQuery.class);
+        AggregateQuerySnapshot countSnapshot = mock(AggregateQuerySnapshot.class);
 
         when(firestore.collection("user_sessions")).thenReturn(collectionReference);
         when(collectionReference.whereEqualTo("userId", testSession.getUserId())).thenReturn(query);
         when(query.whereEqualTo("isActive", true)).thenReturn(query);
-        when(query.get()).thenReturn(querySnapshotFuture);
-        when(querySnapshotFuture.get()).thenReturn(querySnapshot);
-        when(querySnapshot.getDocuments()).thenReturn(documents);
-
-        // Mock the findActiveSessionsByUserId call
-        UserSession session1 = new UserSession();
-        session1.setId("session-1");
-        UserSession session2 = new UserSession();
-        session2.setId("session-2");
-        List<UserSession> sessions = List.of(session1, session2);
-        
-        when(documents.get(0).toObject(UserSession.class)).thenReturn(session1);
-        when(documents.get(1).toObject(UserSession.class)).thenReturn(session2);
+        when(query.whereGreaterThan(eq("expiresAt"), any(Instant.class))).thenReturn(query);
+        when(query.count()).thenReturn(countQuery);
+        when(countQuery.get()).thenReturn(ApiFutures.immediateFuture(countSnapshot));
+        when(countSnapshot.getCount()).thenReturn(2L);
 
         // Act
         CompletableFuture<Long> result = repository.countActiveSessionsByUserId(testSession.getUserId());
@@ -332,5 +325,294 @@ class FirebaseUserSessionRepositoryTest {
 
         // Assert
         assertEquals(2L, count);
+        // Counted server-side; no session documents are fetched
+        verify(query, never()).get();
+    }
+
+    @Test
+    void countActiveSessions_UsesAggregationQuery() throws Exception {
+        AggregateQuery countQuery = mock(AggregateQuery.class);
+        AggregateQuerySnapshot countSnapshot = mock(AggregateQuerySnapshot.class);
+
+        when(firestore.collection("user_sessions")).thenReturn(collectionReference);
+        when(collectionReference.whereEqualTo("isActive", true)).thenReturn(query);
+        when(query.whereGreaterThan(eq("expiresAt"), any(Instant.class))).thenReturn(query);
+        when(query.count()).thenReturn(countQuery);
+        when(countQuery.get()).thenReturn(ApiFutures.immediateFuture(countSnapshot));
+        when(countSnapshot.getCount()).thenReturn(1234L);
+
+        assertEquals(1234L, repository.countActiveSessions().get());
+        verify(query, never()).get();
+    }
+
+    private QueryDocumentSnapshot sessionDoc(String id, Object expiresAt) {
+        QueryDocumentSnapshot doc = mock(QueryDocumentSnapshot.class);
+        DocumentReference ref = mock(DocumentReference.class);
+        lenient().when(doc.getReference()).thenReturn(ref);
+        lenient().when(doc.getId()).thenReturn(id);
+        lenient().when(doc.get("expiresAt")).thenReturn(expiresAt);
+        return doc;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sweepExpiredSessions_PagesWithCursorAndDeletesThroughBulkWriter() throws Exception {
+        BulkWriter bulkWriter = mock(BulkWriter.class);
+        when(firestore.bulkWriter(any(BulkWriterOptions.class))).thenReturn(bulkWriter);
+        when(bulkWriter.flush()).thenReturn(ApiFutures.immediateFuture(null));
+
+        when(firestore.collection("user_sessions")).thenReturn(collectionReference);
+        when(collectionReference.whereLessThan(eq("expiresAt"), any(Instant.class))).thenReturn(query);
+        when(query.orderBy("expiresAt")).thenReturn(query);
+        when(query.orderBy(FieldPath.documentId())).thenReturn(query);
+        when(query.select("expiresAt")).thenReturn(query);
+        when(query.limit(2)).thenReturn(query);
+        when(query.startAfter(any(), any())).thenReturn(query);
+
+        QuerySnapshot page1 = mock(QuerySnapshot.class);
+        QuerySnapshot page2 = mock(QuerySnapshot.class);
+        when(page1.getDocuments()).thenReturn(List.of(sessionDoc("s1", "t1"), sessionDoc("s2", "t2")));
+        when(page2.getDocuments()).thenReturn(List.of(sessionDoc("s3", "t3")));
+        when(query.get()).thenReturn(ApiFutures.immediateFuture(page1), ApiFutures.immediateFuture(page2));
+
+        List<UserSessionRepository.SweepResult> progress = new ArrayList<>();
+        UserSessionRepository.SweepResult result = repository
+                .sweepExpiredSessions(Instant.now(), null, 2, 10, p -> progress.add(p))
+                .get();
+
+        assertEquals(3L, result.deleted());
+        assertEquals(2, result.pages());
+        assertTrue(result.complete());
+        assertEquals("s3", result.lastCursor().sessionId());
+        assertEquals(2, progress.size());
+        assertEquals(new UserSessionRepository.SweepCursor("t2", "s2"), progress.get(0).lastCursor());
+
+        // Second page resumes after the last document of the first
+        verify(query).startAfter("t2", "s2");
+        verify(bulkWriter, times(3)).delete(any(DocumentReference.class));
+        verify(bulkWriter, times(2)).flush();
+        verify(bulkWriter).close();
+    }
+
+    @Test
+    void sweepExpiredSessions_StopsWhenCallbackDeclines() throws Exception {
+        BulkWriter bulkWriter = mock(BulkWriter.class);
+        when(firestore.bulkWriter(any(BulkWriterOptions.class))).thenReturn(bulkWriter);
+        when(bulkWriter.flush()).thenReturn(ApiFutures.immediateFuture(null));
+
+        when(firestore.collection("user_sessions")).thenReturn(collectionReference);
+        when(collectionReference.whereLessThan(eq("expiresAt"), any(Instant.class))).thenReturn(query);
+        when(query.orderBy("expiresAt")).thenReturn(query);
+        when(query.orderBy(FieldPath.documentId())).thenReturn(query);
+        when(query.select("expiresAt")).thenReturn(query);
+        when(query.limit(2)).thenReturn(query);
+        when(query.get()).thenReturn(querySnapshotFuture);
+        when(querySnapshotFuture.get()).thenReturn(querySnapshot);
+        when(querySnapshot.getDocuments()).thenReturn(List.of(sessionDoc("s1", "t1"), sessionDoc("s2", "t2")));
+
+        UserSessionRepository.SweepResult result = repository
+                .sweepExpiredSessions(Instant.now(), null, 2, 10, p -> false)
+                .get();
+
+        assertEquals(1, result.pages());
+        assertFalse(result.complete());
+        verify(query, never()).startAfter(any(), any());
+    }
+
+    @Test
+    void deleteAllUserSessions_UsesBulkWriter() throws Exception {
+        BulkWriter bulkWriter = mock(BulkWriter.class);
+        when(firestore.bulkWriter()).thenReturn(bulkWriter);
+        when(bulkWriter.delete(any(DocumentReference.class))).thenReturn(ApiFutures.immediateFuture(writeResult));
+
+        when(firestore.collection("user_sessions")).thenReturn(collectionReference);
+        when(collectionReference.whereEqualTo("userId", "test-user-id")).thenReturn(query);
+        when(query.select(FieldPath.documentId())).thenReturn(query);
+        when(query.get()).thenReturn(querySnapshotFuture);
+        when(querySnapshotFuture.get()).thenReturn(querySnapshot);
+        when(querySnapshot.getDocuments()).thenReturn(List.of(sessionDoc("s1", null), sessionDoc("s2", null)));
+        stubIndex();
+
+        Long deleted = repository.deleteAllUserSessions("test-user-id").get();
+
+        assertEquals(2L, deleted);
+        verify(bulkWriter, times(3)).delete(any(DocumentReference.class));
+        verify(bulkWriter).delete(indexReference);
+        verify(bulkWriter).close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void revokeAllUserSessions_UpdatesThroughBulkWriterWithoutRereading() throws Exception {
+        BulkWriter bulkWriter = mock(BulkWriter.class);
+        when(firestore.bulkWriter()).thenReturn(bulkWriter);
+        when(bulkWriter.update(any(DocumentReference.class), anyMap())).thenReturn(ApiFutures.immediateFuture(writeResult));
+
+        QueryDocumentSnapshot doc = mock(QueryDocumentSnapshot.class);
+        when(doc.toObject(UserSession.class)).thenReturn(testSession);
+        when(firestore.collection("user_sessions")).thenReturn(collectionReference);
+        when(collectionReference.whereEqualTo("userId", testSession.getUserId())).thenReturn(query);
+        when(query.whereEqualTo("isActive", true)).thenReturn(query);
+        when(query.get()).thenReturn(querySnapshotFuture);
+        when(querySnapshotFuture.get()).thenReturn(querySnapshot);
+        when(querySnapshot.getDocuments()).thenReturn(List.of(doc));
+        when(collectionReference.document(testSession.getId())).thenReturn(documentReference);
+        stubIndex();
+        when(bulkWriter.set(eq(indexReference), anyMap(), any(SetOptions.class))).thenReturn(ApiFutures.immediateFuture(writeResult));
+
+        List<UserSession> revoked = repository.revokeAllUserSessions(testSession.getUserId()).get();
+
+        assertEquals(1, revoked.size());
+        assertFalse(revoked.get(0).isActive());
+        assertNotNull(revoked.get(0).getRevokedAt());
+        verify(bulkWriter).update(eq(documentReference), argThat((Map<String, Object> m) -> Boolean.FALSE.equals(m.get("isActive"))));
+        verify(documentReference, never()).get();
+    }
+
+    private void stubIndex() {
+        when(firestore.collection("user_session_index")).thenReturn(indexCollection);
+        when(indexCollection.document(testSession.getUserId())).thenReturn(indexReference);
+    }
+
+    private Transaction stubTransaction() {
+        Transaction transaction = mock(Transaction.class);
+        when(firestore.runTransaction(any(Transaction.Function.class))).thenAnswer(invocation -> {
+            Transaction.Function<?> function = invocation.getArgument(0);
+            return ApiFutures.immediateFuture(function.updateCallback(transaction));
+        });
+        return transaction;
+    }
+
+    /** Index document holding {@code count} live slots old-0 (oldest) .. old-(count-1). */
+    private DocumentSnapshot indexWithSlots(int count) {
+        long createdAt = Instant.now().minusSeconds(3600).toEpochMilli();
+        long expiresAt = Instant.now().plusSeconds(3600).toEpochMilli();
+        Map<String, Object> slots = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            slots.put("old-" + i, Map.of("createdAtMillis", createdAt + i * 1000L, "expiresAtMillis", expiresAt));
+        }
+        DocumentSnapshot index = mock(DocumentSnapshot.class);
+        when(index.exists()).thenReturn(true);
+        when(index.get("slots")).thenReturn(slots);
+        return index;
+    }
+
+    private DocumentReference candidate(Transaction transaction, String sessionId, UserSession stored) {
+        DocumentReference ref = mock(DocumentReference.class);
+        DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+        when(collectionReference.document(sessionId)).thenReturn(ref);
+        when(transaction.get(ref)).thenReturn(ApiFutures.immediateFuture(snapshot));
+        when(snapshot.exists()).thenReturn(stored != null);
+        lenient().when(snapshot.toObject(UserSession.class)).thenReturn(stored);
+        return ref;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> writtenSlots(Transaction transaction) {
+        ArgumentCaptor<Map<String, Object>> index = ArgumentCaptor.forClass(Map.class);
+        verify(transaction).set(eq(indexReference), index.capture());
+        return (Map<String, Object>) index.getValue().get("slots");
+    }
+
+    @Test
+    void createSessionWithinLimit_UnderLimitWritesSessionAndIndexOnly() throws Exception {
+        Transaction transaction = stubTransaction();
+        stubIndex();
+        when(firestore.collection("user_sessions")).thenReturn(collectionReference);
+        when(collectionReference.document(testSession.getId())).thenReturn(documentReference);
+        DocumentSnapshot index = indexWithSlots(2);
+        when(transaction.get(indexReference)).thenReturn(ApiFutures.immediateFuture(index));
+
+        UserSessionRepository.SessionAdmission admission = repository.createSessionWithinLimit(testSession, 5).get();
+
+        assertSame(testSession, admission.session());
+        assertTrue(admission.evicted().isEmpty());
+        verify(transaction).set(documentReference, testSession);
+        verify(transaction, never()).update(any(DocumentReference.class), anyString(), any(), any(), any());
+        assertEquals(3, writtenSlots(transaction).size());
+        verify(collectionReference, never()).whereEqualTo(anyString(), any());
+    }
+
+    @Test
+    void createSessionWithinLimit_AtLimitRevokesOldestInSameTransaction() throws Exception {
+        Transaction transaction = stubTransaction();
+        stubIndex();
+        when(firestore.collection("user_sessions")).thenReturn(collectionReference);
+        when(collectionReference.document(testSession.getId())).thenReturn(documentReference);
+        DocumentSnapshot index = indexWithSlots(5);
+        when(transaction.get(indexReference)).thenReturn(ApiFutures.immediateFuture(index));
+
+        UserSession oldest = new UserSession();
+        oldest.setId("old-0");
+        oldest.setUserId(testSession.getUserId());
+        oldest.setActive(true);
+        oldest.setExpiresAt(Instant.now().plusSeconds(3600));
+        DocumentReference oldestRef = candidate(transaction, "old-0", oldest);
+
+        UserSessionRepository.SessionAdmission admission = repository.createSessionWithinLimit(testSession, 5).get();
+
+        assertEquals(1, admission.evicted().size());
+        assertEquals("old-0", admission.evicted().get(0).getId());
+        assertFalse(admission.evicted().get(0).isActive());
+        verify(transaction).update(eq(oldestRef), eq("isActive"), eq(false), eq("revokedAt"), any(Instant.class));
+        verify(transaction).set(documentReference, testSession);
+
+        Map<String, Object> slots = writtenSlots(transaction);
+        assertEquals(5, slots.size());
+        assertFalse(slots.containsKey("old-0"));
+        assertTrue(slots.containsKey(testSession.getId()));
+    }
+
+    @Test
+    void createSessionWithinLimit_DropsStaleSlotWithoutEvictingLiveSession() throws Exception {
+        Transaction transaction = stubTransaction();
+        stubIndex();
+        when(firestore.collection("user_sessions")).thenReturn(collectionReference);
+        when(collectionReference.document(testSession.getId())).thenReturn(documentReference);
+        DocumentSnapshot index = indexWithSlots(5);
+        when(transaction.get(indexReference)).thenReturn(ApiFutures.immediateFuture(index));
+
+        // Oldest slot points at a session that was already revoked elsewhere
+        UserSession alreadyRevoked = new UserSession();
+        alreadyRevoked.setId("old-0");
+        alreadyRevoked.setActive(false);
+        alreadyRevoked.setRevokedAt(Instant.now());
+        alreadyRevoked.setExpiresAt(Instant.now().plusSeconds(3600));
+        candidate(transaction, "old-0", alreadyRevoked);
+
+        UserSessionRepository.SessionAdmission admission = repository.createSessionWithinLimit(testSession, 5).get();
+
+        assertTrue(admission.evicted().isEmpty());
+        verify(transaction, never()).update(any(DocumentReference.class), anyString(), any(), any(), any());
+        assertEquals(5, writtenSlots(transaction).size());
+    }
+
+    @Test
+    void createSessionWithinLimit_SeedsMissingIndexFromActiveSessions() throws Exception {
+        Transaction transaction = stubTransaction();
+        stubIndex();
+        when(firestore.collection("user_sessions")).thenReturn(collectionReference);
+        when(collectionReference.document(testSession.getId())).thenReturn(documentReference);
+        DocumentSnapshot missingIndex = mock(DocumentSnapshot.class);
+        when(missingIndex.exists()).thenReturn(false);
+        when(transaction.get(indexReference)).thenReturn(ApiFutures.immediateFuture(missingIndex));
+
+        UserSession existing = new UserSession();
+        existing.setId("legacy-1");
+        existing.setActive(true);
+        existing.setCreatedAt(Instant.now().minusSeconds(60));
+        existing.setExpiresAt(Instant.now().plusSeconds(3600));
+        QueryDocumentSnapshot existingDoc = mock(QueryDocumentSnapshot.class);
+        when(existingDoc.toObject(UserSession.class)).thenReturn(existing);
+        when(collectionReference.whereEqualTo("userId", testSession.getUserId())).thenReturn(query);
+        when(query.whereEqualTo("isActive", true)).thenReturn(query);
+        when(transaction.get(query)).thenReturn(ApiFutures.immediateFuture(querySnapshot));
+        when(querySnapshot.getDocuments()).thenReturn(List.of(existingDoc));
+
+        repository.createSessionWithinLimit(testSession, 5).get();
+
+        Map<String, Object> slots = writtenSlots(transaction);
+        assertEquals(2, slots.size());
+        assertTrue(slots.containsKey("legacy-1"));
     }
 }
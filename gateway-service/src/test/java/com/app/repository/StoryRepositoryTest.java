@@ -1,10 +1,18 @@
 package com.app.repository;
 
+import com.app.deadline.RequestDeadline;
+import com.app.exception.DownstreamServiceException;
+import com.app.exception.ErrorCode;
 import com.app.model.Story;
 import com.app.model.StoryPage;
 import com.app.repository.impl.FirebaseStoryRepository;
+import com.app.repository.impl.FirestoreHedgedReader;
 import com.app.service.ApplicationMetricsService;
+import com.google.api.core.SettableApiFuture;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.Firestore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,6 +22,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -36,7 +47,9 @@ class StoryRepositoryTest {
 
     @BeforeEach
     void setUp() {
-        storyRepository = new FirebaseStoryRepository(firestore, metricsService);
+        storyRepository = new FirebaseStoryRepository(firestore, metricsService,
+                new FirestoreHedgedReader(new SimpleMeterRegistry(), false, 0.95, 5, 50, 0, 1),
+                ForkJoinPool.commonPool());
     }
 
     @Test
@@ -64,6 +77,33 @@ class StoryRepositoryTest {
         assertNotNull(result);
     }
 
+    @Test
+    void findById_PassesDeadlineTimeoutThroughUnwrapped() {
+        // Given: a read that never answers, run on the calling thread so it sees the request deadline
+        CollectionReference collection = mock(CollectionReference.class);
+        DocumentReference document = mock(DocumentReference.class);
+        when(firestore.collection("stories")).thenReturn(collection);
+        when(collection.document("story-1")).thenReturn(document);
+        when(document.get()).thenReturn(SettableApiFuture.create());
+        StoryRepository inline = new FirebaseStoryRepository(firestore, metricsService,
+                new FirestoreHedgedReader(new SimpleMeterRegistry(), false, 0.95, 5, 50, 0, 1), Runnable::run);
+        RequestDeadline deadline = new RequestDeadline(1000, TimeUnit.MILLISECONDS, new SimpleMeterRegistry());
+        deadline.markExpired();
+        RequestDeadline.set(deadline);
+
+        // When
+        CompletionException e;
+        try {
+            e = assertThrows(CompletionException.class, () -> inline.findById("story-1").join());
+        } finally {
+            RequestDeadline.set(null);
+        }
+
+        // Then
+        DownstreamServiceException cause = assertInstanceOf(DownstreamServiceException.class, e.getCause());
+        assertEquals(ErrorCode.DOWNSTREAM_TIMEOUT, cause.getErrorCode());
+    }
+
     @Test
     void findById_ShouldReturnEmptyWhenNotExists() {
         // Given
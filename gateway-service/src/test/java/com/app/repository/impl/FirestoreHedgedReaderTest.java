@@ -0,0 +1,163 @@
+package com.app.repository.impl;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.SettableApiFuture;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirestoreHedgedReaderTest {
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    private FirestoreHedgedReader reader(double budgetPercent, int maxBurst) {
+        return reader(20, budgetPercent, maxBurst);
+    }
+
+    private FirestoreHedgedReader reader(long fallbackDelayMs, double budgetPercent, int maxBurst) {
+        return new FirestoreHedgedReader(registry, true, 0.95, 5, fallbackDelayMs, budgetPercent, maxBurst,
+                System::nanoTime);
+    }
+
+    private double outcome(String outcome) {
+        return registry.get("app.firestore.hedge").tag("outcome", outcome).counter().count();
+    }
+
+    /** Hands out a new, uncompleted future per call and remembers them. */
+    private static final class Reads implements Supplier<ApiFuture<String>> {
+        final List<SettableApiFuture<String>> issued = new ArrayList<>();
+
+        @Override
+        public synchronized ApiFuture<String> get() {
+            SettableApiFuture<String> future = SettableApiFuture.create();
+            issued.add(future);
+            return future;
+        }
+
+        synchronized SettableApiFuture<String> issued(int index) {
+            return issued.get(index);
+        }
+
+        synchronized int count() {
+            return issued.size();
+        }
+    }
+
+    @Test
+    void disabledReaderIssuesOneRead() throws Exception {
+        FirestoreHedgedReader reader = new FirestoreHedgedReader(registry, false, 0.95, 5, 50, 0, 1, System::nanoTime);
+        SettableApiFuture<String> only = SettableApiFuture.create();
+        only.set("doc");
+
+        assertEquals("doc", reader.read("stories", "findById", () -> only));
+    }
+
+    @Test
+    void fastReadIsNotHedged() throws Exception {
+        FirestoreHedgedReader reader = reader(1000, 5, 20);
+        Reads reads = new Reads();
+
+        CompletableFuture<String> result = CompletableFuture.supplyAsync(() -> read(reader, reads));
+        waitForReads(reads, 1);
+        reads.issued(0).set("primary");
+
+        assertEquals("primary", result.get(2, TimeUnit.SECONDS));
+        assertEquals(1, reads.count());
+    }
+
+    @Test
+    void slowReadIsHedgedAndLoserCancelled() throws Exception {
+        FirestoreHedgedReader reader = reader(5, 20);
+        Reads reads = new Reads();
+
+        CompletableFuture<String> result = CompletableFuture.supplyAsync(() -> read(reader, reads));
+        waitForReads(reads, 2);
+        reads.issued(1).set("hedge");
+
+        assertEquals("hedge", result.get(2, TimeUnit.SECONDS));
+        assertTrue(reads.issued(0).isCancelled());
+        assertEquals(1.0, outcome("hedge_won"));
+        assertEquals(0.0, outcome("primary_won"));
+    }
+
+    @Test
+    void primaryFailureWaitsForHedge() throws Exception {
+        FirestoreHedgedReader reader = reader(5, 20);
+        Reads reads = new Reads();
+
+        CompletableFuture<String> result = CompletableFuture.supplyAsync(() -> read(reader, reads));
+        waitForReads(reads, 2);
+        reads.issued(0).setException(new IllegalStateException("unavailable"));
+        reads.issued(1).set("hedge");
+
+        assertEquals("hedge", result.get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void emptyBudgetSkipsHedge() throws Exception {
+        FirestoreHedgedReader reader = reader(0, 1);
+        Reads first = new Reads();
+        CompletableFuture<String> spent = CompletableFuture.supplyAsync(() -> read(reader, first));
+        waitForReads(first, 2);
+        first.issued(0).set("primary");
+        spent.get(2, TimeUnit.SECONDS);
+
+        Reads second = new Reads();
+        CompletableFuture<String> result = CompletableFuture.supplyAsync(() -> read(reader, second));
+        Thread.sleep(100);
+        second.issued(0).set("slow");
+
+        assertEquals("slow", result.get(2, TimeUnit.SECONDS));
+        assertEquals(1, second.count());
+        assertEquals(1.0, outcome("primary_won"));
+        assertEquals(1.0, outcome("budget_exhausted"));
+    }
+
+    @Test
+    void delayFollowsObservedPercentile() {
+        Timer timer = Timer.builder("app.firestore.operation.duration")
+                .tags("collection", "stories", "operation", "findById", "status", "success")
+                .publishPercentiles(0.5, 0.95)
+                .register(registry);
+        for (int i = 1; i <= 100; i++) {
+            timer.record(i, TimeUnit.MILLISECONDS);
+        }
+        FirestoreHedgedReader reader = reader(5, 20);
+
+        long delayMs = TimeUnit.NANOSECONDS.toMillis(reader.hedgeDelayNanos("stories", "findById"));
+
+        assertTrue(delayMs >= 80 && delayMs <= 120, "delay " + delayMs);
+        assertEquals(20, TimeUnit.NANOSECONDS.toMillis(reader.hedgeDelayNanos("users", "findById")));
+    }
+
+    private static String read(FirestoreHedgedReader reader, Reads reads) {
+        try {
+            return reader.read("stories", "findById", reads);
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void waitForReads(Reads reads, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (reads.count() < expected) {
+            assertTrue(System.nanoTime() < deadline, "only " + reads.count() + " reads issued");
+            Thread.sleep(2);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.app.repository.impl;
+
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FirestoreWriteBehindBufferTest {
+
+    @Mock
+    private Firestore firestore;
+
+    @Mock
+    private CollectionReference collectionReference;
+
+    @Mock
+    private BulkWriter bulkWriter;
+
+    @Mock
+    private WriteResult writeResult;
+
+    private MeterRegistry meterRegistry;
+    private FirestoreWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        buffer = new FirestoreWriteBehindBuffer(firestore, meterRegistry, 5000, 100, 1000, false);
+    }
+
+    private double updates(String result) {
+        return meterRegistry.find("app.firestore.write_behind.updates").tag("result", result).counter().count();
+    }
+
+    private DocumentReference stubDocument(String id) {
+        DocumentReference ref = mock(DocumentReference.class);
+        when(firestore.bulkWriter()).thenReturn(bulkWriter);
+        when(firestore.collection("user_sessions")).thenReturn(collectionReference);
+        when(collectionReference.document(id)).thenReturn(ref);
+        return ref;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void coalescesUpdatesToTheSameDocumentKeepingLatestTimestamp() {
+        Instant earlier = Instant.parse("2026-01-01T00:00:00Z");
+        Instant later = earlier.plusSeconds(30);
+        DocumentReference ref = stubDocument("s1");
+        when(bulkWriter.update(eq(ref), anyMap())).thenReturn(ApiFutures.immediateFuture(writeResult));
+
+        buffer.enqueue("user_sessions", "s1", Map.of("lastAccessedAt", later));
+        buffer.enqueue("user_sessions", "s1", Map.of("lastAccessedAt", earlier));
+
+        assertEquals(1, buffer.pendingCount());
+        assertEquals(1, buffer.flush());
+
+        ArgumentCaptor<Map<String, Object>> fields = ArgumentCaptor.forClass(Map.class);
+        verify(bulkWriter).update(eq(ref), fields.capture());
+        assertEquals(later, fields.getValue().get("lastAccessedAt"));
+        verify(bulkWriter).close();
+        assertEquals(0, buffer.pendingCount());
+        assertEquals(1.0, updates("buffered"));
+        assertEquals(1.0, updates("coalesced"));
+        assertEquals(1.0, updates("flushed"));
+    }
+
+    @Test
+    void dropsUpdatesForNewDocumentsWhenFull() {
+        FirestoreWriteBehindBuffer small = new FirestoreWriteBehindBuffer(firestore, meterRegistry, 5000, 2, 2, false);
+
+        assertTrue(small.enqueue("users", "u1", Map.of("lastLoginAt", Instant.now())));
+        assertTrue(small.enqueue("users", "u2", Map.of("lastLoginAt", Instant.now())));
+        assertFalse(small.enqueue("users", "u3", Map.of("lastLoginAt", Instant.now())));
+        // Already-buffered documents still coalesce
+        assertTrue(small.enqueue("users", "u1", Map.of("lastLoginAt", Instant.now())));
+
+        assertEquals(2, small.pendingCount());
+        assertEquals(1.0, updates("dropped"));
+        verifyNoInteractions(firestore);
+    }
+
+    @Test
+    void failedWritesAreCountedAsDropped() {
+        DocumentReference ref = stubDocument("gone");
+        when(bulkWriter.update(eq(ref), anyMap()))
+                .thenReturn(ApiFutures.immediateFailedFuture(new RuntimeException("NOT_FOUND")));
+
+        buffer.enqueue("user_sessions", "gone", Map.of("lastAccessedAt", Instant.now()));
+
+        assertEquals(0, buffer.flush());
+        assertEquals(0, buffer.pendingCount());
+        assertEquals(1.0, updates("dropped"));
+        assertEquals(0.0, updates("flushed"));
+    }
+
+    @Test
+    void shutdownFlushesPendingUpdates() {
+        DocumentReference ref = stubDocument("s1");
+        when(bulkWriter.update(eq(ref), anyMap())).thenReturn(ApiFutures.immediateFuture(writeResult));
+        buffer.enqueue("user_sessions", "s1", Map.of("lastAccessedAt", Instant.now()));
+
+        buffer.shutdown();
+
+        verify(bulkWriter).update(eq(ref), anyMap());
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void emptyFlushDoesNotTouchFirestore() {
+        assertEquals(0, buffer.flush());
+        verifyNoInteractions(firestore);
+    }
+}
@@ -0,0 +1,203 @@
+package com.app.repository.impl;
+
+import com.app.deadline.RequestDeadline;
+import com.app.exception.DownstreamServiceException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadThroughCacheTest {
+
+    private MeterRegistry meterRegistry;
+    private AtomicLong clock;
+    private ReadThroughCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new AtomicLong(1_000_000L);
+        cache = new ReadThroughCache<>("test", Duration.ofSeconds(30), 100, meterRegistry, clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.set(null);
+    }
+
+    private double count(String meter) {
+        return meterRegistry.find(meter).tag("cache", "test").counter().count();
+    }
+
+    @Test
+    void concurrentLoadsOfSameKeyShareOneInFlightFuture() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> first = cache.get("k", () -> {
+            loads.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> second = cache.get("k", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+
+        assertSame(first, second);
+        pending.complete("v");
+        assertEquals("v", second.get());
+        assertEquals(1, loads.get());
+        assertEquals(1.0, count("app.cache.misses"));
+        assertEquals(1.0, count("app.cache.hits"));
+        assertEquals(1.0, count("app.cache.coalesced"));
+    }
+
+    @Test
+    void completedValueIsServedUntilTtlExpires() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("k", () -> CompletableFuture.completedFuture("v" + loads.incrementAndGet())).get();
+        assertEquals("v1", cache.get("k", () -> CompletableFuture.completedFuture("v" + loads.incrementAndGet())).get());
+        assertEquals(1.0, count("app.cache.hits"));
+        assertEquals(0.0, count("app.cache.coalesced"));
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertEquals("v2", cache.get("k", () -> CompletableFuture.completedFuture("v" + loads.incrementAndGet())).get());
+        assertEquals(2.0, count("app.cache.misses"));
+    }
+
+    @Test
+    void failedLoadsAreNotCached() {
+        CompletableFuture<String> failed = cache.get("k",
+                () -> CompletableFuture.failedFuture(new RuntimeException("unavailable")));
+
+        assertThrows(ExecutionException.class, failed::get);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidateDuringLoadKeepsPreWriteValueOutOfCache() throws Exception {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> inFlight = cache.get("k", () -> pending);
+
+        cache.invalidate("k");
+        pending.complete("stale");
+
+        assertEquals("stale", inFlight.get());
+        assertEquals("fresh", cache.get("k", () -> CompletableFuture.completedFuture("fresh")).get());
+    }
+
+    @Test
+    void putIsIgnoredAfterInvalidationOfTheSameKeyOnly() throws Exception {
+        long readGeneration = cache.generation();
+        cache.invalidate("k");
+        cache.invalidate("other");
+
+        cache.put("k", "stale", readGeneration);
+        cache.put("third", "v3", readGeneration);
+
+        assertEquals(1, cache.size());
+        cache.put("k", "v", cache.generation());
+        assertEquals("v", cache.get("k", () -> CompletableFuture.completedFuture("loaded")).get());
+        assertEquals("v3", cache.get("third", () -> CompletableFuture.completedFuture("loaded")).get());
+    }
+
+    @Test
+    void invalidatingAnotherKeyDoesNotDropAnInFlightLoad() throws Exception {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        cache.get("k", () -> pending);
+
+        cache.invalidate("other");
+        pending.complete("v");
+
+        assertEquals("v", cache.get("k", () -> CompletableFuture.completedFuture("reloaded")).get());
+    }
+
+    @Test
+    void readsOlderThanForgottenInvalidationsAreTreatedAsStale() {
+        ReadThroughCache<Integer, String> small = new ReadThroughCache<>("small", Duration.ofSeconds(30), 3,
+                meterRegistry, clock::get);
+        long readGeneration = small.generation();
+
+        for (int i = 0; i < 10; i++) {
+            small.invalidate(i);
+        }
+        small.put(100, "stale", readGeneration);
+
+        assertEquals(0, small.size());
+    }
+
+    @Test
+    void sizeIsBounded() {
+        ReadThroughCache<Integer, Integer> small = new ReadThroughCache<>("small", Duration.ofSeconds(30), 3,
+                meterRegistry, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            int value = i;
+            small.get(i, () -> CompletableFuture.completedFuture(value));
+        }
+
+        assertTrue(small.size() <= 3, "size " + small.size());
+        assertTrue(meterRegistry.find("app.cache.evictions").tag("cache", "small").tag("reason", "size")
+                .counter().count() > 0);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() throws Exception {
+        ReadThroughCache<Integer, Integer> small = new ReadThroughCache<>("small", Duration.ofSeconds(30), 3,
+                meterRegistry, clock::get);
+        for (int i = 0; i < 3; i++) {
+            int value = i;
+            small.get(i, () -> CompletableFuture.completedFuture(value));
+        }
+
+        small.get(0, () -> CompletableFuture.completedFuture(-1));
+        small.get(3, () -> CompletableFuture.completedFuture(3));
+
+        assertEquals(3, small.size());
+        assertEquals(0, small.get(0, () -> CompletableFuture.completedFuture(-1)).get());
+        assertEquals(-1, small.get(1, () -> CompletableFuture.completedFuture(-1)).get());
+    }
+
+    @Test
+    void loadRunsWithoutTheFirstCallersDeadline() {
+        RequestDeadline.set(new RequestDeadline(1000, TimeUnit.MILLISECONDS, meterRegistry));
+        AtomicInteger seen = new AtomicInteger(-1);
+
+        cache.get("k", () -> {
+            seen.set(RequestDeadline.current().isPresent() ? 1 : 0);
+            return new CompletableFuture<>();
+        });
+
+        assertEquals(0, seen.get());
+        assertTrue(RequestDeadline.current().isPresent());
+    }
+
+    @Test
+    void eachWaiterIsBoundedByItsOwnDeadline() throws Exception {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        RequestDeadline.set(new RequestDeadline(10, TimeUnit.SECONDS, meterRegistry));
+        CompletableFuture<String> patient = cache.get("k", () -> pending);
+
+        RequestDeadline.set(new RequestDeadline(50, TimeUnit.MILLISECONDS, meterRegistry));
+        CompletableFuture<String> hurried = cache.get("k", () -> CompletableFuture.completedFuture("other"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> hurried.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DownstreamServiceException.class, e.getCause());
+        assertFalse(patient.isDone());
+        assertFalse(pending.isCancelled());
+
+        pending.complete("v");
+        assertEquals("v", patient.get());
+    }
+}
@@ -0,0 +1,175 @@
+package com.app.service;
+
+import com.app.exception.ErrorCode;
+import com.app.exception.GatewayException;
+import com.app.repository.AccountDeletionJobRepository;
+import com.app.repository.AccountDeletionJobRepository.DeletionJob;
+import com.app.repository.AccountDeletionJobRepository.Status;
+import com.app.repository.JobLeaseRepository;
+import com.app.repository.JobLeaseRepository.Lease;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountDeletionQueueProcessorTest {
+
+    @Mock
+    private AccountDeletionJobRepository jobRepository;
+
+    @Mock
+    private AccountDeletionService deletionService;
+
+    @Mock
+    private JobLeaseRepository leaseRepository;
+
+    private MeterRegistry meterRegistry;
+    private AccountDeletionQueueProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // No pacing in tests; 3 attempts, RUNNING jobs are stale after 60s
+        processor = new AccountDeletionQueueProcessor(jobRepository, deletionService, leaseRepository, meterRegistry,
+                true, 50, 0, 3, 60, 60, System::nanoTime);
+    }
+
+    private void grantLease() {
+        when(leaseRepository.tryAcquire(eq(AccountDeletionQueueProcessor.JOB_NAME), anyString(), any(Duration.class)))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(
+                        new Lease(AccountDeletionQueueProcessor.JOB_NAME, "me", 0L, null))));
+    }
+
+    private double jobs(String result) {
+        return meterRegistry.find("app.account.deletion.queue.jobs").tag("result", result).counter().count();
+    }
+
+    private static DeletionJob job(String userId, Status status, int attempts, long updatedAtMillis) {
+        return new DeletionJob(userId, "google", status, Map.of(), attempts, 0L, updatedAtMillis);
+    }
+
+    @Test
+    void skipsWhenAnotherInstanceHoldsTheLease() {
+        when(leaseRepository.tryAcquire(eq(AccountDeletionQueueProcessor.JOB_NAME), anyString(), any(Duration.class)))
+                .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        assertEquals(AccountDeletionQueueProcessor.Outcome.NOT_LEADER, processor.processQueue());
+
+        verifyNoInteractions(jobRepository, deletionService);
+    }
+
+    @Test
+    void deletesRunnableJobsAndSkipsInFlightOrExhaustedOnes() {
+        long now = System.currentTimeMillis();
+        grantLease();
+        when(jobRepository.findUnfinished(null, 50)).thenReturn(CompletableFuture.completedFuture(List.of(
+                job("queued", Status.QUEUED, 0, now),
+                job("in-flight", Status.RUNNING, 1, now),
+                job("crashed", Status.RUNNING, 1, now - 120_000),
+                job("exhausted", Status.FAILED, 3, now - 120_000),
+                job("failing", Status.FAILED, 1, now - 120_000))));
+        when(deletionService.deleteAccount("queued")).thenReturn(CompletableFuture.completedFuture("google"));
+        when(deletionService.deleteAccount("crashed")).thenReturn(CompletableFuture.completedFuture("google"));
+        when(deletionService.deleteAccount("failing")).thenReturn(CompletableFuture.failedFuture(
+                new GatewayException(ErrorCode.ACCOUNT_DELETION_FAILED, "Account deletion failed")));
+        when(leaseRepository.renew(eq(AccountDeletionQueueProcessor.JOB_NAME), anyString(), any(Duration.class), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        when(leaseRepository.release(eq(AccountDeletionQueueProcessor.JOB_NAME), anyString(), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(AccountDeletionQueueProcessor.Outcome.COMPLETED, processor.processQueue());
+
+        verify(deletionService, never()).deleteAccount("in-flight");
+        verify(deletionService, never()).deleteAccount("exhausted");
+        assertEquals(2.0, jobs("deleted"));
+        assertEquals(1.0, jobs("failed"));
+        assertEquals(2.0, jobs("skipped"));
+    }
+
+    @Test
+    void pagesPastMoreThanABatchOfSkippedJobs() {
+        long now = System.currentTimeMillis();
+        grantLease();
+        List<DeletionJob> exhausted = IntStream.range(0, 50)
+                .mapToObj(i -> job("exhausted-" + i, Status.FAILED, 3, now - 120_000))
+                .toList();
+        DeletionJob last = exhausted.get(49);
+        when(jobRepository.findUnfinished(null, 50)).thenReturn(CompletableFuture.completedFuture(exhausted));
+        when(jobRepository.findUnfinished(last, 50)).thenReturn(CompletableFuture.completedFuture(List.of(
+                job("in-flight", Status.RUNNING, 1, now),
+                job("newer", Status.QUEUED, 0, now))));
+        when(deletionService.deleteAccount("newer")).thenReturn(CompletableFuture.completedFuture("google"));
+        when(leaseRepository.renew(eq(AccountDeletionQueueProcessor.JOB_NAME), anyString(), any(Duration.class), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        when(leaseRepository.release(eq(AccountDeletionQueueProcessor.JOB_NAME), anyString(), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(AccountDeletionQueueProcessor.Outcome.COMPLETED, processor.processQueue());
+
+        verify(deletionService).deleteAccount("newer");
+        verify(deletionService, never()).deleteAccount("in-flight");
+        assertEquals(1.0, jobs("deleted"));
+        assertEquals(51.0, jobs("skipped"));
+    }
+
+    @Test
+    void stopsAfterABatchOfAttempts() {
+        grantLease();
+        AccountDeletionQueueProcessor small = new AccountDeletionQueueProcessor(jobRepository, deletionService,
+                leaseRepository, meterRegistry, true, 2, 0, 3, 60, 60, System::nanoTime);
+        when(jobRepository.findUnfinished(null, 2)).thenReturn(CompletableFuture.completedFuture(List.of(
+                job("a", Status.QUEUED, 0, 0L),
+                job("b", Status.QUEUED, 0, 0L))));
+        when(deletionService.deleteAccount(anyString())).thenReturn(CompletableFuture.completedFuture("google"));
+        when(leaseRepository.renew(eq(AccountDeletionQueueProcessor.JOB_NAME), anyString(), any(Duration.class), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        when(leaseRepository.release(eq(AccountDeletionQueueProcessor.JOB_NAME), anyString(), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(AccountDeletionQueueProcessor.Outcome.COMPLETED, small.processQueue());
+
+        verify(jobRepository, times(1)).findUnfinished(any(), anyInt());
+        assertEquals(2.0, jobs("deleted"));
+    }
+
+    @Test
+    void stopsWhenLeaseIsLost() {
+        grantLease();
+        when(jobRepository.findUnfinished(null, 50)).thenReturn(CompletableFuture.completedFuture(List.of(
+                job("a", Status.QUEUED, 0, 0L),
+                job("b", Status.QUEUED, 0, 0L))));
+        when(deletionService.deleteAccount("a")).thenReturn(CompletableFuture.completedFuture("google"));
+        when(leaseRepository.renew(eq(AccountDeletionQueueProcessor.JOB_NAME), anyString(), any(Duration.class), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(false));
+
+        assertEquals(AccountDeletionQueueProcessor.Outcome.PARTIAL, processor.processQueue());
+
+        verify(deletionService, never()).deleteAccount("b");
+        verify(leaseRepository, never()).release(anyString(), anyString(), any());
+    }
+
+    @Test
+    void disabledProcessorDoesNothing() {
+        AccountDeletionQueueProcessor disabled = new AccountDeletionQueueProcessor(jobRepository, deletionService,
+                leaseRepository, meterRegistry, false, 50, 0, 3, 60, 60, System::nanoTime);
+
+        assertEquals(AccountDeletionQueueProcessor.Outcome.DISABLED, disabled.processQueue());
+
+        verifyNoInteractions(jobRepository, deletionService, leaseRepository);
+    }
+}
@@ -3,7 +3,9 @@ package com.app.service;
 import com.app.exception.ErrorCode;
 import com.app.exception.GatewayException;
 import com.app.model.User;
-import com.app.model.UserSession;
+import com.app.repository.AccountDeletionJobRepository;
+import com.app.repository.AccountDeletionJobRepository.DeletionJob;
+import com.app.repository.AccountDeletionJobRepository.Status;
 import com.app.repository.UserProfileRepository;
 import com.app.repository.UserRepository;
 import com.app.repository.UserSessionRepository;
@@ -17,7 +19,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Instant;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -32,7 +34,7 @@ class AccountDeletionServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private UserProfileRepository userProfileRepository;
     @Mock private UserSessionRepository userSessionRepository;
-    @Mock private SessionService sessionService;
+    @Mock private AccountDeletionJobRepository jobRepository;
     @Mock private ApplicationMetricsService metricsService;
 
     private AccountDeletionService deletionService;
@@ -54,7 +56,7 @@ class AccountDeletionServiceTest {
 
         deletionService = new AccountDeletionService(
                 userRepository, userProfileRepository, userSessionRepository,
-                sessionService, metricsService, circuitBreakerRegistry
+                jobRepository, metricsService, circuitBreakerRegistry
         );
 
         testUser = new User();
@@ -70,14 +72,10 @@ class AccountDeletionServiceTest {
     @DisplayName("Happy path: full cascading deletion succeeds")
     void deleteAccount_Success() throws Exception {
         // Arrange
-        when(userRepository.findById(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(Optional.of(testUser)));
-        when(userProfileRepository.exists(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(true));
+        stubUser(Optional.of(testUser));
+        stubJob(Optional.empty(), newJob(1));
         when(userProfileRepository.delete(USER_ID))
                 .thenReturn(CompletableFuture.completedFuture(null));
-        when(sessionService.revokeAllUserSessions(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(List.of()));
         when(userSessionRepository.deleteAllUserSessions(USER_ID))
                 .thenReturn(CompletableFuture.completedFuture(0L));
         when(userRepository.deleteUser(USER_ID))
@@ -89,14 +87,19 @@ class AccountDeletionServiceTest {
         // Assert
         assertEquals(PROVIDER, provider);
 
-        // Verify cascading order
-        var inOrder = inOrder(userProfileRepository, sessionService,
-                userSessionRepository, userRepository);
-        inOrder.verify(userProfileRepository).exists(USER_ID);
+        // User record goes only after profile and sessions; the job is removed last
+        var inOrder = inOrder(userProfileRepository, userRepository, jobRepository);
         inOrder.verify(userProfileRepository).delete(USER_ID);
-        inOrder.verify(sessionService).revokeAllUserSessions(USER_ID);
-        inOrder.verify(userSessionRepository).deleteAllUserSessions(USER_ID);
         inOrder.verify(userRepository).deleteUser(USER_ID);
+        inOrder.verify(jobRepository).complete(USER_ID);
+        var sessionsFirst = inOrder(userSessionRepository, userRepository);
+        sessionsFirst.verify(userSessionRepository).deleteAllUserSessions(USER_ID);
+        sessionsFirst.verify(userRepository).deleteUser(USER_ID);
+
+        // Every step is checkpointed
+        verify(jobRepository).markStepCompleted(USER_ID, "delete_profile");
+        verify(jobRepository).markStepCompleted(USER_ID, "delete_sessions");
+        verify(jobRepository).markStepCompleted(USER_ID, "delete_user");
 
         // Verify metrics
         verify(metricsService).recordAccountDeletionStep(eq("delete_profile"), eq(true), anyLong());
@@ -106,21 +109,13 @@ class AccountDeletionServiceTest {
     }
 
     @Test
-    @DisplayName("Multi-device: revokes sessions on multiple devices before deletion")
-    void deleteAccount_MultiDevice_RevokesAllSessions() throws Exception {
+    @DisplayName("Multi-device: deletes sessions on every device in one pass without revoking first")
+    void deleteAccount_MultiDevice_DeletesAllSessions() throws Exception {
         // Arrange -3 sessions across different devices
-        UserSession session1 = createSession("sess-1", "iphone-A", "ios");
-        UserSession session2 = createSession("sess-2", "ipad-B", "ios");
-        UserSession session3 = createSession("sess-3", "pixel-C", "android");
-
-        when(userRepository.findById(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(Optional.of(testUser)));
-        when(userProfileRepository.exists(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(true));
+        stubUser(Optional.of(testUser));
+        stubJob(Optional.empty(), newJob(1));
         when(userProfileRepository.delete(USER_ID))
                 .thenReturn(CompletableFuture.completedFuture(null));
-        when(sessionService.revokeAllUserSessions(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(List.of(session1, session2, session3)));
         when(userSessionRepository.deleteAllUserSessions(USER_ID))
                 .thenReturn(CompletableFuture.completedFuture(3L));
         when(userRepository.deleteUser(USER_ID))
@@ -129,55 +124,74 @@ class AccountDeletionServiceTest {
         // Act
         deletionService.deleteAccount(USER_ID).get();
 
-        // Assert -all 3 sessions were revoked and then deleted
-        verify(metricsService).recordAccountDeletionSessionsRevoked(3);
+        // Assert
+        verify(metricsService).recordAccountDeletionSessionsDeleted(3L);
         verify(userSessionRepository).deleteAllUserSessions(USER_ID);
+        verify(userSessionRepository, never()).revokeAllUserSessions(anyString());
     }
 
     @Test
     @DisplayName("User not found returns USER_NOT_FOUND error")
     void deleteAccount_UserNotFound() {
-        when(userRepository.findById(USER_ID))
+        stubUser(Optional.empty());
+        when(jobRepository.findByUserId(USER_ID))
                 .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
 
         ExecutionException ex = assertThrows(ExecutionException.class,
                 () -> deletionService.deleteAccount(USER_ID).get());
         assertTrue(ex.getCause() instanceof GatewayException);
         assertEquals(ErrorCode.USER_NOT_FOUND, ((GatewayException) ex.getCause()).getErrorCode());
+        verify(jobRepository, never()).begin(anyString(), anyString());
     }
 
     @Test
-    @DisplayName("No profile to delete: skips profile deletion gracefully")
-    void deleteAccount_NoProfile_SkipsProfileDeletion() throws Exception {
-        when(userRepository.findById(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(Optional.of(testUser)));
-        when(userProfileRepository.exists(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(false));
-        when(sessionService.revokeAllUserSessions(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(List.of()));
-        when(userSessionRepository.deleteAllUserSessions(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(0L));
+    @DisplayName("Resume: steps checkpointed by an earlier attempt are skipped")
+    void deleteAccount_ResumesFromCheckpoint() throws Exception {
+        // Arrange -earlier attempt deleted profile and sessions, then crashed
+        DeletionJob interrupted = job(Status.RUNNING, 2, Map.of("delete_profile", 1L, "delete_sessions", 2L));
+        stubUser(Optional.of(testUser));
+        stubJob(Optional.of(interrupted), interrupted);
         when(userRepository.deleteUser(USER_ID))
                 .thenReturn(CompletableFuture.completedFuture(null));
 
         // Act
         deletionService.deleteAccount(USER_ID).get();
 
-        // Assert -profile delete was never called
+        // Assert
         verify(userProfileRepository, never()).delete(anyString());
-        verify(metricsService).recordAccountDeletionStep(eq("delete_profile"), eq(true), anyLong());
+        verify(userSessionRepository, never()).deleteAllUserSessions(anyString());
+        verify(userRepository).deleteUser(USER_ID);
+        verify(jobRepository).complete(USER_ID);
     }
 
     @Test
-    @DisplayName("Profile deletion failure aborts entire process")
+    @DisplayName("Resume: a job whose user record is already gone still completes")
+    void deleteAccount_UserRecordGone_ResumesFromJob() throws Exception {
+        // Arrange -crash after the user record was deleted but before the job was removed
+        DeletionJob interrupted = job(Status.FAILED, 2,
+                Map.of("delete_profile", 1L, "delete_sessions", 2L, "delete_user", 3L));
+        stubUser(Optional.empty());
+        stubJob(Optional.of(interrupted), interrupted);
+
+        // Act
+        String provider = deletionService.deleteAccount(USER_ID).get();
+
+        // Assert
+        assertEquals(PROVIDER, provider);
+        verify(userRepository, never()).deleteUser(anyString());
+        verify(jobRepository).complete(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Profile deletion failure aborts before the user record is deleted")
     void deleteAccount_ProfileDeleteFails_Aborts() {
-        when(userRepository.findById(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(Optional.of(testUser)));
-        when(userProfileRepository.exists(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(true));
+        stubUser(Optional.of(testUser));
+        stubJob(Optional.empty(), newJob(1));
         when(userProfileRepository.delete(USER_ID))
                 .thenReturn(CompletableFuture.failedFuture(
                         new RuntimeException("Firestore timeout")));
+        when(userSessionRepository.deleteAllUserSessions(USER_ID))
+                .thenReturn(CompletableFuture.completedFuture(0L));
 
         ExecutionException ex = assertThrows(ExecutionException.class,
                 () -> deletionService.deleteAccount(USER_ID).get());
@@ -185,22 +199,24 @@ class AccountDeletionServiceTest {
         assertEquals(ErrorCode.ACCOUNT_DELETION_FAILED,
                 ((GatewayException) ex.getCause()).getErrorCode());
 
-        // User record should NOT be deleted if profile deletion failed
+        // User record should NOT be deleted if profile deletion failed; the independent session step still ran
         verify(userRepository, never()).deleteUser(anyString());
+        verify(jobRepository).markStepCompleted(USER_ID, "delete_sessions");
+        verify(jobRepository, never()).markStepCompleted(USER_ID, "delete_profile");
+        verify(jobRepository).markFailed(eq(USER_ID), anyString());
+        verify(jobRepository, never()).complete(anyString());
         verify(metricsService).recordAccountDeletionStep(eq("delete_profile"), eq(false), anyLong());
         verify(metricsService).recordAccountDeletion(eq("unknown"), eq(false), anyLong());
     }
 
     @Test
-    @DisplayName("Session revocation failure aborts deletion")
-    void deleteAccount_SessionRevocationFails_Aborts() {
-        when(userRepository.findById(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(Optional.of(testUser)));
-        when(userProfileRepository.exists(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(true));
+    @DisplayName("Session deletion failure aborts deletion")
+    void deleteAccount_SessionDeletionFails_Aborts() {
+        stubUser(Optional.of(testUser));
+        stubJob(Optional.empty(), newJob(1));
         when(userProfileRepository.delete(USER_ID))
                 .thenReturn(CompletableFuture.completedFuture(null));
-        when(sessionService.revokeAllUserSessions(USER_ID))
+        when(userSessionRepository.deleteAllUserSessions(USER_ID))
                 .thenReturn(CompletableFuture.failedFuture(
                         new RuntimeException("Firestore connection refused")));
 
@@ -216,12 +232,10 @@ class AccountDeletionServiceTest {
     @Test
     @DisplayName("User record deletion failure records failure metrics")
     void deleteAccount_UserRecordDeleteFails() {
-        when(userRepository.findById(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(Optional.of(testUser)));
-        when(userProfileRepository.exists(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(false));
-        when(sessionService.revokeAllUserSessions(USER_ID))
-                .thenReturn(CompletableFuture.completedFuture(List.of()));
+        stubUser(Optional.of(testUser));
+        stubJob(Optional.empty(), newJob(1));
+        when(userProfileRepository.delete(USER_ID))
+                .thenReturn(CompletableFuture.completedFuture(null));
         when(userSessionRepository.deleteAllUserSessions(USER_ID))
                 .thenReturn(CompletableFuture.completedFuture(0L));
         when(userRepository.deleteUser(USER_ID))
@@ -241,9 +255,11 @@ class AccountDeletionServiceTest {
         // Arrange -make the first deletion hang
         CompletableFuture<Optional<User>> hangingFuture = new CompletableFuture<>();
         when(userRepository.findById(USER_ID)).thenReturn(hangingFuture);
+        when(jobRepository.findByUserId(USER_ID))
+                .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
 
         // Act -start first deletion (will hang on findById)
-        deletionService.deleteAccount(USER_ID);
+        CompletableFuture<String> first = deletionService.deleteAccount(USER_ID);
 
         // Second deletion should fail immediately
         CompletableFuture<String> second = deletionService.deleteAccount(USER_ID);
@@ -254,21 +270,43 @@ class AccountDeletionServiceTest {
 
         // Complete the first one so it doesn't hang the test
         hangingFuture.complete(Optional.empty());
+        assertThrows(ExecutionException.class, first::get);
+    }
+
+    @Test
+    @DisplayName("Queued deletion records a job without deleting anything")
+    void requestDeletion_QueuesJob() throws Exception {
+        DeletionJob queued = job(Status.QUEUED, 0, Map.of());
+        stubUser(Optional.of(testUser));
+        when(jobRepository.enqueue(USER_ID, PROVIDER)).thenReturn(CompletableFuture.completedFuture(queued));
+
+        assertSame(queued, deletionService.requestDeletion(USER_ID).get());
+        verifyNoInteractions(userProfileRepository, userSessionRepository);
+        verify(userRepository, never()).deleteUser(anyString());
     }
 
     // ── Helper ───────────────────────────────────────────────────────────
 
-    private UserSession createSession(String id, String deviceId, String platform) {
-        UserSession session = new UserSession();
-        session.setId(id);
-        session.setUserId(USER_ID);
-        session.setDeviceId(deviceId);
-        session.setPlatform(platform);
-        session.setDeviceType("mobile");
-        session.setActive(true);
-        session.setCreatedAt(Instant.now());
-        session.setLastAccessedAt(Instant.now());
-        session.setExpiresAt(Instant.now().plusSeconds(86400));
-        return session;
+    private void stubUser(Optional<User> user) {
+        when(userRepository.findById(USER_ID)).thenReturn(CompletableFuture.completedFuture(user));
+    }
+
+    private void stubJob(Optional<DeletionJob> existing, DeletionJob begun) {
+        when(jobRepository.findByUserId(USER_ID)).thenReturn(CompletableFuture.completedFuture(existing));
+        when(jobRepository.begin(eq(USER_ID), anyString())).thenReturn(CompletableFuture.completedFuture(begun));
+        lenient().when(jobRepository.markStepCompleted(eq(USER_ID), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        lenient().when(jobRepository.markFailed(eq(USER_ID), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        lenient().when(jobRepository.complete(USER_ID)).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    private DeletionJob newJob(int attempts) {
+        return job(Status.RUNNING, attempts, Map.of());
+    }
+
+    private DeletionJob job(DeletionStatus status, int attempts, Map<String, Long> completedSteps) {
+        long now = System.currentTimeMillis();
+        return new DeletionJob(USER_ID, PROVIDER, status, completedSteps, attempts, now, now);
     }
 }
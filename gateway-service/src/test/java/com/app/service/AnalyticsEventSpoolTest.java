@@ -0,0 +1,181 @@
+package com.app.service;
+
+import com.app.analytics.AnalyticsSegmentFormat;
+import com.app.analytics.AnalyticsSegmentFormat.SpooledEvent;
+import com.app.dto.AnalyticsEventBatchDTO;
+import com.app.dto.AnalyticsEventBatchDTO.AnalyticsEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticsEventSpoolTest {
+
+    private static final Set<String> ALLOWED = Set.of("story_opened", "story_abandoned");
+
+    @TempDir
+    Path directory;
+
+    private MeterRegistry meterRegistry;
+    private final AtomicLong clock = new AtomicLong(1_700_000_012_345L);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private AnalyticsEventSpool spool(boolean enabled, long segmentMaxBytes, long maxTotalBytes) {
+        return new AnalyticsEventSpool(ALLOWED, meterRegistry, enabled, directory, segmentMaxBytes, 60,
+                maxTotalBytes, clock::get);
+    }
+
+    private static AnalyticsEventBatchDTO batch(String event, Map<String, String> properties, int copies) {
+        AnalyticsEventBatchDTO batch = new AnalyticsEventBatchDTO();
+        batch.setSessionId("session-should-not-be-spooled");
+        batch.setPlatform("ios");
+        batch.setAppVersion("1.2.0");
+        batch.setLocale("en");
+        AnalyticsEvent analyticsEvent = new AnalyticsEvent();
+        analyticsEvent.setEvent(event);
+        analyticsEvent.setProperties(properties);
+        batch.setEvents(Collections.nCopies(copies, analyticsEvent));
+        return batch;
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(suffix)).sorted().toList();
+        }
+    }
+
+    private List<SpooledEvent> readAll() throws IOException {
+        List<SpooledEvent> events = new ArrayList<>();
+        for (Path segment : files(AnalyticsSegmentFormat.COMPRESSED_SUFFIX)) {
+            try (AnalyticsSegmentFormat.Reader reader = AnalyticsSegmentFormat.Reader.open(segment)) {
+                SpooledEvent event;
+                while ((event = reader.next()) != null) {
+                    events.add(event);
+                }
+            }
+        }
+        return events;
+    }
+
+    private double events(String result) {
+        return meterRegistry.find("app.analytics.spool.events").tag("result", result).counter().count();
+    }
+
+    @Test
+    void disabledSpoolWritesNothing() throws IOException {
+        AnalyticsEventSpool spool = spool(false, 1024, 1 << 20);
+
+        spool.append(batch("story_opened", Map.of("storyId", "s1"), 1));
+        spool.shutdown();
+
+        assertTrue(files("").isEmpty());
+    }
+
+    @Test
+    void keepsOnlyAllowlistedFieldsAndTruncatesTime() throws IOException {
+        AnalyticsEventSpool spool = spool(true, 1 << 20, 1 << 20);
+
+        spool.append(batch("story_abandoned", Map.of(
+                "storyId", "s1",
+                "lastPage", "7",
+                "pagesViewed", "a lot",
+                "childName", "Freya"), 1));
+        spool.append(batch("unknown_event", Map.of("storyId", "s1"), 1));
+        spool.shutdown();
+
+        List<SpooledEvent> spooled = readAll();
+        assertEquals(1, spooled.size());
+        SpooledEvent event = spooled.get(0);
+        assertEquals("story_abandoned", event.event());
+        assertEquals(clock.get() / 60_000L, event.epochMinute());
+        assertEquals(Map.of("storyId", "s1", "lastPage", "7"), event.properties());
+        assertEquals(1.0, events("written"));
+        assertEquals(1.0, events("skipped"));
+    }
+
+    @Test
+    void rollsAndCompressesSegmentsBySizeAndAge() throws IOException {
+        AnalyticsEventSpool spool = spool(true, 1024, 1 << 20);
+
+        spool.append(batch("story_opened", Map.of("storyId", "s1"), 300));
+        spool.tick();
+        assertEquals(1, files(AnalyticsSegmentFormat.COMPRESSED_SUFFIX).size(), "size limit rolls the segment");
+
+        spool.append(batch("story_opened", Map.of("storyId", "s2"), 1));
+        spool.tick();
+        assertEquals(1, files(AnalyticsSegmentFormat.OPEN_SUFFIX).size(), "young segment stays open");
+
+        clock.addAndGet(61_000);
+        spool.tick();
+        assertTrue(files(AnalyticsSegmentFormat.OPEN_SUFFIX).isEmpty());
+        assertEquals(2, files(AnalyticsSegmentFormat.COMPRESSED_SUFFIX).size());
+        assertEquals(301, readAll().size());
+    }
+
+    @Test
+    void appendOnlyClosesTheRolledSegmentAndLeavesCompressionToTheTick() throws IOException {
+        AnalyticsEventSpool spool = spool(true, 1024, 1 << 20);
+
+        spool.append(batch("story_opened", Map.of("storyId", "s1"), 300));
+
+        assertEquals(1, files(AnalyticsSegmentFormat.CLOSED_SUFFIX).size());
+        assertTrue(files(AnalyticsSegmentFormat.COMPRESSED_SUFFIX).isEmpty(), "append must not compress");
+
+        spool.tick();
+
+        assertTrue(files(AnalyticsSegmentFormat.CLOSED_SUFFIX).isEmpty());
+        assertEquals(1, files(AnalyticsSegmentFormat.COMPRESSED_SUFFIX).size());
+    }
+
+    @Test
+    void deletesOldestSegmentsBeyondDiskBudget() throws IOException {
+        AnalyticsEventSpool spool = spool(true, 1024, 1024);
+
+        for (int i = 0; i < 20; i++) {
+            spool.append(batch("story_opened", Map.of("storyId", "story-" + i), 1));
+            clock.addAndGet(61_000);
+            spool.tick();
+        }
+
+        List<Path> kept = files(AnalyticsSegmentFormat.COMPRESSED_SUFFIX);
+        long total = 0;
+        for (Path segment : kept) {
+            total += Files.size(segment);
+        }
+        assertTrue(total <= 1024, "spool should stay within its disk budget");
+        assertTrue(kept.size() < 20);
+        assertEquals("story-19", readAll().get(kept.size() - 1).properties().get("storyId"),
+                "newest segment is kept");
+        assertTrue(meterRegistry.find("app.analytics.spool.segments").tag("result", "deleted").counter().count() > 0);
+    }
+
+    @Test
+    void recoversSegmentLeftOpenByCrash() throws IOException {
+        AnalyticsEventSpool crashed = spool(true, 1 << 20, 1 << 20);
+        crashed.append(batch("story_opened", Map.of("storyId", "s1"), 2));
+        crashed.tick();
+
+        spool(true, 1 << 20, 1 << 20);
+
+        assertTrue(files(AnalyticsSegmentFormat.OPEN_SUFFIX).isEmpty());
+        assertEquals(2, readAll().size());
+    }
+}
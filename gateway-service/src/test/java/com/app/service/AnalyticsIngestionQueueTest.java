@@ -0,0 +1,118 @@
+package com.app.service;
+
+import com.app.dto.AnalyticsEventBatchDTO;
+import com.app.dto.AnalyticsEventBatchDTO.AnalyticsEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsIngestionQueueTest {
+
+    @Mock
+    private ContentAnalyticsService analyticsService;
+
+    @Mock
+    private AnalyticsEventSpool spool;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private double batches(String result) {
+        return meterRegistry.find("app.analytics.queue.batches").tag("result", result).counter().count();
+    }
+
+    private static AnalyticsEventBatchDTO batch(int events) {
+        AnalyticsEventBatchDTO batch = new AnalyticsEventBatchDTO();
+        batch.setPlatform("ios");
+        AnalyticsEvent event = new AnalyticsEvent();
+        event.setEvent("story_opened");
+        batch.setEvents(Collections.nCopies(events, event));
+        return batch;
+    }
+
+    @Test
+    void dropsAndCountsBatchesWhenFull() {
+        AnalyticsIngestionQueue queue = new AnalyticsIngestionQueue(analyticsService, spool, meterRegistry, 2, 1000, false);
+
+        assertTrue(queue.offer(batch(1)));
+        assertTrue(queue.offer(batch(1)));
+        assertFalse(queue.offer(batch(5)));
+
+        assertEquals(2, queue.depth());
+        assertEquals(2.0, batches("accepted"));
+        assertEquals(1.0, batches("dropped"));
+        assertEquals(5.0, meterRegistry.find("app.analytics.queue.events.dropped").counter().count());
+        assertEquals(2.0, meterRegistry.find("app.analytics.queue.depth").gauge().value());
+        verifyNoInteractions(analyticsService, spool);
+    }
+
+    @Test
+    void drainProcessesQueuedBatchesAndRecordsLag() {
+        AnalyticsIngestionQueue queue = new AnalyticsIngestionQueue(analyticsService, spool, meterRegistry, 10, 1000, false);
+        AnalyticsEventBatchDTO first = batch(1);
+        AnalyticsEventBatchDTO second = batch(2);
+        queue.offer(first);
+        queue.offer(second);
+
+        assertEquals(2, queue.drain());
+
+        var inOrder = inOrder(analyticsService);
+        inOrder.verify(analyticsService).processBatch(first);
+        inOrder.verify(analyticsService).processBatch(second);
+        verify(spool).append(first);
+        verify(spool).append(second);
+        assertEquals(0, queue.depth());
+        assertEquals(2, meterRegistry.find("app.analytics.queue.lag").timer().count());
+    }
+
+    @Test
+    void processingFailureIsCountedAndDoesNotStopTheQueue() {
+        AnalyticsIngestionQueue queue = new AnalyticsIngestionQueue(analyticsService, spool, meterRegistry, 10, 1000, false);
+        when(analyticsService.processBatch(any())).thenThrow(new IllegalStateException("boom")).thenReturn(1);
+        queue.offer(batch(1));
+        queue.offer(batch(1));
+
+        assertEquals(2, queue.drain());
+
+        assertEquals(1.0, batches("failed"));
+        verify(analyticsService, times(2)).processBatch(any());
+    }
+
+    @Test
+    void consumerProcessesInBackgroundAndShutdownDrains() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(analyticsService.processBatch(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+        AnalyticsIngestionQueue queue = new AnalyticsIngestionQueue(analyticsService, spool, meterRegistry, 10, 5000, true);
+
+        for (AnalyticsEventBatchDTO batch : List.of(batch(1), batch(1), batch(1))) {
+            assertTrue(queue.offer(batch));
+        }
+        release.countDown();
+        queue.shutdown();
+
+        verify(analyticsService, times(3)).processBatch(any());
+        assertEquals(0, queue.depth());
+        assertFalse(queue.offer(batch(1)), "no new batches after shutdown");
+    }
+}
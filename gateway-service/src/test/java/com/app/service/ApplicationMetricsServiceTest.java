@@ -33,7 +33,8 @@ class ApplicationMetricsServiceTest {
     @BeforeEach
     void setUp() {
         meterRegistry = new SimpleMeterRegistry();
-        metricsService = new ApplicationMetricsService(meterRegistry);
+        metricsService = new ApplicationMetricsService(meterRegistry,
+                new ClientFingerprintResolver(meterRegistry, 1024), new EndpointTemplateResolver());
     }
 
     @Test
@@ -0,0 +1,151 @@
+package com.app.service;
+
+import com.app.service.AuditEventPipeline.EventType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditEventPipelineTest {
+
+    private MeterRegistry meterRegistry;
+    private List<String> lines;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lines = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    private AuditEventPipeline pipeline(int capacity, int maxBatch) {
+        return new AuditEventPipeline(meterRegistry, capacity, 60_000, maxBatch,
+                (type, json) -> lines.add(json), false);
+    }
+
+    @Test
+    void writesEventsAsJsonLines() {
+        AuditEventPipeline pipeline = pipeline(16, 100);
+
+        pipeline.publish(EventType.SUCCESSFUL_LOGIN, "user-1", "google", null, null, null);
+        pipeline.drainAndMaybeFlush(true);
+
+        assertEquals(1, lines.size());
+        String line = lines.get(0);
+        assertTrue(line.startsWith("{\"event\":\"SUCCESSFUL_LOGIN\""));
+        assertTrue(line.contains("\"userId\":\"user-1\""));
+        assertTrue(line.contains("\"provider\":\"google\""));
+        assertTrue(line.contains("\"timestamp\":"));
+        assertFalse(line.contains("reason"));
+        assertFalse(line.contains("count"));
+    }
+
+    @Test
+    void coalescesIdenticalEventsWithinWindow() {
+        AuditEventPipeline pipeline = pipeline(64, 100);
+
+        for (int i = 0; i < 10; i++) {
+            pipeline.publish(EventType.FAILED_LOGIN, null, null, "Invalid token", null, null);
+        }
+        pipeline.publish(EventType.FAILED_LOGIN, null, null, "Expired token", null, null);
+        pipeline.drainAndMaybeFlush(true);
+
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"reason\":\"Invalid token\""));
+        assertTrue(lines.get(0).contains("\"count\":10"));
+        assertTrue(lines.get(0).contains("\"lastTimestamp\":"));
+        assertFalse(lines.get(1).contains("count"));
+        assertEquals(9.0, meterRegistry.find("app.audit.events.coalesced").counter().count());
+    }
+
+    @Test
+    void windowIsNotFlushedBeforeInterval() {
+        AuditEventPipeline pipeline = pipeline(16, 100);
+
+        pipeline.publish(EventType.TOKEN_REFRESH, "user-1", null, null, null, null);
+        assertEquals(1, pipeline.drainAndMaybeFlush(false));
+
+        assertTrue(lines.isEmpty());
+        assertEquals(0, pipeline.depth());
+    }
+
+    @Test
+    void dropsAndCountsWhenRingIsFull() {
+        AuditEventPipeline pipeline = pipeline(4, 100);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(pipeline.publish(EventType.SUSPICIOUS_REQUEST, null, null, "r" + i, null, "/x"));
+        }
+        assertFalse(pipeline.publish(EventType.SUSPICIOUS_REQUEST, null, null, "r4", null, "/x"));
+        assertFalse(pipeline.publish(EventType.SUSPICIOUS_REQUEST, null, null, "r5", null, "/x"));
+
+        assertEquals(2, pipeline.getDroppedCount());
+        assertEquals(2.0, meterRegistry.find("app.audit.events").tag("result", "dropped").counter().count());
+
+        pipeline.drainAndMaybeFlush(true);
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(4).contains("\"event\":\"AUDIT_EVENTS_DROPPED\""));
+        assertTrue(lines.get(4).contains("\"count\":2"));
+
+        // Space is reclaimed once drained
+        assertTrue(pipeline.publish(EventType.SUSPICIOUS_REQUEST, null, null, "r6", null, "/x"));
+    }
+
+    @Test
+    void flushesEarlyWhenBatchIsFull() {
+        AuditEventPipeline pipeline = pipeline(16, 2);
+
+        pipeline.publish(EventType.TOKEN_REVOCATION, "a", null, "logout", null, null);
+        pipeline.publish(EventType.TOKEN_REVOCATION, "b", null, "logout", null, null);
+        pipeline.drainAndMaybeFlush(false);
+
+        assertEquals(2, lines.size());
+    }
+
+    @Test
+    void concurrentProducersLoseNothingWhenCapacityAllows() throws InterruptedException {
+        AuditEventPipeline pipeline = pipeline(4096, 10_000);
+        int threads = 8;
+        int perThread = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            String userId = "user-" + t;
+            executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    pipeline.publish(EventType.TOKEN_REFRESH, userId, null, null, null, null);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        pipeline.drainAndMaybeFlush(true);
+
+        assertEquals(threads, lines.size());
+        lines.forEach(line -> assertTrue(line.contains("\"count\":" + perThread), line));
+        assertEquals(0, pipeline.getDroppedCount());
+    }
+
+    @Test
+    void backgroundWriterDrainsOnShutdown() {
+        AuditEventPipeline pipeline = new AuditEventPipeline(meterRegistry, 16, 60_000, 100,
+                (type, json) -> lines.add(json), true);
+
+        pipeline.publish(EventType.SUCCESSFUL_LOGIN, "user-1", "apple", null, null, null);
+        pipeline.shutdown();
+
+        assertEquals(1, lines.size());
+    }
+}
@@ -0,0 +1,88 @@
+package com.app.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientFingerprintResolverTest {
+
+    private MeterRegistry meterRegistry;
+    private ClientFingerprintResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        resolver = new ClientFingerprintResolver(meterRegistry, 2);
+    }
+
+    private MockHttpServletRequest request(String userAgent) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (userAgent != null) {
+            request.addHeader("User-Agent", userAgent);
+        }
+        return request;
+    }
+
+    @Test
+    void classifiesUserAgents() {
+        assertEquals("mobile", resolver.resolveDeviceType(request("Mozilla/5.0 (iPhone; CPU iPhone OS 14_0 like Mac OS X)")));
+        assertEquals("tablet", resolver.resolveDeviceType(request("Mozilla/5.0 (iPad; CPU OS 14_0 like Mac OS X)")));
+        assertEquals("bot", resolver.resolveDeviceType(request("Googlebot/2.1")));
+        assertEquals("unknown", resolver.resolveDeviceType(request(null)));
+
+        assertEquals("android", resolver.resolvePlatform(request("Mozilla/5.0 (Linux; Android 13)")));
+        assertEquals("unknown", resolver.resolvePlatform(request("GrowWithFreya-Test/1.0")));
+    }
+
+    @Test
+    void explicitHeadersTakePrecedence() {
+        MockHttpServletRequest request = request("Mozilla/5.0 (iPhone; CPU iPhone OS 14_0 like Mac OS X)");
+        request.addHeader("X-Device-Type", "Tablet");
+        request.addHeader("X-Client-Platform", "Web");
+        request.addHeader("X-App-Version", "1.2.3");
+
+        ClientFingerprintResolver.ClientFingerprint fingerprint = resolver.resolve(request);
+
+        assertEquals("tablet", fingerprint.deviceType());
+        assertEquals("web", fingerprint.platform());
+        assertEquals("1.2.3", fingerprint.appVersion());
+    }
+
+    @Test
+    void repeatedUserAgentIsServedFromCache() {
+        String ua = "GrowWithFreya/2.0 (iPhone; iOS 17.0)";
+
+        resolver.resolve(request(ua));
+        resolver.resolve(request(ua));
+        resolver.resolve(request(ua));
+
+        assertEquals(1.0, meterRegistry.find("app.cache.misses").tag("cache", "client_fingerprint").counter().count());
+        assertEquals(2.0, meterRegistry.find("app.cache.hits").tag("cache", "client_fingerprint").counter().count());
+        assertEquals(2.0 / 3.0, resolver.hitRatio(), 0.0001);
+    }
+
+    @Test
+    void platformHeaderIsPartOfCacheKey() {
+        MockHttpServletRequest ios = request("GrowWithFreya/2.0");
+        ios.addHeader("X-Platform", "ios");
+        MockHttpServletRequest android = request("GrowWithFreya/2.0");
+        android.addHeader("X-Platform", "android");
+
+        assertEquals("ios", resolver.resolvePlatform(ios));
+        assertEquals("android", resolver.resolvePlatform(android));
+    }
+
+    @Test
+    void cacheIsBounded() {
+        resolver.resolve(request("ua-1"));
+        resolver.resolve(request("ua-2"));
+        resolver.resolve(request("ua-3"));
+
+        assertEquals(2, resolver.size());
+        assertEquals(1.0, meterRegistry.find("app.cache.evictions").tag("cache", "client_fingerprint").counter().count());
+    }
+}
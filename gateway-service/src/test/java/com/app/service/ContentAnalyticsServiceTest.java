@@ -307,6 +307,29 @@ class ContentAnalyticsServiceTest {
             });
     }
 
+    @Test
+    @DisplayName("repeated events in a batch fold into one increment per series")
+    void testBatchFoldsRepeatedEventsPerSeries() {
+        List<AnalyticsEvent> events = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            events.add(createEvent(i % 2 == 0 ? "story_opened" : " Story_Opened ", Map.of("storyId", "abc")));
+        }
+        events.add(createEvent("story_opened", Map.of("storyId", "def")));
+
+        int processed = service.processBatch(createBatch("ios", "1.0", "en", events));
+        service.processBatch(createBatch("ios", "1.0", "en", List.of(createEvent("story_opened", Map.of("storyId", "abc")))));
+
+        assertEquals(501, processed);
+        List<Counter> counters = meterRegistry.getMeters().stream()
+            .filter(m -> m.getId().getName().equals("app.analytics.story_opened"))
+            .map(m -> (Counter) m)
+            .toList();
+        assertEquals(2, counters.size());
+        Counter abc = counters.stream().filter(c -> "abc".equals(c.getId().getTag("storyId"))).findFirst().orElseThrow();
+        assertEquals(501.0, abc.count());
+        assertEquals("Analytics: story_opened", abc.getId().getDescription());
+    }
+
     @Test
     @DisplayName("horizontally scalable -independent instances produce independent counters")
     void testHorizontalScaling() {
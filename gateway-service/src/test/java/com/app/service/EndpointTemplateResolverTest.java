@@ -0,0 +1,93 @@
+package com.app.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EndpointTemplateResolverTest {
+
+    @SuppressWarnings("unchecked")
+    private EndpointTemplateResolver resolverWithRoutes(int maxCachedUris, String... paths) {
+        RequestMappingInfo.BuilderConfiguration config = new RequestMappingInfo.BuilderConfiguration();
+        config.setPatternParser(PathPatternParser.defaultInstance);
+
+        Map<RequestMappingInfo, HandlerMethod> handlerMethods = new LinkedHashMap<>();
+        for (String path : paths) {
+            handlerMethods.put(RequestMappingInfo.paths(path).options(config).build(), mock(HandlerMethod.class));
+        }
+        RequestMappingHandlerMapping mapping = mock(RequestMappingHandlerMapping.class);
+        when(mapping.getHandlerMethods()).thenReturn(handlerMethods);
+
+        ObjectProvider<RequestMappingHandlerMapping> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(mapping);
+        return new EndpointTemplateResolver(provider, maxCachedUris);
+    }
+
+    @Test
+    void prefersHandlerBestMatchingPattern() {
+        EndpointTemplateResolver resolver = new EndpointTemplateResolver();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/stories/abc/download");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/stories/{storyId}/download");
+
+        assertEquals("/api/stories/{storyId}/download", resolver.resolve(request));
+
+        // Stashed on the request so later metric calls reuse it
+        request.removeAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        assertEquals("/api/stories/{storyId}/download", resolver.resolve(request));
+    }
+
+    @Test
+    void matchesRawUrisAgainstRegisteredTemplates() {
+        EndpointTemplateResolver resolver = resolverWithRoutes(100,
+                "/api/stories/{storyId}", "/api/stories/delta", "/api/stories/category/{category}");
+
+        assertEquals("/api/stories/{storyId}", resolver.resolve("/api/stories/story-1"));
+        assertEquals("/api/stories/delta", resolver.resolve("/api/stories/delta"));
+        assertEquals("/api/stories/category/{category}", resolver.resolve("/api/stories/category/bedtime?lang=en"));
+    }
+
+    @Test
+    void fallsBackToIdentifierCollapsingForUnmatchedPaths() {
+        EndpointTemplateResolver resolver = new EndpointTemplateResolver();
+
+        assertEquals("/api/user/{uuid}/profile",
+                resolver.resolve("/api/user/123e4567-e89b-12d3-a456-426614174000/profile"));
+        assertEquals("/api/content/{id}/comments", resolver.resolve("/api/content/12345/comments"));
+        assertEquals("/api/search", resolver.resolve("/api/search?q=test"));
+        assertEquals("unknown", resolver.resolve((String) null));
+    }
+
+    @Test
+    void pathsMatchingNoRouteShareOneBoundedValue() {
+        EndpointTemplateResolver resolver = resolverWithRoutes(100, "/api/stories/{storyId}");
+
+        assertEquals(EndpointTemplateResolver.UNMATCHED, resolver.resolve("/wp-admin/setup.php"));
+        assertEquals(EndpointTemplateResolver.UNMATCHED, resolver.resolve("/api/content/12345/comments"));
+        assertEquals(EndpointTemplateResolver.UNMATCHED,
+                resolver.resolve(new MockHttpServletRequest("GET", "/.env")));
+        assertEquals(0, resolver.cachedUriCount());
+    }
+
+    @Test
+    void uriCacheIsBounded() {
+        EndpointTemplateResolver resolver = resolverWithRoutes(2, "/api/stories/{storyId}");
+
+        resolver.resolve("/api/stories/a");
+        resolver.resolve("/api/stories/b");
+        resolver.resolve("/api/stories/c");
+
+        assertEquals(2, resolver.cachedUriCount());
+        assertEquals("/api/stories/{storyId}", resolver.resolve("/api/stories/c"));
+    }
+}
@@ -0,0 +1,216 @@
+package com.app.service;
+
+import com.app.repository.JobLeaseRepository;
+import com.app.repository.JobLeaseRepository.Lease;
+import com.app.repository.UserSessionRepository;
+import com.app.repository.UserSessionRepository.SweepCursor;
+import com.app.repository.UserSessionRepository.SweepResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiredSessionSweeperTest {
+
+    @Mock
+    private UserSessionRepository sessionRepository;
+
+    @Mock
+    private JobLeaseRepository leaseRepository;
+
+    private MeterRegistry meterRegistry;
+    private ExpiredSessionSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new ExpiredSessionSweeper(sessionRepository, leaseRepository, meterRegistry, true, 100, 10, 60);
+    }
+
+    private void grantLease(Map<String, Object> checkpoint) {
+        when(leaseRepository.tryAcquire(eq(ExpiredSessionSweeper.JOB_NAME), anyString(), any(Duration.class)))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(
+                        new Lease(ExpiredSessionSweeper.JOB_NAME, sweeper.getInstanceId(), 0L, checkpoint))));
+    }
+
+    @Test
+    void skipsWhenAnotherInstanceHoldsTheLease() {
+        when(leaseRepository.tryAcquire(eq(ExpiredSessionSweeper.JOB_NAME), anyString(), any(Duration.class)))
+                .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        assertEquals(ExpiredSessionSweeper.Outcome.NOT_LEADER, sweeper.sweep());
+
+        verifyNoInteractions(sessionRepository);
+        assertEquals(1.0, meterRegistry.find("app.sessions.sweep.runs").tag("outcome", "not_leader").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void completedSweepCheckpointsEachPageAndClearsCheckpoint() {
+        grantLease(null);
+        when(leaseRepository.renew(eq(ExpiredSessionSweeper.JOB_NAME), anyString(), any(Duration.class), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        when(leaseRepository.release(eq(ExpiredSessionSweeper.JOB_NAME), anyString(), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(sessionRepository.sweepExpiredSessions(any(Instant.class), isNull(), eq(100), eq(10), any()))
+                .thenAnswer(invocation -> {
+                    Predicate<SweepResult> onPage = invocation.getArgument(4);
+                    SweepResult page1 = new SweepResult(100, 0, 1, new SweepCursor("t1", "s-100"), false);
+                    SweepResult page2 = new SweepResult(150, 0, 2, new SweepCursor("t2", "s-150"), true);
+                    onPage.test(page1);
+                    onPage.test(page2);
+                    return CompletableFuture.completedFuture(page2);
+                });
+
+        assertEquals(ExpiredSessionSweeper.Outcome.COMPLETED, sweeper.sweep());
+
+        ArgumentCaptor<Map<String, Object>> checkpoints = ArgumentCaptor.forClass(Map.class);
+        verify(leaseRepository, times(2)).renew(eq(ExpiredSessionSweeper.JOB_NAME), anyString(), any(Duration.class), checkpoints.capture());
+        assertEquals("s-150", checkpoints.getValue().get(ExpiredSessionSweeper.CHECKPOINT_SESSION_ID));
+        assertEquals(150L, checkpoints.getValue().get(ExpiredSessionSweeper.CHECKPOINT_DELETED));
+        assertEquals(150.0, meterRegistry.find("app.sessions.sweep.deleted").counter().count());
+    }
+
+    @Test
+    void resumesFromCheckpointWithOriginalCutoff() {
+        Instant originalCutoff = Instant.parse("2026-01-01T00:00:00Z");
+        Map<String, Object> checkpoint = new HashMap<>();
+        checkpoint.put(ExpiredSessionSweeper.CHECKPOINT_CUTOFF, originalCutoff.toEpochMilli());
+        checkpoint.put(ExpiredSessionSweeper.CHECKPOINT_EXPIRES_AT, "t-last");
+        checkpoint.put(ExpiredSessionSweeper.CHECKPOINT_SESSION_ID, "s-last");
+        checkpoint.put(ExpiredSessionSweeper.CHECKPOINT_DELETED, 5000L);
+        grantLease(checkpoint);
+        when(leaseRepository.release(eq(ExpiredSessionSweeper.JOB_NAME), anyString(), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(sessionRepository.sweepExpiredSessions(eq(originalCutoff), eq(new SweepCursor("t-last", "s-last")),
+                eq(100), eq(10), any()))
+                .thenReturn(CompletableFuture.completedFuture(new SweepResult(0, 0, 0, null, true)));
+
+        assertEquals(ExpiredSessionSweeper.Outcome.COMPLETED, sweeper.sweep());
+    }
+
+    @Test
+    void partialRunKeepsCheckpointForNextRun() {
+        grantLease(null);
+        when(leaseRepository.release(eq(ExpiredSessionSweeper.JOB_NAME), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(sessionRepository.sweepExpiredSessions(any(Instant.class), isNull(), anyInt(), anyInt(), any()))
+                .thenReturn(CompletableFuture.completedFuture(
+                        new SweepResult(1000, 2, 10, new SweepCursor("t", "s-1002"), false)));
+
+        assertEquals(ExpiredSessionSweeper.Outcome.PARTIAL, sweeper.sweep());
+
+        verify(leaseRepository).release(eq(ExpiredSessionSweeper.JOB_NAME), anyString(),
+                argThat(map -> "s-1002".equals(map.get(ExpiredSessionSweeper.CHECKPOINT_SESSION_ID))));
+    }
+
+    @Test
+    void keepsSweepingPastAPartialChunkWhileTheLeaseIsHeld() {
+        grantLease(null);
+        when(leaseRepository.renew(eq(ExpiredSessionSweeper.JOB_NAME), anyString(), any(Duration.class), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        when(leaseRepository.release(eq(ExpiredSessionSweeper.JOB_NAME), anyString(), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        SweepCursor firstChunkEnd = new SweepCursor("t10", "s-1000");
+        when(sessionRepository.sweepExpiredSessions(any(Instant.class), isNull(), eq(100), eq(10), any()))
+                .thenAnswer(invocation -> {
+                    Predicate<SweepResult> onPage = invocation.getArgument(4);
+                    SweepResult chunk = new SweepResult(1000, 0, 10, firstChunkEnd, false);
+                    onPage.test(chunk);
+                    return CompletableFuture.completedFuture(chunk);
+                });
+        when(sessionRepository.sweepExpiredSessions(any(Instant.class), eq(firstChunkEnd), eq(100), eq(10), any()))
+                .thenAnswer(invocation -> {
+                    Predicate<SweepResult> onPage = invocation.getArgument(4);
+                    SweepResult chunk = new SweepResult(40, 0, 1, new SweepCursor("t11", "s-1040"), true);
+                    onPage.test(chunk);
+                    return CompletableFuture.completedFuture(chunk);
+                });
+
+        assertEquals(ExpiredSessionSweeper.Outcome.COMPLETED, sweeper.sweep());
+
+        verify(leaseRepository).renew(eq(ExpiredSessionSweeper.JOB_NAME), anyString(), any(Duration.class),
+                argThat(map -> Long.valueOf(1040L).equals(map.get(ExpiredSessionSweeper.CHECKPOINT_DELETED))));
+        verify(leaseRepository, never()).release(eq(ExpiredSessionSweeper.JOB_NAME), anyString(), anyMap());
+        assertEquals(1040.0, meterRegistry.find("app.sessions.sweep.deleted").counter().count());
+    }
+
+    @Test
+    void stopsAfterAChunkOnceTheLeaseIsLost() {
+        grantLease(null);
+        when(leaseRepository.renew(eq(ExpiredSessionSweeper.JOB_NAME), anyString(), any(Duration.class), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(false));
+        when(leaseRepository.release(eq(ExpiredSessionSweeper.JOB_NAME), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(sessionRepository.sweepExpiredSessions(any(Instant.class), isNull(), anyInt(), anyInt(), any()))
+                .thenAnswer(invocation -> {
+                    Predicate<SweepResult> onPage = invocation.getArgument(4);
+                    SweepResult page = new SweepResult(100, 0, 1, new SweepCursor("t1", "s-100"), false);
+                    onPage.test(page);
+                    return CompletableFuture.completedFuture(page);
+                });
+
+        assertEquals(ExpiredSessionSweeper.Outcome.PARTIAL, sweeper.sweep());
+
+        verify(sessionRepository, times(1)).sweepExpiredSessions(any(), any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void pagesDoNotWaitForTheLeaseRenewal() {
+        grantLease(null);
+        CompletableFuture<Boolean> slowRenewal = new CompletableFuture<>();
+        when(leaseRepository.renew(eq(ExpiredSessionSweeper.JOB_NAME), anyString(), any(Duration.class), anyMap()))
+                .thenReturn(slowRenewal);
+        when(leaseRepository.release(eq(ExpiredSessionSweeper.JOB_NAME), anyString(), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(sessionRepository.sweepExpiredSessions(any(Instant.class), isNull(), eq(100), eq(10), any()))
+                .thenAnswer(invocation -> {
+                    Predicate<SweepResult> onPage = invocation.getArgument(4);
+                    assertTrue(onPage.test(new SweepResult(100, 0, 1, new SweepCursor("t1", "s-100"), false)));
+                    assertFalse(slowRenewal.isDone(), "the page went on while the renewal was in flight");
+                    slowRenewal.complete(true);
+                    SweepResult last = new SweepResult(120, 0, 2, new SweepCursor("t2", "s-120"), true);
+                    onPage.test(last);
+                    return CompletableFuture.completedFuture(last);
+                });
+
+        assertEquals(ExpiredSessionSweeper.Outcome.COMPLETED, sweeper.sweep());
+        verify(leaseRepository, times(2)).renew(eq(ExpiredSessionSweeper.JOB_NAME), anyString(), any(Duration.class), anyMap());
+    }
+
+    @Test
+    void disabledSweeperDoesNothing() {
+        ExpiredSessionSweeper disabled = new ExpiredSessionSweeper(sessionRepository, leaseRepository, meterRegistry,
+                false, 100, 10, 60);
+
+        assertEquals(ExpiredSessionSweeper.Outcome.DISABLED, disabled.sweep());
+        verifyNoInteractions(leaseRepository, sessionRepository);
+    }
+
+    @Test
+    void repositoryFailureIsReportedNotThrown() {
+        grantLease(null);
+        when(sessionRepository.sweepExpiredSessions(any(Instant.class), isNull(), anyInt(), anyInt(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Firestore unavailable")));
+
+        assertEquals(ExpiredSessionSweeper.Outcome.FAILED, sweeper.sweep());
+        assertEquals(1.0, meterRegistry.find("app.sessions.sweep.runs").tag("outcome", "failed").counter().count());
+    }
+}
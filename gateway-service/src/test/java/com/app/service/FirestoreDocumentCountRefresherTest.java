@@ -0,0 +1,94 @@
+package com.app.service;
+
+import com.app.repository.StoryRepository;
+import com.app.repository.UserRepository;
+import com.app.repository.UserSessionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FirestoreDocumentCountRefresherTest {
+
+    @Mock
+    private StoryRepository storyRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserSessionRepository sessionRepository;
+
+    private MeterRegistry meterRegistry;
+    private FirestoreDocumentCountRefresher refresher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        refresher = new FirestoreDocumentCountRefresher(storyRepository, userRepository, sessionRepository,
+                metricsService(), true);
+    }
+
+    private ApplicationMetricsService metricsService() {
+        return new ApplicationMetricsService(meterRegistry, new ClientFingerprintResolver(meterRegistry, 1024),
+                new EndpointTemplateResolver());
+    }
+
+    private double gauge(String collection) {
+        Gauge gauge = meterRegistry.find("app.firestore.documents.count").tag("collection", collection).gauge();
+        assertNotNull(gauge, collection);
+        return gauge.value();
+    }
+
+    @Test
+    void refreshUpdatesExistingGauges() {
+        when(storyRepository.count()).thenReturn(CompletableFuture.completedFuture(40L), CompletableFuture.completedFuture(42L));
+        when(storyRepository.countAvailable()).thenReturn(CompletableFuture.completedFuture(30L));
+        when(userRepository.countActiveUsers()).thenReturn(CompletableFuture.completedFuture(1000L));
+        when(sessionRepository.countActiveSessions()).thenReturn(CompletableFuture.completedFuture(250L));
+
+        refresher.refresh();
+        assertEquals(40.0, gauge("stories"));
+
+        refresher.refresh();
+        assertEquals(42.0, gauge("stories"));
+        assertEquals(30.0, gauge("stories_available"));
+        assertEquals(1000.0, gauge("users_active"));
+        assertEquals(250.0, gauge("user_sessions_active"));
+    }
+
+    @Test
+    void failedCountKeepsPreviousValueAndDoesNotStopOthers() {
+        when(storyRepository.count()).thenReturn(CompletableFuture.completedFuture(40L),
+                CompletableFuture.failedFuture(new RuntimeException("deadline exceeded")));
+        when(storyRepository.countAvailable()).thenReturn(CompletableFuture.completedFuture(30L));
+        when(userRepository.countActiveUsers()).thenReturn(CompletableFuture.completedFuture(1000L), CompletableFuture.completedFuture(1001L));
+        when(sessionRepository.countActiveSessions()).thenReturn(CompletableFuture.completedFuture(250L));
+
+        refresher.refresh();
+        refresher.refresh();
+
+        assertEquals(40.0, gauge("stories"));
+        assertEquals(1001.0, gauge("users_active"));
+    }
+
+    @Test
+    void disabledRefresherDoesNotQuery() {
+        FirestoreDocumentCountRefresher disabled = new FirestoreDocumentCountRefresher(storyRepository, userRepository,
+                sessionRepository, metricsService(), false);
+
+        disabled.refresh();
+
+        verifyNoInteractions(storyRepository, userRepository, sessionRepository);
+    }
+}
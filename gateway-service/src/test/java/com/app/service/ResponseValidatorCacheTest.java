@@ -0,0 +1,87 @@
+package com.app.service;
+
+import com.app.service.ResponseValidatorCache.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseValidatorCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private ResponseValidatorCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ResponseValidatorCache(Duration.ofSeconds(30), 3, clock::get);
+    }
+
+    @Test
+    void validatorMatchesIfNoneMatchLists() {
+        Validator validator = Validator.strong("abc", Instant.EPOCH);
+
+        assertEquals("\"abc\"", validator.etag());
+        assertTrue(validator.matches("\"abc\""));
+        assertTrue(validator.matches("\"x\", W/\"abc\""));
+        assertTrue(validator.matches("*"));
+        assertFalse(validator.matches("\"abd\""));
+        assertFalse(validator.matches("abc"));
+        assertFalse(validator.matches(null));
+    }
+
+    @Test
+    void headersCarryEtagAndLastModified() {
+        Validator validator = Validator.strong("abc", Instant.parse("2026-01-18T12:30:00Z"));
+
+        assertEquals("\"abc\"", validator.headers().getETag());
+        assertEquals(Instant.parse("2026-01-18T12:30:00Z").toEpochMilli(), validator.headers().getLastModified());
+        assertEquals(-1, Validator.strong("abc", null).headers().getLastModified());
+    }
+
+    @Test
+    void answersMatchingRequestsUntilTheTtlExpires() {
+        cache.remember("k", Validator.strong("v1", null), cache.generation());
+
+        assertTrue(cache.matching("k", "\"v1\"").isPresent());
+        assertTrue(cache.matching("k", "\"v0\"").isEmpty());
+        assertTrue(cache.matching("k", null).isEmpty());
+
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertTrue(cache.matching("k", "\"v1\"").isEmpty());
+    }
+
+    @Test
+    void invalidationDropsTheEntryAndReadsThatStartedBeforeIt() {
+        cache.remember("k", Validator.strong("v1", null), cache.generation());
+        long staleRead = cache.generation();
+
+        cache.invalidate("k");
+        cache.remember("k", Validator.strong("v1", null), staleRead);
+
+        assertTrue(cache.matching("k", "\"v1\"").isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void staysBounded() {
+        for (int i = 0; i < 10; i++) {
+            cache.remember("k" + i, Validator.strong("v" + i, null), cache.generation());
+        }
+
+        assertTrue(cache.size() <= 3);
+        assertTrue(cache.matching("k9", "\"v9\"").isPresent());
+    }
+
+    @Test
+    void zeroTtlDisablesCaching() {
+        ResponseValidatorCache disabled = new ResponseValidatorCache(Duration.ZERO, 10, clock::get);
+
+        disabled.remember("k", Validator.strong("v1", null), disabled.generation());
+
+        assertTrue(disabled.matching("k", "\"v1\"").isEmpty());
+    }
+}
@@ -0,0 +1,89 @@
+package com.app.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteLatencyRecorderTest {
+
+    private MeterRegistry meterRegistry;
+    private RouteLatencyRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        recorder = new RouteLatencyRecorder(meterRegistry, 10, 3, 3, false);
+    }
+
+    @Test
+    void snapshotIsEmptyUntilFirstRotation() {
+        recorder.record("/api/stories", TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertEquals(0, recorder.snapshot().get("/api/stories").count());
+    }
+
+    @Test
+    void computesPercentilesPerRoute() {
+        for (int i = 1; i <= 1000; i++) {
+            recorder.record("/api/stories/{storyId}", TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        recorder.record("/auth/refresh", TimeUnit.MILLISECONDS.toNanos(7));
+        recorder.rotate();
+
+        RouteLatencyRecorder.RouteLatencySnapshot stories = recorder.snapshot().get("/api/stories/{storyId}");
+        assertEquals(1000, stories.count());
+        assertEquals(500_000, stories.p50Micros(), 500_000 * 0.02);
+        assertEquals(990_000, stories.p99Micros(), 990_000 * 0.02);
+        assertEquals(1_000_000, stories.maxMicros(), 1_000_000 * 0.02);
+
+        assertEquals(1, recorder.snapshot().get("/auth/refresh").count());
+    }
+
+    @Test
+    void windowSlidesAfterConfiguredIntervals() {
+        recorder.record("/api/stories", TimeUnit.MILLISECONDS.toNanos(10));
+        recorder.rotate();
+        recorder.rotate();
+        recorder.rotate();
+        assertEquals(1, recorder.snapshot().get("/api/stories").count());
+
+        recorder.rotate();
+        assertEquals(0, recorder.snapshot().get("/api/stories").count());
+        assertEquals(30, recorder.getWindowSeconds());
+    }
+
+    @Test
+    void exportsQuantileGaugesTaggedByRouteOnly() {
+        recorder.record("/api/stories", TimeUnit.MILLISECONDS.toNanos(250));
+        recorder.rotate();
+
+        Gauge p99 = meterRegistry.find("app.route.latency")
+                .tags("route", "/api/stories", "quantile", "0.99")
+                .gauge();
+        assertNotNull(p99);
+        assertEquals(0.25, p99.value(), 0.25 * 0.02);
+        assertEquals(4, meterRegistry.find("app.route.latency").gauges().size());
+        assertNotNull(meterRegistry.find("app.route.latency.max").tag("route", "/api/stories").gauge());
+    }
+
+    @Test
+    void excessRoutesCollapseIntoOverflowBucket() {
+        recorder.record("/a", 1_000);
+        recorder.record("/b", 1_000);
+        recorder.record("/c", 1_000);
+        recorder.record("/d", 1_000);
+        recorder.record("/e", 1_000);
+        recorder.rotate();
+
+        Map<String, RouteLatencyRecorder.RouteLatencySnapshot> snapshot = recorder.snapshot();
+        assertTrue(snapshot.size() <= 4);
+        assertEquals(2, snapshot.get(RouteLatencyRecorder.OVERFLOW_ROUTE).count());
+    }
+}
@@ -1,5 +1,6 @@
 package com.app.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,9 +17,15 @@ class SecurityMonitoringServiceTest {
 
     private SecurityMonitoringService securityMonitoringService;
 
+    // No writer thread: events stay in the ring and are discarded with the pipeline
+    private static SecurityMonitoringService newService() {
+        return new SecurityMonitoringService(new AuditEventPipeline(new SimpleMeterRegistry(), 1024, 1000, 512,
+                (type, json) -> { }, false));
+    }
+
     @BeforeEach
     void setUp() {
-        securityMonitoringService = new SecurityMonitoringService();
+        securityMonitoringService = newService();
     }
 
     @Test
@@ -199,7 +206,7 @@ class SecurityMonitoringServiceTest {
 
         // When
         // Reset metrics by creating a new instance (no resetMetrics method available)
-        securityMonitoringService = new SecurityMonitoringService();
+        securityMonitoringService = newService();
 
         // Then
         Map<String, Object> metrics = securityMonitoringService.getSecurityMetrics();
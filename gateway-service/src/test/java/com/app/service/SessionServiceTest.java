@@ -9,7 +9,6 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -72,10 +71,9 @@ class SessionServiceTest {
     @Test
     void createSession_Success() throws Exception {
         // Arrange
-        when(sessionRepository.countActiveSessionsByUserId(testSession.getUserId()))
-                .thenReturn(CompletableFuture.completedFuture(0L));
-        when(sessionRepository.save(any(UserSession.class)))
-                .thenReturn(CompletableFuture.completedFuture(testSession));
+        when(sessionRepository.createSessionWithinLimit(any(UserSession.class), eq(5)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        new UserSessionRepository.SessionAdmission(invocation.getArgument(0), List.of())));
 
         // Act
         CompletableFuture<UserSession> result = sessionService.createSession(
@@ -98,28 +96,18 @@ class SessionServiceTest {
         assertNotNull(createdSession.getExpiresAt());
         
         // Verify repository interactions
-        verify(sessionRepository).countActiveSessionsByUserId(testSession.getUserId());
-        verify(sessionRepository).save(any(UserSession.class));
+        verify(sessionRepository).createSessionWithinLimit(any(UserSession.class), eq(5));
+        verify(sessionRepository, never()).countActiveSessionsByUserId(anyString());
+        verify(sessionRepository, never()).save(any(UserSession.class));
         
         // Verify metrics
         verify(metricsService).recordSessionCreated(testSession.getDeviceType(), testSession.getPlatform());
+        verify(metricsService, never()).recordSessionRevoked(anyString(), anyString(), anyString());
     }
 
     @Test
     void createSession_WithSessionLimit() throws Exception {
-        // Arrange - Create 5 existing sessions (at limit)
-        List<UserSession> existingSessions = new ArrayList<>();
-        for (int i = 0; i < 5; i++) {
-            UserSession session = new UserSession();
-            session.setId("session-" + i);
-            session.setUserId(testSession.getUserId());
-            session.setDeviceType("mobile");
-            session.setPlatform("iOS");
-            session.setCreatedAt(Instant.now().minusSeconds(i * 60)); // Different creation times
-            existingSessions.add(session);
-        }
-
-        // Create a revoked session object to return from revokeSession
+        // Arrange - the repository evicts the oldest session in the same transaction
         UserSession revokedSession = new UserSession();
         revokedSession.setId("session-4");
         revokedSession.setUserId(testSession.getUserId());
@@ -128,14 +116,9 @@ class SessionServiceTest {
         revokedSession.setActive(false);
         revokedSession.setRevokedAt(Instant.now());
 
-        when(sessionRepository.countActiveSessionsByUserId(testSession.getUserId()))
-                .thenReturn(CompletableFuture.completedFuture(5L));
-        when(sessionRepository.findActiveSessionsByUserId(testSession.getUserId()))
-                .thenReturn(CompletableFuture.completedFuture(existingSessions));
-        when(sessionRepository.revokeSession(anyString()))
-                .thenReturn(CompletableFuture.completedFuture(revokedSession));
-        when(sessionRepository.save(any(UserSession.class)))
-                .thenReturn(CompletableFuture.completedFuture(testSession));
+        when(sessionRepository.createSessionWithinLimit(any(UserSession.class), eq(5)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        new UserSessionRepository.SessionAdmission(invocation.getArgument(0), List.of(revokedSession))));
 
         // Act
         CompletableFuture<UserSession> result = sessionService.createSession(
@@ -150,21 +133,21 @@ class SessionServiceTest {
 
         // Assert
         assertNotNull(createdSession);
-        
-        // Verify that oldest session was revoked
-        verify(sessionRepository).revokeSession("session-4"); // Oldest session
-        verify(sessionRepository).save(any(UserSession.class));
-        
+        assertTrue(createdSession.isActive());
+
+        // No separate count/list/revoke round trips
+        verify(sessionRepository, never()).findActiveSessionsByUserId(anyString());
+        verify(sessionRepository, never()).revokeSession(anyString());
+
         // Verify metrics
+        verify(metricsService).recordSessionRevoked("mobile", "iOS", "auto_cleanup");
         verify(metricsService).recordSessionCreated(testSession.getDeviceType(), testSession.getPlatform());
     }
 
     @Test
     void createSession_Failure() throws Exception {
         // Arrange
-        when(sessionRepository.countActiveSessionsByUserId(testSession.getUserId()))
-                .thenReturn(CompletableFuture.completedFuture(0L));
-        when(sessionRepository.save(any(UserSession.class)))
+        when(sessionRepository.createSessionWithinLimit(any(UserSession.class), eq(5)))
                 .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Database error")));
 
         // Act & Assert
@@ -268,7 +251,7 @@ class SessionServiceTest {
         when(sessionRepository.extendSession(eq(testSession.getId()), anyLong()))
                 .thenReturn(CompletableFuture.completedFuture(updatedSession));
         when(sessionRepository.updateLastAccessed(eq(testSession.getId())))
-                .thenReturn(CompletableFuture.completedFuture(updatedSession));
+                .thenReturn(CompletableFuture.completedFuture(null));
 
         // Act - provide plaintext token
         CompletableFuture<UserSession> result = sessionService.validateAndRefreshSession(
@@ -282,6 +265,8 @@ class SessionServiceTest {
         // Verify repository interactions
         verify(sessionRepository).findAllActiveSessions();
         verify(sessionRepository).updateRefreshToken(testSession.getId(), hashedNewRefreshToken);
+        verify(sessionRepository).updateLastAccessed(testSession.getId());
+        assertNotNull(refreshedSession.getLastAccessedAt());
 
         // Verify hashing service was called
         verify(hashingService).validateToken("test-refresh-token", "hashed_test-refresh-token");
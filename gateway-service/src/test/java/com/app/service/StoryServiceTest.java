@@ -42,7 +42,7 @@ class StoryServiceTest {
 
     @BeforeEach
     void setUp() {
-        storyService = new StoryService(storyRepository, contentVersionRepository);
+        storyService = new StoryService(storyRepository, contentVersionRepository, new ResponseValidatorCache(30, 100));
 
         // Create test story 1
         testStory1 = new Story();
@@ -17,6 +17,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -162,8 +163,8 @@ class UserServiceTest {
         // Arrange
         when(userRepository.findByProviderAndProviderId(testUser.getProvider(), testUser.getProviderId()))
                 .thenReturn(CompletableFuture.completedFuture(Optional.of(testUser)));
-        when(userRepository.save(any(User.class)))
-                .thenReturn(CompletableFuture.completedFuture(testUser));
+        when(userRepository.updateLastLogin(testUser.getId()))
+                .thenReturn(CompletableFuture.completedFuture(null));
 
         // Act (PII-free - only provider and providerId)
         CompletableFuture<User> result = userService.getOrCreateUser(
@@ -178,9 +179,10 @@ class UserServiceTest {
         assertEquals(testUser.getProvider(), user.getProvider());
 
         // Verify repository interactions
+        assertNotNull(user.getLastLoginAt());
         verify(userRepository).findByProviderAndProviderId(testUser.getProvider(), testUser.getProviderId());
-        verify(userRepository).save(any(User.class));
-        verify(userRepository, never()).updateLastLogin(anyString());
+        verify(userRepository).updateLastLogin(testUser.getId());
+        verify(userRepository, never()).save(any(User.class));
 
         // Verify metrics
         verify(metricsService).recordUserLogin(testUser.getProvider(), "existing");
@@ -247,48 +249,73 @@ class UserServiceTest {
         request.setAgeRange("2-3");
         request.setAvatar("avatar1");
 
-        when(userRepository.findById(testUser.getId()))
-                .thenReturn(CompletableFuture.completedFuture(Optional.of(testUser)));
-        when(userRepository.save(any(User.class)))
-                .thenReturn(CompletableFuture.completedFuture(testUser));
+        when(userRepository.addChild(eq(testUser.getId()), any(ChildProfile.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(1)));
 
         // Act
-        CompletableFuture<User> result = userService.addChildProfile(testUser.getId(), request);
-        User updatedUser = result.get();
+        ChildProfile added = userService.addChildProfile(testUser.getId(), request).get();
 
         // Assert
-        assertNotNull(updatedUser);
-        verify(userRepository).save(any(User.class));
+        assertNotNull(added.getId());
+        assertEquals("New Child", added.getName());
+        assertTrue(added.isActive());
+        verify(userRepository, never()).findById(anyString());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateChildProfile_AppliesOnlyProvidedFields() throws Exception {
+        // Arrange
+        String childId = "child-1";
+        ChildProfile stored = new ChildProfile();
+        stored.setId(childId);
+        stored.setName("Test Child");
+        stored.setAgeRange("2-3");
+        UserDTOs.UpdateChildProfileRequest request = new UserDTOs.UpdateChildProfileRequest();
+        request.setName("Renamed");
+
+        when(userRepository.updateChild(eq(testUser.getId()), eq(childId), any(Consumer.class)))
+                .thenAnswer(invocation -> {
+                    Consumer<ChildProfile> mutation = invocation.getArgument(2);
+                    mutation.accept(stored);
+                    return CompletableFuture.completedFuture(Optional.of(stored));
+                });
+
+        // Act
+        ChildProfile updated = userService.updateChildProfile(testUser.getId(), childId, request).get();
+
+        // Assert
+        assertEquals("Renamed", updated.getName());
+        assertEquals("2-3", updated.getAgeRange());
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
     void removeChildProfile_Success() throws Exception {
         // Arrange
         String childId = "child-1";
-        when(userRepository.findById(testUser.getId()))
-                .thenReturn(CompletableFuture.completedFuture(Optional.of(testUser)));
-        when(userRepository.save(any(User.class)))
-                .thenReturn(CompletableFuture.completedFuture(testUser));
+        when(userRepository.removeChild(testUser.getId(), childId))
+                .thenReturn(CompletableFuture.completedFuture(true));
 
         // Act
-        CompletableFuture<User> result = userService.removeChildProfile(testUser.getId(), childId);
-        User updatedUser = result.get();
+        userService.removeChildProfile(testUser.getId(), childId).get();
 
         // Assert
-        assertNotNull(updatedUser);
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).removeChild(testUser.getId(), childId);
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
     void removeChildProfile_NotFound() {
         // Arrange
         String childId = "non-existent-child";
-        when(userRepository.findById(testUser.getId()))
-                .thenReturn(CompletableFuture.completedFuture(Optional.of(testUser)));
+        when(userRepository.removeChild(testUser.getId(), childId))
+                .thenReturn(CompletableFuture.completedFuture(false));
 
         // Act & Assert
         ExecutionException exception = assertThrows(ExecutionException.class, () -> {
-            CompletableFuture<User> result = userService.removeChildProfile(testUser.getId(), childId);
+            CompletableFuture<Void> result = userService.removeChildProfile(testUser.getId(), childId);
             result.get(); // This should throw an exception
         });
         assertTrue(exception.getCause() instanceof IllegalArgumentException);
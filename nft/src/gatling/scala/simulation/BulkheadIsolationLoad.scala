@@ -0,0 +1,117 @@
+package simulation
+
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import scenarios.{AuthScenario, PublicApiScenario}
+
+import scala.concurrent.duration.DurationInt
+import scala.language.postfixOps
+
+/**
+ * Bulkhead Isolation Load
+ *
+ * Floods two endpoint classes (batch asset URL signing and analytics uploads) with far more concurrent users
+ * than their bulkheads allow, while a steady, modest stream of token refreshes and delta syncs runs
+ * alongside. The gateway's semaphore bulkheads (resilience4j.bulkhead.instances.*, applied by BulkheadFilter)
+ * should answer the surplus flood traffic with 503 + Retry-After immediately, leaving the auth and sync
+ * classes their request threads: their latency and success rate must stay within the assertions below.
+ *
+ * Expect app_bulkhead_calls_total{outcome="rejected"} to grow for name="assets" and name="analytics" only,
+ * and resilience4j_bulkhead_available_concurrent_calls for auth and sync to stay well above zero.
+ *
+ * Run with:
+ *   ./gradlew gatlingRun-simulation.BulkheadIsolationLoad
+ *
+ * Environment variables:
+ *   GATEWAY_BASE_URL - Base URL of the gateway (default: http://localhost:8080)
+ *   FLOOD_USERS - Concurrent users per flooded class (default: 150)
+ *   PROTECTED_RPS - Requests per second each for refresh and delta sync (default: 10)
+ *   ISOLATION_DURATION_SECONDS - Length of the flood (default: 180)
+ */
+class BulkheadIsolationLoad extends Simulation {
+
+  val host = sys.env.getOrElse("GATEWAY_BASE_URL", "http://localhost:8080")
+  val floodUsers = sys.env.getOrElse("FLOOD_USERS", "150").toInt
+  val protectedRps = sys.env.getOrElse("PROTECTED_RPS", "10").toInt
+  val durationSeconds = sys.env.getOrElse("ISOLATION_DURATION_SECONDS", "180").toInt
+
+  val httpProtocol = http
+    .baseUrl(host)
+    .acceptHeader("application/json")
+    .contentTypeHeader("application/json")
+    .userAgentHeader("GrowWithFreya/1.0.0 (NFT Bulkhead Isolation)")
+    .shareConnections
+
+  val batchUrlFlood = scenario("Flood: batch asset URLs")
+    .during(durationSeconds seconds)(
+      group("flooded") {
+        exec(
+          http("flood_batch_urls")
+            .post("/api/assets/batch-urls")
+            .headers(PublicApiScenario.authHeaders)
+            .body(StringBody(
+              s"""{"paths": [${(1 to 30).map(i => s""""stories/story-$i/cover.webp"""").mkString(",")}]}"""))
+            .check(status.in(200, 207, 503))
+        )
+      }
+    )
+
+  val analyticsFlood = scenario("Flood: analytics uploads")
+    .during(durationSeconds seconds)(
+      group("flooded") {
+        exec(
+          http("flood_analytics")
+            .post("/api/analytics/events")
+            .headers(PublicApiScenario.authHeaders)
+            .body(StringBody(
+              s"""{"sessionId": "nft-bulkhead", "platform": "ios",
+                 |"events": [${(1 to 50).map(i => s"""{"event": "page_view_$i"}""").mkString(",")}]}""".stripMargin))
+            .check(status.in(202, 429, 503))
+        )
+      }
+    )
+
+  val refresh = scenario("Protected: token refresh")
+    .exec(
+      group("protected") {
+        exec(
+          http("auth_refresh")
+            .post("/auth/refresh")
+            .headers(AuthScenario.authHeaders)
+            .body(StringBody(s"""{"refreshToken": "${AuthScenario.refreshToken}"}"""))
+            .check(status.in(200, 400, 401))
+        )
+      }
+    )
+
+  val deltaSync = scenario("Protected: delta sync")
+    .exec(
+      group("protected") {
+        exec(
+          http("delta_sync")
+            .post("/api/stories/delta")
+            .headers(PublicApiScenario.authHeaders)
+            .body(StringBody("""{"clientVersion": 0, "storyChecksums": {}}"""))
+            .check(status.in(200, 204))
+        )
+      }
+    )
+
+  setUp(
+    batchUrlFlood.inject(
+      rampConcurrentUsers(0).to(floodUsers).during(20 seconds),
+      constantConcurrentUsers(floodUsers).during((durationSeconds - 20) seconds)
+    ),
+    analyticsFlood.inject(
+      rampConcurrentUsers(0).to(floodUsers).during(20 seconds),
+      constantConcurrentUsers(floodUsers).during((durationSeconds - 20) seconds)
+    ),
+    refresh.inject(constantUsersPerSec(protectedRps).during(durationSeconds seconds)),
+    deltaSync.inject(constantUsersPerSec(protectedRps).during(durationSeconds seconds))
+  ).protocols(httpProtocol)
+    .assertions(
+      details("protected").successfulRequests.percent.gte(99),
+      details("protected").responseTime.percentile(99).lt(1000),
+      details("flooded").successfulRequests.percent.gte(99)
+    )
+}
@@ -0,0 +1,72 @@
+package simulation
+
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import scenarios.PublicApiScenario
+
+import scala.concurrent.duration.DurationInt
+import scala.language.postfixOps
+
+/**
+ * Logging Overhead Benchmark
+ *
+ * Closed-model load (fixed concurrency, no think time) against the hot sync endpoints that log on
+ * every request. Throughput (req/s) is the number to compare; run it once per gateway logging mode
+ * against the same data and compare the Gatling reports:
+ *
+ *   1. Full logging:     LOGGING_LEVEL_COM_APP=INFO  LOGGING_SAMPLING_RATE=1.0
+ *   2. Sampled logging:  LOGGING_LEVEL_COM_APP=INFO  LOGGING_SAMPLING_RATE=0.01   (nft/prod default)
+ *   3. Logging off:      LOGGING_LEVEL_COM_APP=WARN
+ *
+ * Run with:
+ *   LOGGING_MODE=full ./gradlew gatlingRun-simulation.LoggingOverheadLoad
+ *
+ * Environment variables:
+ *   GATEWAY_BASE_URL - Base URL of the gateway (default: http://localhost:8080)
+ *   LOGGING_MODE - Label for the run, shown in the scenario name (default: unspecified)
+ *   BENCH_USERS - Concurrent users (default: 64)
+ *   BENCH_DURATION_SECONDS - Measured duration (default: 120)
+ */
+class LoggingOverheadLoad extends Simulation {
+
+  val host = sys.env.getOrElse("GATEWAY_BASE_URL", "http://localhost:8080")
+  val loggingMode = sys.env.getOrElse("LOGGING_MODE", "unspecified")
+  val users = sys.env.getOrElse("BENCH_USERS", "64").toInt
+  val duration = sys.env.getOrElse("BENCH_DURATION_SECONDS", "120").toInt
+
+  val httpProtocol = http
+    .baseUrl(host)
+    .acceptHeader("application/json")
+    .contentTypeHeader("application/json")
+    .userAgentHeader("GrowWithFreya/1.0.0 (NFT Logging Benchmark)")
+
+  val hotEndpoints = scenario(s"Logging overhead [$loggingMode]")
+    .forever(
+      exec(
+        http("delta_sync_stories")
+          .post("/api/stories/delta")
+          .headers(PublicApiScenario.authHeaders)
+          .body(StringBody("""{
+            "clientVersion": 0,
+            "storyChecksums": {
+              "test-story-1": "abc123",
+              "test-story-2": "def456"
+            }
+          }"""))
+          .check(status.in(200, 204))
+      ).exec(
+        http("get_stories_version")
+          .get("/api/stories/version")
+          .headers(PublicApiScenario.authHeaders)
+          .check(status.is(200))
+      )
+    )
+
+  setUp(
+    hotEndpoints.inject(atOnceUsers(users))
+  ).protocols(httpProtocol)
+    .maxDuration(duration seconds)
+    .assertions(
+      forAll.successfulRequests.percent.gte(99)
+    )
+}
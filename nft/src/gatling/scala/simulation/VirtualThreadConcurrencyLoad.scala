@@ -0,0 +1,83 @@
+package simulation
+
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import scenarios.PublicApiScenario
+
+import scala.concurrent.duration.DurationInt
+import scala.language.postfixOps
+
+/**
+ * Virtual Thread Concurrency Benchmark
+ *
+ * Closed-model load that steps the number of concurrent users well past the Tomcat pool size (200) against
+ * Firestore-backed endpoints, where request threads mostly wait on Firestore RPCs. Run it once per gateway
+ * thread mode with the same heap (the Dockerfile's -Xmx512m) and compare the Gatling reports: the level at
+ * which throughput stops growing and p99 climbs is the concurrency ceiling for that mode.
+ *
+ *   1. Platform threads: SPRING_THREADS_VIRTUAL_ENABLED=false   (default)
+ *   2. Virtual threads:  SPRING_THREADS_VIRTUAL_ENABLED=true
+ *
+ * Alongside the report, compare jvm_threads_live_threads and jvm_memory_used_bytes{area="heap"} from
+ * /actuator/prometheus, and check app_threads_virtual_pinned_seconds_count stays flat in virtual mode.
+ *
+ * Run with:
+ *   THREAD_MODE=virtual ./gradlew gatlingRun-simulation.VirtualThreadConcurrencyLoad
+ *
+ * Environment variables:
+ *   GATEWAY_BASE_URL - Base URL of the gateway (default: http://localhost:8080)
+ *   THREAD_MODE - Label for the run, shown in the scenario name (default: unspecified)
+ *   BENCH_START_USERS - Concurrent users at the first level (default: 100)
+ *   BENCH_USER_STEP - Users added per level (default: 100)
+ *   BENCH_LEVELS - Number of levels after the first (default: 7)
+ *   BENCH_LEVEL_SECONDS - Duration of each level (default: 60)
+ */
+class VirtualThreadConcurrencyLoad extends Simulation {
+
+  val host = sys.env.getOrElse("GATEWAY_BASE_URL", "http://localhost:8080")
+  val threadMode = sys.env.getOrElse("THREAD_MODE", "unspecified")
+  val startUsers = sys.env.getOrElse("BENCH_START_USERS", "100").toInt
+  val userStep = sys.env.getOrElse("BENCH_USER_STEP", "100").toInt
+  val levels = sys.env.getOrElse("BENCH_LEVELS", "7").toInt
+  val levelSeconds = sys.env.getOrElse("BENCH_LEVEL_SECONDS", "60").toInt
+
+  val httpProtocol = http
+    .baseUrl(host)
+    .acceptHeader("application/json")
+    .contentTypeHeader("application/json")
+    .userAgentHeader("GrowWithFreya/1.0.0 (NFT Virtual Thread Benchmark)")
+    .shareConnections
+
+  val firestoreBound = scenario(s"Virtual thread concurrency [$threadMode]")
+    .forever(
+      exec(
+        http("list_stories")
+          .get("/api/stories")
+          .headers(PublicApiScenario.authHeaders)
+          .check(status.is(200))
+      ).exec(
+        http("get_profile")
+          .get("/api/profile")
+          .headers(PublicApiScenario.authHeaders)
+          .check(status.in(200, 404))
+      ).exec(
+        http("get_stories_version")
+          .get("/api/stories/version")
+          .headers(PublicApiScenario.authHeaders)
+          .check(status.is(200))
+      )
+    )
+
+  setUp(
+    firestoreBound.inject(
+      incrementConcurrentUsers(userStep)
+        .times(levels)
+        .eachLevelLasting(levelSeconds seconds)
+        .separatedByRampsLasting(10 seconds)
+        .startingFrom(startUsers)
+    )
+  ).protocols(httpProtocol)
+    .assertions(
+      forAll.successfulRequests.percent.gte(99)
+    )
+}
@@ -20,7 +20,9 @@ import scala.language.postfixOps
  * 4. Continues the load test (recovery phase)
  *
  * Expected behavior:
- * - During Firestore downtime: 503 Service Unavailable or 500 errors
+ * - During Firestore downtime: 503 Service Unavailable or 500 errors; once the adaptive concurrency
+ *   limit has backed off, excess catalog requests are shed fast with 503 + Retry-After (GTW-509)
+ *   while delta sync keeps its share
  * - After Firestore recovery: Normal 200 responses
  * - No crashes or connection hangs
  *